@@ -63,9 +63,6 @@ public class CognitoIdentityConnectionBuilder {
   public CognitoIdentityConnectionBuilder(final String cognitoClientId,
       final String cognitoUserPoolId, final String cognitoIdentityPoolId) {
 
-    System.setProperty("software.amazon.awssdk.http.service.impl",
-        "software.amazon.awssdk.http.urlconnection.UrlConnectionSdkHttpService");
-
     this.clientBuilder =
         CognitoIdentityClient.builder().httpClientBuilder(UrlConnectionHttpClient.builder())
             .credentialsProvider(AnonymousCredentialsProvider.create());
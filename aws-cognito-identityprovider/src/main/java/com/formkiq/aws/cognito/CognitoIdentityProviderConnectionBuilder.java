@@ -25,6 +25,7 @@ package com.formkiq.aws.cognito;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import com.formkiq.module.lambdaservices.AwsHttpClientConfig;
 import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.ProfileCredentialsProvider;
@@ -63,9 +64,6 @@ public class CognitoIdentityProviderConnectionBuilder {
     this.clientId = cognitoClientId;
     this.userPoolId = cognitoUserPoolId;
 
-    System.setProperty("software.amazon.awssdk.http.service.impl",
-        "software.amazon.awssdk.http.urlconnection.UrlConnectionSdkHttpService");
-
     this.providerBuilder =
         CognitoIdentityProviderClient.builder().httpClientBuilder(UrlConnectionHttpClient.builder())
             .credentialsProvider(AnonymousCredentialsProvider.create());
@@ -141,6 +139,19 @@ public class CognitoIdentityProviderConnectionBuilder {
     return this;
   }
 
+  /**
+   * Set {@link AwsHttpClientConfig}.
+   * 
+   * @param config {@link AwsHttpClientConfig}
+   * @return {@link CognitoIdentityProviderConnectionBuilder}
+   */
+  public CognitoIdentityProviderConnectionBuilder setHttpClientConfig(
+      final AwsHttpClientConfig config) {
+    this.providerBuilder = this.providerBuilder.httpClientBuilder(config.httpClientBuilder())
+        .overrideConfiguration(config.overrideConfiguration().build());
+    return this;
+  }
+
   /**
    * Set Region.
    * 
@@ -58,7 +58,8 @@ public class CognitoIdentityProviderServiceExtension
 
       CognitoIdentityProviderConnectionBuilder connection =
           new CognitoIdentityProviderConnectionBuilder(cognitoClientId, cognitoUserPoolId)
-              .setRegion(serviceCache.region()).setCredentials(cred);
+              .setRegion(serviceCache.region()).setCredentials(cred)
+              .setHttpClientConfig(serviceCache.httpClientConfig());
 
       this.service = new CognitoIdentityProviderService(connection);
     }
@@ -30,6 +30,8 @@ import java.util.Map;
  */
 public class BatchGetConfig {
 
+  /** Strongly consistent read. */
+  private Boolean consistentRead;
   /** {@link Map}. */
   private Map<String, String> expressionAttributeNames;
   /** Projection Expression. */
@@ -42,6 +44,26 @@ public class BatchGetConfig {
 
   }
 
+  /**
+   * Get Strongly consistent read.
+   * 
+   * @return {@link Boolean}
+   */
+  public Boolean consistentRead() {
+    return this.consistentRead;
+  }
+
+  /**
+   * Set Strongly consistent read.
+   * 
+   * @param consistent {@link Boolean}
+   * @return {@link BatchGetConfig}
+   */
+  public BatchGetConfig consistentRead(final Boolean consistent) {
+    this.consistentRead = consistent;
+    return this;
+  }
+
   /**
    * Get Expression Attribute Names.
    * 
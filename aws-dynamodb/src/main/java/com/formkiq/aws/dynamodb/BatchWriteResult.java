@@ -0,0 +1,125 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb;
+
+/**
+ * 
+ * Statistics of a {@link WriteRequestBuilder} batch write.
+ *
+ */
+public class BatchWriteResult {
+
+  /** Number of BatchWriteItem requests sent. */
+  private int requests;
+  /** Number of retries of unprocessed items. */
+  private int retries;
+  /** Number of throttled requests. */
+  private int throttles;
+
+  /**
+   * constructor.
+   */
+  public BatchWriteResult() {
+
+  }
+
+  /**
+   * Add the counts of another {@link BatchWriteResult}.
+   * 
+   * @param result {@link BatchWriteResult}
+   * @return {@link BatchWriteResult}
+   */
+  public BatchWriteResult add(final BatchWriteResult result) {
+    this.requests += result.requests;
+    this.retries += result.retries;
+    this.throttles += result.throttles;
+    return this;
+  }
+
+  /**
+   * Increment the number of BatchWriteItem requests.
+   * 
+   * @return {@link BatchWriteResult}
+   */
+  public BatchWriteResult incrementRequests() {
+    this.requests++;
+    return this;
+  }
+
+  /**
+   * Increment the number of retries.
+   * 
+   * @return {@link BatchWriteResult}
+   */
+  public BatchWriteResult incrementRetries() {
+    this.retries++;
+    return this;
+  }
+
+  /**
+   * Increment the number of throttles.
+   * 
+   * @return {@link BatchWriteResult}
+   */
+  public BatchWriteResult incrementThrottles() {
+    this.throttles++;
+    return this;
+  }
+
+  /**
+   * Was anything written.
+   * 
+   * @return boolean
+   */
+  public boolean isWrite() {
+    return this.requests > 0;
+  }
+
+  /**
+   * Get the number of BatchWriteItem requests sent.
+   * 
+   * @return int
+   */
+  public int requests() {
+    return this.requests;
+  }
+
+  /**
+   * Get the number of retries of unprocessed items.
+   * 
+   * @return int
+   */
+  public int retries() {
+    return this.retries;
+  }
+
+  /**
+   * Get the number of throttled requests.
+   * 
+   * @return int
+   */
+  public int throttles() {
+    return this.throttles;
+  }
+}
@@ -67,6 +67,15 @@ public interface DbKeys {
   /** Global Secondary Index 2 Sort Key. */
   String GSI2_SK = GSI2 + SK;
 
+  /** Global Secondary Index 3, sortable typed tag values. */
+  String GSI3 = "GSI3";
+
+  /** Global Secondary Index 3 Primary Key. */
+  String GSI3_PK = GSI3 + PK;
+
+  /** Global Secondary Index 3 Sort Key. */
+  String GSI3_SK = GSI3 + SK;
+
   /** Config Partition Key Prefix. */
   String PREFIX_CONFIG = "configs" + TAG_DELIMINATOR;
 
@@ -96,6 +105,10 @@ public interface DbKeys {
   String PREFIX_TAG = "tag" + TAG_DELIMINATOR;
   /** TAGS Partition Keys Prefix. */
   String PREFIX_TAGS = "tags" + TAG_DELIMINATOR;
+  /** Tag Value Counts Partition Key Prefix. */
+  String PREFIX_TAG_COUNTS = "tagcounts" + TAG_DELIMINATOR;
+  /** Folder Aggregates Partition Key Prefix. */
+  String PREFIX_FOLDER_AGGREGATES = "folderaggs" + TAG_DELIMINATOR;
   /** Webhooks Partition Key Prefix. */
   String PREFIX_WEBHOOK = "webhook" + TAG_DELIMINATOR;
   /** Webhooks Partition Key Prefix. */
@@ -182,6 +195,8 @@ public interface DbKeys {
       index = GSI1;
     } else if (pk.startsWith(GSI2)) {
       index = GSI2;
+    } else if (pk.startsWith(GSI3)) {
+      index = GSI3;
     }
 
     return index;
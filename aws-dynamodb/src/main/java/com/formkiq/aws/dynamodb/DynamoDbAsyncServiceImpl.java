@@ -0,0 +1,418 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb;
+
+import static com.formkiq.aws.dynamodb.DbKeys.PK;
+import static com.formkiq.aws.dynamodb.DbKeys.SK;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import com.formkiq.aws.dynamodb.objects.Objects;
+import com.formkiq.aws.dynamodb.objects.Strings;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValueUpdate;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.RequestLimitExceededException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+/**
+ * 
+ * Implementation of {@link DynamoDbAsyncService}.
+ *
+ */
+public class DynamoDbAsyncServiceImpl implements DynamoDbAsyncService {
+
+  /** Maximum number of keys in a BatchGetItem request. */
+  private static final int MAX_BATCH_GET_SIZE = 100;
+  /** Maximum number of items in a BatchWriteItem request. */
+  private static final int MAX_BATCH_WRITE_SIZE = 25;
+
+  /** {@link DynamoDbAsyncClient}. */
+  private DynamoDbAsyncClient dbClient;
+  /** {@link ReadConsistency} that overrides the {@link QueryConfig} one, if set. */
+  private ReadConsistency readConsistencyOverride;
+  /** Table Name. */
+  private String tableName;
+
+  /**
+   * constructor.
+   * 
+   * @param client {@link DynamoDbAsyncClient}
+   * @param dynamoDbTableName {@link String}
+   */
+  public DynamoDbAsyncServiceImpl(final DynamoDbAsyncClient client,
+      final String dynamoDbTableName) {
+    if (dynamoDbTableName == null) {
+      throw new IllegalArgumentException("Table name is null");
+    }
+
+    this.dbClient = client;
+    this.tableName = dynamoDbTableName;
+  }
+
+  /**
+   * constructor.
+   * 
+   * @param connection {@link DynamoDbConnectionBuilder}
+   * @param dynamoDbTableName {@link String}
+   */
+  public DynamoDbAsyncServiceImpl(final DynamoDbConnectionBuilder connection,
+      final String dynamoDbTableName) {
+    this(connection.buildAsync(), dynamoDbTableName);
+    this.readConsistencyOverride = connection.getReadConsistency();
+  }
+
+  /**
+   * Send {@link WriteRequest} in batches of 25, all batches are sent concurrently and any
+   * unprocessed items are retried with a jittered exponential backoff.
+   * 
+   * @param writes {@link List} {@link WriteRequest}
+   * @return {@link CompletableFuture}
+   */
+  private CompletableFuture<Void> batchWrite(final List<WriteRequest> writes) {
+
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+    for (List<WriteRequest> list : Objects.parition(writes, MAX_BATCH_WRITE_SIZE)) {
+      futures.add(writeBatch(Map.of(this.tableName, list), 0));
+    }
+
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+  }
+
+  @Override
+  public CompletableFuture<Boolean> deleteItem(final AttributeValue pk, final AttributeValue sk) {
+    Map<String, AttributeValue> sourceKey = Map.of(PK, pk, SK, sk);
+    return this.dbClient
+        .deleteItem(DeleteItemRequest.builder().tableName(this.tableName).key(sourceKey)
+            .returnValues(ReturnValue.ALL_OLD).build())
+        .thenApply(r -> Boolean.valueOf(!r.attributes().isEmpty()));
+  }
+
+  @Override
+  public CompletableFuture<Boolean> deleteItems(
+      final Collection<Map<String, AttributeValue>> attrs) {
+
+    List<WriteRequest> writes = attrs.stream().map(
+        a -> WriteRequest.builder().deleteRequest(DeleteRequest.builder().key(a).build()).build())
+        .collect(Collectors.toList());
+
+    return batchWrite(writes).thenApply(v -> Boolean.valueOf(!writes.isEmpty()));
+  }
+
+  @Override
+  public CompletableFuture<Boolean> exists(final AttributeValue pk, final AttributeValue sk) {
+    return exists(new QueryConfig(), pk, sk);
+  }
+
+  @Override
+  public CompletableFuture<Boolean> exists(final QueryConfig config, final AttributeValue pk,
+      final AttributeValue sk) {
+    QueryConfig keyOnly =
+        new QueryConfig().projectionExpression("PK").readConsistency(config.readConsistency());
+    return get(keyOnly, pk, sk).thenApply(i -> Boolean.valueOf(!i.isEmpty()));
+  }
+
+  @Override
+  public CompletableFuture<Map<String, AttributeValue>> get(final AttributeValue pk,
+      final AttributeValue sk) {
+    return get(new QueryConfig(), pk, sk);
+  }
+
+  @Override
+  public CompletableFuture<Map<String, AttributeValue>> get(final QueryConfig config,
+      final AttributeValue pk, final AttributeValue sk) {
+
+    ReadConsistency consistency =
+        ReadConsistency.resolve(this.readConsistencyOverride, config.readConsistency());
+
+    return getItem(config, pk, sk, consistency.isStrong()).thenCompose(
+        item -> item.isEmpty() && consistency.isFallback() ? getItem(config, pk, sk, true)
+            : CompletableFuture.completedFuture(item));
+  }
+
+  @Override
+  public CompletableFuture<List<Map<String, AttributeValue>>> getBatch(final BatchGetConfig config,
+      final List<Map<String, AttributeValue>> keys) {
+
+    List<CompletableFuture<List<Map<String, AttributeValue>>>> futures = new ArrayList<>();
+
+    for (List<Map<String, AttributeValue>> list : Objects.parition(keys, MAX_BATCH_GET_SIZE)) {
+
+      KeysAndAttributes items =
+          KeysAndAttributes.builder().keys(list).projectionExpression(config.projectionExpression())
+              .expressionAttributeNames(config.expressionAttributeNames()).build();
+
+      futures.add(readBatch(Map.of(this.tableName, items), 0));
+    }
+
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+
+      Map<String, Map<String, AttributeValue>> data =
+          futures.stream().flatMap(f -> f.join().stream()).collect(
+              Collectors.toMap(l -> getKey(l), Function.identity(), (a, b) -> a, HashMap::new));
+
+      return keys.stream().map(k -> data.get(getKey(k))).filter(k -> k != null)
+          .collect(Collectors.toList());
+    });
+  }
+
+  /**
+   * Get Item.
+   * 
+   * @param config {@link QueryConfig}
+   * @param pk {@link AttributeValue}
+   * @param sk {@link AttributeValue}
+   * @param consistentRead boolean
+   * @return {@link CompletableFuture} {@link Map}
+   */
+  private CompletableFuture<Map<String, AttributeValue>> getItem(final QueryConfig config,
+      final AttributeValue pk, final AttributeValue sk, final boolean consistentRead) {
+    Map<String, AttributeValue> key = Map.of(PK, pk, SK, sk);
+    return this.dbClient.getItem(GetItemRequest.builder().tableName(this.tableName).key(key)
+        .projectionExpression(config.projectionExpression())
+        .expressionAttributeNames(config.expressionAttributeNames())
+        .consistentRead(Boolean.valueOf(consistentRead)).build()).thenApply(r -> r.item());
+  }
+
+  private String getKey(final Map<String, AttributeValue> attr) {
+    return attr.get(PK).s() + "#" + attr.get(SK).s();
+  }
+
+  @Override
+  public CompletableFuture<Boolean> moveItems(final Collection<Map<String, AttributeValue>> attrs,
+      final MoveAttributeFunction func) {
+
+    List<WriteRequest> writes = new ArrayList<>();
+
+    for (Map<String, AttributeValue> attr : attrs) {
+
+      Map<String, AttributeValue> newAttr = func.transform(attr);
+
+      Map<String, AttributeValue> key = Map.of(PK, attr.get(PK), SK, attr.get(SK));
+      writes.add(
+          WriteRequest.builder().deleteRequest(DeleteRequest.builder().key(key).build()).build());
+      writes.add(
+          WriteRequest.builder().putRequest(PutRequest.builder().item(newAttr).build()).build());
+    }
+
+    return batchWrite(writes).thenApply(v -> Boolean.valueOf(!writes.isEmpty()));
+  }
+
+  @Override
+  public CompletableFuture<Void> putItem(final Map<String, AttributeValue> attr) {
+    return this.dbClient
+        .putItem(PutItemRequest.builder().tableName(this.tableName).item(attr).build())
+        .thenApply(r -> null);
+  }
+
+  @Override
+  public CompletableFuture<Void> putItems(final List<Map<String, AttributeValue>> attrs) {
+    List<WriteRequest> writes = attrs.stream()
+        .map(a -> WriteRequest.builder().putRequest(PutRequest.builder().item(a).build()).build())
+        .collect(Collectors.toList());
+    return batchWrite(writes);
+  }
+
+  @Override
+  public CompletableFuture<QueryResponse> query(final AttributeValue pk,
+      final Map<String, AttributeValue> exclusiveStartKey, final int limit) {
+    String expression = PK + " = :pk";
+    Map<String, AttributeValue> values = Map.of(":pk", pk);
+    QueryRequest q =
+        QueryRequest.builder().tableName(this.tableName).keyConditionExpression(expression)
+            .expressionAttributeValues(values).scanIndexForward(Boolean.FALSE)
+            .exclusiveStartKey(exclusiveStartKey).limit(Integer.valueOf(limit)).build();
+
+    return this.dbClient.query(q);
+  }
+
+  @Override
+  public CompletableFuture<QueryResponse> queryBeginsWith(final QueryConfig config,
+      final AttributeValue pk, final AttributeValue sk,
+      final Map<String, AttributeValue> exclusiveStartKey, final int limit) {
+
+    String gsi = Strings.isEmpty(config.indexName()) ? "" : config.indexName();
+    String expression = gsi + PK + " = :pk and begins_with(" + gsi + SK + ",:sk)";
+
+    if (sk == null) {
+      expression = gsi + PK + " = :pk";
+    }
+
+    Map<String, AttributeValue> values =
+        sk != null ? Map.of(":pk", pk, ":sk", sk) : Map.of(":pk", pk);
+
+    QueryRequest q =
+        QueryRequest.builder().tableName(this.tableName).keyConditionExpression(expression)
+            .expressionAttributeValues(values).scanIndexForward(config.isScanIndexForward())
+            .projectionExpression(config.projectionExpression()).indexName(config.indexName())
+            .exclusiveStartKey(exclusiveStartKey).limit(Integer.valueOf(limit)).build();
+
+    return this.dbClient.query(q);
+  }
+
+  @Override
+  public CompletableFuture<QueryResponse> queryIndex(final String indexName,
+      final AttributeValue pk, final Map<String, AttributeValue> exclusiveStartKey,
+      final int limit) {
+
+    String expression = indexName + PK + " = :pk";
+    Map<String, AttributeValue> values = Map.of(":pk", pk);
+
+    QueryRequest q =
+        QueryRequest.builder().tableName(this.tableName).keyConditionExpression(expression)
+            .expressionAttributeValues(values).scanIndexForward(Boolean.FALSE).indexName(indexName)
+            .exclusiveStartKey(exclusiveStartKey).limit(Integer.valueOf(limit)).build();
+
+    return this.dbClient.query(q);
+  }
+
+  /**
+   * Read a single BatchGetItem request, retrying any unprocessed keys.
+   * 
+   * @param requestItems {@link Map}
+   * @param attempt int
+   * @return {@link CompletableFuture} {@link List}
+   */
+  private CompletableFuture<List<Map<String, AttributeValue>>> readBatch(
+      final Map<String, KeysAndAttributes> requestItems, final int attempt) {
+
+    if (attempt > DynamoDbBatchExecutor.MAX_RETRIES) {
+      return CompletableFuture.failedFuture(DynamoDbException.builder().message(
+          "unable to read unprocessed keys after " + DynamoDbBatchExecutor.MAX_RETRIES + " retries")
+          .build());
+    }
+
+    BatchGetItemRequest batchReq = BatchGetItemRequest.builder().requestItems(requestItems).build();
+
+    return DynamoDbBatchExecutor.delay(attempt)
+        .thenCompose(v -> this.dbClient.batchGetItem(batchReq)).handle((response, e) -> {
+
+          List<Map<String, AttributeValue>> items =
+              e == null ? response.responses().getOrDefault(this.tableName, Collections.emptyList())
+                  : Collections.emptyList();
+          Map<String, KeysAndAttributes> unprocessed =
+              e == null ? response.unprocessedKeys() : throttled(e, requestItems);
+
+          return unprocessed.isEmpty() ? CompletableFuture.completedFuture(items)
+              : readBatch(unprocessed, attempt + 1).thenApply(more -> {
+                List<Map<String, AttributeValue>> list = new ArrayList<>(items);
+                list.addAll(more);
+                return list;
+              });
+        }).thenCompose(Function.identity());
+  }
+
+  /**
+   * Returns the request items to retry when the {@link Throwable} is a throttling exception,
+   * otherwise rethrows it.
+   * 
+   * @param <T> Type of request items
+   * @param e {@link Throwable}
+   * @param requestItems T
+   * @return T
+   */
+  private static <T> T throttled(final Throwable e, final T requestItems) {
+
+    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+
+    if (!(cause instanceof ProvisionedThroughputExceededException)
+        && !(cause instanceof RequestLimitExceededException)) {
+      throw e instanceof CompletionException ? (CompletionException) e
+          : new CompletionException(cause);
+    }
+
+    return requestItems;
+  }
+
+  @Override
+  public CompletableFuture<Map<String, AttributeValue>> updateItem(final AttributeValue pk,
+      final AttributeValue sk, final Map<String, AttributeValueUpdate> updateValues) {
+    Map<String, AttributeValue> dbKey = Map.of(PK, pk, SK, sk);
+    return this.dbClient.updateItem(UpdateItemRequest.builder().tableName(this.tableName).key(dbKey)
+        .attributeUpdates(updateValues).build()).thenApply(r -> r.attributes());
+  }
+
+  @Override
+  public CompletableFuture<Map<String, AttributeValue>> updateValues(final AttributeValue pk,
+      final AttributeValue sk, final Map<String, AttributeValue> updateValues) {
+
+    Map<String, AttributeValueUpdate> values = new HashMap<>();
+    updateValues.forEach((key, value) -> {
+      values.put(key, AttributeValueUpdate.builder().value(value).build());
+    });
+
+    return updateItem(pk, sk, values);
+  }
+
+  /**
+   * Send a single BatchWriteItem request, retrying any unprocessed items.
+   * 
+   * @param requestItems {@link Map}
+   * @param attempt int
+   * @return {@link CompletableFuture}
+   */
+  private CompletableFuture<Void> writeBatch(final Map<String, List<WriteRequest>> requestItems,
+      final int attempt) {
+
+    if (attempt > DynamoDbBatchExecutor.MAX_RETRIES) {
+      int count = requestItems.values().stream().mapToInt(l -> l.size()).sum();
+      return CompletableFuture.failedFuture(DynamoDbException.builder().message("unable to write "
+          + count + " unprocessed items after " + DynamoDbBatchExecutor.MAX_RETRIES + " retries")
+          .build());
+    }
+
+    BatchWriteItemRequest batch =
+        BatchWriteItemRequest.builder().requestItems(requestItems).build();
+
+    return DynamoDbBatchExecutor.delay(attempt)
+        .thenCompose(v -> this.dbClient.batchWriteItem(batch))
+        .handle(
+            (response, e) -> e == null ? response.unprocessedItems() : throttled(e, requestItems))
+        .thenCompose(
+            unprocessed -> unprocessed.isEmpty() ? CompletableFuture.<Void>completedFuture(null)
+                : writeBatch(unprocessed, attempt + 1));
+  }
+}
@@ -24,28 +24,97 @@
 package com.formkiq.aws.dynamodb;
 
 import java.net.URI;
+import java.util.Locale;
 import java.util.Map;
+import com.formkiq.aws.dynamodb.memory.InMemoryDynamoDbClient;
+import com.formkiq.aws.dynamodb.metrics.DynamoDbMetricsSink;
+import com.formkiq.aws.dynamodb.metrics.EmfDynamoDbMetricsSink;
+import com.formkiq.aws.dynamodb.metrics.InMemoryDynamoDbMetricsSink;
+import com.formkiq.aws.dynamodb.objects.Strings;
 import com.formkiq.module.lambdaservices.AwsServiceCache;
 import com.formkiq.module.lambdaservices.AwsServiceRegistry;
+import com.formkiq.module.lambdaservices.ClassServiceExtension;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 
 /**
  * {@link AwsServiceRegistry} for DynamoDb.
+ * 
+ * Setting the environment variable "ENABLE_DYNAMODB_ASYNC" to "true" also registers the
+ * {@link DynamoDbAsyncService}. Setting "DYNAMODB_METRICS" to "emf" or "memory" registers a
+ * {@link DynamoDbMetricsSink} that records every DynamoDb call, "stats" only collects the
+ * statistics of each {@link com.formkiq.aws.dynamodb.metrics.DynamoDbOperation}, ie: for search
+ * explain. Without "DYNAMODB_METRICS" no consumed capacity is requested. Setting
+ * "DYNAMODB_IN_MEMORY" to "true" uses an {@link InMemoryDynamoDbClient} instead of connecting to
+ * DynamoDb. Setting "DYNAMODB_READ_CONSISTENCY" to a {@link ReadConsistency}, ie: "STRONG",
+ * overrides the read consistency of every read.
  */
 public class DynamoDbAwsServiceRegistry implements AwsServiceRegistry {
 
+  /** {@link InMemoryDynamoDbClient} shared by every {@link AwsServiceCache} in the JVM. */
+  private static final InMemoryDynamoDbClient IN_MEMORY_CLIENT = new InMemoryDynamoDbClient();
+
+  /**
+   * Create {@link DynamoDbMetricsSink}.
+   * 
+   * @param type {@link String} "emf" or "memory"
+   * @return {@link DynamoDbMetricsSink}
+   */
+  private DynamoDbMetricsSink createMetricsSink(final String type) {
+
+    DynamoDbMetricsSink sink = null;
+
+    if ("emf".equals(type)) {
+      sink = new EmfDynamoDbMetricsSink(System.out);
+    } else if ("memory".equals(type)) {
+      sink = new InMemoryDynamoDbMetricsSink();
+    }
+
+    return sink;
+  }
+
   @Override
   public void initService(final AwsServiceCache serviceCache,
       final Map<String, URI> awsServiceEndpoints,
       final AwsCredentialsProvider credentialsProvider) {
 
+    boolean inMemory = "true".equals(serviceCache.environment("DYNAMODB_IN_MEMORY"));
+
     DynamoDbConnectionBuilder db = new DynamoDbConnectionBuilder(serviceCache.enableXray())
         .setRegion(serviceCache.region()).setCredentials(credentialsProvider)
-        .setEndpointOverride(awsServiceEndpoints.get("dynamodb"));
+        .setHttpClientConfig(serviceCache.httpClientConfig());
+
+    // the "dynamodb" endpoint is not a URL in memory, ie: "--dynamodb-url memory"
+    if (!inMemory) {
+      db.setEndpointOverride(awsServiceEndpoints.get("dynamodb"));
+    }
+
+    String metrics = serviceCache.environment("DYNAMODB_METRICS");
+    db.setOperationStats("stats".equals(metrics));
+
+    DynamoDbMetricsSink metricsSink = createMetricsSink(metrics);
+    if (metricsSink != null) {
+      db.setMetricsSink(metricsSink);
+      serviceCache.register(DynamoDbMetricsSink.class,
+          new ClassServiceExtension<DynamoDbMetricsSink>(metricsSink));
+    }
+
+    String readConsistency = serviceCache.environment("DYNAMODB_READ_CONSISTENCY");
+    if (!Strings.isEmpty(readConsistency)) {
+      db.setReadConsistency(ReadConsistency.valueOf(readConsistency.toUpperCase(Locale.ROOT)));
+    }
+
+    if (inMemory) {
+      db.setDynamoDbClient(IN_MEMORY_CLIENT);
+    }
 
     db.initDbClient();
 
     serviceCache.register(DynamoDbConnectionBuilder.class,
         new DynamoDbConnectionBuilderExtension(db));
+
+    if (!inMemory && "true".equals(serviceCache.environment("ENABLE_DYNAMODB_ASYNC"))) {
+      db.initDbAsyncClient();
+      serviceCache.register(DynamoDbAsyncService.class, new DynamoDbAsyncServiceExtension());
+    }
   }
 }
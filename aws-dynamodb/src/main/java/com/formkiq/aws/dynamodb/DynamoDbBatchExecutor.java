@@ -0,0 +1,239 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import com.formkiq.aws.dynamodb.metrics.DynamoDbOperation;
+
+/**
+ * 
+ * Runs DynamoDb batch requests concurrently on a bounded, shared thread pool and provides the
+ * jittered exponential backoff used when retrying unprocessed items / keys.
+ *
+ */
+public final class DynamoDbBatchExecutor {
+
+  /** Max number of retries of unprocessed items / keys. */
+  public static final int MAX_RETRIES = 10;
+  /** Backoff Base Delay in milliseconds. */
+  private static final long BACKOFF_BASE_MS = 25;
+  /** Backoff Max Delay in milliseconds. */
+  private static final long BACKOFF_MAX_MS = 2000;
+  /** Max number of concurrent batch requests. */
+  private static final int MAX_CONCURRENCY = 8;
+  /** Shared {@link ExecutorService}. */
+  private static final ExecutorService EXECUTOR =
+      Executors.newFixedThreadPool(MAX_CONCURRENCY, new DaemonThreadFactory());
+
+  private DynamoDbBatchExecutor() {}
+
+  /**
+   * Sleep for a random delay between 0 and the exponential backoff of the attempt ("full jitter").
+   * 
+   * @param attempt int
+   */
+  public static void backoff(final int attempt) {
+    try {
+      Thread.sleep(backoffDelay(attempt));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Random delay in milliseconds between 0 and the exponential backoff of the attempt.
+   * 
+   * @param attempt int
+   * @return long
+   */
+  private static long backoffDelay(final int attempt) {
+    long max = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << Math.min(attempt, Integer.SIZE - 2));
+    return ThreadLocalRandom.current().nextLong(max + 1);
+  }
+
+  /**
+   * Non-blocking {@link #backoff(int)}, the returned {@link CompletableFuture} completes after the
+   * backoff delay of the attempt. Attempt 0 completes immediately.
+   * 
+   * @param attempt int
+   * @return {@link CompletableFuture}
+   */
+  public static CompletableFuture<Void> delay(final int attempt) {
+    return attempt > 0 ? CompletableFuture.runAsync(() -> {
+    }, CompletableFuture.delayedExecutor(backoffDelay(attempt), TimeUnit.MILLISECONDS))
+        : CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Run all {@link Supplier} and return their results in the same order. A single task, or tasks
+   * started from a pool thread, are run on the calling thread.
+   * 
+   * @param <T> Type of result
+   * @param tasks {@link List} {@link Supplier}
+   * @return {@link List}
+   */
+  public static <T> List<T> invokeAll(final List<Supplier<T>> tasks) {
+
+    List<T> results = new ArrayList<>();
+
+    if (tasks.size() == 1 || isPoolThread()) {
+      tasks.forEach(t -> results.add(t.get()));
+    } else if (!tasks.isEmpty()) {
+
+      DynamoDbOperation operation = DynamoDbOperation.currentOperation();
+      List<CompletableFuture<T>> futures =
+          tasks.stream().map(t -> CompletableFuture.supplyAsync(() -> run(operation, t), EXECUTOR))
+              .collect(Collectors.toList());
+
+      try {
+        for (CompletableFuture<T> future : futures) {
+          results.add(future.join());
+        }
+      } catch (CompletionException e) {
+        futures.forEach(f -> f.cancel(true));
+        throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * Whether the calling thread belongs to the shared pool. Tasks started from the pool are run
+   * inline, so a pool thread never waits on tasks queued behind it.
+   * 
+   * @return boolean
+   */
+  private static boolean isPoolThread() {
+    return Thread.currentThread() instanceof PoolThread;
+  }
+
+  /**
+   * Wait for the result of a {@link CompletableFuture} started by {@link #submit(Supplier)},
+   * rethrowing the {@link RuntimeException} of the task.
+   * 
+   * @param <T> Type of result
+   * @param future {@link CompletableFuture}
+   * @return T
+   */
+  public static <T> T join(final CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+    }
+  }
+
+  /**
+   * Start a {@link Supplier} in the background, as part of the caller's {@link DynamoDbOperation}.
+   * Called from a pool thread, the task is run inline.
+   * 
+   * @param <T> Type of result
+   * @param task {@link Supplier}
+   * @return {@link CompletableFuture}
+   */
+  public static <T> CompletableFuture<T> submit(final Supplier<T> task) {
+
+    CompletableFuture<T> future;
+
+    if (isPoolThread()) {
+      future = CompletableFuture.completedFuture(task.get());
+    } else {
+      DynamoDbOperation operation = DynamoDbOperation.currentOperation();
+      future = CompletableFuture.supplyAsync(() -> run(operation, task), EXECUTOR);
+    }
+
+    return future;
+  }
+
+  /**
+   * Run {@link Supplier} as part of the caller's {@link DynamoDbOperation}.
+   * 
+   * @param <T> Type of result
+   * @param operation {@link DynamoDbOperation}
+   * @param task {@link Supplier}
+   * @return T
+   */
+  private static <T> T run(final DynamoDbOperation operation, final Supplier<T> task) {
+
+    T result;
+
+    if (operation != null) {
+      DynamoDbOperation op = DynamoDbOperation.resume(operation);
+      try {
+        result = task.get();
+      } finally {
+        op.close();
+      }
+    } else {
+      result = task.get();
+    }
+
+    return result;
+  }
+
+  /**
+   * Daemon {@link ThreadFactory} so the pool never keeps the JVM alive.
+   */
+  private static final class DaemonThreadFactory implements ThreadFactory {
+
+    /** Thread Counter. */
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(final Runnable r) {
+      Thread t = new PoolThread(r, "dynamodb-batch-" + this.count.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    }
+  }
+
+  /**
+   * {@link Thread} of the shared pool.
+   */
+  private static final class PoolThread extends Thread {
+
+    /**
+     * constructor.
+     * 
+     * @param r {@link Runnable}
+     * @param name {@link String}
+     */
+    private PoolThread(final Runnable r, final String name) {
+      super(r, name);
+    }
+  }
+}
@@ -24,11 +24,18 @@
 package com.formkiq.aws.dynamodb;
 
 import java.net.URI;
+import com.formkiq.aws.dynamodb.metrics.DynamoDbMetricsInterceptor;
+import com.formkiq.aws.dynamodb.metrics.DynamoDbMetricsSink;
+import com.formkiq.aws.dynamodb.metrics.DynamoDbOperationStats;
+import com.formkiq.module.lambdaservices.AwsHttpClientConfig;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.ProfileCredentialsProvider;
 import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration.Builder;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClientBuilder;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
 
@@ -39,10 +46,24 @@ import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
  */
 public class DynamoDbConnectionBuilder {
 
+  /** {@link DynamoDbAsyncClientBuilder}. */
+  private DynamoDbAsyncClientBuilder asyncBuilder;
   /** {@link DynamoDbClientBuilder}. */
   private DynamoDbClientBuilder builder;
+  /** {@link ClientOverrideConfiguration.Builder}. */
+  private Builder clientConfig;
   /** {@link DynamoDbClient}. */
   private DynamoDbClient dbClient = null;
+  /** {@link DynamoDbAsyncClient}. */
+  private DynamoDbAsyncClient dbAsyncClient = null;
+  /** Whether the {@link DynamoDbMetricsInterceptor} was added to the client configuration. */
+  private boolean metricsInterceptor = false;
+  /** {@link DynamoDbMetricsSink}. */
+  private DynamoDbMetricsSink metricsSink = null;
+  /** Whether to collect {@link DynamoDbOperationStats} without a {@link DynamoDbMetricsSink}. */
+  private boolean operationStats = false;
+  /** {@link ReadConsistency} override for every read. */
+  private ReadConsistency readConsistency = null;
 
   /**
    * constructor.
@@ -50,15 +71,15 @@ public class DynamoDbConnectionBuilder {
    * @param enableAwsXray Enables AWS X-Ray
    */
   public DynamoDbConnectionBuilder(final boolean enableAwsXray) {
-    System.setProperty("software.amazon.awssdk.http.service.impl",
-        "software.amazon.awssdk.http.urlconnection.UrlConnectionSdkHttpService");
-    Builder clientConfig = ClientOverrideConfiguration.builder();
+    this.clientConfig = ClientOverrideConfiguration.builder();
 
     // if (enableAwsXray) {
     // clientConfig.addExecutionInterceptor(new TracingInterceptor());
     // }
 
-    this.builder = DynamoDbClient.builder().overrideConfiguration(clientConfig.build());
+    this.builder =
+        DynamoDbClient.builder().httpClientBuilder(new AwsHttpClientConfig().httpClientBuilder());
+    this.asyncBuilder = DynamoDbAsyncClient.builder();
   }
 
   /**
@@ -71,15 +92,69 @@ public class DynamoDbConnectionBuilder {
     return this.dbClient;
   }
 
+  /**
+   * Build {@link DynamoDbAsyncClient}, uses whichever async HTTP client (Netty / CRT) is on the
+   * classpath.
+   * 
+   * @return {@link DynamoDbAsyncClient}
+   */
+  public DynamoDbAsyncClient buildAsync() {
+    initDbAsyncClient();
+    return this.dbAsyncClient;
+  }
+
+  /**
+   * Build the {@link ClientOverrideConfiguration}. The {@link DynamoDbMetricsInterceptor} is only
+   * added when a {@link DynamoDbMetricsSink} is set or {@link DynamoDbOperationStats} are enabled.
+   * 
+   * @return {@link ClientOverrideConfiguration}
+   */
+  private ClientOverrideConfiguration buildClientConfig() {
+    if (!this.metricsInterceptor && (this.metricsSink != null || this.operationStats)) {
+      this.clientConfig = this.clientConfig
+          .addExecutionInterceptor(new DynamoDbMetricsInterceptor(this.metricsSink));
+      this.metricsInterceptor = true;
+    }
+    return this.clientConfig.build();
+  }
+
+  /**
+   * Get the {@link ReadConsistency} that overrides the per request {@link ReadConsistency}.
+   * 
+   * @return {@link ReadConsistency}, null when not set
+   */
+  public ReadConsistency getReadConsistency() {
+    return this.readConsistency;
+  }
+
+  /**
+   * Initializes the {@link DynamoDbAsyncClient}.
+   */
+  public void initDbAsyncClient() {
+    if (this.dbAsyncClient == null) {
+      this.dbAsyncClient = this.asyncBuilder.overrideConfiguration(buildClientConfig()).build();
+    }
+  }
+
   /**
    * Initializes the {@link DynamoDbClient}.
    */
   public void initDbClient() {
     if (this.dbClient == null) {
-      this.dbClient = this.builder.build();
+      this.dbClient = this.builder.overrideConfiguration(buildClientConfig()).build();
     }
   }
 
+  /**
+   * Whether DynamoDb calls are measured, either by a {@link DynamoDbMetricsSink} or as
+   * {@link DynamoDbOperationStats}. Without it no consumed capacity is requested.
+   * 
+   * @return boolean
+   */
+  public boolean isMetricsEnabled() {
+    return this.metricsSink != null || this.operationStats;
+  }
+
   /**
    * Set Credentials.
    * 
@@ -88,6 +163,7 @@ public class DynamoDbConnectionBuilder {
    */
   public DynamoDbConnectionBuilder setCredentials(final AwsCredentialsProvider cred) {
     this.builder = this.builder.credentialsProvider(cred);
+    this.asyncBuilder = this.asyncBuilder.credentialsProvider(cred);
     return this;
   }
 
@@ -112,6 +188,75 @@ public class DynamoDbConnectionBuilder {
    */
   public DynamoDbConnectionBuilder setEndpointOverride(final URI uri) {
     this.builder = this.builder.endpointOverride(uri);
+    this.asyncBuilder = this.asyncBuilder.endpointOverride(uri);
+    return this;
+  }
+
+  /**
+   * Set the {@link DynamoDbClient} to use instead of building one, for example an
+   * {@link com.formkiq.aws.dynamodb.memory.InMemoryDynamoDbClient}.
+   * 
+   * @param client {@link DynamoDbClient}
+   * @return {@link DynamoDbConnectionBuilder}
+   */
+  public DynamoDbConnectionBuilder setDynamoDbClient(final DynamoDbClient client) {
+    this.dbClient = client;
+    return this;
+  }
+
+  /**
+   * Set {@link AwsHttpClientConfig}.
+   * 
+   * @param config {@link AwsHttpClientConfig}
+   * @return {@link DynamoDbConnectionBuilder}
+   */
+  public DynamoDbConnectionBuilder setHttpClientConfig(final AwsHttpClientConfig config) {
+    this.builder = this.builder.httpClientBuilder(config.httpClientBuilder());
+    this.clientConfig = this.clientConfig.apiCallTimeout(config.apiCallTimeout())
+        .apiCallAttemptTimeout(config.apiCallAttemptTimeout());
+
+    SdkAsyncHttpClient.Builder<?> asyncHttpClient = config.asyncHttpClientBuilder();
+    if (asyncHttpClient != null) {
+      this.asyncBuilder = this.asyncBuilder.httpClientBuilder(asyncHttpClient);
+    }
+
+    return this;
+  }
+
+  /**
+   * Set {@link DynamoDbMetricsSink}, records consumed capacity, item counts, retries and latency of
+   * every DynamoDb call made by clients built afterwards.
+   * 
+   * @param sink {@link DynamoDbMetricsSink}
+   * @return {@link DynamoDbConnectionBuilder}
+   */
+  public DynamoDbConnectionBuilder setMetricsSink(final DynamoDbMetricsSink sink) {
+    this.metricsSink = sink;
+    return this;
+  }
+
+  /**
+   * Set whether to collect {@link DynamoDbOperationStats} (pages, items read and consumed capacity)
+   * of each {@link com.formkiq.aws.dynamodb.metrics.DynamoDbOperation}, without recording every
+   * call to a {@link DynamoDbMetricsSink}.
+   * 
+   * @param enabled boolean
+   * @return {@link DynamoDbConnectionBuilder}
+   */
+  public DynamoDbConnectionBuilder setOperationStats(final boolean enabled) {
+    this.operationStats = enabled;
+    return this;
+  }
+
+  /**
+   * Set the {@link ReadConsistency} used by every read, regardless of the {@link ReadConsistency}
+   * requested by the caller. For deployments that require strongly consistent reads.
+   * 
+   * @param consistency {@link ReadConsistency}
+   * @return {@link DynamoDbConnectionBuilder}
+   */
+  public DynamoDbConnectionBuilder setReadConsistency(final ReadConsistency consistency) {
+    this.readConsistency = consistency;
     return this;
   }
 
@@ -123,6 +268,7 @@ public class DynamoDbConnectionBuilder {
    */
   public DynamoDbConnectionBuilder setRegion(final Region region) {
     this.builder = this.builder.region(region);
+    this.asyncBuilder = this.asyncBuilder.region(region);
     return this;
   }
 }
@@ -63,6 +63,16 @@ public interface DynamoDbService {
    */
   boolean exists(AttributeValue pk, AttributeValue sk);
 
+  /**
+   * Whether Database Record Exists, read with the {@link QueryConfig} {@link ReadConsistency}.
+   * 
+   * @param config {@link QueryConfig}
+   * @param pk {@link AttributeValue}
+   * @param sk {@link AttributeValue}
+   * @return boolean
+   */
+  boolean exists(QueryConfig config, AttributeValue pk, AttributeValue sk);
+
   /**
    * Gets DynamoDB Record.
    * 
@@ -36,12 +36,10 @@ import com.formkiq.aws.dynamodb.objects.Strings;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValueUpdate;
-import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
 import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
-import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.PutRequest;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
@@ -59,6 +57,8 @@ public class DynamoDbServiceImpl implements DynamoDbService {
 
   /** {@link DynamoDbClient}. */
   private DynamoDbClient dbClient;
+  /** {@link ReadConsistency} that overrides the {@link QueryConfig} one, if set. */
+  private ReadConsistency readConsistencyOverride;
   /** Table Name. */
   private String tableName;
 
@@ -91,6 +91,7 @@ public class DynamoDbServiceImpl implements DynamoDbService {
 
     this.dbClient = connection.build();
     this.tableName = dynamoDbTableName;
+    this.readConsistencyOverride = connection.getReadConsistency();
   }
 
   @Override
@@ -121,10 +122,15 @@ public class DynamoDbServiceImpl implements DynamoDbService {
 
   @Override
   public boolean exists(final AttributeValue pk, final AttributeValue sk) {
-    GetItemRequest r = GetItemRequest.builder().key(Map.of(PK, pk, SK, sk))
-        .tableName(this.tableName).projectionExpression("PK").consistentRead(Boolean.TRUE).build();
-    GetItemResponse response = this.dbClient.getItem(r);
-    return !response.item().isEmpty();
+    return exists(new QueryConfig(), pk, sk);
+  }
+
+  @Override
+  public boolean exists(final QueryConfig config, final AttributeValue pk,
+      final AttributeValue sk) {
+    QueryConfig keyOnly =
+        new QueryConfig().projectionExpression("PK").readConsistency(config.readConsistency());
+    return !get(keyOnly, pk, sk).isEmpty();
   }
 
   @Override
@@ -135,11 +141,17 @@ public class DynamoDbServiceImpl implements DynamoDbService {
   @Override
   public Map<String, AttributeValue> get(final QueryConfig config, final AttributeValue pk,
       final AttributeValue sk) {
-    Map<String, AttributeValue> key = Map.of(PK, pk, SK, sk);
-    return this.dbClient.getItem(GetItemRequest.builder().tableName(this.tableName).key(key)
-        .projectionExpression(config.projectionExpression())
-        .expressionAttributeNames(config.expressionAttributeNames()).consistentRead(Boolean.TRUE)
-        .build()).item();
+
+    ReadConsistency consistency =
+        ReadConsistency.resolve(this.readConsistencyOverride, config.readConsistency());
+
+    Map<String, AttributeValue> item = getItem(config, pk, sk, consistency.isStrong());
+
+    if (item.isEmpty() && consistency.isFallback()) {
+      item = getItem(config, pk, sk, true);
+    }
+
+    return item;
   }
 
   @Override
@@ -157,19 +169,27 @@ public class DynamoDbServiceImpl implements DynamoDbService {
           builder.batchReadItems(this.dbClient, config);
 
       list = batchReadItems.get(this.tableName);
-
-      Map<String, Map<String, AttributeValue>> data =
-          list.stream().collect(Collectors.toMap(l -> getKey(l), l -> l));
-
-      list = keys.stream().map(k -> data.get(getKey(k))).filter(k -> k != null)
-          .collect(Collectors.toList());
     }
 
     return list;
   }
 
-  private String getKey(final Map<String, AttributeValue> attr) {
-    return attr.get(PK).s() + "#" + attr.get(SK).s();
+  /**
+   * Get Item.
+   * 
+   * @param config {@link QueryConfig}
+   * @param pk {@link AttributeValue}
+   * @param sk {@link AttributeValue}
+   * @param consistentRead boolean
+   * @return {@link Map}
+   */
+  private Map<String, AttributeValue> getItem(final QueryConfig config, final AttributeValue pk,
+      final AttributeValue sk, final boolean consistentRead) {
+    Map<String, AttributeValue> key = Map.of(PK, pk, SK, sk);
+    return this.dbClient.getItem(GetItemRequest.builder().tableName(this.tableName).key(key)
+        .projectionExpression(config.projectionExpression())
+        .expressionAttributeNames(config.expressionAttributeNames())
+        .consistentRead(Boolean.valueOf(consistentRead)).build()).item();
   }
 
   @Override
@@ -216,11 +236,7 @@ public class DynamoDbServiceImpl implements DynamoDbService {
   public void putItems(final List<Map<String, AttributeValue>> attrs) {
 
     if (!attrs.isEmpty()) {
-      Map<String, Collection<WriteRequest>> items =
-          new AttributeValuesToWriteRequests(this.tableName).apply(attrs);
-
-      BatchWriteItemRequest batch = BatchWriteItemRequest.builder().requestItems(items).build();
-      this.dbClient.batchWriteItem(batch);
+      new WriteRequestBuilder().appends(this.tableName, attrs).batchWriteItem(this.dbClient);
     }
   }
 
@@ -38,6 +38,8 @@ public class QueryConfig {
   private String indexName;
   /** Projection Expression. */
   private String projectionExpression;
+  /** {@link ReadConsistency}. */
+  private ReadConsistency readConsistency = ReadConsistency.STRONG;
   /** True - ASC, False - DESC. */
   private Boolean scanIndexForward = Boolean.FALSE;
 
@@ -117,6 +119,26 @@ public class QueryConfig {
     return this;
   }
 
+  /**
+   * Get {@link ReadConsistency}.
+   * 
+   * @return {@link ReadConsistency}
+   */
+  public ReadConsistency readConsistency() {
+    return this.readConsistency;
+  }
+
+  /**
+   * Set {@link ReadConsistency}, defaults to {@link ReadConsistency#STRONG}.
+   * 
+   * @param consistency {@link ReadConsistency}
+   * @return {@link QueryConfig}
+   */
+  public QueryConfig readConsistency(final ReadConsistency consistency) {
+    this.readConsistency = consistency;
+    return this;
+  }
+
   /**
    * Set Is ScanIndexForward.
    * 
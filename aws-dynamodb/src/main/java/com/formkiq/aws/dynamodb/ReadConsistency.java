@@ -0,0 +1,71 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb;
+
+/**
+ * 
+ * Read consistency of a DynamoDb GetItem request.
+ *
+ */
+public enum ReadConsistency {
+
+  /** Eventually consistent read. */
+  EVENTUAL,
+  /** Eventually consistent read, repeated as a strongly consistent read if no item is found. */
+  EVENTUAL_WITH_FALLBACK,
+  /** Strongly consistent read. */
+  STRONG;
+
+  /**
+   * Resolve the {@link ReadConsistency} to use, a non null override replaces the requested
+   * {@link ReadConsistency}.
+   * 
+   * @param override {@link ReadConsistency}
+   * @param requested {@link ReadConsistency}
+   * @return {@link ReadConsistency}
+   */
+  public static ReadConsistency resolve(final ReadConsistency override,
+      final ReadConsistency requested) {
+    ReadConsistency consistency = override != null ? override : requested;
+    return consistency != null ? consistency : STRONG;
+  }
+
+  /**
+   * Whether a read missing an item should be repeated as a strongly consistent read.
+   * 
+   * @return boolean
+   */
+  public boolean isFallback() {
+    return this == EVENTUAL_WITH_FALLBACK;
+  }
+
+  /**
+   * Whether the first read is strongly consistent.
+   * 
+   * @return boolean
+   */
+  public boolean isStrong() {
+    return this == STRONG;
+  }
+}
@@ -25,16 +25,23 @@ package com.formkiq.aws.dynamodb;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import com.formkiq.aws.dynamodb.objects.Objects;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
 import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.RequestLimitExceededException;
 import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
 
 /**
@@ -69,14 +76,16 @@ public class ReadRequestBuilder {
       Collection<Map<String, AttributeValue>> values = this.items.get(tableName);
       values.addAll(keys);
     } else {
-      this.items.put(tableName, new HashSet<>(keys));
+      this.items.put(tableName, new LinkedHashSet<>(keys));
     }
 
     return this;
   }
 
   /**
-   * Batch Read Items.
+   * Batch Read Items. Keys are sent in chunks of 100 concurrently, unprocessed keys are retried
+   * with a jittered exponential backoff and the results are returned in the order the keys were
+   * appended.
    * 
    * @param dbClient {@link DynamoDbClient}
    * @param config {@link BatchGetConfig}
@@ -89,56 +98,102 @@ public class ReadRequestBuilder {
 
     for (Map.Entry<String, Collection<Map<String, AttributeValue>>> e : this.items.entrySet()) {
 
-      if (e.getValue().size() > MAX_BATCH_SIZE) {
+      String tableName = e.getKey();
+      List<Map<String, AttributeValue>> keys = new ArrayList<>(e.getValue());
 
-        Collection<List<Map<String, AttributeValue>>> parition =
-            Objects.parition(new ArrayList<>(e.getValue()), MAX_BATCH_SIZE);
+      List<Supplier<List<Map<String, AttributeValue>>>> tasks = new ArrayList<>();
+      for (List<Map<String, AttributeValue>> list : Objects.parition(keys, MAX_BATCH_SIZE)) {
+        tasks.add(() -> batchReadItems(dbClient, tableName, config, list));
+      }
 
-        for (List<Map<String, AttributeValue>> list : parition) {
+      List<Map<String, AttributeValue>> values = DynamoDbBatchExecutor.invokeAll(tasks).stream()
+          .flatMap(l -> l.stream()).collect(Collectors.toList());
 
-          Map<String, List<Map<String, AttributeValue>>> values =
-              batchReadItems(dbClient, e.getKey(), config, list).responses();
+      map.put(tableName, sortByKeys(keys, values));
+    }
 
-          for (Map.Entry<String, List<Map<String, AttributeValue>>> ee : values.entrySet()) {
+    return map;
+  }
 
-            if (map.containsKey(ee.getKey())) {
-              map.get(ee.getKey()).addAll(ee.getValue());
-            } else {
-              map.put(ee.getKey(), new ArrayList<>(ee.getValue()));
-            }
-          }
-        }
+  private List<Map<String, AttributeValue>> batchReadItems(final DynamoDbClient dbClient,
+      final String tableName, final BatchGetConfig config,
+      final Collection<Map<String, AttributeValue>> keys) {
 
-      } else {
+    List<Map<String, AttributeValue>> list = new ArrayList<>();
+    Map<String, KeysAndAttributes> requestedItems = Map.of(tableName,
+        KeysAndAttributes.builder().keys(keys).projectionExpression(config.projectionExpression())
+            .expressionAttributeNames(config.expressionAttributeNames())
+            .consistentRead(config.consistentRead()).build());
+
+    for (int attempt = 0; !requestedItems.isEmpty(); attempt++) {
+
+      if (attempt > DynamoDbBatchExecutor.MAX_RETRIES) {
+        throw DynamoDbException.builder().message("unable to read unprocessed keys after "
+            + DynamoDbBatchExecutor.MAX_RETRIES + " retries").build();
+      }
+
+      if (attempt > 0) {
+        DynamoDbBatchExecutor.backoff(attempt);
+      }
+
+      try {
+        BatchGetItemRequest batchReq =
+            BatchGetItemRequest.builder().requestItems(requestedItems).build();
+        BatchGetItemResponse response = dbClient.batchGetItem(batchReq);
+
+        list.addAll(response.responses().getOrDefault(tableName, Collections.emptyList()));
+        requestedItems = response.unprocessedKeys();
 
-        BatchGetItemResponse response = batchReadItems(dbClient, e.getKey(), config, e.getValue());
-        if (response != null) {
-          map = response.responses();
-        } else {
-          map.put(e.getKey(), new ArrayList<>());
-        }
+      } catch (ProvisionedThroughputExceededException | RequestLimitExceededException e) {
+        // retry with backoff
       }
     }
 
-    return map;
+    return list;
   }
 
-  private BatchGetItemResponse batchReadItems(final DynamoDbClient dbClient, final String tableName,
-      final BatchGetConfig config, final Collection<Map<String, AttributeValue>> keys) {
+  /**
+   * Sort Items into the same order as the keys. Items that do not contain all the key attributes
+   * (ie: excluded by the projection expression) are appended at the end.
+   * 
+   * @param keys {@link List} {@link Map}
+   * @param values {@link List} {@link Map}
+   * @return {@link List} {@link Map}
+   */
+  private List<Map<String, AttributeValue>> sortByKeys(final List<Map<String, AttributeValue>> keys,
+      final List<Map<String, AttributeValue>> values) {
+
+    Map<Map<String, AttributeValue>, Map<String, AttributeValue>> byKey = new LinkedHashMap<>();
+    List<Map<String, AttributeValue>> unmatched = new ArrayList<>();
+
+    for (Map<String, AttributeValue> value : values) {
+      Map<String, AttributeValue> key = keys.isEmpty() ? null : toKey(keys.get(0).keySet(), value);
+      if (key != null) {
+        byKey.put(key, value);
+      } else {
+        unmatched.add(value);
+      }
+    }
 
-    BatchGetItemResponse batchResponse = null;
+    List<Map<String, AttributeValue>> list = keys.stream().map(k -> byKey.remove(k))
+        .filter(v -> v != null).collect(Collectors.toCollection(ArrayList::new));
+    list.addAll(byKey.values());
+    list.addAll(unmatched);
 
-    if (!keys.isEmpty()) {
-      Map<String, KeysAndAttributes> requestedItems = Map.of(tableName,
-          KeysAndAttributes.builder().keys(keys).projectionExpression(config.projectionExpression())
-              .expressionAttributeNames(config.expressionAttributeNames()).build());
+    return list;
+  }
+
+  private Map<String, AttributeValue> toKey(final Collection<String> keyNames,
+      final Map<String, AttributeValue> value) {
 
-      BatchGetItemRequest batchReq =
-          BatchGetItemRequest.builder().requestItems(requestedItems).build();
-      batchResponse = dbClient.batchGetItem(batchReq);
+    Map<String, AttributeValue> key = new HashMap<>();
+    for (String keyName : keyNames) {
+      if (value.containsKey(keyName)) {
+        key.put(keyName, value.get(keyName));
+      }
     }
 
-    return batchResponse;
+    return key.size() == keyNames.size() ? key : null;
   }
 
   /**
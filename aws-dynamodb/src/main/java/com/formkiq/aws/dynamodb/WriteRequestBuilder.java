@@ -26,15 +26,19 @@ package com.formkiq.aws.dynamodb;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.Supplier;
 import com.formkiq.aws.dynamodb.objects.Objects;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.RequestLimitExceededException;
 import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
 
 /**
@@ -147,29 +151,84 @@ public class WriteRequestBuilder {
    * @return boolean
    */
   public boolean batchWriteItem(final DynamoDbClient dbClient) {
+    return batchWrite(dbClient).isWrite();
+  }
 
-    boolean write = false;
+  /**
+   * Batch Write Items, chunks of 25 are sent concurrently and any unprocessed items are retried
+   * with a jittered exponential backoff.
+   * 
+   * @param dbClient {@link DynamoDbClient}
+   * @return {@link BatchWriteResult}
+   */
+  public BatchWriteResult batchWrite(final DynamoDbClient dbClient) {
+
+    List<Supplier<BatchWriteResult>> tasks = new ArrayList<>();
 
     Map<String, List<WriteRequest>> map = new HashMap<>(getItems());
 
     for (Map.Entry<String, List<WriteRequest>> e : map.entrySet()) {
 
-      Set<WriteRequest> wrs = new HashSet<>(e.getValue());
+      Set<WriteRequest> wrs = new LinkedHashSet<>(e.getValue());
       List<List<WriteRequest>> parition = Objects.parition(new ArrayList<>(wrs), MAX_BATCH_SIZE);
 
       for (List<WriteRequest> writelist : parition) {
 
         if (!writelist.isEmpty()) {
-          BatchWriteItemRequest batch =
-              BatchWriteItemRequest.builder().requestItems(Map.of(e.getKey(), writelist)).build();
-          dbClient.batchWriteItem(batch);
+          Map<String, List<WriteRequest>> requestItems = Map.of(e.getKey(), writelist);
+          tasks.add(() -> writeBatch(dbClient, requestItems));
+        }
+      }
+    }
+
+    BatchWriteResult result = new BatchWriteResult();
+    DynamoDbBatchExecutor.invokeAll(tasks).forEach(r -> result.add(r));
+    return result;
+  }
 
-          write = true;
+  /**
+   * Send a single BatchWriteItem request, retrying any unprocessed items.
+   * 
+   * @param dbClient {@link DynamoDbClient}
+   * @param requestItems {@link Map}
+   * @return {@link BatchWriteResult}
+   */
+  private BatchWriteResult writeBatch(final DynamoDbClient dbClient,
+      final Map<String, List<WriteRequest>> requestItems) {
+
+    BatchWriteResult result = new BatchWriteResult();
+    Map<String, List<WriteRequest>> unprocessed = requestItems;
+
+    for (int attempt = 0; !unprocessed.isEmpty(); attempt++) {
+
+      if (attempt > DynamoDbBatchExecutor.MAX_RETRIES) {
+        int count = unprocessed.values().stream().mapToInt(l -> l.size()).sum();
+        throw DynamoDbException.builder().message("unable to write " + count
+            + " unprocessed items after " + DynamoDbBatchExecutor.MAX_RETRIES + " retries").build();
+      }
+
+      if (attempt > 0) {
+        result.incrementRetries();
+        DynamoDbBatchExecutor.backoff(attempt);
+      }
+
+      try {
+
+        BatchWriteItemRequest batch =
+            BatchWriteItemRequest.builder().requestItems(unprocessed).build();
+        result.incrementRequests();
+        unprocessed = dbClient.batchWriteItem(batch).unprocessedItems();
+
+        if (!unprocessed.isEmpty()) {
+          result.incrementThrottles();
         }
+
+      } catch (ProvisionedThroughputExceededException | RequestLimitExceededException e) {
+        result.incrementThrottles();
       }
     }
 
-    return write;
+    return result;
   }
 
   /**
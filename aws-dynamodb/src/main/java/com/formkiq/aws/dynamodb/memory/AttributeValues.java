@@ -0,0 +1,250 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.memory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue.Type;
+
+/**
+ * 
+ * {@link AttributeValue} comparison and arithmetic following DynamoDb semantics.
+ *
+ */
+final class AttributeValues {
+
+  /** Scalar Types, which can be compared. */
+  private static final Set<Type> SCALARS = Set.of(Type.S, Type.N, Type.B);
+
+  /**
+   * Add Number or Set values.
+   * 
+   * @param current {@link AttributeValue}, may be null
+   * @param value {@link AttributeValue}
+   * @return {@link AttributeValue}
+   */
+  static AttributeValue add(final AttributeValue current, final AttributeValue value) {
+
+    AttributeValue result = value;
+
+    if (current != null && Type.N.equals(value.type())) {
+      result = ExpressionReader.toNumber(number(current).add(number(value)));
+    } else if (current != null) {
+      Set<Object> set = new LinkedHashSet<>(setValues(current));
+      set.addAll(setValues(value));
+      result = toSet(current.type(), set);
+    }
+
+    return result;
+  }
+
+  /**
+   * Compare two scalar {@link AttributeValue}.
+   * 
+   * @param a {@link AttributeValue}
+   * @param b {@link AttributeValue}
+   * @return int
+   */
+  static int compare(final AttributeValue a, final AttributeValue b) {
+
+    int c = a.type().compareTo(b.type());
+
+    if (c == 0) {
+      switch (a.type()) {
+        case S:
+          c = a.s().compareTo(b.s());
+          break;
+        case N:
+          c = number(a).compareTo(number(b));
+          break;
+        case B:
+          c = Arrays.compareUnsigned(a.b().asByteArray(), b.b().asByteArray());
+          break;
+        default:
+          c = a.equals(b) ? 0 : a.toString().compareTo(b.toString());
+          break;
+      }
+    }
+
+    return c;
+  }
+
+  /**
+   * Remove Set values.
+   * 
+   * @param current {@link AttributeValue}, may be null
+   * @param value {@link AttributeValue}
+   * @return {@link AttributeValue}, null if the set is empty
+   */
+  static AttributeValue delete(final AttributeValue current, final AttributeValue value) {
+
+    AttributeValue result = null;
+
+    if (current != null) {
+      Set<Object> set = new LinkedHashSet<>(setValues(current));
+      set.removeAll(setValues(value));
+      result = !set.isEmpty() ? toSet(current.type(), set) : null;
+    }
+
+    return result;
+  }
+
+  /**
+   * Whether two {@link AttributeValue} are equal, numbers are compared by value.
+   * 
+   * @param a {@link AttributeValue}
+   * @param b {@link AttributeValue}
+   * @return boolean
+   */
+  static boolean isEqual(final AttributeValue a, final AttributeValue b) {
+    boolean scalar = a.type().equals(b.type()) && SCALARS.contains(a.type());
+    return scalar ? compare(a, b) == 0 : a.equals(b);
+  }
+
+  /**
+   * Evaluate a comparison operator.
+   * 
+   * @param operator {@link String}
+   * @param a {@link AttributeValue}
+   * @param b {@link AttributeValue}
+   * @return boolean
+   */
+  static boolean matches(final String operator, final AttributeValue a, final AttributeValue b) {
+
+    boolean match;
+
+    if (a == null || b == null) {
+      match = "<>".equals(operator) && a != b;
+    } else if ("=".equals(operator) || "<>".equals(operator)) {
+      match = isEqual(a, b) == "=".equals(operator);
+    } else if (!a.type().equals(b.type()) || !SCALARS.contains(a.type())) {
+      match = false;
+    } else {
+      match = matches(operator, compare(a, b));
+    }
+
+    return match;
+  }
+
+  private static boolean matches(final String operator, final int c) {
+
+    boolean match;
+
+    switch (operator) {
+      case "<":
+        match = c < 0;
+        break;
+      case "<=":
+        match = c <= 0;
+        break;
+      case ">":
+        match = c > 0;
+        break;
+      case ">=":
+        match = c >= 0;
+        break;
+      default:
+        throw ExpressionReader.error("Invalid comparison operator " + operator);
+    }
+
+    return match;
+  }
+
+  private static BigDecimal number(final AttributeValue value) {
+    if (value.n() == null) {
+      throw ExpressionReader
+          .error("An operand in the update expression has an incorrect data type");
+    }
+    return new BigDecimal(value.n());
+  }
+
+  /**
+   * Get the values of a Set {@link AttributeValue}.
+   * 
+   * @param value {@link AttributeValue}
+   * @return {@link Collection}
+   */
+  static Collection<? extends Object> setValues(final AttributeValue value) {
+
+    Collection<? extends Object> values;
+
+    switch (value.type()) {
+      case SS:
+        values = value.ss();
+        break;
+      case NS:
+        values = value.ns();
+        break;
+      case BS:
+        values = value.bs();
+        break;
+      default:
+        values = Collections.emptyList();
+        break;
+    }
+
+    return values;
+  }
+
+  /**
+   * Subtract Number values.
+   * 
+   * @param a {@link AttributeValue}
+   * @param b {@link AttributeValue}
+   * @return {@link AttributeValue}
+   */
+  static AttributeValue subtract(final AttributeValue a, final AttributeValue b) {
+    return ExpressionReader.toNumber(number(a).subtract(number(b)));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static AttributeValue toSet(final Type type, final Set<Object> values) {
+
+    AttributeValue result;
+    List<Object> list = new ArrayList<>(values);
+
+    if (Type.SS.equals(type)) {
+      result = AttributeValue.fromSs((List<String>) (List<?>) list);
+    } else if (Type.NS.equals(type)) {
+      result = AttributeValue.fromNs((List<String>) (List<?>) list);
+    } else if (Type.BS.equals(type)) {
+      result = AttributeValue.fromBs((List<SdkBytes>) (List<?>) list);
+    } else {
+      throw ExpressionReader
+          .error("An operand in the update expression has an incorrect data type");
+    }
+
+    return result;
+  }
+
+  private AttributeValues() {}
+}
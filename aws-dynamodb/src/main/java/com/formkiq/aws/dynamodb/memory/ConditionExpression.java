@@ -0,0 +1,204 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * 
+ * Parses DynamoDb Condition / Filter Expressions into a {@link Predicate}.
+ *
+ * <p>
+ * Supports comparisons, BETWEEN, IN, AND / OR / NOT, parentheses and the attribute_exists,
+ * attribute_not_exists, attribute_type, begins_with, contains and size functions on top level
+ * attributes.
+ * </p>
+ */
+final class ConditionExpression {
+
+  /** Condition Functions. */
+  private static final Set<String> FUNCTIONS = Set.of("attribute_exists", "attribute_not_exists",
+      "attribute_type", "begins_with", "contains");
+
+  private static Predicate<Map<String, AttributeValue>> and(final ExpressionReader reader) {
+    Predicate<Map<String, AttributeValue>> p = not(reader);
+    while (reader.accept("and")) {
+      p = p.and(not(reader));
+    }
+    return p;
+  }
+
+  private static Predicate<Map<String, AttributeValue>> between(final ExpressionReader reader,
+      final Function<Map<String, AttributeValue>, AttributeValue> operand) {
+
+    Function<Map<String, AttributeValue>, AttributeValue> low = reader.operand();
+    reader.expect("and");
+    Function<Map<String, AttributeValue>, AttributeValue> high = reader.operand();
+
+    return i -> AttributeValues.matches(">=", operand.apply(i), low.apply(i))
+        && AttributeValues.matches("<=", operand.apply(i), high.apply(i));
+  }
+
+  private static Predicate<Map<String, AttributeValue>> comparison(final ExpressionReader reader) {
+
+    Predicate<Map<String, AttributeValue>> p;
+    Function<Map<String, AttributeValue>, AttributeValue> operand = reader.operand();
+    String operator = reader.next();
+
+    if ("between".equalsIgnoreCase(operator)) {
+      p = between(reader, operand);
+    } else if ("in".equalsIgnoreCase(operator)) {
+      p = in(reader, operand);
+    } else {
+      Function<Map<String, AttributeValue>, AttributeValue> other = reader.operand();
+      p = i -> AttributeValues.matches(operator, operand.apply(i), other.apply(i));
+    }
+
+    return p;
+  }
+
+  private static boolean contains(final AttributeValue value, final AttributeValue operand) {
+
+    boolean contains = false;
+
+    if (value != null && value.s() != null) {
+      contains = operand.s() != null && value.s().contains(operand.s());
+    } else if (value != null && value.hasL()) {
+      contains = value.l().stream().anyMatch(v -> AttributeValues.isEqual(v, operand));
+    } else if (value != null) {
+      contains = AttributeValues.setValues(value).contains(
+          operand.s() != null ? operand.s() : operand.n() != null ? operand.n() : operand.b());
+    }
+
+    return contains;
+  }
+
+  private static Predicate<Map<String, AttributeValue>> function(final ExpressionReader reader) {
+
+    Predicate<Map<String, AttributeValue>> p;
+    String function = reader.next().toLowerCase(Locale.ROOT);
+    reader.expect("(");
+    String name = reader.name(reader.next());
+
+    if ("attribute_exists".equals(function)) {
+      p = i -> i.containsKey(name);
+    } else if ("attribute_not_exists".equals(function)) {
+      p = i -> !i.containsKey(name);
+    } else {
+      reader.expect(",");
+      Function<Map<String, AttributeValue>, AttributeValue> operand = reader.operand();
+
+      if ("begins_with".equals(function)) {
+        p = i -> i.get(name) != null && i.get(name).s() != null && operand.apply(i).s() != null
+            && i.get(name).s().startsWith(operand.apply(i).s());
+      } else if ("contains".equals(function)) {
+        p = i -> contains(i.get(name), operand.apply(i));
+      } else {
+        p = i -> i.get(name) != null && i.get(name).type().toString().equals(operand.apply(i).s());
+      }
+    }
+
+    reader.expect(")");
+    return p;
+  }
+
+  private static Predicate<Map<String, AttributeValue>> in(final ExpressionReader reader,
+      final Function<Map<String, AttributeValue>, AttributeValue> operand) {
+
+    List<Function<Map<String, AttributeValue>, AttributeValue>> values = new ArrayList<>();
+    reader.expect("(");
+
+    do {
+      values.add(reader.operand());
+    } while (reader.accept(","));
+
+    reader.expect(")");
+
+    return i -> values.stream()
+        .anyMatch(v -> AttributeValues.matches("=", operand.apply(i), v.apply(i)));
+  }
+
+  private static Predicate<Map<String, AttributeValue>> not(final ExpressionReader reader) {
+    return reader.accept("not") ? not(reader).negate() : primary(reader);
+  }
+
+  private static Predicate<Map<String, AttributeValue>> or(final ExpressionReader reader) {
+    Predicate<Map<String, AttributeValue>> p = and(reader);
+    while (reader.accept("or")) {
+      p = p.or(and(reader));
+    }
+    return p;
+  }
+
+  /**
+   * Parse Condition Expression.
+   * 
+   * @param expression {@link String}, null or blank matches every item
+   * @param names {@link Map}
+   * @param values {@link Map}
+   * @return {@link Predicate}
+   */
+  static Predicate<Map<String, AttributeValue>> parse(final String expression,
+      final Map<String, String> names, final Map<String, AttributeValue> values) {
+
+    Predicate<Map<String, AttributeValue>> p = i -> true;
+
+    if (expression != null && !expression.isBlank()) {
+      ExpressionReader reader = new ExpressionReader(expression, names, values);
+      p = or(reader);
+
+      if (reader.hasNext()) {
+        throw reader.invalid("unexpected token '" + reader.peek() + "'");
+      }
+    }
+
+    return p;
+  }
+
+  private static Predicate<Map<String, AttributeValue>> primary(final ExpressionReader reader) {
+
+    Predicate<Map<String, AttributeValue>> p;
+    String token = reader.peek();
+
+    if (reader.accept("(")) {
+      p = or(reader);
+      reader.expect(")");
+    } else if (token != null && FUNCTIONS.contains(token.toLowerCase(Locale.ROOT))) {
+      p = function(reader);
+    } else {
+      p = comparison(reader);
+    }
+
+    return p;
+  }
+
+  private ConditionExpression() {}
+}
@@ -0,0 +1,349 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.memory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+
+/**
+ * 
+ * Tokenizes a DynamoDb expression and reads names, values and operands from it.
+ *
+ */
+final class ExpressionReader {
+
+  /** Bad Request Status Code. */
+  private static final int BAD_REQUEST = 400;
+  /** Single character tokens. */
+  private static final String OPERATORS = "=<>+-(),";
+  /** Two character operators. */
+  private static final List<String> TWO_CHAR_OPERATORS = Arrays.asList("<=", ">=", "<>");
+
+  /**
+   * Create a ValidationException.
+   * 
+   * @param message {@link String}
+   * @return {@link DynamoDbException}
+   */
+  static DynamoDbException error(final String message) {
+    return (DynamoDbException) DynamoDbException.builder().message(message).statusCode(BAD_REQUEST)
+        .build();
+  }
+
+  private static boolean isNameChar(final char c) {
+    return !Character.isWhitespace(c) && OPERATORS.indexOf(c) < 0;
+  }
+
+  /**
+   * Get the top level attribute names of a Projection Expression.
+   * 
+   * @param expression {@link String}
+   * @param names {@link Map}
+   * @return {@link Set}, null if all attributes are projected
+   */
+  static Set<String> projection(final String expression, final Map<String, String> names) {
+
+    Set<String> attributes = null;
+
+    if (expression != null && !expression.isBlank()) {
+      attributes = new LinkedHashSet<>();
+      ExpressionReader reader = new ExpressionReader(expression, names, Collections.emptyMap());
+
+      do {
+        attributes.add(reader.name(reader.next()));
+      } while (reader.accept(","));
+    }
+
+    return attributes;
+  }
+
+  /**
+   * Convert Number to {@link AttributeValue}.
+   * 
+   * @param number {@link BigDecimal}
+   * @return {@link AttributeValue}
+   */
+  static AttributeValue toNumber(final BigDecimal number) {
+    return AttributeValue.fromN(number.stripTrailingZeros().toPlainString());
+  }
+
+  private static List<String> tokenize(final String expression) {
+
+    List<String> list = new ArrayList<>();
+    int i = 0;
+
+    while (i < expression.length()) {
+
+      char c = expression.charAt(i);
+      int start = i;
+
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (OPERATORS.indexOf(c) >= 0) {
+        boolean twoChars = i + 1 < expression.length()
+            && TWO_CHAR_OPERATORS.contains(expression.substring(i, i + 2));
+        i += twoChars ? 2 : 1;
+        list.add(expression.substring(start, i));
+      } else {
+        while (i < expression.length() && isNameChar(expression.charAt(i))) {
+          i++;
+        }
+        list.add(expression.substring(start, i));
+      }
+    }
+
+    return list;
+  }
+
+  /** Expression Attribute Names. */
+  private final Map<String, String> attributeNames;
+  /** Expression Attribute Values. */
+  private final Map<String, AttributeValue> attributeValues;
+  /** Expression. */
+  private final String expr;
+  /** Current token position. */
+  private int pos = 0;
+  /** Expression Tokens. */
+  private final List<String> tokens;
+
+  /**
+   * constructor.
+   * 
+   * @param expression {@link String}
+   * @param names {@link Map}
+   * @param values {@link Map}
+   */
+  ExpressionReader(final String expression, final Map<String, String> names,
+      final Map<String, AttributeValue> values) {
+    this.expr = expression;
+    this.attributeNames = names;
+    this.attributeValues = values;
+    this.tokens = tokenize(expression);
+  }
+
+  /**
+   * Consume the next token, if it matches.
+   * 
+   * @param token {@link String}
+   * @return boolean
+   */
+  boolean accept(final String token) {
+    boolean match = token.equalsIgnoreCase(peek());
+    if (match) {
+      this.pos++;
+    }
+    return match;
+  }
+
+  /**
+   * Create a ValidationException for this expression.
+   * 
+   * @param message {@link String}
+   * @return {@link DynamoDbException}
+   */
+  DynamoDbException invalid(final String message) {
+    return error("Invalid expression: " + message + " in '" + this.expr + "'");
+  }
+
+  /**
+   * Consume the next token, which must match.
+   * 
+   * @param token {@link String}
+   */
+  void expect(final String token) {
+    if (!accept(token)) {
+      throw invalid("expected '" + token + "' but found '" + peek() + "'");
+    }
+  }
+
+  /**
+   * Whether there are more tokens.
+   * 
+   * @return boolean
+   */
+  boolean hasNext() {
+    return this.pos < this.tokens.size();
+  }
+
+  /**
+   * Resolve an attribute name token.
+   * 
+   * @param token {@link String}
+   * @return {@link String}
+   */
+  String name(final String token) {
+
+    String name = token;
+    int nested = indexOfNested(token);
+    if (nested > 0) {
+      name = token.substring(0, nested);
+    }
+
+    if (name.startsWith("#")) {
+      String value = this.attributeNames != null ? this.attributeNames.get(name) : null;
+      if (value == null) {
+        throw invalid("undefined attribute name " + name);
+      }
+      name = value;
+    } else if (name.startsWith(":") || OPERATORS.contains(name)) {
+      throw invalid("expected attribute name but found '" + name + "'");
+    }
+
+    return name;
+  }
+
+  private int indexOfNested(final String token) {
+    int dot = token.indexOf('.');
+    int bracket = token.indexOf('[');
+    return dot < 0 || (bracket >= 0 && bracket < dot) ? bracket : dot;
+  }
+
+  /**
+   * Get the next token.
+   * 
+   * @return {@link String}
+   */
+  String next() {
+    if (!hasNext()) {
+      throw invalid("unexpected end of expression");
+    }
+    return this.tokens.get(this.pos++);
+  }
+
+  /**
+   * Read an operand: a value, an attribute path or a function ("size", "if_not_exists" or
+   * "list_append").
+   * 
+   * @return {@link Function}
+   */
+  Function<Map<String, AttributeValue>, AttributeValue> operand() {
+
+    Function<Map<String, AttributeValue>, AttributeValue> operand;
+    String token = next();
+    String function = token.toLowerCase(Locale.ROOT);
+
+    if ("(".equals(peek())
+        && Arrays.asList("size", "if_not_exists", "list_append").contains(function)) {
+      expect("(");
+      operand = function(function);
+      expect(")");
+    } else if (token.startsWith(":")) {
+      AttributeValue value = value(token);
+      operand = i -> value;
+    } else {
+      String name = name(token);
+      operand = i -> i.get(name);
+    }
+
+    return operand;
+  }
+
+  private Function<Map<String, AttributeValue>, AttributeValue> function(final String function) {
+
+    Function<Map<String, AttributeValue>, AttributeValue> operand;
+
+    if ("size".equals(function)) {
+      String name = name(next());
+      operand = i -> size(i.get(name));
+    } else {
+      Function<Map<String, AttributeValue>, AttributeValue> first = operand();
+      expect(",");
+      Function<Map<String, AttributeValue>, AttributeValue> second = operand();
+
+      if ("if_not_exists".equals(function)) {
+        operand = i -> first.apply(i) != null ? first.apply(i) : second.apply(i);
+      } else {
+        operand = i -> {
+          List<AttributeValue> list = new ArrayList<>(first.apply(i).l());
+          list.addAll(second.apply(i).l());
+          return AttributeValue.fromL(list);
+        };
+      }
+    }
+
+    return operand;
+  }
+
+  /**
+   * Get the next token without consuming it.
+   * 
+   * @return {@link String}, null at the end of the expression
+   */
+  String peek() {
+    return hasNext() ? this.tokens.get(this.pos) : null;
+  }
+
+  private AttributeValue size(final AttributeValue value) {
+
+    if (value == null) {
+      return null;
+    }
+
+    int size;
+
+    switch (value.type()) {
+      case S:
+        size = value.s().length();
+        break;
+      case B:
+        size = value.b().asByteArray().length;
+        break;
+      case L:
+        size = value.l().size();
+        break;
+      case M:
+        size = value.m().size();
+        break;
+      default:
+        size = AttributeValues.setValues(value).size();
+        break;
+    }
+
+    return AttributeValue.fromN(String.valueOf(size));
+  }
+
+  /**
+   * Resolve an attribute value token.
+   * 
+   * @param token {@link String}
+   * @return {@link AttributeValue}
+   */
+  AttributeValue value(final String token) {
+    AttributeValue value = this.attributeValues != null ? this.attributeValues.get(token) : null;
+    if (value == null) {
+      throw invalid("undefined attribute value " + token);
+    }
+    return value;
+  }
+}
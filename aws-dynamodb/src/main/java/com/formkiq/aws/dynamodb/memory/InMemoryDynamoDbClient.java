@@ -0,0 +1,548 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.memory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionCheck;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ListTablesRequest;
+import software.amazon.awssdk.services.dynamodb.model.ListTablesResponse;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ResourceInUseException;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.Select;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+/**
+ * 
+ * In memory implementation of the {@link DynamoDbClient} operations used by FormKiQ: table
+ * management, GetItem, PutItem, UpdateItem, DeleteItem (all with condition expressions), Query,
+ * Scan, BatchGetItem, BatchWriteItem and TransactWriteItems.
+ *
+ * <p>
+ * Tables are sorted partitions and Global Secondary Indexes (for example GSI1 / GSI2 created by
+ * {@link com.formkiq.aws.dynamodb.schema.DocumentSchema}) are maintained on every write with the
+ * index projection. Reads are strongly consistent. Combined with
+ * {@link com.formkiq.aws.dynamodb.DynamoDbServiceImpl} it provides an in memory
+ * {@link com.formkiq.aws.dynamodb.DynamoDbService}.
+ * </p>
+ *
+ */
+public class InMemoryDynamoDbClient implements DynamoDbClient {
+
+  /** Bad Request Status Code. */
+  private static final int BAD_REQUEST = 400;
+  /** Maximum number of keys in a BatchGetItem request. */
+  private static final int MAX_BATCH_GET = 100;
+  /** Maximum number of writes in a BatchWriteItem request. */
+  private static final int MAX_BATCH_WRITE = 25;
+  /** Maximum number of items in a TransactWriteItems request. */
+  private static final int MAX_TRANSACT_ITEMS = 100;
+
+  private static ConditionalCheckFailedException conditionalCheckFailed() {
+    return ConditionalCheckFailedException.builder().message("The conditional request failed")
+        .statusCode(BAD_REQUEST).build();
+  }
+
+  private static Map<String, AttributeValue> project(final Map<String, AttributeValue> item,
+      final Set<String> attributes) {
+    Map<String, AttributeValue> result = new HashMap<>(item);
+    if (attributes != null) {
+      result.keySet().retainAll(attributes);
+    }
+    return result;
+  }
+
+  private static Map<String, AttributeValue> returnValues(final ReturnValue returnValue,
+      final Map<String, AttributeValue> oldItem, final Map<String, AttributeValue> newItem) {
+
+    Map<String, AttributeValue> values = null;
+    Map<String, AttributeValue> old = oldItem != null ? oldItem : Collections.emptyMap();
+
+    if (ReturnValue.ALL_OLD.equals(returnValue)) {
+      values = oldItem;
+    } else if (ReturnValue.ALL_NEW.equals(returnValue)) {
+      values = newItem;
+    } else if (ReturnValue.UPDATED_OLD.equals(returnValue)
+        || ReturnValue.UPDATED_NEW.equals(returnValue)) {
+
+      Set<String> changed = new HashSet<>(old.keySet());
+      changed.addAll(newItem.keySet());
+      changed.removeIf(k -> Objects.equals(old.get(k), newItem.get(k)));
+
+      values = project(ReturnValue.UPDATED_OLD.equals(returnValue) ? old : newItem, changed);
+    }
+
+    return values;
+  }
+
+  private static Map<String, AttributeValue> startKey(final Map<String, AttributeValue> key) {
+    return key != null && !key.isEmpty() ? key : null;
+  }
+
+  /** {@link ReadWriteLock}. */
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  /** Tables by name. */
+  private final Map<String, InMemoryTable> tables = new HashMap<>();
+
+  /**
+   * constructor.
+   */
+  public InMemoryDynamoDbClient() {
+
+  }
+
+  @Override
+  public BatchGetItemResponse batchGetItem(final BatchGetItemRequest request) {
+
+    int count = request.requestItems().values().stream().mapToInt(k -> k.keys().size()).sum();
+    if (count > MAX_BATCH_GET) {
+      throw ExpressionReader.error("Too many items requested for the BatchGetItem call");
+    }
+
+    return locked(this.lock.readLock(), () -> {
+
+      Map<String, List<Map<String, AttributeValue>>> responses = new HashMap<>();
+
+      request.requestItems().forEach((tableName, keys) -> {
+        InMemoryTable table = table(tableName);
+        Set<String> projection = ExpressionReader.projection(keys.projectionExpression(),
+            keys.expressionAttributeNames());
+
+        responses.put(tableName, keys.keys().stream().map(table::get).filter(Objects::nonNull)
+            .map(i -> project(i, projection)).collect(Collectors.toList()));
+      });
+
+      return BatchGetItemResponse.builder().responses(responses).build();
+    });
+  }
+
+  @Override
+  public BatchWriteItemResponse batchWriteItem(final BatchWriteItemRequest request) {
+
+    int count = request.requestItems().values().stream().mapToInt(List::size).sum();
+    if (count > MAX_BATCH_WRITE) {
+      throw ExpressionReader.error("Too many items requested for the BatchWriteItem call");
+    }
+
+    return locked(this.lock.writeLock(), () -> {
+
+      request.requestItems().keySet().forEach(this::table);
+
+      request.requestItems().forEach((tableName, writes) -> {
+        InMemoryTable table = table(tableName);
+        writes.forEach(w -> {
+          if (w.putRequest() != null) {
+            table.put(w.putRequest().item());
+          } else {
+            table.delete(table.key(w.deleteRequest().key()));
+          }
+        });
+      });
+
+      return BatchWriteItemResponse.builder().build();
+    });
+  }
+
+  @Override
+  public void close() {
+    // tables are kept until this client is garbage collected
+  }
+
+  @Override
+  public CreateTableResponse createTable(final CreateTableRequest request) {
+    return locked(this.lock.writeLock(), () -> {
+
+      if (this.tables.containsKey(request.tableName())) {
+        throw ResourceInUseException.builder().message("Cannot create preexisting table")
+            .statusCode(BAD_REQUEST).build();
+      }
+
+      InMemoryTable table = new InMemoryTable(request);
+      this.tables.put(request.tableName(), table);
+      return CreateTableResponse.builder().tableDescription(table.describe()).build();
+    });
+  }
+
+  @Override
+  public DeleteItemResponse deleteItem(final DeleteItemRequest request) {
+    return locked(this.lock.writeLock(), () -> {
+
+      InMemoryTable table = table(request.tableName());
+      ItemWrite write =
+          new ItemWrite(table, table.key(request.key()),
+              ConditionExpression.parse(request.conditionExpression(),
+                  request.expressionAttributeNames(), request.expressionAttributeValues()),
+              c -> null);
+
+      Map<String, AttributeValue> old = write.checked().current;
+      write.apply();
+
+      return DeleteItemResponse.builder()
+          .attributes(returnValues(request.returnValues(), old, null)).build();
+    });
+  }
+
+  @Override
+  public DeleteTableResponse deleteTable(final DeleteTableRequest request) {
+    return locked(this.lock.writeLock(), () -> {
+      InMemoryTable table = table(request.tableName());
+      this.tables.remove(request.tableName());
+      return DeleteTableResponse.builder().tableDescription(table.describe()).build();
+    });
+  }
+
+  @Override
+  public DescribeTableResponse describeTable(final DescribeTableRequest request) {
+    return locked(this.lock.readLock(),
+        () -> DescribeTableResponse.builder().table(table(request.tableName()).describe()).build());
+  }
+
+  @Override
+  public GetItemResponse getItem(final GetItemRequest request) {
+    return locked(this.lock.readLock(), () -> {
+
+      InMemoryTable table = table(request.tableName());
+      Map<String, AttributeValue> item = table.get(table.key(request.key()));
+      Set<String> projection = ExpressionReader.projection(request.projectionExpression(),
+          request.expressionAttributeNames());
+
+      return GetItemResponse.builder().item(item != null ? project(item, projection) : null)
+          .build();
+    });
+  }
+
+  @Override
+  public ListTablesResponse listTables(final ListTablesRequest request) {
+    return locked(this.lock.readLock(),
+        () -> ListTablesResponse.builder().tableNames(new TreeSet<>(this.tables.keySet())).build());
+  }
+
+  private <T> T locked(final Lock l, final Supplier<T> supplier) {
+    l.lock();
+    try {
+      return supplier.get();
+    } finally {
+      l.unlock();
+    }
+  }
+
+  private List<Map<String, AttributeValue>> items(final InMemoryIndex.Page page,
+      final Set<String> projection, final Select select) {
+    return Select.COUNT.equals(select) ? Collections.emptyList()
+        : page.items().stream().map(i -> project(i, projection)).collect(Collectors.toList());
+  }
+
+  @Override
+  public PutItemResponse putItem(final PutItemRequest request) {
+    return locked(this.lock.writeLock(), () -> {
+
+      InMemoryTable table = table(request.tableName());
+      ItemWrite write = new ItemWrite(table, table.key(request.item()),
+          ConditionExpression.parse(request.conditionExpression(),
+              request.expressionAttributeNames(), request.expressionAttributeValues()),
+          c -> request.item());
+
+      Map<String, AttributeValue> old = write.checked().current;
+      write.apply();
+
+      return PutItemResponse.builder()
+          .attributes(returnValues(request.returnValues(), old, request.item())).build();
+    });
+  }
+
+  @Override
+  public QueryResponse query(final QueryRequest request) {
+    return locked(this.lock.readLock(), () -> {
+
+      Map<String, String> names = request.expressionAttributeNames();
+      Map<String, AttributeValue> values = request.expressionAttributeValues();
+
+      InMemoryIndex index = table(request.tableName()).index(request.indexName());
+      KeyCondition condition = KeyCondition.parse(request.keyConditionExpression(), names, values);
+      Predicate<Map<String, AttributeValue>> filter =
+          ConditionExpression.parse(request.filterExpression(), names, values);
+      boolean forward = !Boolean.FALSE.equals(request.scanIndexForward());
+
+      InMemoryIndex.Page page = index.query(condition, startKey(request.exclusiveStartKey()),
+          forward, request.limit(), filter);
+
+      Set<String> projection = ExpressionReader.projection(request.projectionExpression(), names);
+
+      return QueryResponse.builder().items(items(page, projection, request.select()))
+          .count(Integer.valueOf(page.items().size())).scannedCount(Integer.valueOf(page.scanned()))
+          .lastEvaluatedKey(page.lastKey()).build();
+    });
+  }
+
+  @Override
+  public ScanResponse scan(final ScanRequest request) {
+    return locked(this.lock.readLock(), () -> {
+
+      Map<String, String> names = request.expressionAttributeNames();
+      InMemoryIndex index = table(request.tableName()).index(request.indexName());
+      Predicate<Map<String, AttributeValue>> filter = ConditionExpression
+          .parse(request.filterExpression(), names, request.expressionAttributeValues());
+
+      InMemoryIndex.Page page =
+          index.scan(startKey(request.exclusiveStartKey()), request.limit(), filter);
+
+      Set<String> projection = ExpressionReader.projection(request.projectionExpression(), names);
+
+      return ScanResponse.builder().items(items(page, projection, request.select()))
+          .count(Integer.valueOf(page.items().size())).scannedCount(Integer.valueOf(page.scanned()))
+          .lastEvaluatedKey(page.lastKey()).build();
+    });
+  }
+
+  @Override
+  public String serviceName() {
+    return SERVICE_NAME;
+  }
+
+  private InMemoryTable table(final String tableName) {
+
+    InMemoryTable table = this.tables.get(tableName);
+
+    if (table == null) {
+      throw ResourceNotFoundException.builder()
+          .message("Cannot do operations on a non-existent table").statusCode(BAD_REQUEST).build();
+    }
+
+    return table;
+  }
+
+  private ItemWrite toItemWrite(final TransactWriteItem item) {
+
+    ItemWrite write;
+
+    if (item.put() != null) {
+      Put put = item.put();
+      InMemoryTable table = table(put.tableName());
+      write =
+          new ItemWrite(
+              table, table.key(put.item()), ConditionExpression.parse(put.conditionExpression(),
+                  put.expressionAttributeNames(), put.expressionAttributeValues()),
+              c -> put.item());
+
+    } else if (item.update() != null) {
+      Update update = item.update();
+      InMemoryTable table = table(update.tableName());
+      write = new ItemWrite(table, table.key(update.key()),
+          ConditionExpression.parse(update.conditionExpression(), update.expressionAttributeNames(),
+              update.expressionAttributeValues()),
+          c -> UpdateExpression.apply(c != null ? c : update.key(), update.updateExpression(),
+              update.expressionAttributeNames(), update.expressionAttributeValues()));
+
+    } else if (item.delete() != null) {
+      Delete delete = item.delete();
+      InMemoryTable table = table(delete.tableName());
+      write =
+          new ItemWrite(table, table.key(delete.key()),
+              ConditionExpression.parse(delete.conditionExpression(),
+                  delete.expressionAttributeNames(), delete.expressionAttributeValues()),
+              c -> null);
+
+    } else {
+      ConditionCheck check = item.conditionCheck();
+      InMemoryTable table = table(check.tableName());
+      write = new ItemWrite(table, table.key(check.key()),
+          ConditionExpression.parse(check.conditionExpression(), check.expressionAttributeNames(),
+              check.expressionAttributeValues()),
+          null);
+    }
+
+    return write;
+  }
+
+  @Override
+  public TransactWriteItemsResponse transactWriteItems(final TransactWriteItemsRequest request) {
+
+    if (request.transactItems().size() > MAX_TRANSACT_ITEMS) {
+      throw ExpressionReader.error("Member must have length less than or equal to 100");
+    }
+
+    return locked(this.lock.writeLock(), () -> {
+
+      List<ItemWrite> writes =
+          request.transactItems().stream().map(this::toItemWrite).collect(Collectors.toList());
+
+      Set<Object> keys = new HashSet<>();
+      if (!writes.stream().allMatch(w -> keys.add(List.of(w.table, w.key)))) {
+        throw ExpressionReader
+            .error("Transaction request cannot include multiple operations on one item");
+      }
+
+      List<CancellationReason> reasons = writes.stream()
+          .map(w -> CancellationReason.builder()
+              .code(w.isAllowed() ? "None" : "ConditionalCheckFailed").build())
+          .collect(Collectors.toList());
+
+      if (reasons.stream().anyMatch(r -> !"None".equals(r.code()))) {
+        throw TransactionCanceledException.builder()
+            .message("Transaction cancelled, please refer cancellation reasons for specific "
+                + "reasons "
+                + reasons.stream().map(CancellationReason::code).collect(Collectors.toList()))
+            .cancellationReasons(reasons).statusCode(BAD_REQUEST).build();
+      }
+
+      writes.forEach(ItemWrite::apply);
+      return TransactWriteItemsResponse.builder().build();
+    });
+  }
+
+  @Override
+  public UpdateItemResponse updateItem(final UpdateItemRequest request) {
+    return locked(this.lock.writeLock(), () -> {
+
+      InMemoryTable table = table(request.tableName());
+      Map<String, AttributeValue> key = table.key(request.key());
+
+      UnaryOperator<Map<String, AttributeValue>> change = request.updateExpression() != null
+          ? c -> UpdateExpression.apply(c != null ? c : key, request.updateExpression(),
+              request.expressionAttributeNames(), request.expressionAttributeValues())
+          : c -> UpdateExpression.apply(c != null ? c : key, request.attributeUpdates());
+
+      ItemWrite write =
+          new ItemWrite(table, key, ConditionExpression.parse(request.conditionExpression(),
+              request.expressionAttributeNames(), request.expressionAttributeValues()), change);
+
+      Map<String, AttributeValue> old = write.checked().current;
+      Map<String, AttributeValue> updated = write.apply();
+
+      return UpdateItemResponse.builder()
+          .attributes(returnValues(request.returnValues(), old, updated)).build();
+    });
+  }
+
+  /**
+   * A conditional write of a single item.
+   */
+  private static final class ItemWrite {
+
+    /** Change to the current item, returns null to delete; null for a condition check. */
+    private final UnaryOperator<Map<String, AttributeValue>> change;
+    /** Item Condition. */
+    private final Predicate<Map<String, AttributeValue>> condition;
+    /** Current item, null if it does not exist. */
+    private final Map<String, AttributeValue> current;
+    /** Item Key. */
+    private final Map<String, AttributeValue> key;
+    /** {@link InMemoryTable}. */
+    private final InMemoryTable table;
+
+    ItemWrite(final InMemoryTable itemTable, final Map<String, AttributeValue> itemKey,
+        final Predicate<Map<String, AttributeValue>> itemCondition,
+        final UnaryOperator<Map<String, AttributeValue>> itemChange) {
+      this.table = itemTable;
+      this.key = itemKey;
+      this.condition = itemCondition;
+      this.change = itemChange;
+      this.current = itemTable.get(itemKey);
+    }
+
+    /**
+     * Apply the change.
+     * 
+     * @return {@link Map}, the new item
+     */
+    Map<String, AttributeValue> apply() {
+
+      Map<String, AttributeValue> item = this.current;
+
+      if (this.change != null) {
+        item = this.change.apply(this.current);
+
+        if (item != null) {
+          this.table.put(item);
+        } else {
+          this.table.delete(this.key);
+        }
+      }
+
+      return item;
+    }
+
+    /**
+     * Check the condition.
+     * 
+     * @return {@link ItemWrite}
+     */
+    ItemWrite checked() {
+      if (!isAllowed()) {
+        throw conditionalCheckFailed();
+      }
+      return this;
+    }
+
+    boolean isAllowed() {
+      return this.condition.test(this.current != null ? this.current : Collections.emptyMap());
+    }
+  }
+}
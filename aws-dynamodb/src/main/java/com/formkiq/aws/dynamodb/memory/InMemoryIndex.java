@@ -0,0 +1,442 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+
+/**
+ * 
+ * Sorted in memory partitions of a DynamoDb table or Global Secondary Index.
+ *
+ * <p>
+ * Each partition is a {@link TreeMap} ordered by sort key; Global Secondary Index entries are
+ * additionally ordered by the table key so items with the same index key are kept.
+ * </p>
+ */
+final class InMemoryIndex {
+
+  /** Sentinel value sorting after every other value. */
+  private static final AttributeValue MAX = AttributeValue.builder().build();
+  /** {@link AttributeValue} {@link Comparator}. */
+  private static final Comparator<AttributeValue> VALUES = InMemoryIndex::compareValues;
+  /** Sort Key {@link Comparator}. */
+  private static final Comparator<List<AttributeValue>> KEYS = InMemoryIndex::compareKeys;
+
+  private static int compareKeys(final List<AttributeValue> a, final List<AttributeValue> b) {
+
+    int c = 0;
+    int len = Math.min(a.size(), b.size());
+
+    for (int i = 0; i < len && c == 0; i++) {
+      c = compareValues(a.get(i), b.get(i));
+    }
+
+    return c != 0 ? c : Integer.compare(a.size(), b.size());
+  }
+
+  private static int compareValues(final AttributeValue a, final AttributeValue b) {
+
+    int c;
+
+    if (a == MAX || b == MAX) {
+      c = a == b ? 0 : a == MAX ? 1 : -1;
+    } else {
+      c = AttributeValues.compare(a, b);
+    }
+
+    return c;
+  }
+
+  private static String keyName(final List<KeySchemaElement> keySchema, final KeyType type) {
+    return keySchema.stream().filter(k -> type.equals(k.keyType()))
+        .map(KeySchemaElement::attributeName).findFirst().orElse(null);
+  }
+
+  /** Number of items. */
+  private int count = 0;
+  /** Partition Key. */
+  private final String hashKey;
+  /** Index Name, null for the table. */
+  private final String name;
+  /** Partitions. */
+  private final NavigableMap<AttributeValue, Partition> partitions = new TreeMap<>(VALUES);
+  /** Projected Attributes, null for all attributes. */
+  private final Set<String> projection;
+  /** Sort Key. */
+  private final String rangeKey;
+  /** Table Key Attributes, empty for the table. */
+  private final List<String> tableKeys;
+
+  /**
+   * constructor.
+   * 
+   * @param indexName {@link String}, null for the table
+   * @param keySchema {@link List} {@link KeySchemaElement}
+   * @param tableKeySchema {@link List} {@link KeySchemaElement}, empty for the table
+   * @param indexProjection {@link Projection}
+   */
+  InMemoryIndex(final String indexName, final List<KeySchemaElement> keySchema,
+      final List<KeySchemaElement> tableKeySchema, final Projection indexProjection) {
+
+    this.name = indexName;
+    this.hashKey = keyName(keySchema, KeyType.HASH);
+    this.rangeKey = keyName(keySchema, KeyType.RANGE);
+    this.tableKeys = new ArrayList<>();
+
+    tableKeySchema.forEach(k -> this.tableKeys.add(k.attributeName()));
+
+    ProjectionType type =
+        indexProjection != null ? indexProjection.projectionType() : ProjectionType.ALL;
+
+    if (ProjectionType.ALL.equals(type)) {
+      this.projection = null;
+    } else {
+      this.projection = new HashSet<>();
+      this.projection.add(this.hashKey);
+      this.projection.addAll(this.tableKeys);
+
+      if (this.rangeKey != null) {
+        this.projection.add(this.rangeKey);
+      }
+
+      if (ProjectionType.INCLUDE.equals(type)) {
+        this.projection.addAll(indexProjection.nonKeyAttributes());
+      }
+    }
+  }
+
+  /**
+   * Get Number of items.
+   * 
+   * @return int
+   */
+  int count() {
+    return this.count;
+  }
+
+  /**
+   * Get item by key.
+   * 
+   * @param key {@link Map}
+   * @return {@link Map}, null if not found
+   */
+  Map<String, AttributeValue> get(final Map<String, AttributeValue> key) {
+    Partition partition = this.partitions.get(key.get(this.hashKey));
+    return partition != null ? partition.get(sortKey(key)) : null;
+  }
+
+  /**
+   * Whether the item has all the key attributes of this index.
+   * 
+   * @param item {@link Map}
+   * @return boolean
+   */
+  boolean isIndexed(final Map<String, AttributeValue> item) {
+    return item.get(this.hashKey) != null
+        && (this.rangeKey == null || item.get(this.rangeKey) != null);
+  }
+
+  /**
+   * Get the key attributes (index and table keys) of an item.
+   * 
+   * @param item {@link Map}
+   * @return {@link Map}
+   */
+  Map<String, AttributeValue> key(final Map<String, AttributeValue> item) {
+
+    List<String> names = new ArrayList<>();
+    names.add(this.hashKey);
+    names.add(this.rangeKey);
+    names.addAll(this.tableKeys);
+
+    Map<String, AttributeValue> key = new LinkedHashMap<>();
+
+    names.stream().filter(n -> n != null && item.containsKey(n))
+        .forEach(n -> key.put(n, item.get(n)));
+
+    return key;
+  }
+
+  /**
+   * Get Index Name.
+   * 
+   * @return {@link String}
+   */
+  String name() {
+    return this.name;
+  }
+
+  private Page page(final Iterator<Map<String, AttributeValue>> items,
+      final Predicate<Map<String, AttributeValue>> keyMatch, final Integer limit,
+      final Predicate<Map<String, AttributeValue>> filter) {
+
+    Page page = new Page();
+    boolean matched = false;
+    boolean done = false;
+
+    while (!done && items.hasNext()) {
+
+      Map<String, AttributeValue> item = items.next();
+
+      if (keyMatch.test(item)) {
+
+        matched = true;
+        page.scanned++;
+
+        if (filter.test(item)) {
+          page.items.add(item);
+        }
+
+        if (limit != null && page.scanned >= limit.intValue()) {
+          page.lastKey = key(item);
+          done = true;
+        }
+
+      } else {
+        done = matched;
+      }
+    }
+
+    return page;
+  }
+
+  /**
+   * Add item to the index.
+   * 
+   * @param item {@link Map}
+   */
+  void put(final Map<String, AttributeValue> item) {
+
+    if (isIndexed(item)) {
+
+      Map<String, AttributeValue> value = item;
+
+      if (this.projection != null) {
+        value = new HashMap<>(item);
+        value.keySet().retainAll(this.projection);
+        value = Collections.unmodifiableMap(value);
+      }
+
+      if (this.partitions.computeIfAbsent(item.get(this.hashKey), k -> new Partition())
+          .put(sortKey(item), value) == null) {
+        this.count++;
+      }
+    }
+  }
+
+  /**
+   * Query a partition.
+   * 
+   * @param condition {@link KeyCondition}
+   * @param startKey {@link Map}, null to start at the beginning
+   * @param forward boolean
+   * @param limit {@link Integer}, null for no limit
+   * @param filter {@link Predicate}
+   * @return {@link Page}
+   */
+  Page query(final KeyCondition condition, final Map<String, AttributeValue> startKey,
+      final boolean forward, final Integer limit,
+      final Predicate<Map<String, AttributeValue>> filter) {
+
+    AttributeValue hash = condition.hashValue(this.hashKey);
+    KeyCondition.Term term = condition.rangeTerm(this.hashKey, this.rangeKey);
+
+    Partition partition = this.partitions.get(hash);
+
+    if (partition == null) {
+      partition = new Partition();
+    }
+
+    NavigableMap<List<AttributeValue>, Map<String, AttributeValue>> view =
+        range(partition, term, forward);
+
+    if (startKey != null) {
+      view = view.tailMap(sortKey(startKey), false);
+    }
+
+    Predicate<Map<String, AttributeValue>> keyMatch =
+        term != null ? i -> term.matches(i.get(this.rangeKey)) : i -> true;
+
+    return page(view.values().iterator(), keyMatch, limit, filter);
+  }
+
+  private NavigableMap<List<AttributeValue>, Map<String, AttributeValue>> range(
+      final NavigableMap<List<AttributeValue>, Map<String, AttributeValue>> partition,
+      final KeyCondition.Term term, final boolean forward) {
+
+    NavigableMap<List<AttributeValue>, Map<String, AttributeValue>> view = partition;
+
+    if (forward) {
+      AttributeValue lower = term != null ? term.lower() : null;
+      if (lower != null) {
+        view = partition.tailMap(List.of(lower), true);
+      }
+    } else {
+      AttributeValue upper = term != null ? term.upper() : null;
+      if (upper != null) {
+        view = partition.headMap(List.of(upper, MAX), true);
+      }
+      view = view.descendingMap();
+    }
+
+    return view;
+  }
+
+  /**
+   * Remove item from the index.
+   * 
+   * @param item {@link Map}
+   */
+  void remove(final Map<String, AttributeValue> item) {
+
+    if (isIndexed(item)) {
+
+      AttributeValue hash = item.get(this.hashKey);
+      Partition partition = this.partitions.get(hash);
+
+      if (partition != null && partition.remove(sortKey(item)) != null) {
+        this.count--;
+
+        if (partition.isEmpty()) {
+          this.partitions.remove(hash);
+        }
+      }
+    }
+  }
+
+  /**
+   * Scan all partitions.
+   * 
+   * @param startKey {@link Map}, null to start at the beginning
+   * @param limit {@link Integer}, null for no limit
+   * @param filter {@link Predicate}
+   * @return {@link Page}
+   */
+  Page scan(final Map<String, AttributeValue> startKey, final Integer limit,
+      final Predicate<Map<String, AttributeValue>> filter) {
+
+    Iterator<Map<String, AttributeValue>> items;
+
+    if (startKey != null) {
+      AttributeValue hash = startKey.get(this.hashKey);
+      List<AttributeValue> sortKey = sortKey(startKey);
+      items = this.partitions.tailMap(hash, true).entrySet().stream()
+          .flatMap(e -> (compareValues(e.getKey(), hash) == 0 ? e.getValue().tailMap(sortKey, false)
+              : e.getValue()).values().stream())
+          .iterator();
+    } else {
+      items = this.partitions.values().stream().flatMap(p -> p.values().stream()).iterator();
+    }
+
+    return page(items, i -> true, limit, filter);
+  }
+
+  private List<AttributeValue> sortKey(final Map<String, AttributeValue> item) {
+
+    List<AttributeValue> key = new ArrayList<>();
+
+    if (this.rangeKey != null) {
+      key.add(item.get(this.rangeKey));
+    }
+
+    this.tableKeys.forEach(k -> key.add(item.get(k)));
+
+    if (key.contains(null)) {
+      throw ExpressionReader.error("The provided key element does not match the schema");
+    }
+
+    return key;
+  }
+
+  /**
+   * Items of a partition ordered by sort key.
+   */
+  private static final class Partition
+      extends TreeMap<List<AttributeValue>, Map<String, AttributeValue>> {
+
+    /** Serial Version UID. */
+    private static final long serialVersionUID = 1L;
+
+    Partition() {
+      super(KEYS);
+    }
+  }
+
+  /**
+   * A page of Query / Scan results.
+   */
+  static final class Page {
+
+    /** Matching Items. */
+    private final List<Map<String, AttributeValue>> items = new ArrayList<>();
+    /** Last Evaluated Key, null if there are no more items. */
+    private Map<String, AttributeValue> lastKey;
+    /** Number of items evaluated before filtering. */
+    private int scanned;
+
+    /**
+     * Get Items.
+     * 
+     * @return {@link List}
+     */
+    List<Map<String, AttributeValue>> items() {
+      return this.items;
+    }
+
+    /**
+     * Get Last Evaluated Key.
+     * 
+     * @return {@link Map}
+     */
+    Map<String, AttributeValue> lastKey() {
+      return this.lastKey;
+    }
+
+    /**
+     * Get Number of items evaluated.
+     * 
+     * @return int
+     */
+    int scanned() {
+      return this.scanned;
+    }
+  }
+}
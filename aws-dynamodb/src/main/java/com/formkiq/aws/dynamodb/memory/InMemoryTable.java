@@ -0,0 +1,169 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.memory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndexDescription;
+import software.amazon.awssdk.services.dynamodb.model.IndexStatus;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.TableDescription;
+import software.amazon.awssdk.services.dynamodb.model.TableStatus;
+
+/**
+ * 
+ * In memory DynamoDb table, keeps its Global Secondary Indexes in sync on every write.
+ *
+ */
+final class InMemoryTable {
+
+  /** {@link CreateTableRequest}. */
+  private final CreateTableRequest definition;
+  /** Global Secondary Indexes by name. */
+  private final Map<String, InMemoryIndex> indexes = new LinkedHashMap<>();
+  /** Table Primary Key index. */
+  private final InMemoryIndex primary;
+
+  /**
+   * constructor.
+   * 
+   * @param request {@link CreateTableRequest}
+   */
+  InMemoryTable(final CreateTableRequest request) {
+    this.definition = request;
+    this.primary = new InMemoryIndex(null, request.keySchema(), Collections.emptyList(), null);
+
+    for (GlobalSecondaryIndex gsi : request.globalSecondaryIndexes()) {
+      this.indexes.put(gsi.indexName(), new InMemoryIndex(gsi.indexName(), gsi.keySchema(),
+          request.keySchema(), gsi.projection()));
+    }
+  }
+
+  /**
+   * Delete item.
+   * 
+   * @param key {@link Map}
+   * @return {@link Map}, the deleted item or null
+   */
+  Map<String, AttributeValue> delete(final Map<String, AttributeValue> key) {
+
+    Map<String, AttributeValue> old = this.primary.get(key);
+
+    if (old != null) {
+      this.primary.remove(old);
+      this.indexes.values().forEach(i -> i.remove(old));
+    }
+
+    return old;
+  }
+
+  /**
+   * Describe table.
+   * 
+   * @return {@link TableDescription}
+   */
+  TableDescription describe() {
+
+    List<GlobalSecondaryIndexDescription> gsis = this.definition.globalSecondaryIndexes().stream()
+        .map(g -> GlobalSecondaryIndexDescription.builder().indexName(g.indexName())
+            .keySchema(g.keySchema()).projection(g.projection()).indexStatus(IndexStatus.ACTIVE)
+            .itemCount(Long.valueOf(this.indexes.get(g.indexName()).count())).build())
+        .collect(Collectors.toList());
+
+    return TableDescription.builder().tableName(this.definition.tableName())
+        .keySchema(this.definition.keySchema())
+        .attributeDefinitions(this.definition.attributeDefinitions())
+        .globalSecondaryIndexes(gsis.isEmpty() ? null : gsis)
+        .streamSpecification(this.definition.streamSpecification())
+        .itemCount(Long.valueOf(this.primary.count())).tableStatus(TableStatus.ACTIVE).build();
+  }
+
+  /**
+   * Get item.
+   * 
+   * @param key {@link Map}
+   * @return {@link Map}, null if not found
+   */
+  Map<String, AttributeValue> get(final Map<String, AttributeValue> key) {
+    return this.primary.get(key);
+  }
+
+  /**
+   * Get Index.
+   * 
+   * @param indexName {@link String}, null for the table
+   * @return {@link InMemoryIndex}
+   */
+  InMemoryIndex index(final String indexName) {
+
+    InMemoryIndex index = indexName != null ? this.indexes.get(indexName) : this.primary;
+
+    if (index == null) {
+      throw ResourceNotFoundException.builder()
+          .message("Requested resource not found: Index: " + indexName + " not found").build();
+    }
+
+    return index;
+  }
+
+  /**
+   * Get the primary key of an item.
+   * 
+   * @param item {@link Map}
+   * @return {@link Map}
+   */
+  Map<String, AttributeValue> key(final Map<String, AttributeValue> item) {
+
+    if (!this.primary.isIndexed(item)) {
+      throw ExpressionReader
+          .error("One or more parameter values were invalid: Missing the key in the item");
+    }
+
+    return this.primary.key(item);
+  }
+
+  /**
+   * Put item, replacing any item with the same key.
+   * 
+   * @param item {@link Map}
+   * @return {@link Map}, the replaced item or null
+   */
+  Map<String, AttributeValue> put(final Map<String, AttributeValue> item) {
+
+    Map<String, AttributeValue> value = Collections.unmodifiableMap(new HashMap<>(item));
+    Map<String, AttributeValue> old = delete(key(value));
+
+    this.primary.put(value);
+    this.indexes.values().forEach(i -> i.put(value));
+
+    return old;
+  }
+}
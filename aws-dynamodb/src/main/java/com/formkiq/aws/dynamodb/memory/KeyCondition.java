@@ -0,0 +1,199 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * 
+ * Parsed Key Condition Expression, a partition key equality and an optional sort key condition.
+ *
+ */
+final class KeyCondition {
+
+  /**
+   * Parse Key Condition Expression.
+   * 
+   * @param expression {@link String}
+   * @param names {@link Map}
+   * @param values {@link Map}
+   * @return {@link KeyCondition}
+   */
+  static KeyCondition parse(final String expression, final Map<String, String> names,
+      final Map<String, AttributeValue> values) {
+
+    if (expression == null || expression.isBlank()) {
+      throw ExpressionReader.error("Query key condition not supported");
+    }
+
+    ExpressionReader reader = new ExpressionReader(expression, names, values);
+    KeyCondition condition = new KeyCondition();
+
+    do {
+      condition.term(reader);
+    } while (reader.accept("and"));
+
+    if (reader.hasNext()) {
+      throw reader.invalid("unexpected token '" + reader.peek() + "'");
+    }
+
+    return condition;
+  }
+
+  /** Key Condition Terms. */
+  private final List<Term> terms = new ArrayList<>();
+
+  private KeyCondition() {}
+
+  /**
+   * Get the partition key value.
+   * 
+   * @param hashKey {@link String}
+   * @return {@link AttributeValue}
+   */
+  AttributeValue hashValue(final String hashKey) {
+    return this.terms.stream().filter(t -> t.name.equals(hashKey) && "=".equals(t.operator))
+        .map(t -> t.values[0]).findFirst()
+        .orElseThrow(() -> ExpressionReader.error("Query condition missed key schema element"));
+  }
+
+  /**
+   * Get the sort key condition.
+   * 
+   * @param hashKey {@link String}
+   * @param rangeKey {@link String}
+   * @return {@link Term}, null if there is no sort key condition
+   */
+  Term rangeTerm(final String hashKey, final String rangeKey) {
+
+    Term range = null;
+
+    for (Term term : this.terms) {
+      if (term.name.equals(rangeKey)) {
+        range = term;
+      } else if (!term.name.equals(hashKey)) {
+        throw ExpressionReader.error("Query condition missed key schema element: " + term.name);
+      }
+    }
+
+    return range;
+  }
+
+  private void term(final ExpressionReader reader) {
+
+    if (reader.accept("begins_with")) {
+      reader.expect("(");
+      String name = reader.name(reader.next());
+      reader.expect(",");
+      this.terms.add(new Term(name, "begins_with", reader.value(reader.next())));
+      reader.expect(")");
+    } else {
+      String name = reader.name(reader.next());
+      String operator = reader.next();
+
+      if ("between".equalsIgnoreCase(operator)) {
+        AttributeValue low = reader.value(reader.next());
+        reader.expect("and");
+        this.terms.add(new Term(name, "between", low, reader.value(reader.next())));
+      } else {
+        this.terms.add(new Term(name, operator, reader.value(reader.next())));
+      }
+    }
+  }
+
+  /**
+   * Key Condition Term.
+   */
+  static final class Term {
+
+    /** Attribute Name. */
+    private final String name;
+    /** Operator. */
+    private final String operator;
+    /** Values. */
+    private final AttributeValue[] values;
+
+    private Term(final String attributeName, final String op, final AttributeValue... vals) {
+      this.name = attributeName;
+      this.operator = op;
+      this.values = vals;
+    }
+
+    /**
+     * Lowest value matching this term.
+     * 
+     * @return {@link AttributeValue}, null if unbounded
+     */
+    AttributeValue lower() {
+      return "<".equals(this.operator) || "<=".equals(this.operator) ? null : this.values[0];
+    }
+
+    /**
+     * Whether the sort key value matches this term.
+     * 
+     * @param value {@link AttributeValue}
+     * @return boolean
+     */
+    boolean matches(final AttributeValue value) {
+
+      boolean match;
+
+      if ("begins_with".equals(this.operator)) {
+        match = value != null && value.s() != null && value.s().startsWith(this.values[0].s());
+      } else if ("between".equals(this.operator)) {
+        match = AttributeValues.matches(">=", value, this.values[0])
+            && AttributeValues.matches("<=", value, this.values[1]);
+      } else {
+        match = AttributeValues.matches(this.operator, value, this.values[0]);
+      }
+
+      return match;
+    }
+
+    /**
+     * Highest value matching this term.
+     * 
+     * @return {@link AttributeValue}, null if unbounded
+     */
+    AttributeValue upper() {
+
+      AttributeValue upper;
+
+      if (">".equals(this.operator) || ">=".equals(this.operator)) {
+        upper = null;
+      } else if ("between".equals(this.operator)) {
+        upper = this.values[1];
+      } else if ("begins_with".equals(this.operator)) {
+        upper = AttributeValue.fromS(this.values[0].s() + Character.MAX_VALUE);
+      } else {
+        upper = this.values[0];
+      }
+
+      return upper;
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.memory;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import software.amazon.awssdk.services.dynamodb.model.AttributeAction;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValueUpdate;
+
+/**
+ * 
+ * Applies DynamoDb Update Expressions (SET, REMOVE, ADD and DELETE on top level attributes) and
+ * legacy {@link AttributeValueUpdate}s to an item.
+ *
+ */
+final class UpdateExpression {
+
+  private static void add(final ExpressionReader reader, final Map<String, AttributeValue> result) {
+    String name = reader.name(reader.next());
+    AttributeValue value = reader.value(reader.next());
+    result.put(name, AttributeValues.add(result.get(name), value));
+  }
+
+  /**
+   * Apply legacy {@link AttributeValueUpdate}s.
+   * 
+   * @param item {@link Map}
+   * @param updates {@link Map}
+   * @return {@link Map}
+   */
+  static Map<String, AttributeValue> apply(final Map<String, AttributeValue> item,
+      final Map<String, AttributeValueUpdate> updates) {
+
+    Map<String, AttributeValue> result = new HashMap<>(item);
+
+    updates.forEach((name, update) -> {
+
+      AttributeAction action = update.action() != null ? update.action() : AttributeAction.PUT;
+
+      if (AttributeAction.ADD.equals(action)) {
+        result.put(name, AttributeValues.add(result.get(name), update.value()));
+      } else if (AttributeAction.DELETE.equals(action) && update.value() != null) {
+        set(result, name, AttributeValues.delete(result.get(name), update.value()));
+      } else if (AttributeAction.DELETE.equals(action)) {
+        result.remove(name);
+      } else {
+        result.put(name, update.value());
+      }
+    });
+
+    return result;
+  }
+
+  /**
+   * Apply Update Expression, all operands are evaluated against the original item.
+   * 
+   * @param item {@link Map}
+   * @param expression {@link String}
+   * @param names {@link Map}
+   * @param values {@link Map}
+   * @return {@link Map}
+   */
+  static Map<String, AttributeValue> apply(final Map<String, AttributeValue> item,
+      final String expression, final Map<String, String> names,
+      final Map<String, AttributeValue> values) {
+
+    Map<String, AttributeValue> result = new HashMap<>(item);
+    ExpressionReader reader = new ExpressionReader(expression, names, values);
+
+    while (reader.hasNext()) {
+
+      String clause = reader.next().toUpperCase(Locale.ROOT);
+
+      do {
+        switch (clause) {
+          case "SET":
+            set(reader, item, result);
+            break;
+          case "REMOVE":
+            result.remove(reader.name(reader.next()));
+            break;
+          case "ADD":
+            add(reader, result);
+            break;
+          case "DELETE":
+            delete(reader, result);
+            break;
+          default:
+            throw reader.invalid("unknown clause '" + clause + "'");
+        }
+      } while (reader.accept(","));
+    }
+
+    return result;
+  }
+
+  private static void delete(final ExpressionReader reader,
+      final Map<String, AttributeValue> result) {
+    String name = reader.name(reader.next());
+    AttributeValue value = reader.value(reader.next());
+    set(result, name, AttributeValues.delete(result.get(name), value));
+  }
+
+  private static void set(final ExpressionReader reader, final Map<String, AttributeValue> item,
+      final Map<String, AttributeValue> result) {
+
+    String name = reader.name(reader.next());
+    reader.expect("=");
+
+    Function<Map<String, AttributeValue>, AttributeValue> operand = reader.operand();
+
+    if (reader.accept("+")) {
+      Function<Map<String, AttributeValue>, AttributeValue> other = reader.operand();
+      result.put(name, AttributeValues.add(operand.apply(item), other.apply(item)));
+    } else if (reader.accept("-")) {
+      Function<Map<String, AttributeValue>, AttributeValue> other = reader.operand();
+      result.put(name, AttributeValues.subtract(operand.apply(item), other.apply(item)));
+    } else {
+      set(result, name, operand.apply(item));
+    }
+  }
+
+  private static void set(final Map<String, AttributeValue> result, final String name,
+      final AttributeValue value) {
+    if (value != null) {
+      result.put(name, value);
+    } else {
+      result.remove(name);
+    }
+  }
+
+  private UpdateExpression() {}
+}
@@ -0,0 +1,194 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.metrics;
+
+/**
+ * 
+ * A single DynamoDb API call measurement.
+ *
+ */
+public class DynamoDbMetric {
+
+  /** DynamoDb Api Name, ie: Query. */
+  private String apiName;
+  /** Consumed Capacity Units. */
+  private double consumedCapacity;
+  /** Whether the call failed. */
+  private boolean error;
+  /** Number of items read or written. */
+  private int items;
+  /** Latency in milliseconds. */
+  private long latency;
+  /** Logical Operation, ie: document.save. */
+  private String operation;
+  /** Number of retries. */
+  private int retries;
+
+  /**
+   * constructor.
+   */
+  public DynamoDbMetric() {
+
+  }
+
+  /**
+   * Get Api Name.
+   * 
+   * @return {@link String}
+   */
+  public String apiName() {
+    return this.apiName;
+  }
+
+  /**
+   * Set Api Name.
+   * 
+   * @param name {@link String}
+   * @return {@link DynamoDbMetric}
+   */
+  public DynamoDbMetric apiName(final String name) {
+    this.apiName = name;
+    return this;
+  }
+
+  /**
+   * Get Consumed Capacity.
+   * 
+   * @return double
+   */
+  public double consumedCapacity() {
+    return this.consumedCapacity;
+  }
+
+  /**
+   * Set Consumed Capacity.
+   * 
+   * @param capacity double
+   * @return {@link DynamoDbMetric}
+   */
+  public DynamoDbMetric consumedCapacity(final double capacity) {
+    this.consumedCapacity = capacity;
+    return this;
+  }
+
+  /**
+   * Is Error.
+   * 
+   * @return boolean
+   */
+  public boolean error() {
+    return this.error;
+  }
+
+  /**
+   * Set Error.
+   * 
+   * @param isError boolean
+   * @return {@link DynamoDbMetric}
+   */
+  public DynamoDbMetric error(final boolean isError) {
+    this.error = isError;
+    return this;
+  }
+
+  /**
+   * Get Items.
+   * 
+   * @return int
+   */
+  public int items() {
+    return this.items;
+  }
+
+  /**
+   * Set Items.
+   * 
+   * @param count int
+   * @return {@link DynamoDbMetric}
+   */
+  public DynamoDbMetric items(final int count) {
+    this.items = count;
+    return this;
+  }
+
+  /**
+   * Get Latency in milliseconds.
+   * 
+   * @return long
+   */
+  public long latency() {
+    return this.latency;
+  }
+
+  /**
+   * Set Latency in milliseconds.
+   * 
+   * @param millis long
+   * @return {@link DynamoDbMetric}
+   */
+  public DynamoDbMetric latency(final long millis) {
+    this.latency = millis;
+    return this;
+  }
+
+  /**
+   * Get Operation.
+   * 
+   * @return {@link String}
+   */
+  public String operation() {
+    return this.operation;
+  }
+
+  /**
+   * Set Operation.
+   * 
+   * @param op {@link String}
+   * @return {@link DynamoDbMetric}
+   */
+  public DynamoDbMetric operation(final String op) {
+    this.operation = op;
+    return this;
+  }
+
+  /**
+   * Get Retries.
+   * 
+   * @return int
+   */
+  public int retries() {
+    return this.retries;
+  }
+
+  /**
+   * Set Retries.
+   * 
+   * @param count int
+   * @return {@link DynamoDbMetric}
+   */
+  public DynamoDbMetric retries(final int count) {
+    this.retries = count;
+    return this;
+  }
+}
@@ -0,0 +1,248 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.metrics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+/**
+ * 
+ * {@link ExecutionInterceptor} that requests ReturnConsumedCapacity on every DynamoDb call and
+ * records consumed capacity, item counts, retries and latency to a {@link DynamoDbMetricsSink}.
+ * Pages, items read and consumed capacity are also added to the {@link DynamoDbOperationStats} of
+ * the {@link DynamoDbOperation} that made the call.
+ *
+ */
+public class DynamoDbMetricsInterceptor implements ExecutionInterceptor {
+
+  /** Number of attempts. */
+  private static final ExecutionAttribute<Integer> ATTEMPTS =
+      new ExecutionAttribute<>("DynamoDbMetricsAttempts");
+  /** Logical Operation. */
+  private static final ExecutionAttribute<String> OPERATION =
+      new ExecutionAttribute<>("DynamoDbMetricsOperation");
+  /** {@link DynamoDbOperation} the call is made by. */
+  private static final ExecutionAttribute<DynamoDbOperation> OPERATION_STATS =
+      new ExecutionAttribute<>("DynamoDbMetricsOperationStats");
+  /** Request Start Time. */
+  private static final ExecutionAttribute<Long> START_TIME =
+      new ExecutionAttribute<>("DynamoDbMetricsStartTime");
+
+  /** Add ReturnConsumedCapacity to requests. */
+  private static final Map<Class<?>, UnaryOperator<SdkRequest>> RETURN_CAPACITY =
+      Map.of(GetItemRequest.class,
+          r -> ((GetItemRequest) r)
+              .toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build(),
+          PutItemRequest.class,
+          r -> ((PutItemRequest) r)
+              .toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build(),
+          UpdateItemRequest.class,
+          r -> ((UpdateItemRequest) r).toBuilder()
+              .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build(),
+          DeleteItemRequest.class,
+          r -> ((DeleteItemRequest) r)
+              .toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build(),
+          QueryRequest.class,
+          r -> ((QueryRequest) r)
+              .toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build(),
+          ScanRequest.class,
+          r -> ((ScanRequest) r)
+              .toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build(),
+          BatchGetItemRequest.class,
+          r -> ((BatchGetItemRequest) r).toBuilder()
+              .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build(),
+          BatchWriteItemRequest.class,
+          r -> ((BatchWriteItemRequest) r).toBuilder()
+              .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build(),
+          TransactWriteItemsRequest.class,
+          r -> ((TransactWriteItemsRequest) r).toBuilder()
+              .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build(),
+          TransactGetItemsRequest.class, r -> ((TransactGetItemsRequest) r).toBuilder()
+              .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build());
+
+  /** Consumed Capacity from responses. */
+  private static final Map<Class<?>, Function<SdkResponse, Double>> CAPACITY = Map.of(
+      GetItemResponse.class, r -> total(((GetItemResponse) r).consumedCapacity()),
+      PutItemResponse.class, r -> total(((PutItemResponse) r).consumedCapacity()),
+      UpdateItemResponse.class, r -> total(((UpdateItemResponse) r).consumedCapacity()),
+      DeleteItemResponse.class, r -> total(((DeleteItemResponse) r).consumedCapacity()),
+      QueryResponse.class, r -> total(((QueryResponse) r).consumedCapacity()), ScanResponse.class,
+      r -> total(((ScanResponse) r).consumedCapacity()), BatchGetItemResponse.class,
+      r -> total(((BatchGetItemResponse) r).consumedCapacity()), BatchWriteItemResponse.class,
+      r -> total(((BatchWriteItemResponse) r).consumedCapacity()), TransactWriteItemsResponse.class,
+      r -> total(((TransactWriteItemsResponse) r).consumedCapacity()),
+      TransactGetItemsResponse.class,
+      r -> total(((TransactGetItemsResponse) r).consumedCapacity()));
+
+  /** Items read from responses. */
+  private static final Map<Class<?>, ToIntFunction<SdkResponse>> ITEMS_READ =
+      Map.of(GetItemResponse.class, r -> ((GetItemResponse) r).hasItem() ? 1 : 0,
+          QueryResponse.class, r -> ((QueryResponse) r).count().intValue(), ScanResponse.class,
+          r -> ((ScanResponse) r).count().intValue(), BatchGetItemResponse.class,
+          r -> count(((BatchGetItemResponse) r).responses().values()),
+          TransactGetItemsResponse.class, r -> ((TransactGetItemsResponse) r).responses().size());
+
+  /** Items written from requests. */
+  private static final Map<Class<?>, ToIntFunction<SdkRequest>> ITEMS_WRITTEN = Map.of(
+      PutItemRequest.class, r -> 1, UpdateItemRequest.class, r -> 1, DeleteItemRequest.class,
+      r -> 1, BatchWriteItemRequest.class,
+      r -> count(((BatchWriteItemRequest) r).requestItems().values()),
+      TransactWriteItemsRequest.class, r -> ((TransactWriteItemsRequest) r).transactItems().size());
+
+  private static int count(final Collection<? extends List<?>> lists) {
+    return lists.stream().mapToInt(l -> l.size()).sum();
+  }
+
+  private static double total(final ConsumedCapacity capacity) {
+    return capacity != null && capacity.capacityUnits() != null
+        ? capacity.capacityUnits().doubleValue()
+        : 0;
+  }
+
+  private static double total(final List<ConsumedCapacity> capacity) {
+    return capacity != null ? capacity.stream().mapToDouble(c -> total(c)).sum() : 0;
+  }
+
+  /** {@link DynamoDbMetricsSink}. */
+  private final DynamoDbMetricsSink sink;
+
+  /**
+   * constructor.
+   * 
+   * @param metricsSink {@link DynamoDbMetricsSink}, null to only collect
+   *        {@link DynamoDbOperationStats}
+   */
+  public DynamoDbMetricsInterceptor(final DynamoDbMetricsSink metricsSink) {
+    this.sink = metricsSink;
+  }
+
+  @Override
+  public void afterExecution(final Context.AfterExecution context,
+      final ExecutionAttributes executionAttributes) {
+
+    SdkResponse response = context.response();
+    SdkRequest request = context.request();
+
+    double capacity = CAPACITY.getOrDefault(response.getClass(), r -> Double.valueOf(0))
+        .apply(response).doubleValue();
+    int itemsRead = ITEMS_READ.getOrDefault(response.getClass(), r -> 0).applyAsInt(response);
+    int items =
+        itemsRead + ITEMS_WRITTEN.getOrDefault(request.getClass(), r -> 0).applyAsInt(request);
+
+    DynamoDbOperation op = executionAttributes.getAttribute(OPERATION_STATS);
+    if (op != null) {
+      boolean page = response instanceof QueryResponse || response instanceof ScanResponse;
+      op.stats().addResult(page, itemsRead, capacity);
+    }
+
+    if (this.sink != null) {
+      this.sink.record(
+          createMetric(executionAttributes).consumedCapacity(capacity).items(items).error(false));
+    }
+  }
+
+  @Override
+  public void beforeExecution(final Context.BeforeExecution context,
+      final ExecutionAttributes executionAttributes) {
+    executionAttributes.putAttribute(START_TIME, Long.valueOf(System.nanoTime()));
+    executionAttributes.putAttribute(OPERATION, DynamoDbOperation.current());
+    DynamoDbOperation op = DynamoDbOperation.currentOperation();
+    if (op != null) {
+      executionAttributes.putAttribute(OPERATION_STATS, op);
+    }
+    executionAttributes.putAttribute(ATTEMPTS, Integer.valueOf(0));
+    DynamoDbOperation.recordCall(this.sink);
+  }
+
+  @Override
+  public void beforeTransmission(final Context.BeforeTransmission context,
+      final ExecutionAttributes executionAttributes) {
+    Integer attempts = executionAttributes.getAttribute(ATTEMPTS);
+    executionAttributes.putAttribute(ATTEMPTS,
+        Integer.valueOf(attempts != null ? attempts.intValue() + 1 : 1));
+  }
+
+  private DynamoDbMetric createMetric(final ExecutionAttributes executionAttributes) {
+
+    Long start = executionAttributes.getAttribute(START_TIME);
+    long latency =
+        start != null ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start.longValue()) : 0;
+
+    Integer attempts = executionAttributes.getAttribute(ATTEMPTS);
+    int retries = attempts != null ? Math.max(0, attempts.intValue() - 1) : 0;
+
+    return new DynamoDbMetric().operation(executionAttributes.getAttribute(OPERATION))
+        .apiName(executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME))
+        .latency(latency).retries(retries);
+  }
+
+  @Override
+  public SdkRequest modifyRequest(final Context.ModifyRequest context,
+      final ExecutionAttributes executionAttributes) {
+    SdkRequest request = context.request();
+    return RETURN_CAPACITY.getOrDefault(request.getClass(), r -> r).apply(request);
+  }
+
+  @Override
+  public void onExecutionFailure(final Context.FailedExecution context,
+      final ExecutionAttributes executionAttributes) {
+    if (this.sink != null) {
+      this.sink.record(createMetric(executionAttributes).error(true));
+    }
+  }
+}
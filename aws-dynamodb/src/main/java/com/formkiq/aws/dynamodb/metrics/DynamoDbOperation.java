@@ -0,0 +1,225 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.metrics;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 
+ * Tags DynamoDb calls made on the current thread with a logical operation name, ie: "document.save"
+ * or "search.byTagValue", and counts the DynamoDb calls made by the operation. When the operation
+ * is closed the number of calls is reported to every {@link DynamoDbMetricsSink} that recorded one
+ * of them.
+ * 
+ * Each started operation also collects {@link DynamoDbOperationStats}, which are added to the
+ * enclosing operation when the operation is closed, so an outer operation, ie: an API request, sees
+ * the statistics of every operation it ran.
+ * 
+ * <pre>
+ * DynamoDbOperation op = DynamoDbOperation.start("document.save");
+ * try {
+ *   ...
+ * } finally {
+ *   op.close();
+ * }
+ * </pre>
+ *
+ */
+public final class DynamoDbOperation implements AutoCloseable {
+
+  /** Default Operation Name. */
+  public static final String UNTAGGED = "untagged";
+  /** Current Operation. */
+  private static final ThreadLocal<DynamoDbOperation> CURRENT = new ThreadLocal<>();
+
+  /**
+   * Get the current logical operation.
+   * 
+   * @return {@link String}
+   */
+  public static String current() {
+    DynamoDbOperation op = CURRENT.get();
+    return op != null ? op.name : UNTAGGED;
+  }
+
+  /**
+   * Get the current {@link DynamoDbOperation}.
+   * 
+   * @return {@link DynamoDbOperation}, null if there is no current operation
+   */
+  public static DynamoDbOperation currentOperation() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Add to a named counter of the current operation.
+   * 
+   * @param counter {@link String}
+   * @param delta long
+   */
+  public static void increment(final String counter, final long delta) {
+    DynamoDbOperation op = CURRENT.get();
+    if (op != null) {
+      op.root.stats.add(counter, delta);
+    }
+  }
+
+  /**
+   * Record a DynamoDb call against the current operation.
+   * 
+   * @param sink {@link DynamoDbMetricsSink} to report the operation's number of calls to
+   */
+  public static void recordCall(final DynamoDbMetricsSink sink) {
+    DynamoDbOperation op = CURRENT.get();
+    if (op != null) {
+      op.root.calls.increment();
+      op.root.stats.addCall();
+      if (sink != null) {
+        op.root.sinks.add(sink);
+      }
+    }
+  }
+
+  /**
+   * Record the time spent in a stage of the current operation.
+   * 
+   * @param stage {@link String}
+   * @param startNanos long {@link System#nanoTime()} the stage started
+   */
+  public static void recordTime(final String stage, final long startNanos) {
+    DynamoDbOperation op = CURRENT.get();
+    if (op != null) {
+      op.root.stats.addTime(stage, System.nanoTime() - startNanos);
+    }
+  }
+
+  /**
+   * Continue an operation on the current thread, ie: on a worker thread. Calls made are counted
+   * against the resumed operation, which reports them when it is closed.
+   * 
+   * @param operation {@link DynamoDbOperation}
+   * @return {@link DynamoDbOperation}
+   */
+  public static DynamoDbOperation resume(final DynamoDbOperation operation) {
+    return new DynamoDbOperation(operation.name, operation.root);
+  }
+
+  /**
+   * Start a logical operation, nested operations restore the outer operation on close.
+   * 
+   * @param operation {@link String}
+   * @return {@link DynamoDbOperation}
+   */
+  public static DynamoDbOperation start(final String operation) {
+    return new DynamoDbOperation(operation, null);
+  }
+
+  /**
+   * Run a stage of the current operation, recording the time spent in it.
+   * 
+   * @param <T> Type of result
+   * @param stage {@link String}
+   * @param supplier {@link Supplier}
+   * @return T
+   */
+  public static <T> T time(final String stage, final Supplier<T> supplier) {
+    long start = System.nanoTime();
+    try {
+      return supplier.get();
+    } finally {
+      recordTime(stage, start);
+    }
+  }
+
+  /** Number of DynamoDb calls. */
+  private final LongAdder calls = new LongAdder();
+  /** Operation Name. */
+  private final String name;
+  /** Previous Operation. */
+  private final DynamoDbOperation previous;
+  /** The started {@link DynamoDbOperation} calls are counted against. */
+  private final DynamoDbOperation root;
+  /** {@link DynamoDbMetricsSink} that recorded calls of this operation. */
+  private final Set<DynamoDbMetricsSink> sinks = ConcurrentHashMap.newKeySet();
+  /** Operation Start Time. */
+  private final long startTime = System.nanoTime();
+  /** {@link DynamoDbOperationStats}. */
+  private final DynamoDbOperationStats stats = new DynamoDbOperationStats();
+
+  private DynamoDbOperation(final String operationName, final DynamoDbOperation resumed) {
+    this.name = operationName;
+    this.root = resumed != null ? resumed : this;
+    this.previous = CURRENT.get();
+    CURRENT.set(this);
+  }
+
+  /**
+   * Get the number of DynamoDb calls made by the operation so far.
+   * 
+   * @return long
+   */
+  public long calls() {
+    return this.root.calls.sum();
+  }
+
+  @Override
+  public void close() {
+    if (this.previous != null) {
+      CURRENT.set(this.previous);
+    } else {
+      CURRENT.remove();
+    }
+
+    if (this.root == this) {
+      long count = this.calls.sum();
+      this.sinks.forEach(s -> s.recordOperation(this.name, count));
+
+      if (this.previous != null) {
+        this.stats.addTime(this.name, System.nanoTime() - this.startTime);
+        this.previous.root.stats.merge(this.name, this.stats);
+      }
+    }
+  }
+
+  /**
+   * Get the operation name.
+   * 
+   * @return {@link String}
+   */
+  public String name() {
+    return this.name;
+  }
+
+  /**
+   * Get the {@link DynamoDbOperationStats} of the operation so far.
+   * 
+   * @return {@link DynamoDbOperationStats}
+   */
+  public DynamoDbOperationStats stats() {
+    return this.root.stats;
+  }
+}
@@ -0,0 +1,211 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 
+ * Execution statistics of a {@link DynamoDbOperation}: DynamoDb calls, Query / Scan pages, items
+ * read, consumed capacity, named counters and per-stage timings. Statistics of operations started
+ * inside another operation are added to the enclosing operation when they close.
+ *
+ */
+public class DynamoDbOperationStats {
+
+  /** Number of DynamoDb calls. */
+  private final LongAdder calls = new LongAdder();
+  /** Consumed Capacity Units. */
+  private final DoubleAdder consumedCapacity = new DoubleAdder();
+  /** Named Counters. */
+  private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+  /** Number of items read. */
+  private final LongAdder itemsRead = new LongAdder();
+  /** Names of the nested operations, in order of completion. */
+  private final List<String> operations = new CopyOnWriteArrayList<>();
+  /** Number of Query / Scan pages read. */
+  private final LongAdder pages = new LongAdder();
+  /** Stage Timings in nanoseconds. */
+  private final Map<String, LongAdder> timings = new ConcurrentHashMap<>();
+
+  /**
+   * constructor.
+   */
+  public DynamoDbOperationStats() {
+
+  }
+
+  /**
+   * Add a named counter.
+   * 
+   * @param counter {@link String}
+   * @param delta long
+   */
+  public void add(final String counter, final long delta) {
+    this.counters.computeIfAbsent(counter, k -> new LongAdder()).add(delta);
+  }
+
+  /**
+   * Add a DynamoDb call.
+   */
+  public void addCall() {
+    this.calls.increment();
+  }
+
+  /**
+   * Add the result of a DynamoDb call.
+   * 
+   * @param page boolean whether the call was a Query or Scan page
+   * @param items int number of items read
+   * @param capacity double consumed capacity units
+   */
+  public void addResult(final boolean page, final int items, final double capacity) {
+    if (page) {
+      this.pages.increment();
+    }
+    this.itemsRead.add(items);
+    this.consumedCapacity.add(capacity);
+  }
+
+  /**
+   * Add time spent in a stage.
+   * 
+   * @param stage {@link String}
+   * @param nanos long
+   */
+  public void addTime(final String stage, final long nanos) {
+    this.timings.computeIfAbsent(stage, k -> new LongAdder()).add(nanos);
+  }
+
+  /**
+   * Get the number of DynamoDb calls.
+   * 
+   * @return long
+   */
+  public long calls() {
+    return this.calls.sum();
+  }
+
+  /**
+   * Get the consumed capacity units.
+   * 
+   * @return double
+   */
+  public double consumedCapacity() {
+    return this.consumedCapacity.sum();
+  }
+
+  /**
+   * Get a snapshot of the named counters, sorted by name.
+   * 
+   * @return {@link Map}
+   */
+  public Map<String, Long> counters() {
+    Map<String, Long> map = new TreeMap<>();
+    this.counters.forEach((k, v) -> map.put(k, Long.valueOf(v.sum())));
+    return map;
+  }
+
+  /**
+   * Get the number of items read.
+   * 
+   * @return long
+   */
+  public long itemsRead() {
+    return this.itemsRead.sum();
+  }
+
+  /**
+   * Add the statistics of a completed nested operation.
+   * 
+   * @param operation {@link String} nested operation name
+   * @param stats {@link DynamoDbOperationStats}
+   */
+  public void merge(final String operation, final DynamoDbOperationStats stats) {
+    this.operations.addAll(stats.operations);
+    this.operations.add(operation);
+    this.calls.add(stats.calls());
+    this.pages.add(stats.pages());
+    this.itemsRead.add(stats.itemsRead());
+    this.consumedCapacity.add(stats.consumedCapacity());
+    stats.counters.forEach((k, v) -> add(k, v.sum()));
+    stats.timings.forEach((k, v) -> addTime(k, v.sum()));
+  }
+
+  /**
+   * Get the names of the nested operations, in order of completion.
+   * 
+   * @return {@link List} {@link String}
+   */
+  public List<String> operations() {
+    return new ArrayList<>(this.operations);
+  }
+
+  /**
+   * Get the number of Query / Scan pages read.
+   * 
+   * @return long
+   */
+  public long pages() {
+    return this.pages.sum();
+  }
+
+  /**
+   * Get a snapshot of the stage timings in milliseconds, sorted by stage.
+   * 
+   * @return {@link Map}
+   */
+  public Map<String, Long> timings() {
+    Map<String, Long> map = new TreeMap<>();
+    this.timings
+        .forEach((k, v) -> map.put(k, Long.valueOf(TimeUnit.NANOSECONDS.toMillis(v.sum()))));
+    return map;
+  }
+
+  /**
+   * Convert to {@link Map}.
+   * 
+   * @return {@link Map}
+   */
+  public Map<String, Object> toMap() {
+    Map<String, Object> map = new HashMap<>();
+    map.put("operations", operations());
+    map.put("calls", Long.valueOf(calls()));
+    map.put("pages", Long.valueOf(pages()));
+    map.put("itemsRead", Long.valueOf(itemsRead()));
+    map.put("consumedCapacity", Double.valueOf(consumedCapacity()));
+    map.put("counters", counters());
+    map.put("timings", timings());
+    return map;
+  }
+}
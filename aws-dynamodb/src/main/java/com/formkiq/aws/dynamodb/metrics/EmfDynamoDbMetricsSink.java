@@ -0,0 +1,84 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.metrics;
+
+import java.io.PrintStream;
+
+/**
+ * 
+ * {@link DynamoDbMetricsSink} that writes CloudWatch Embedded Metric Format (EMF) log lines, which
+ * CloudWatch turns into metrics when written to a Lambda function's log.
+ *
+ */
+public class EmfDynamoDbMetricsSink implements DynamoDbMetricsSink {
+
+  /** CloudWatch Namespace. */
+  private static final String NAMESPACE = "FormKiQ/DynamoDb";
+
+  private static String escape(final String s) {
+    return s != null ? s.replace("\\", "\\\\").replace("\"", "\\\"") : "";
+  }
+
+  /** {@link PrintStream}. */
+  private final PrintStream out;
+
+  /**
+   * constructor.
+   * 
+   * @param printStream {@link PrintStream}
+   */
+  public EmfDynamoDbMetricsSink(final PrintStream printStream) {
+    this.out = printStream;
+  }
+
+  @Override
+  public void record(final DynamoDbMetric metric) {
+
+    String line = "{\"_aws\":{\"Timestamp\":" + System.currentTimeMillis()
+        + ",\"CloudWatchMetrics\":[{\"Namespace\":\"" + NAMESPACE
+        + "\",\"Dimensions\":[[\"Operation\",\"ApiName\"]],\"Metrics\":["
+        + "{\"Name\":\"ConsumedCapacity\",\"Unit\":\"Count\"},"
+        + "{\"Name\":\"Items\",\"Unit\":\"Count\"}," + "{\"Name\":\"Retries\",\"Unit\":\"Count\"},"
+        + "{\"Name\":\"Errors\",\"Unit\":\"Count\"},"
+        + "{\"Name\":\"Latency\",\"Unit\":\"Milliseconds\"}]}]},\"Operation\":\""
+        + escape(metric.operation()) + "\",\"ApiName\":\"" + escape(metric.apiName())
+        + "\",\"ConsumedCapacity\":" + metric.consumedCapacity() + ",\"Items\":" + metric.items()
+        + ",\"Retries\":" + metric.retries() + ",\"Errors\":" + (metric.error() ? 1 : 0)
+        + ",\"Latency\":" + metric.latency() + "}";
+
+    this.out.println(line);
+  }
+
+  @Override
+  public void recordOperation(final String operation, final long calls) {
+
+    String line = "{\"_aws\":{\"Timestamp\":" + System.currentTimeMillis()
+        + ",\"CloudWatchMetrics\":[{\"Namespace\":\"" + NAMESPACE
+        + "\",\"Dimensions\":[[\"Operation\"]],\"Metrics\":["
+        + "{\"Name\":\"Calls\",\"Unit\":\"Count\"}]}]},\"Operation\":\"" + escape(operation)
+        + "\",\"Calls\":" + calls + "}";
+
+    this.out.println(line);
+  }
+}
@@ -0,0 +1,258 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 
+ * {@link DynamoDbMetricsSink} that aggregates metrics in memory per logical operation and api name.
+ *
+ */
+public class InMemoryDynamoDbMetricsSink implements DynamoDbMetricsSink {
+
+  /** Latency Histogram upper bounds in milliseconds, last bucket is everything above. */
+  private static final long[] LATENCY_BUCKETS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500};
+
+  /** {@link OperationStats} by operation. */
+  private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+  /** {@link Stats} by "operation/apiName". */
+  private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+  /**
+   * constructor.
+   */
+  public InMemoryDynamoDbMetricsSink() {
+
+  }
+
+  /**
+   * Get the Latency Histogram bucket upper bounds.
+   * 
+   * @return long[]
+   */
+  public static long[] latencyBuckets() {
+    return LATENCY_BUCKETS.clone();
+  }
+
+  @Override
+  public void record(final DynamoDbMetric metric) {
+    String key = metric.operation() + "/" + metric.apiName();
+    this.stats.computeIfAbsent(key, k -> new Stats()).add(metric);
+  }
+
+  /**
+   * Get a snapshot of the number of calls per operation, sorted by operation.
+   * 
+   * @return {@link Map}
+   */
+  public Map<String, OperationStats> operationSnapshot() {
+    return new TreeMap<>(this.operations);
+  }
+
+  @Override
+  public void recordOperation(final String operation, final long calls) {
+    this.operations.computeIfAbsent(operation, k -> new OperationStats()).add(calls);
+  }
+
+  /**
+   * Clear all metrics.
+   */
+  public void reset() {
+    this.operations.clear();
+    this.stats.clear();
+  }
+
+  /**
+   * Get a snapshot of the metrics, sorted by "operation/apiName".
+   * 
+   * @return {@link Map}
+   */
+  public Map<String, Stats> snapshot() {
+    return new TreeMap<>(this.stats);
+  }
+
+  /**
+   * Number of DynamoDb calls made by completed operations.
+   */
+  public static final class OperationStats {
+
+    /** Number of calls. */
+    private final LongAdder calls = new LongAdder();
+    /** Number of completed operations. */
+    private final LongAdder invocations = new LongAdder();
+
+    OperationStats() {}
+
+    void add(final long count) {
+      this.calls.add(count);
+      this.invocations.increment();
+    }
+
+    /**
+     * Get number of calls.
+     * 
+     * @return long
+     */
+    public long calls() {
+      return this.calls.sum();
+    }
+
+    /**
+     * Get average number of calls per operation.
+     * 
+     * @return double
+     */
+    public double callsPerInvocation() {
+      long count = this.invocations.sum();
+      return count > 0 ? (double) this.calls.sum() / count : 0;
+    }
+
+    /**
+     * Get number of completed operations that made at least one call.
+     * 
+     * @return long
+     */
+    public long invocations() {
+      return this.invocations.sum();
+    }
+  }
+
+  /**
+   * Aggregated statistics of an operation.
+   */
+  public static final class Stats {
+
+    /** Number of calls. */
+    private final LongAdder calls = new LongAdder();
+    /** Consumed Capacity. */
+    private final DoubleAdder consumedCapacity = new DoubleAdder();
+    /** Number of errors. */
+    private final LongAdder errors = new LongAdder();
+    /** Latency Histogram. */
+    private final LongAdder[] histogram = new LongAdder[LATENCY_BUCKETS.length + 1];
+    /** Number of items. */
+    private final LongAdder items = new LongAdder();
+    /** Total Latency. */
+    private final LongAdder latency = new LongAdder();
+    /** Number of retries. */
+    private final LongAdder retries = new LongAdder();
+
+    Stats() {
+      for (int i = 0; i < this.histogram.length; i++) {
+        this.histogram[i] = new LongAdder();
+      }
+    }
+
+    void add(final DynamoDbMetric metric) {
+      this.calls.increment();
+      this.consumedCapacity.add(metric.consumedCapacity());
+      this.items.add(metric.items());
+      this.retries.add(metric.retries());
+      this.latency.add(metric.latency());
+
+      if (metric.error()) {
+        this.errors.increment();
+      }
+
+      int bucket = 0;
+      while (bucket < LATENCY_BUCKETS.length && metric.latency() > LATENCY_BUCKETS[bucket]) {
+        bucket++;
+      }
+
+      this.histogram[bucket].increment();
+    }
+
+    /**
+     * Get number of calls.
+     * 
+     * @return long
+     */
+    public long calls() {
+      return this.calls.sum();
+    }
+
+    /**
+     * Get total Consumed Capacity.
+     * 
+     * @return double
+     */
+    public double consumedCapacity() {
+      return this.consumedCapacity.sum();
+    }
+
+    /**
+     * Get number of errors.
+     * 
+     * @return long
+     */
+    public long errors() {
+      return this.errors.sum();
+    }
+
+    /**
+     * Get Latency Histogram counts, see {@link InMemoryDynamoDbMetricsSink#latencyBuckets()}.
+     * 
+     * @return long[]
+     */
+    public long[] histogram() {
+      long[] counts = new long[this.histogram.length];
+      for (int i = 0; i < counts.length; i++) {
+        counts[i] = this.histogram[i].sum();
+      }
+      return counts;
+    }
+
+    /**
+     * Get number of items.
+     * 
+     * @return long
+     */
+    public long items() {
+      return this.items.sum();
+    }
+
+    /**
+     * Get total Latency in milliseconds.
+     * 
+     * @return long
+     */
+    public long latency() {
+      return this.latency.sum();
+    }
+
+    /**
+     * Get number of retries.
+     * 
+     * @return long
+     */
+    public long retries() {
+      return this.retries.sum();
+    }
+  }
+}
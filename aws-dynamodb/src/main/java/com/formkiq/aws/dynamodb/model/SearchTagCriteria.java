@@ -42,6 +42,15 @@ public class SearchTagCriteria {
   /** Search Tag Value Begins With. */
   @Reflectable
   private String beginsWith;
+  /** Search Tag Value Greater Than. */
+  @Reflectable
+  private String gt;
+  /** Search Tag Value Less Than. */
+  @Reflectable
+  private String lt;
+  /** Search Tag Value Range. */
+  @Reflectable
+  private SearchTagCriteriaRange range;
 
   /** constructor. */
   public SearchTagCriteria() {}
@@ -75,6 +84,66 @@ public class SearchTagCriteria {
     return this;
   }
 
+  /**
+   * Get Greater Than.
+   *
+   * @return {@link String}
+   */
+  public String gt() {
+    return this.gt;
+  }
+
+  /**
+   * Set Greater Than.
+   *
+   * @param s {@link String}
+   * @return {@link SearchTagCriteria}
+   */
+  public SearchTagCriteria gt(final String s) {
+    this.gt = s;
+    return this;
+  }
+
+  /**
+   * Get Less Than.
+   *
+   * @return {@link String}
+   */
+  public String lt() {
+    return this.lt;
+  }
+
+  /**
+   * Set Less Than.
+   *
+   * @param s {@link String}
+   * @return {@link SearchTagCriteria}
+   */
+  public SearchTagCriteria lt(final String s) {
+    this.lt = s;
+    return this;
+  }
+
+  /**
+   * Get Range.
+   *
+   * @return {@link SearchTagCriteriaRange}
+   */
+  public SearchTagCriteriaRange range() {
+    return this.range;
+  }
+
+  /**
+   * Set Range.
+   *
+   * @param r {@link SearchTagCriteriaRange}
+   * @return {@link SearchTagCriteria}
+   */
+  public SearchTagCriteria range(final SearchTagCriteriaRange r) {
+    this.range = r;
+    return this;
+  }
+
   /**
    * Get EQ {@link String}.
    *
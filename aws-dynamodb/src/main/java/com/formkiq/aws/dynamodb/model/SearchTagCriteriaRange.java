@@ -0,0 +1,81 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.model;
+
+import com.formkiq.graalvm.annotations.Reflectable;
+
+/** Inclusive range of numeric or date tag values of a {@link SearchTagCriteria}. */
+@Reflectable
+public class SearchTagCriteriaRange {
+
+  /** Range Start. */
+  @Reflectable
+  private String start;
+  /** Range End. */
+  @Reflectable
+  private String end;
+
+  /** constructor. */
+  public SearchTagCriteriaRange() {}
+
+  /**
+   * Get Range End.
+   *
+   * @return {@link String}
+   */
+  public String end() {
+    return this.end;
+  }
+
+  /**
+   * Set Range End.
+   *
+   * @param s {@link String}
+   * @return {@link SearchTagCriteriaRange}
+   */
+  public SearchTagCriteriaRange end(final String s) {
+    this.end = s;
+    return this;
+  }
+
+  /**
+   * Get Range Start.
+   *
+   * @return {@link String}
+   */
+  public String start() {
+    return this.start;
+  }
+
+  /**
+   * Set Range Start.
+   *
+   * @param s {@link String}
+   * @return {@link SearchTagCriteriaRange}
+   */
+  public SearchTagCriteriaRange start(final String s) {
+    this.start = s;
+    return this;
+  }
+}
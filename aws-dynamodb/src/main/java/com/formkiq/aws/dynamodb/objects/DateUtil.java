@@ -42,6 +42,9 @@ public final class DateUtil {
 
   /** Date Format. */
   public static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ssZ";
+  /** ISO Standard {@link DateTimeFormatter}, immutable so it can be shared between threads. */
+  private static final DateTimeFormatter ISO_DATE_TIME_FORMATTER =
+      DateTimeFormatter.ofPattern(DATE_FORMAT).withZone(ZoneOffset.UTC);
 
   /**
    * Formats TZ String to start with '+' or '-'.
@@ -82,6 +85,16 @@ public final class DateUtil {
     return df;
   }
 
+  /**
+   * String to ISO Standard format {@link DateTimeFormatter} in UTC. Unlike
+   * {@link #getIsoDateFormatter()} the returned formatter is safe to share between threads.
+   * 
+   * @return {@link DateTimeFormatter}
+   */
+  public static DateTimeFormatter getIsoDateTimeFormatter() {
+    return ISO_DATE_TIME_FORMATTER;
+  }
+
   /**
    * Get {@link ZoneOffset}.
    * 
@@ -122,28 +122,19 @@ public class DocumentSchema {
       AttributeDefinition a6 = AttributeDefinition.builder().attributeName("GSI2SK")
           .attributeType(ScalarAttributeType.S).build();
 
-      GlobalSecondaryIndex si1 = GlobalSecondaryIndex.builder().indexName("GSI1")
-          .keySchema(
-              KeySchemaElement.builder().attributeName("GSI1PK").keyType(KeyType.HASH).build(),
-              KeySchemaElement.builder().attributeName("GSI1SK").keyType(KeyType.RANGE).build())
-          .projection(Projection.builder().projectionType(ProjectionType.INCLUDE)
-              .nonKeyAttributes("inserteddate", "documentId", "tagKey", "tagValue").build())
-          .provisionedThroughput(ProvisionedThroughput.builder().writeCapacityUnits(this.capacity)
-              .readCapacityUnits(this.capacity).build())
-          .build();
+      AttributeDefinition a7 = AttributeDefinition.builder().attributeName("GSI3PK")
+          .attributeType(ScalarAttributeType.S).build();
 
-      GlobalSecondaryIndex si2 = GlobalSecondaryIndex.builder().indexName("GSI2")
-          .keySchema(
-              KeySchemaElement.builder().attributeName("GSI2PK").keyType(KeyType.HASH).build(),
-              KeySchemaElement.builder().attributeName("GSI2SK").keyType(KeyType.RANGE).build())
-          .projection(Projection.builder().projectionType(ProjectionType.INCLUDE)
-              .nonKeyAttributes("inserteddate", "documentId", "tagKey", "tagValue").build())
-          .provisionedThroughput(ProvisionedThroughput.builder().writeCapacityUnits(this.capacity)
-              .readCapacityUnits(this.capacity).build())
-          .build();
+      AttributeDefinition a8 = AttributeDefinition.builder().attributeName("GSI3SK")
+          .attributeType(ScalarAttributeType.S).build();
+
+      GlobalSecondaryIndex si1 = createTagIndex("GSI1");
+      GlobalSecondaryIndex si2 = createTagIndex("GSI2");
+      GlobalSecondaryIndex si3 = createTagIndex("GSI3");
 
       CreateTableRequest table = CreateTableRequest.builder().tableName(tableName).keySchema(pk, sk)
-          .attributeDefinitions(a1, a2, a3, a4, a5, a6).globalSecondaryIndexes(si1, si2)
+          .attributeDefinitions(a1, a2, a3, a4, a5, a6, a7, a8)
+          .globalSecondaryIndexes(si1, si2, si3)
           .streamSpecification(StreamSpecification.builder().streamEnabled(Boolean.TRUE)
               .streamViewType(StreamViewType.NEW_AND_OLD_IMAGES).build())
           .provisionedThroughput(ProvisionedThroughput.builder().writeCapacityUnits(this.capacity)
@@ -156,6 +147,23 @@ public class DocumentSchema {
     return response;
   }
 
+  /**
+   * Create a tag {@link GlobalSecondaryIndex}.
+   * 
+   * @param indexName {@link String}
+   * @return {@link GlobalSecondaryIndex}
+   */
+  private GlobalSecondaryIndex createTagIndex(final String indexName) {
+    return GlobalSecondaryIndex.builder().indexName(indexName).keySchema(
+        KeySchemaElement.builder().attributeName(indexName + "PK").keyType(KeyType.HASH).build(),
+        KeySchemaElement.builder().attributeName(indexName + "SK").keyType(KeyType.RANGE).build())
+        .projection(Projection.builder().projectionType(ProjectionType.INCLUDE)
+            .nonKeyAttributes("inserteddate", "documentId", "tagKey", "tagValue").build())
+        .provisionedThroughput(ProvisionedThroughput.builder().writeCapacityUnits(this.capacity)
+            .readCapacityUnits(this.capacity).build())
+        .build();
+  }
+
   /**
    * Create Documents Syncs Table.
    * 
@@ -0,0 +1,264 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.formkiq.aws.dynamodb.memory.InMemoryDynamoDbClient;
+import com.formkiq.aws.dynamodb.schema.DocumentSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+/**
+ * 
+ * Unit Tests for {@link DynamoDbAsyncServiceImpl}.
+ *
+ */
+public class DynamoDbAsyncServiceImplTest {
+
+  /** Table Name. */
+  private static final String TABLE = "Documents";
+
+  private static <T> List<T> half(final List<T> list) {
+    return list.subList(0, list.size() / 2);
+  }
+
+  private static <T> List<T> rest(final List<T> list) {
+    return list.subList(list.size() / 2, list.size());
+  }
+
+  private static Map<String, AttributeValue> item(final int i) {
+    return Map.of("PK", AttributeValue.fromS("pk"), "SK", AttributeValue.fromS("sk#" + i));
+  }
+
+  /** Number of BatchGetItem / BatchWriteItem calls. */
+  private AtomicInteger calls;
+  /** {@link InMemoryDynamoDbClient}. */
+  private InMemoryDynamoDbClient client;
+  /** Number of calls to throttle. */
+  private AtomicInteger throttles;
+  /** Number of calls that leave half the items / keys unprocessed. */
+  private AtomicInteger unprocessed;
+
+  /**
+   * Before Each.
+   */
+  @BeforeEach
+  public void beforeEach() {
+    this.calls = new AtomicInteger();
+    this.throttles = new AtomicInteger();
+    this.unprocessed = new AtomicInteger();
+    this.client = new InMemoryDynamoDbClient();
+    new DocumentSchema(this.client).createDocumentsTable(TABLE);
+  }
+
+  private DynamoDbAsyncService service() {
+    return new DynamoDbAsyncServiceImpl(new TestAsyncClient(), TABLE);
+  }
+
+  /**
+   * Put and get items.
+   */
+  @Test
+  public void testGet01() {
+    // given
+    DynamoDbAsyncService service = service();
+
+    // when
+    service.putItem(item(1)).join();
+
+    // then
+    assertFalse(service.get(item(1).get("PK"), item(1).get("SK")).join().isEmpty());
+    assertTrue(service.exists(item(1).get("PK"), item(1).get("SK")).join().booleanValue());
+    assertFalse(service.exists(item(2).get("PK"), item(2).get("SK")).join().booleanValue());
+  }
+
+  /**
+   * Unprocessed and throttled keys are read again, results keep the key order.
+   */
+  @Test
+  public void testGetBatch01() {
+    // given
+    final int count = 150;
+    final int expectedCalls = 5;
+    DynamoDbAsyncService service = service();
+    List<Map<String, AttributeValue>> items =
+        IntStream.range(0, count).mapToObj(i -> item(i)).collect(Collectors.toList());
+    service.putItems(items).join();
+    this.calls.set(0);
+    this.unprocessed.set(2);
+    this.throttles.set(1);
+
+    // when
+    List<Map<String, AttributeValue>> results =
+        service.getBatch(new BatchGetConfig(), items).join();
+
+    // then
+    assertEquals(expectedCalls, this.calls.get());
+    assertEquals(count, results.size());
+    assertEquals(items, results);
+  }
+
+  /**
+   * Unprocessed items are written again.
+   */
+  @Test
+  public void testPutItems01() {
+    // given
+    final int count = 30;
+    final int expectedCalls = 4;
+    DynamoDbAsyncService service = service();
+    List<Map<String, AttributeValue>> items =
+        IntStream.range(0, count).mapToObj(i -> item(i)).collect(Collectors.toList());
+    this.unprocessed.set(2);
+
+    // when
+    service.putItems(items).join();
+
+    // then
+    assertEquals(expectedCalls, this.calls.get());
+    assertEquals(count, service.getBatch(new BatchGetConfig(), items).join().size());
+  }
+
+  /**
+   * Throttled writes are written again.
+   */
+  @Test
+  public void testPutItems02() {
+    // given
+    final int count = 10;
+    final int expectedCalls = 3;
+    DynamoDbAsyncService service = service();
+    List<Map<String, AttributeValue>> items =
+        IntStream.range(0, count).mapToObj(i -> item(i)).collect(Collectors.toList());
+    this.throttles.set(2);
+
+    // when
+    service.putItems(items).join();
+
+    // then
+    assertEquals(expectedCalls, this.calls.get());
+    assertEquals(count, service.getBatch(new BatchGetConfig(), items).join().size());
+  }
+
+  /**
+   * {@link DynamoDbAsyncClient} backed by {@link InMemoryDynamoDbClient} that throttles calls and
+   * leaves items unprocessed on request.
+   */
+  private final class TestAsyncClient implements DynamoDbAsyncClient {
+
+    @Override
+    public CompletableFuture<BatchGetItemResponse> batchGetItem(final BatchGetItemRequest request) {
+
+      calls.incrementAndGet();
+
+      if (throttles.getAndDecrement() > 0) {
+        return CompletableFuture.failedFuture(
+            ProvisionedThroughputExceededException.builder().message("throttled").build());
+      }
+
+      KeysAndAttributes keys = request.requestItems().get(TABLE);
+      Map<String, KeysAndAttributes> unprocessedKeys = new HashMap<>();
+      KeysAndAttributes processed = keys;
+
+      if (unprocessed.getAndDecrement() > 0) {
+        processed = keys.toBuilder().keys(half(keys.keys())).build();
+        unprocessedKeys.put(TABLE, keys.toBuilder().keys(rest(keys.keys())).build());
+      }
+
+      BatchGetItemResponse response = client.batchGetItem(
+          BatchGetItemRequest.builder().requestItems(Map.of(TABLE, processed)).build());
+      return CompletableFuture
+          .completedFuture(response.toBuilder().unprocessedKeys(unprocessedKeys).build());
+    }
+
+    @Override
+    public CompletableFuture<BatchWriteItemResponse> batchWriteItem(
+        final BatchWriteItemRequest request) {
+
+      calls.incrementAndGet();
+
+      if (throttles.getAndDecrement() > 0) {
+        return CompletableFuture.failedFuture(
+            ProvisionedThroughputExceededException.builder().message("throttled").build());
+      }
+
+      List<WriteRequest> writes = request.requestItems().get(TABLE);
+      Map<String, List<WriteRequest>> unprocessedItems = new HashMap<>();
+      List<WriteRequest> processed = writes;
+
+      if (unprocessed.getAndDecrement() > 0) {
+        processed = half(writes);
+        unprocessedItems.put(TABLE, new ArrayList<>(rest(writes)));
+      }
+
+      client.batchWriteItem(
+          BatchWriteItemRequest.builder().requestItems(Map.of(TABLE, processed)).build());
+      return CompletableFuture.completedFuture(
+          BatchWriteItemResponse.builder().unprocessedItems(unprocessedItems).build());
+    }
+
+    @Override
+    public void close() {
+      // nothing to close
+    }
+
+    @Override
+    public CompletableFuture<GetItemResponse> getItem(final GetItemRequest request) {
+      return CompletableFuture.completedFuture(client.getItem(request));
+    }
+
+    @Override
+    public CompletableFuture<PutItemResponse> putItem(final PutItemRequest request) {
+      return CompletableFuture.completedFuture(client.putItem(request));
+    }
+
+    @Override
+    public String serviceName() {
+      return "dynamodb";
+    }
+  }
+}
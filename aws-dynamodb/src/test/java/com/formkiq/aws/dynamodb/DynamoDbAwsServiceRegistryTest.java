@@ -0,0 +1,80 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import com.formkiq.aws.dynamodb.memory.InMemoryDynamoDbClient;
+import com.formkiq.aws.dynamodb.schema.DocumentSchema;
+import com.formkiq.module.lambdaservices.AwsServiceCache;
+import com.formkiq.module.lambdaservices.AwsServiceCacheBuilder;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * 
+ * Unit Tests for {@link DynamoDbAwsServiceRegistry}.
+ *
+ */
+public class DynamoDbAwsServiceRegistryTest {
+
+  /**
+   * Start in memory with the "memory" DynamoDb endpoint, ie: "--dynamodb-url memory".
+   * 
+   * @throws URISyntaxException URISyntaxException
+   */
+  @Test
+  public void testInitService01() throws URISyntaxException {
+    // given
+    final String table = "DynamoDbAwsServiceRegistryTest";
+    Map<String, String> env = Map.of("AWS_REGION", "us-east-1", "DYNAMODB_IN_MEMORY", "true",
+        "ENABLE_DYNAMODB_ASYNC", "true");
+    Map<String, URI> endpoints = Map.of("dynamodb", new URI("memory"));
+    StaticCredentialsProvider cred =
+        StaticCredentialsProvider.create(AwsBasicCredentials.create("ACCESSKEY", "SECRETKEY"));
+
+    // when
+    AwsServiceCache serviceCache = new AwsServiceCacheBuilder(env, endpoints, cred)
+        .addService(new DynamoDbAwsServiceRegistry()).build();
+
+    // then
+    DynamoDbClient client = serviceCache.getExtension(DynamoDbConnectionBuilder.class).build();
+    assertTrue(client instanceof InMemoryDynamoDbClient);
+    assertNull(serviceCache.getExtensionOrNull(DynamoDbAsyncService.class));
+
+    new DocumentSchema(client).createDocumentsTable(table);
+    DynamoDbService service = new DynamoDbServiceImpl(client, table);
+    service.putItem(Map.of("PK", AttributeValue.fromS("pk"), "SK", AttributeValue.fromS("sk"),
+        "value", AttributeValue.fromS("1")));
+    assertEquals("1",
+        service.get(AttributeValue.fromS("pk"), AttributeValue.fromS("sk")).get("value").s());
+  }
+}
@@ -0,0 +1,148 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.formkiq.aws.dynamodb.memory.InMemoryDynamoDbClient;
+import com.formkiq.aws.dynamodb.schema.DocumentSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+
+/**
+ * 
+ * Unit Tests for {@link DynamoDbServiceImpl}.
+ *
+ */
+public class DynamoDbServiceImplTest {
+
+  /** Table Name. */
+  private static final String TABLE = "Documents";
+  /** Existing PK. */
+  private static final AttributeValue PK = AttributeValue.fromS("pk");
+  /** Missing PK. */
+  private static final AttributeValue MISSING = AttributeValue.fromS("missing");
+  /** SK. */
+  private static final AttributeValue SK = AttributeValue.fromS("sk");
+
+  /** {@link InMemoryDynamoDbClient} recording every GetItem consistent read flag. */
+  private InMemoryDynamoDbClient client;
+  /** GetItem Consistent Reads. */
+  private List<Boolean> reads;
+
+  /**
+   * Before Each.
+   */
+  @BeforeEach
+  public void beforeEach() {
+    this.reads = new CopyOnWriteArrayList<>();
+    this.client = new InMemoryDynamoDbClient() {
+      @Override
+      public GetItemResponse getItem(final GetItemRequest request) {
+        reads.add(request.consistentRead());
+        return super.getItem(request);
+      }
+    };
+    new DocumentSchema(this.client).createDocumentsTable(TABLE);
+    new DynamoDbServiceImpl(this.client, TABLE).putItem(Map.of("PK", PK, "SK", SK));
+  }
+
+  /**
+   * Default reads are strongly consistent.
+   */
+  @Test
+  public void testGet01() {
+    // given
+    DynamoDbService service = new DynamoDbServiceImpl(this.client, TABLE);
+
+    // when
+    Map<String, AttributeValue> item = service.get(PK, SK);
+
+    // then
+    assertFalse(item.isEmpty());
+    assertEquals(List.of(Boolean.TRUE), this.reads);
+  }
+
+  /**
+   * Eventual consistent read, a miss is not read again.
+   */
+  @Test
+  public void testGet02() {
+    // given
+    DynamoDbService service = new DynamoDbServiceImpl(this.client, TABLE);
+    QueryConfig config = new QueryConfig().readConsistency(ReadConsistency.EVENTUAL);
+
+    // when
+    Map<String, AttributeValue> item = service.get(config, MISSING, SK);
+
+    // then
+    assertTrue(item.isEmpty());
+    assertEquals(List.of(Boolean.FALSE), this.reads);
+  }
+
+  /**
+   * Eventual consistent read with fallback, only a miss is read again strongly consistent.
+   */
+  @Test
+  public void testGet03() {
+    // given
+    DynamoDbService service = new DynamoDbServiceImpl(this.client, TABLE);
+    QueryConfig config = new QueryConfig().readConsistency(ReadConsistency.EVENTUAL_WITH_FALLBACK);
+
+    // when
+    boolean found = service.exists(config, PK, SK);
+    boolean missing = service.exists(config, MISSING, SK);
+
+    // then
+    assertTrue(found);
+    assertFalse(missing);
+    assertEquals(List.of(Boolean.FALSE, Boolean.FALSE, Boolean.TRUE), this.reads);
+  }
+
+  /**
+   * Connection {@link ReadConsistency} overrides the requested {@link ReadConsistency}.
+   */
+  @Test
+  public void testGet04() {
+    // given
+    DynamoDbConnectionBuilder connection = new DynamoDbConnectionBuilder(false)
+        .setDynamoDbClient(this.client).setReadConsistency(ReadConsistency.STRONG);
+    DynamoDbService service = new DynamoDbServiceImpl(connection, TABLE);
+    QueryConfig config = new QueryConfig().readConsistency(ReadConsistency.EVENTUAL);
+
+    // when
+    Map<String, AttributeValue> item = service.get(config, PK, SK);
+
+    // then
+    assertFalse(item.isEmpty());
+    assertEquals(List.of(Boolean.TRUE), this.reads);
+  }
+}
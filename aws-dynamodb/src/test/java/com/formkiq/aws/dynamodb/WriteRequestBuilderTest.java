@@ -0,0 +1,129 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+/**
+ * 
+ * Unit Tests for {@link WriteRequestBuilder}.
+ *
+ */
+public class WriteRequestBuilderTest {
+
+  /** Table Name. */
+  private static final String TABLE = "documents";
+
+  private static List<Map<String, AttributeValue>> createItems(final int count) {
+    return IntStream.range(0, count)
+        .mapToObj(
+            i -> Map.of("PK", AttributeValue.fromS("pk" + i), "SK", AttributeValue.fromS("sk")))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Write items in chunks of 25, every first attempt of a chunk returns half of it unprocessed.
+   */
+  @Test
+  public void testBatchWrite01() {
+    // given
+    final int count = 110;
+    final int chunks = 5;
+    Set<String> written = ConcurrentHashMap.newKeySet();
+    AtomicInteger calls = new AtomicInteger();
+
+    DynamoDbClient client = new DynamoDbClient() {
+
+      @Override
+      public BatchWriteItemResponse batchWriteItem(final BatchWriteItemRequest request) {
+        calls.incrementAndGet();
+        List<WriteRequest> writes = request.requestItems().get(TABLE);
+        List<WriteRequest> unprocessed =
+            writes.size() > 1 ? writes.subList(0, writes.size() / 2) : Collections.emptyList();
+
+        List<WriteRequest> processed = new ArrayList<>(writes);
+        processed.removeAll(unprocessed);
+        processed.forEach(w -> written.add(w.putRequest().item().get("PK").s()));
+
+        return BatchWriteItemResponse.builder()
+            .unprocessedItems(unprocessed.isEmpty() ? Map.of() : Map.of(TABLE, unprocessed))
+            .build();
+      }
+
+      @Override
+      public void close() {
+        // empty
+      }
+
+      @Override
+      public String serviceName() {
+        return SERVICE_NAME;
+      }
+    };
+
+    // when
+    BatchWriteResult result =
+        new WriteRequestBuilder().appends(TABLE, createItems(count)).batchWrite(client);
+
+    // then
+    assertTrue(result.isWrite());
+    assertEquals(count, written.size());
+    assertEquals(calls.get(), result.requests());
+    assertEquals(result.requests() - chunks, result.retries());
+    assertEquals(result.retries(), result.throttles());
+  }
+
+  /**
+   * Nothing to write.
+   */
+  @Test
+  public void testBatchWrite02() {
+    // given
+    DynamoDbClient client = null;
+
+    // when
+    BatchWriteResult result = new WriteRequestBuilder().batchWrite(client);
+
+    // then
+    assertFalse(result.isWrite());
+    assertEquals(0, result.retries());
+  }
+}
@@ -0,0 +1,288 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.formkiq.aws.dynamodb.BatchGetConfig;
+import com.formkiq.aws.dynamodb.DynamoDbService;
+import com.formkiq.aws.dynamodb.DynamoDbServiceImpl;
+import com.formkiq.aws.dynamodb.QueryConfig;
+import com.formkiq.aws.dynamodb.schema.DocumentSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+/**
+ * 
+ * Unit Tests for {@link InMemoryDynamoDbClient}.
+ *
+ */
+public class InMemoryDynamoDbClientTest {
+
+  /** Table Name. */
+  private static final String TABLE = "Documents";
+
+  private static Map<String, AttributeValue> item(final String pk, final String sk) {
+    return Map.of("PK", AttributeValue.fromS(pk), "SK", AttributeValue.fromS(sk));
+  }
+
+  /** {@link InMemoryDynamoDbClient}. */
+  private InMemoryDynamoDbClient client;
+  /** {@link DynamoDbService}. */
+  private DynamoDbService service;
+
+  /**
+   * Before Each.
+   */
+  @BeforeEach
+  public void beforeEach() {
+    this.client = new InMemoryDynamoDbClient();
+    new DocumentSchema(this.client).createDocumentsTable(TABLE);
+    this.service = new DynamoDbServiceImpl(this.client, TABLE);
+  }
+
+  /**
+   * Query sorted partition with begins_with, paging and descending order.
+   */
+  @Test
+  public void testQuery01() {
+    // given
+    final int count = 15;
+    final int limit = 10;
+    final int first = 100;
+    IntStream.range(0, count).forEach(i -> this.service.putItem(item("pk", "doc#" + (first + i))));
+    this.service.putItem(item("pk", "other"));
+    this.service.putItem(item("pk2", "doc#999"));
+    QueryConfig config = new QueryConfig().scanIndexForward(Boolean.TRUE);
+
+    // when
+    QueryResponse page1 = this.service.queryBeginsWith(config, AttributeValue.fromS("pk"),
+        AttributeValue.fromS("doc#"), null, limit);
+
+    // then
+    assertEquals(limit, page1.count().intValue());
+    assertEquals("doc#100", page1.items().get(0).get("SK").s());
+    assertEquals("doc#109", page1.items().get(limit - 1).get("SK").s());
+
+    // when
+    QueryResponse page2 = this.service.queryBeginsWith(config, AttributeValue.fromS("pk"),
+        AttributeValue.fromS("doc#"), page1.lastEvaluatedKey(), limit);
+
+    // then
+    assertEquals(count - limit, page2.count().intValue());
+    assertEquals("doc#110", page2.items().get(0).get("SK").s());
+    assertTrue(page2.lastEvaluatedKey().isEmpty());
+
+    // when
+    QueryResponse desc = this.service.query(AttributeValue.fromS("pk"), null, 2);
+
+    // then
+    assertEquals("other", desc.items().get(0).get("SK").s());
+    assertEquals("doc#114", desc.items().get(1).get("SK").s());
+  }
+
+  /**
+   * Global Secondary Index is maintained on put / update / delete with its projection.
+   */
+  @Test
+  public void testGsi01() {
+    // given
+    Map<String, AttributeValue> item = new HashMap<>(item("doc", "tag"));
+    item.put("GSI1PK", AttributeValue.fromS("tag#category"));
+    item.put("GSI1SK", AttributeValue.fromS("person"));
+    item.put("documentId", AttributeValue.fromS("123"));
+    item.put("userId", AttributeValue.fromS("joe"));
+
+    // when
+    this.service.putItem(item);
+    QueryResponse response =
+        this.service.queryIndex("GSI1", AttributeValue.fromS("tag#category"), null, 1);
+
+    // then
+    assertEquals(1, response.count().intValue());
+    Map<String, AttributeValue> result = response.items().get(0);
+    assertEquals("123", result.get("documentId").s());
+    assertFalse(result.containsKey("userId"));
+    assertEquals("[GSI1PK, GSI1SK, PK, SK]", response.lastEvaluatedKey().keySet().stream().sorted()
+        .collect(Collectors.toList()).toString());
+
+    // when
+    this.client.updateItem(UpdateItemRequest.builder().tableName(TABLE).key(item("doc", "tag"))
+        .updateExpression("REMOVE GSI1PK").build());
+
+    // then
+    assertEquals(0, this.service.queryIndex("GSI1", AttributeValue.fromS("tag#category"), null, 1)
+        .count().intValue());
+    assertEquals("joe", this.service.get(AttributeValue.fromS("doc"), AttributeValue.fromS("tag"))
+        .get("userId").s());
+  }
+
+  /**
+   * Conditional Put.
+   */
+  @Test
+  public void testConditionalPut01() {
+    // given
+    PutItemRequest put = PutItemRequest.builder().tableName(TABLE).item(item("pk", "sk"))
+        .conditionExpression("attribute_not_exists(PK)").build();
+
+    // when
+    this.client.putItem(put);
+
+    // then
+    assertThrows(ConditionalCheckFailedException.class, () -> this.client.putItem(put));
+  }
+
+  /**
+   * Update Expression counter and return values.
+   */
+  @Test
+  public void testUpdate01() {
+    // given
+    UpdateItemRequest update =
+        UpdateItemRequest.builder().tableName(TABLE).key(item("count", "documents"))
+            .updateExpression("SET #val = if_not_exists(#val, :zero) + :incr")
+            .expressionAttributeNames(Map.of("#val", "documentCount"))
+            .expressionAttributeValues(
+                Map.of(":zero", AttributeValue.fromN("0"), ":incr", AttributeValue.fromN("1")))
+            .returnValues(ReturnValue.UPDATED_NEW).build();
+
+    // when
+    this.client.updateItem(update);
+    Map<String, AttributeValue> attributes = this.client.updateItem(update).attributes();
+
+    // then
+    assertEquals(Map.of("documentCount", AttributeValue.fromN("2")), attributes);
+  }
+
+  /**
+   * Transaction is not applied if any condition fails.
+   */
+  @Test
+  public void testTransactWrite01() {
+    // given
+    this.service.putItem(item("pk", "existing"));
+
+    TransactWriteItem put1 = TransactWriteItem.builder()
+        .put(Put.builder().tableName(TABLE).item(item("pk", "new")).build()).build();
+    TransactWriteItem put2 =
+        TransactWriteItem.builder().put(Put.builder().tableName(TABLE).item(item("pk", "existing"))
+            .conditionExpression("attribute_not_exists(PK)").build()).build();
+
+    // when
+    TransactionCanceledException e =
+        assertThrows(TransactionCanceledException.class, () -> this.client.transactWriteItems(
+            TransactWriteItemsRequest.builder().transactItems(put1, put2).build()));
+
+    // then
+    assertEquals("[None, ConditionalCheckFailed]", e.cancellationReasons().stream()
+        .map(r -> r.code()).collect(Collectors.toList()).toString());
+    assertFalse(this.service.exists(AttributeValue.fromS("pk"), AttributeValue.fromS("new")));
+
+    // when
+    this.client.transactWriteItems(TransactWriteItemsRequest.builder().transactItems(put1).build());
+
+    // then
+    assertTrue(this.service.exists(AttributeValue.fromS("pk"), AttributeValue.fromS("new")));
+  }
+
+  /**
+   * Batch Write / Get.
+   */
+  @Test
+  public void testBatch01() {
+    // given
+    final int count = 60;
+    final int maxBatchWrite = 25;
+    List<Map<String, AttributeValue>> items =
+        IntStream.range(0, count).mapToObj(i -> item("pk" + i, "sk")).collect(Collectors.toList());
+
+    // when
+    this.service.putItems(items);
+    List<Map<String, AttributeValue>> results = this.service.getBatch(new BatchGetConfig(), items);
+
+    // then
+    assertEquals(items, results);
+
+    List<WriteRequest> writes = items.subList(0, maxBatchWrite + 1).stream()
+        .map(i -> WriteRequest.builder().putRequest(p -> p.item(i)).build())
+        .collect(Collectors.toList());
+    assertThrows(DynamoDbException.class, () -> this.client.batchWriteItem(
+        BatchWriteItemRequest.builder().requestItems(Map.of(TABLE, writes)).build()));
+  }
+
+  /**
+   * Filter, Projection and Select Count.
+   */
+  @Test
+  public void testQuery02() {
+    // given
+    final int count = 10;
+    IntStream.range(0, count).forEach(i -> {
+      Map<String, AttributeValue> item = new HashMap<>(item("pk", "sk" + i));
+      item.put("size", AttributeValue.fromN(String.valueOf(i)));
+      item.put("name", AttributeValue.fromS("file" + i));
+      this.service.putItem(item);
+    });
+
+    // when
+    QueryResponse response = this.client.query(QueryRequest.builder().tableName(TABLE)
+        .keyConditionExpression("PK = :pk AND SK BETWEEN :a AND :b")
+        .filterExpression("#s >= :min AND NOT contains(#n, :n)").projectionExpression("#n, #s")
+        .expressionAttributeNames(Map.of("#s", "size", "#n", "name"))
+        .expressionAttributeValues(Map.of(":pk", AttributeValue.fromS("pk"), ":a",
+            AttributeValue.fromS("sk2"), ":b", AttributeValue.fromS("sk8"), ":min",
+            AttributeValue.fromN("4"), ":n", AttributeValue.fromS("6")))
+        .build());
+
+    // then
+    assertEquals("[file4, file5, file7, file8]", response.items().stream()
+        .map(i -> i.get("name").s()).collect(Collectors.toList()).toString());
+    final int scanned = 7;
+    assertEquals(Integer.valueOf(scanned), response.scannedCount());
+    assertNull(response.items().get(0).get("PK"));
+  }
+}
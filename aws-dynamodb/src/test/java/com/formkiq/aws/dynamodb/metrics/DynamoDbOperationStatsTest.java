@@ -0,0 +1,101 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import com.formkiq.aws.dynamodb.DynamoDbBatchExecutor;
+
+/**
+ * 
+ * Unit Tests for {@link DynamoDbOperationStats}.
+ *
+ */
+public class DynamoDbOperationStatsTest {
+
+  /**
+   * Statistics of nested operations are added to the enclosing operation.
+   */
+  @Test
+  public void testNestedOperations01() {
+    // given
+    final double capacity = 1.5;
+    final int items = 10;
+    DynamoDbOperationStats stats = null;
+
+    // when
+    try (DynamoDbOperation outer = DynamoDbOperation.start("api.search")) {
+
+      try (DynamoDbOperation inner = DynamoDbOperation.start("search.byTag")) {
+        DynamoDbOperation.recordCall(null);
+        inner.stats().addResult(true, items, capacity);
+        DynamoDbOperation.increment("hydrate.batches", 1);
+        DynamoDbOperation.time("hydrate", () -> Boolean.TRUE);
+
+        DynamoDbBatchExecutor.invokeAll(List.of(() -> {
+          DynamoDbOperation.recordCall(null);
+          DynamoDbOperation.increment("hydrate.batches", 1);
+          return Boolean.TRUE;
+        }));
+
+        assertEquals(2, inner.calls());
+      }
+
+      stats = outer.stats();
+      assertEquals(0, outer.calls());
+    }
+
+    // then
+    assertEquals("[search.byTag]", stats.operations().toString());
+    assertEquals(2, stats.calls());
+    assertEquals(1, stats.pages());
+    assertEquals(items, stats.itemsRead());
+    assertEquals(capacity, stats.consumedCapacity(), 0.0);
+    assertEquals("{hydrate.batches=2}", stats.counters().toString());
+    assertEquals("[hydrate, search.byTag]", stats.timings().keySet().toString());
+
+    Map<String, Object> map = stats.toMap();
+    assertEquals(Long.valueOf(2), map.get("calls"));
+    assertTrue(map.containsKey("timings"));
+  }
+
+  /**
+   * Without a current operation nothing is recorded.
+   */
+  @Test
+  public void testNoOperation01() {
+    // given
+    // when
+    DynamoDbOperation.recordCall(null);
+    DynamoDbOperation.increment("hydrate.batches", 1);
+    String result = DynamoDbOperation.time("hydrate", () -> "ok");
+
+    // then
+    assertEquals("ok", result);
+    assertEquals(null, DynamoDbOperation.currentOperation());
+  }
+}
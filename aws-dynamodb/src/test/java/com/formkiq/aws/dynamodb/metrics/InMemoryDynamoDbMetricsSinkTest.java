@@ -0,0 +1,137 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.dynamodb.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import com.formkiq.aws.dynamodb.DynamoDbBatchExecutor;
+
+/**
+ * 
+ * Unit Tests for {@link InMemoryDynamoDbMetricsSink}.
+ *
+ */
+public class InMemoryDynamoDbMetricsSinkTest {
+
+  /**
+   * Record metrics for multiple operations.
+   */
+  @Test
+  public void testRecord01() {
+    // given
+    final double capacity = 2.5;
+    final long fastLatency = 3;
+    final long slowLatency = 3000;
+    final int queryItems = 10;
+    InMemoryDynamoDbMetricsSink sink = new InMemoryDynamoDbMetricsSink();
+
+    // when
+    sink.record(new DynamoDbMetric().operation("document.save").apiName("BatchWriteItem")
+        .consumedCapacity(capacity).items(2).latency(fastLatency).retries(1));
+    sink.record(new DynamoDbMetric().operation("document.save").apiName("BatchWriteItem")
+        .consumedCapacity(1.0).items(1).latency(slowLatency).error(true));
+    sink.record(new DynamoDbMetric().operation("search.byTag").apiName("Query").items(queryItems)
+        .latency(0));
+
+    // then
+    Map<String, InMemoryDynamoDbMetricsSink.Stats> snapshot = sink.snapshot();
+    assertEquals("[document.save/BatchWriteItem, search.byTag/Query]",
+        snapshot.keySet().toString());
+
+    InMemoryDynamoDbMetricsSink.Stats stats = snapshot.get("document.save/BatchWriteItem");
+    assertEquals(2, stats.calls());
+    assertEquals(capacity + 1.0, stats.consumedCapacity(), 0.0);
+    assertEquals(1, stats.errors());
+    assertEquals(2 + 1, stats.items());
+    assertEquals(fastLatency + slowLatency, stats.latency());
+    assertEquals(1, stats.retries());
+    assertArrayEquals(new long[] {0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 1}, stats.histogram());
+
+    sink.reset();
+    assertEquals(0, sink.snapshot().size());
+  }
+
+  /**
+   * Operation tag is restored on close and propagated to {@link DynamoDbBatchExecutor} threads.
+   */
+  @Test
+  public void testOperation01() {
+    // given
+    Supplier<String> task = () -> DynamoDbOperation.current();
+
+    // when
+    try (DynamoDbOperation outer = DynamoDbOperation.start("folder.move")) {
+
+      try (DynamoDbOperation inner = DynamoDbOperation.start("document.save")) {
+        List<String> ops = DynamoDbBatchExecutor.invokeAll(List.of(task, task, task));
+
+        // then
+        assertEquals("[document.save, document.save, document.save]", ops.toString());
+        assertEquals(inner.name(), DynamoDbOperation.current());
+      }
+
+      assertEquals(outer.name(), DynamoDbOperation.current());
+    }
+
+    assertEquals(DynamoDbOperation.UNTAGGED, DynamoDbOperation.current());
+  }
+
+  /**
+   * Calls made on {@link DynamoDbBatchExecutor} threads count towards the operation, which reports
+   * its number of calls once on close.
+   */
+  @Test
+  public void testOperation02() {
+    // given
+    final int saves = 2;
+    final long callsPerSave = 4;
+    InMemoryDynamoDbMetricsSink sink = new InMemoryDynamoDbMetricsSink();
+    Supplier<Boolean> task = () -> {
+      DynamoDbOperation.recordCall(sink);
+      return Boolean.TRUE;
+    };
+
+    // when
+    for (int i = 0; i < saves; i++) {
+      try (DynamoDbOperation op = DynamoDbOperation.start("document.save")) {
+        DynamoDbOperation.recordCall(sink);
+        DynamoDbBatchExecutor.invokeAll(List.of(task, task, task));
+        assertEquals(callsPerSave, op.calls());
+      }
+    }
+
+    // then
+    Map<String, InMemoryDynamoDbMetricsSink.OperationStats> snapshot = sink.operationSnapshot();
+    assertEquals("[document.save]", snapshot.keySet().toString());
+
+    InMemoryDynamoDbMetricsSink.OperationStats stats = snapshot.get("document.save");
+    assertEquals(saves, stats.invocations());
+    assertEquals(saves * callsPerSave, stats.calls());
+    assertEquals(callsPerSave, stats.callsPerInvocation(), 0.0);
+  }
+}
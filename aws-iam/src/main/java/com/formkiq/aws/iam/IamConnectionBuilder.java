@@ -51,9 +51,6 @@ public class IamConnectionBuilder {
    * constructor.
    */
   public IamConnectionBuilder() {
-    System.setProperty("software.amazon.awssdk.http.service.impl",
-        "software.amazon.awssdk.http.urlconnection.UrlConnectionSdkHttpService");
-
     this.builder = IamClient.builder().httpClientBuilder(UrlConnectionHttpClient.builder());
     setRegion("aws-global");
   }
@@ -51,9 +51,6 @@ public class LambdaConnectionBuilder {
    * constructor.
    */
   public LambdaConnectionBuilder() {
-    System.setProperty("software.amazon.awssdk.http.service.impl",
-        "software.amazon.awssdk.http.urlconnection.UrlConnectionSdkHttpService");
-
     this.builder = LambdaClient.builder().httpClientBuilder(UrlConnectionHttpClient.builder());
   }
 
@@ -42,7 +42,8 @@ public class S3AwsServiceRegistry implements AwsServiceRegistry {
 
     S3ConnectionBuilder s3 =
         new S3ConnectionBuilder(serviceCache.enableXray()).setRegion(serviceCache.region())
-            .setCredentials(credentialsProvider).setEndpointOverride(awsServiceEndpoints.get("s3"));
+            .setCredentials(credentialsProvider).setEndpointOverride(awsServiceEndpoints.get("s3"))
+            .setHttpClientConfig(serviceCache.httpClientConfig());
 
     serviceCache.register(S3ConnectionBuilder.class,
         new ClassServiceExtension<S3ConnectionBuilder>(s3));
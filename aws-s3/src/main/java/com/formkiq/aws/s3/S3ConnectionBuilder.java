@@ -24,6 +24,7 @@
 package com.formkiq.aws.s3;
 
 import java.net.URI;
+import com.formkiq.module.lambdaservices.AwsHttpClientConfig;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.ProfileCredentialsProvider;
@@ -53,8 +54,6 @@ public class S3ConnectionBuilder {
    * @param enableAwsXray Enable AWS X-Ray
    */
   public S3ConnectionBuilder(final boolean enableAwsXray) {
-    System.setProperty("software.amazon.awssdk.http.service.impl",
-        "software.amazon.awssdk.http.urlconnection.UrlConnectionSdkHttpService");
     System.setProperty("aws.s3UseUsEast1RegionalEndpoint", "regional");
 
     ClientOverrideConfiguration.Builder clientConfig = ClientOverrideConfiguration.builder();
@@ -131,6 +130,18 @@ public class S3ConnectionBuilder {
     return this;
   }
 
+  /**
+   * Set {@link AwsHttpClientConfig}.
+   * 
+   * @param config {@link AwsHttpClientConfig}
+   * @return {@link S3ConnectionBuilder}
+   */
+  public S3ConnectionBuilder setHttpClientConfig(final AwsHttpClientConfig config) {
+    this.builder = this.builder.httpClientBuilder(config.httpClientBuilder())
+        .overrideConfiguration(config.overrideConfiguration().build());
+    return this;
+  }
+
   /**
    * Set Region.
    * 
@@ -40,9 +40,10 @@ public class SesAwsServiceRegistry implements AwsServiceRegistry {
       final Map<String, URI> awsServiceEndpoints,
       final AwsCredentialsProvider credentialsProvider) {
 
-    SesConnectionBuilder ses = new SesConnectionBuilder(serviceCache.enableXray())
-        .setRegion(serviceCache.region()).setCredentials(credentialsProvider)
-        .setEndpointOverride(awsServiceEndpoints.get("ses"));
+    SesConnectionBuilder ses =
+        new SesConnectionBuilder(serviceCache.enableXray()).setRegion(serviceCache.region())
+            .setCredentials(credentialsProvider).setEndpointOverride(awsServiceEndpoints.get("ses"))
+            .setHttpClientConfig(serviceCache.httpClientConfig());
 
     serviceCache.register(SesConnectionBuilder.class,
         new ClassServiceExtension<SesConnectionBuilder>(ses));
@@ -25,6 +25,7 @@ package com.formkiq.aws.ses;
 
 import java.net.URI;
 
+import com.formkiq.module.lambdaservices.AwsHttpClientConfig;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.ProfileCredentialsProvider;
@@ -52,9 +53,6 @@ public class SesConnectionBuilder {
    * @param enableAwsXray Enable AWS X-Ray
    */
   public SesConnectionBuilder(final boolean enableAwsXray) {
-    System.setProperty("software.amazon.awssdk.http.service.impl",
-        "software.amazon.awssdk.http.urlconnection.UrlConnectionSdkHttpService");
-
     ClientOverrideConfiguration.Builder clientConfig = ClientOverrideConfiguration.builder();
 
     // if (enableAwsXray) {
@@ -114,6 +112,18 @@ public class SesConnectionBuilder {
     return this;
   }
 
+  /**
+   * Set {@link AwsHttpClientConfig}.
+   * 
+   * @param config {@link AwsHttpClientConfig}
+   * @return {@link SesConnectionBuilder}
+   */
+  public SesConnectionBuilder setHttpClientConfig(final AwsHttpClientConfig config) {
+    this.builder = this.builder.httpClientBuilder(config.httpClientBuilder())
+        .overrideConfiguration(config.overrideConfiguration().build());
+    return this;
+  }
+
   /**
    * Set Region.
    * 
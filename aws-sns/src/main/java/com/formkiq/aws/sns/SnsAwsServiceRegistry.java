@@ -39,9 +39,10 @@ public class SnsAwsServiceRegistry implements AwsServiceRegistry {
   public void initService(final AwsServiceCache serviceCache,
       final Map<String, URI> awsServiceEndpoints,
       final AwsCredentialsProvider credentialsProvider) {
-    SnsConnectionBuilder sns = new SnsConnectionBuilder(serviceCache.enableXray())
-        .setRegion(serviceCache.region()).setCredentials(credentialsProvider)
-        .setEndpointOverride(awsServiceEndpoints.get("sns"));
+    SnsConnectionBuilder sns =
+        new SnsConnectionBuilder(serviceCache.enableXray()).setRegion(serviceCache.region())
+            .setCredentials(credentialsProvider).setEndpointOverride(awsServiceEndpoints.get("sns"))
+            .setHttpClientConfig(serviceCache.httpClientConfig());
 
     serviceCache.register(SnsConnectionBuilder.class,
         new ClassServiceExtension<SnsConnectionBuilder>(sns));
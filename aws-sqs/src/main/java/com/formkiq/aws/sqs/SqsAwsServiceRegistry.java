@@ -40,9 +40,10 @@ public class SqsAwsServiceRegistry implements AwsServiceRegistry {
       final Map<String, URI> awsServiceEndpoints,
       final AwsCredentialsProvider credentialsProvider) {
 
-    SqsConnectionBuilder sqs = new SqsConnectionBuilder(serviceCache.enableXray())
-        .setRegion(serviceCache.region()).setCredentials(credentialsProvider)
-        .setEndpointOverride(awsServiceEndpoints.get("sqs"));
+    SqsConnectionBuilder sqs =
+        new SqsConnectionBuilder(serviceCache.enableXray()).setRegion(serviceCache.region())
+            .setCredentials(credentialsProvider).setEndpointOverride(awsServiceEndpoints.get("sqs"))
+            .setHttpClientConfig(serviceCache.httpClientConfig());
 
     serviceCache.register(SqsConnectionBuilder.class,
         new ClassServiceExtension<SqsConnectionBuilder>(sqs));
@@ -40,9 +40,10 @@ public class SmsAwsServiceRegistry implements AwsServiceRegistry {
       final Map<String, URI> awsServiceEndpoints,
       final AwsCredentialsProvider credentialsProvider) {
 
-    SsmConnectionBuilder ssm = new SsmConnectionBuilder(serviceCache.enableXray())
-        .setRegion(serviceCache.region()).setCredentials(credentialsProvider)
-        .setEndpointOverride(awsServiceEndpoints.get("ssm"));
+    SsmConnectionBuilder ssm =
+        new SsmConnectionBuilder(serviceCache.enableXray()).setRegion(serviceCache.region())
+            .setCredentials(credentialsProvider).setEndpointOverride(awsServiceEndpoints.get("ssm"))
+            .setHttpClientConfig(serviceCache.httpClientConfig());
 
     serviceCache.register(SsmConnectionBuilder.class,
         new ClassServiceExtension<SsmConnectionBuilder>(ssm));
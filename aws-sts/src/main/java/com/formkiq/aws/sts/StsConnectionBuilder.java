@@ -51,9 +51,6 @@ public class StsConnectionBuilder {
    * constructor.
    */
   public StsConnectionBuilder() {
-    System.setProperty("software.amazon.awssdk.http.service.impl",
-        "software.amazon.awssdk.http.urlconnection.UrlConnectionSdkHttpService");
-
     this.builder = StsClient.builder().httpClientBuilder(UrlConnectionHttpClient.builder());
   }
 
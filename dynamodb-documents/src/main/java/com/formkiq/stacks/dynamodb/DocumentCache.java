@@ -0,0 +1,240 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 
+ * Bounded, time to live based read-through cache of document records (item, tags, formats) keyed by
+ * the document's partition key. Values are the raw DynamoDb attributes and must not be modified by
+ * callers. Least recently used documents are evicted once the maximum size is reached.
+ * 
+ * Values read from DynamoDb are only cached if no document was invalidated while they were being
+ * read (see {@link #stamp()}), so a concurrent write can not be overwritten by a stale read.
+ *
+ */
+public class DocumentCache {
+
+  /** {@link LinkedHashMap} load factor. */
+  private static final float LOAD_FACTOR = 0.75f;
+
+  /**
+   * Cached values of a single document.
+   */
+  private static final class Entry {
+
+    /** Expiry time in milliseconds. */
+    private final long expiresAt;
+    /** Cached values by name. */
+    private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+    /**
+     * constructor.
+     * 
+     * @param expiry long
+     */
+    private Entry(final long expiry) {
+      this.expiresAt = expiry;
+    }
+  }
+
+  /** Cache entries, in access order. */
+  private final LinkedHashMap<String, Entry> entries;
+  /** Number of evicted documents. */
+  private final AtomicLong evictions = new AtomicLong();
+  /** Number of cache hits. */
+  private final AtomicLong hits = new AtomicLong();
+  /** Number of invalidations. */
+  private final AtomicLong invalidations = new AtomicLong();
+  /** Maximum number of documents. */
+  private final int maxSize;
+  /** Number of cache misses. */
+  private final AtomicLong misses = new AtomicLong();
+  /** Time to live in milliseconds. */
+  private final long ttl;
+
+  /**
+   * constructor.
+   * 
+   * @param timeToLive {@link Duration}
+   * @param maximumSize int
+   */
+  public DocumentCache(final Duration timeToLive, final int maximumSize) {
+
+    if (timeToLive == null || timeToLive.isNegative() || timeToLive.isZero()) {
+      throw new IllegalArgumentException("'timeToLive' must be positive");
+    }
+
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("'maximumSize' must be positive");
+    }
+
+    this.ttl = timeToLive.toMillis();
+    this.maxSize = maximumSize;
+    this.entries = new LinkedHashMap<>(maximumSize, LOAD_FACTOR, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+        boolean remove = size() > DocumentCache.this.maxSize;
+        if (remove) {
+          DocumentCache.this.evictions.incrementAndGet();
+        }
+        return remove;
+      }
+    };
+  }
+
+  /**
+   * Number of documents evicted because the cache was full.
+   * 
+   * @return long
+   */
+  public long evictions() {
+    return this.evictions.get();
+  }
+
+  /**
+   * Get Cached value.
+   * 
+   * @param <T> Type of value
+   * @param pk {@link String}
+   * @param name {@link String}
+   * @return T or null if not cached
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T get(final String pk, final String name) {
+
+    Entry entry;
+    synchronized (this.entries) {
+      entry = this.entries.get(pk);
+      if (entry != null && entry.expiresAt <= System.currentTimeMillis()) {
+        this.entries.remove(pk);
+        entry = null;
+      }
+    }
+
+    Object value = entry != null ? entry.values.get(name) : null;
+    if (value != null) {
+      this.hits.incrementAndGet();
+    } else {
+      this.misses.incrementAndGet();
+    }
+
+    return (T) value;
+  }
+
+  /**
+   * Number of cache hits.
+   * 
+   * @return long
+   */
+  public long hits() {
+    return this.hits.get();
+  }
+
+  /**
+   * Remove all cached values of a document.
+   * 
+   * @param pk {@link String}
+   */
+  public void invalidate(final String pk) {
+    synchronized (this.entries) {
+      this.invalidations.incrementAndGet();
+      this.entries.remove(pk);
+    }
+  }
+
+  /**
+   * Remove all cached values.
+   */
+  public void invalidateAll() {
+    synchronized (this.entries) {
+      this.invalidations.incrementAndGet();
+      this.entries.clear();
+    }
+  }
+
+  /**
+   * Number of cache misses.
+   * 
+   * @return long
+   */
+  public long misses() {
+    return this.misses.get();
+  }
+
+  /**
+   * Cache value, unless a document was invalidated since the {@link #stamp()} was taken.
+   * 
+   * @param pk {@link String}
+   * @param name {@link String}
+   * @param value {@link Object}
+   * @param stamp long
+   */
+  public void put(final String pk, final String name, final Object value, final long stamp) {
+
+    if (value != null) {
+      long now = System.currentTimeMillis();
+
+      synchronized (this.entries) {
+        if (stamp == this.invalidations.get()) {
+          Entry entry = this.entries.get(pk);
+          if (entry == null || entry.expiresAt <= now) {
+            entry = new Entry(now + this.ttl);
+            this.entries.put(pk, entry);
+          }
+
+          entry.values.put(name, value);
+        }
+      }
+    }
+  }
+
+  /**
+   * Stamp to take before reading a value from DynamoDb that will be passed to
+   * {@link #put(String, String, Object, long)}.
+   * 
+   * @return long
+   */
+  public long stamp() {
+    return this.invalidations.get();
+  }
+
+  /**
+   * Number of cached documents.
+   * 
+   * @return int
+   */
+  public int size() {
+    synchronized (this.entries) {
+      return this.entries.size();
+    }
+  }
+}
@@ -29,6 +29,20 @@ package com.formkiq.stacks.dynamodb;
  */
 public interface DocumentCountService {
 
+  /**
+   * Fold the counter shards of a site back into a single count.
+   * 
+   * @param siteId {@link String}
+   * @return boolean false if the shards changed during compaction and it should be retried
+   */
+  boolean compactDocumentCount(String siteId);
+
+  /**
+   * Compact the document counts of all sites incremented by this service since their last
+   * compaction.
+   */
+  void compactDocumentCounts();
+
   /**
    * Get Document Count.
    * 
@@ -44,6 +58,14 @@ public interface DocumentCountService {
    */
   void incrementDocumentCount(String siteId);
 
+  /**
+   * Increment Document Count by a number of documents.
+   * 
+   * @param siteId {@link String}
+   * @param count long
+   */
+  void incrementDocumentCount(String siteId, long count);
+
   /**
    * Remove Document Count for SiteId.
    * 
@@ -23,29 +23,87 @@
  */
 package com.formkiq.stacks.dynamodb;
 
+import static com.formkiq.aws.dynamodb.DbKeys.PK;
+import static com.formkiq.aws.dynamodb.DbKeys.SK;
 import static com.formkiq.aws.dynamodb.DbKeys.TAG_DELIMINATOR;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
-import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
 import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
 
 /**
  * Service for keeping track of number of documents.
+ * 
+ * Counts are write-sharded, each increment is added to one of a number of shard records picked at
+ * random so concurrent uploads in a site do not all update the same item. The count is the sum of
+ * the shards and of the compacted "all" record, read with one query.
  *
  */
 public class DocumentCountServiceDynamoDb implements DocumentCountService {
 
-  /** Documents Table Name. */
-  private String documentTableName;
+  /** Default time to live of cached counts. */
+  public static final Duration DEFAULT_CACHE_TTL = Duration.ofSeconds(5);
+  /** Default number of counter shards. */
+  public static final int DEFAULT_SHARDS = 10;
+  /** Maximum number of counter shards, all shards are compacted in one transaction. */
+  private static final int MAX_SHARDS = 99;
+  /** Counter Value attribute. */
+  private static final String METRIC_VALUE = "MetricValue";
+  /** Compacted count SK. */
+  private static final String SK_ALL = "all";
+  /** Counter shard SK prefix. */
+  private static final String SK_SHARD = "shard" + TAG_DELIMINATOR;
+
+  /**
+   * Cached Document Count.
+   */
+  private static final class CachedCount {
 
+    /** Document Count. */
+    private final long count;
+    /** Expiry time in milliseconds. */
+    private final long expiresAt;
+
+    /**
+     * constructor.
+     * 
+     * @param documentCount long
+     * @param expiry long
+     */
+    private CachedCount(final long documentCount, final long expiry) {
+      this.count = documentCount;
+      this.expiresAt = expiry;
+    }
+  }
+
+  /** Cache time to live in milliseconds. */
+  private final long cacheTtl;
+  /** Cached counts by PK. */
+  private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
   /** {@link DynamoDbClient}. */
   private DynamoDbClient dbClient;
+  /** Documents Table Name. */
+  private String documentTableName;
+  /** PKs incremented since they were last compacted. */
+  private final Set<String> incremented = ConcurrentHashMap.newKeySet();
+  /** Number of counter shards. */
+  private final int shards;
 
   /**
    * constructor.
@@ -55,38 +113,111 @@ public class DocumentCountServiceDynamoDb implements DocumentCountService {
    */
   public DocumentCountServiceDynamoDb(final DynamoDbConnectionBuilder connection,
       final String documentsTable) {
+    this(connection, documentsTable, DEFAULT_SHARDS, DEFAULT_CACHE_TTL);
+  }
+
+  /**
+   * constructor.
+   * 
+   * @param connection {@link DynamoDbConnectionBuilder}
+   * @param documentsTable {@link String}
+   * @param numberOfShards int
+   * @param cacheTimeToLive {@link Duration}
+   */
+  public DocumentCountServiceDynamoDb(final DynamoDbConnectionBuilder connection,
+      final String documentsTable, final int numberOfShards, final Duration cacheTimeToLive) {
     if (documentsTable == null) {
       throw new IllegalArgumentException("Table name is null");
     }
 
+    if (numberOfShards < 1 || numberOfShards > MAX_SHARDS) {
+      throw new IllegalArgumentException("'numberOfShards' must be between 1 and " + MAX_SHARDS);
+    }
+
     this.dbClient = connection.build();
     this.documentTableName = documentsTable;
+    this.shards = numberOfShards;
+    this.cacheTtl = cacheTimeToLive != null ? cacheTimeToLive.toMillis() : 0;
+  }
+
+  /**
+   * Fold the counter shards of a PK into the "all" record.
+   * 
+   * @param pk {@link String}
+   * @return boolean
+   */
+  private boolean compact(final String pk) {
+
+    List<Map<String, AttributeValue>> items = queryCounters(pk).stream()
+        .filter(i -> i.get(SK).s().startsWith(SK_SHARD)).collect(Collectors.toList());
+
+    boolean compacted = true;
+
+    if (!items.isEmpty()) {
+
+      Map<String, String> names = Map.of("#val", METRIC_VALUE);
+
+      List<TransactWriteItem> writes = new ArrayList<>();
+      writes.add(TransactWriteItem.builder()
+          .update(Update.builder().tableName(this.documentTableName).key(key(pk, SK_ALL))
+              .updateExpression("ADD #val :incr").expressionAttributeNames(names)
+              .expressionAttributeValues(Map.of(":incr", number(sum(items)))).build())
+          .build());
+
+      // a shard changed since it was read cancels the transaction
+      for (Map<String, AttributeValue> item : items) {
+        writes
+            .add(TransactWriteItem.builder()
+                .delete(Delete.builder().tableName(this.documentTableName)
+                    .key(key(pk, item.get(SK).s())).conditionExpression("#val = :val")
+                    .expressionAttributeNames(names)
+                    .expressionAttributeValues(Map.of(":val", item.get(METRIC_VALUE))).build())
+                .build());
+      }
+
+      try {
+        this.dbClient
+            .transactWriteItems(TransactWriteItemsRequest.builder().transactItems(writes).build());
+      } catch (TransactionCanceledException e) {
+        compacted = false;
+      }
+    }
+
+    return compacted;
   }
 
   @Override
-  public long getDocumentCount(final String siteId) {
+  public boolean compactDocumentCount(final String siteId) {
+    return compact(getPk(siteId));
+  }
 
-    String pk = getPk(siteId);
-    String sk = "all";
+  @Override
+  public void compactDocumentCounts() {
 
-    Map<String, AttributeValue> values = new HashMap<String, AttributeValue>();
-    values.put(":pk", AttributeValue.builder().s(pk).build());
-    values.put(":sk", AttributeValue.builder().s(sk).build());
+    for (String pk : new ArrayList<>(this.incremented)) {
 
-    QueryRequest q = QueryRequest.builder().tableName(this.documentTableName)
-        .keyConditionExpression("PK = :pk and SK = :sk").expressionAttributeValues(values).build();
+      this.incremented.remove(pk);
+
+      if (!compact(pk)) {
+        this.incremented.add(pk);
+      }
+    }
+  }
+
+  @Override
+  public long getDocumentCount(final String siteId) {
 
-    QueryResponse result = this.dbClient.query(q);
-    List<Map<String, AttributeValue>> items = result.items();
+    String pk = getPk(siteId);
+    long now = System.currentTimeMillis();
 
-    long documentscount = 0;
+    CachedCount cached = this.counts.get(pk);
 
-    if (!items.isEmpty()) {
-      String value = items.get(0).get("MetricValue").n();
-      documentscount = Long.parseLong(value);
+    if (cached == null || cached.expiresAt <= now) {
+      cached = new CachedCount(sum(queryCounters(pk)), now + this.cacheTtl);
+      this.counts.put(pk, cached);
     }
 
-    return documentscount;
+    return cached.count;
   }
 
   /**
@@ -100,51 +231,92 @@ public class DocumentCountServiceDynamoDb implements DocumentCountService {
         : "documentcount" + TAG_DELIMINATOR + "default";
   }
 
+  @Override
+  public void incrementDocumentCount(final String siteId) {
+    incrementDocumentCount(siteId, 1);
+  }
+
+  @Override
+  public void incrementDocumentCount(final String siteId, final long count) {
+
+    String pk = getPk(siteId);
+    String sk = SK_SHARD + ThreadLocalRandom.current().nextInt(this.shards);
+
+    UpdateItemRequest utr = UpdateItemRequest.builder().tableName(this.documentTableName)
+        .key(key(pk, sk)).updateExpression("ADD #val :incr")
+        .expressionAttributeNames(Map.of("#val", METRIC_VALUE))
+        .expressionAttributeValues(Map.of(":incr", number(count))).build();
+
+    this.dbClient.updateItem(utr);
+
+    this.incremented.add(pk);
+    this.counts.computeIfPresent(pk, (k, c) -> new CachedCount(c.count + count, c.expiresAt));
+  }
+
   /**
-   * Get PK {@link AttributeValue} {@link Map}.
+   * Get Key {@link AttributeValue} {@link Map}.
    * 
-   * @param siteId {@link String}
+   * @param pk {@link String}
+   * @param sk {@link String}
    * @return {@link Map}
    */
-  private Map<String, AttributeValue> getPkAttributeMap(final String siteId) {
-    String pk = getPk(siteId);
-    String sk = "all";
-
+  private Map<String, AttributeValue> key(final String pk, final String sk) {
     Map<String, AttributeValue> key = new HashMap<>();
-    key.put("PK", AttributeValue.builder().s(pk).build());
-    key.put("SK", AttributeValue.builder().s(sk).build());
+    key.put(PK, AttributeValue.builder().s(pk).build());
+    key.put(SK, AttributeValue.builder().s(sk).build());
     return key;
   }
 
-  @Override
-  public void incrementDocumentCount(final String siteId) {
-
-    Map<String, String> expAttrs = new HashMap<>();
-    expAttrs.put("#val", "MetricValue");
-
-    Map<String, AttributeValue> expVals = new HashMap<>();
-    expVals.put(":incr", AttributeValue.builder().n("1").build());
-    expVals.put(":zero", AttributeValue.builder().n("0").build());
-
-    String updateExpression = "SET #val = if_not_exists(#val, :zero) + :incr";
+  /**
+   * Number {@link AttributeValue}.
+   * 
+   * @param value long
+   * @return {@link AttributeValue}
+   */
+  private AttributeValue number(final long value) {
+    return AttributeValue.builder().n(String.valueOf(value)).build();
+  }
 
-    Map<String, AttributeValue> key = getPkAttributeMap(siteId);
+  /**
+   * Query all counter records of a PK.
+   * 
+   * @param pk {@link String}
+   * @return {@link List} {@link Map}
+   */
+  private List<Map<String, AttributeValue>> queryCounters(final String pk) {
 
-    UpdateItemRequest utr = UpdateItemRequest.builder().tableName(this.documentTableName).key(key)
-        .updateExpression(updateExpression).expressionAttributeNames(expAttrs)
-        .expressionAttributeValues(expVals).build();
+    QueryRequest q = QueryRequest.builder().tableName(this.documentTableName)
+        .keyConditionExpression("PK = :pk")
+        .expressionAttributeValues(Map.of(":pk", AttributeValue.builder().s(pk).build())).build();
 
-    this.dbClient.updateItem(utr);
+    return this.dbClient.query(q).items();
   }
 
   @Override
   public void removeDocumentCount(final String siteId) {
 
-    Map<String, AttributeValue> key = getPkAttributeMap(siteId);
+    String pk = getPk(siteId);
+
+    for (Map<String, AttributeValue> item : queryCounters(pk)) {
+
+      DeleteItemRequest deleteItemRequest = DeleteItemRequest.builder()
+          .tableName(this.documentTableName).key(key(pk, item.get(SK).s())).build();
 
-    DeleteItemRequest deleteItemRequest =
-        DeleteItemRequest.builder().tableName(this.documentTableName).key(key).build();
+      this.dbClient.deleteItem(deleteItemRequest);
+    }
 
-    this.dbClient.deleteItem(deleteItemRequest);
+    this.counts.remove(pk);
+    this.incremented.remove(pk);
+  }
+
+  /**
+   * Sum the counter records.
+   * 
+   * @param items {@link List} {@link Map}
+   * @return long
+   */
+  private long sum(final List<Map<String, AttributeValue>> items) {
+    return items.stream().filter(i -> i.containsKey(METRIC_VALUE))
+        .mapToLong(i -> Long.parseLong(i.get(METRIC_VALUE).n())).sum();
   }
 }
@@ -51,8 +51,13 @@ public class DocumentCountServiceExtension implements AwsServiceExtension<Docume
       DynamoDbConnectionBuilder connection =
           awsServiceCache.getExtension(DynamoDbConnectionBuilder.class);
 
+      String shards = awsServiceCache.environment("DOCUMENT_COUNT_SHARDS");
+      int numberOfShards = shards != null && !shards.isEmpty() ? Integer.parseInt(shards)
+          : DocumentCountServiceDynamoDb.DEFAULT_SHARDS;
+
       this.service = new DocumentCountServiceDynamoDb(connection,
-          awsServiceCache.environment("DOCUMENTS_TABLE"));
+          awsServiceCache.environment("DOCUMENTS_TABLE"), numberOfShards,
+          DocumentCountServiceDynamoDb.DEFAULT_CACHE_TTL);
     }
 
     return this.service;
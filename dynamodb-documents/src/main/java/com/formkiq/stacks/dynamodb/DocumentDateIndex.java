@@ -0,0 +1,367 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import static com.formkiq.aws.dynamodb.SiteIdKeyGenerator.createDatabaseKey;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import com.formkiq.aws.dynamodb.DbKeys;
+import com.formkiq.aws.dynamodb.DynamoDbBatchExecutor;
+import com.formkiq.aws.dynamodb.PaginationMapToken;
+import com.formkiq.aws.dynamodb.PaginationResults;
+import com.formkiq.aws.dynamodb.objects.DateUtil;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+/**
+ * 
+ * Write-sharded "documents by date" index (GSI1). Documents inserted on the same day are spread
+ * over {@link #SHARDS} partitions (docts#yyyy-MM-dd#shard), reads merge the partitions back into
+ * inserted date order.
+ * 
+ * The {@link PaginationMapToken} holds the last read GSI1SK of every partition that has more
+ * results, partitions missing from the token are finished.
+ * 
+ * The first day the sharded partitions were written is recorded once in a marker record, the
+ * unsharded partition is only read for days up to one day after it (to cover instances still
+ * running the previous version).
+ *
+ */
+public class DocumentDateIndex implements DbKeys {
+
+  /** Number of partitions per day. */
+  public static final int SHARDS = 4;
+  /** Sharded Since Marker PK. */
+  private static final String MARKER_PK = PREFIX_DOCUMENT_DATE_TS + "shards";
+  /** Sharded Since Marker SK. */
+  private static final String MARKER_SK = "since";
+  /** yyyy-MM-dd {@link DateTimeFormatter}. */
+  private static final DateTimeFormatter YYYY_MM_DD = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+  /**
+   * A date index partition being read.
+   */
+  private static final class Source {
+
+    /** Number of items consumed. */
+    private int consumed;
+    /** Items read. */
+    private List<Map<String, AttributeValue>> items = new ArrayList<>();
+    /** Whether the partition has items after the ones read. */
+    private boolean more;
+    /** Partition name, GSI1PK without the siteId. */
+    private final String name;
+    /** Read items with GSI1SK greater than. */
+    private String skMin;
+    /** Read items with GSI1SK less than or equal to, null for the whole partition. */
+    private final String skMax;
+
+    /**
+     * constructor.
+     * 
+     * @param partition {@link String}
+     * @param min {@link String}
+     * @param max {@link String}
+     */
+    private Source(final String partition, final String min, final String max) {
+      this.name = partition;
+      this.skMin = min;
+      this.skMax = max;
+    }
+
+    /**
+     * Whether there are items left to consume or read.
+     * 
+     * @return boolean
+     */
+    private boolean hasNext() {
+      return this.consumed < this.items.size() || this.more;
+    }
+
+    /**
+     * GSI1SK of next item to consume.
+     * 
+     * @return {@link String}
+     */
+    private String head() {
+      return this.items.get(this.consumed).get(GSI1_SK).s();
+    }
+  }
+
+  /**
+   * Get the GSI1PK (without siteId) of a document.
+   * 
+   * @param shortdate yyyy-MM-dd {@link String}
+   * @param documentId {@link String}
+   * @return {@link String}
+   */
+  public static String getPk(final String shortdate, final String documentId) {
+    return PREFIX_DOCUMENT_DATE_TS + shortdate + TAG_DELIMINATOR
+        + Math.floorMod(documentId.hashCode(), SHARDS);
+  }
+
+  /** {@link DynamoDbClient}. */
+  private final DynamoDbClient dbClient;
+  /** {@link DateTimeFormatter}. */
+  private final DateTimeFormatter df = DateUtil.getIsoDateTimeFormatter();
+  /** Documents Table Name. */
+  private final String documentTableName;
+  /** Whether this instance has written the sharded since marker. */
+  private volatile boolean marked = false;
+  /** First day the sharded partitions were written, null if not yet known. */
+  private volatile LocalDate shardedSince = null;
+
+  /**
+   * constructor.
+   * 
+   * @param client {@link DynamoDbClient}
+   * @param documentsTable {@link String}
+   */
+  public DocumentDateIndex(final DynamoDbClient client, final String documentsTable) {
+    this.dbClient = client;
+    this.documentTableName = documentsTable;
+  }
+
+  /**
+   * Add the partitions of a day, including the unsharded partition written before the index was
+   * sharded.
+   * 
+   * @param list {@link List} {@link Source}
+   * @param day {@link LocalDate}
+   * @param skMin {@link String}
+   * @param skMax {@link String}
+   */
+  private void addSources(final List<Source> list, final LocalDate day, final String skMin,
+      final String skMax) {
+
+    String pk = PREFIX_DOCUMENT_DATE_TS + day.format(YYYY_MM_DD);
+    LocalDate since = getShardedSince();
+
+    if (since == null || !day.isAfter(since.plusDays(1))) {
+      list.add(new Source(pk, skMin, skMax));
+    }
+
+    for (int i = 0; i < SHARDS; i++) {
+      list.add(new Source(pk + TAG_DELIMINATOR + i, skMin, skMax));
+    }
+  }
+
+  /**
+   * Create the partitions to read for the 24 hours starting at a date. Items are written with a
+   * GSI1SK of "date#documentId", so the GSI1SK of an item is always greater than its date.
+   * 
+   * @param date {@link ZonedDateTime}
+   * @param token {@link PaginationMapToken}
+   * @return {@link List} {@link Source}
+   */
+  private List<Source> createSources(final ZonedDateTime date, final PaginationMapToken token) {
+
+    List<Source> list = new ArrayList<>();
+
+    LocalDateTime startDate = LocalDateTime.ofInstant(date.toInstant(), ZoneOffset.UTC);
+    LocalDateTime endDate = startDate.plusDays(1);
+
+    addSources(list, startDate.toLocalDate(), this.df.format(startDate.toInstant(ZoneOffset.UTC)),
+        null);
+
+    if (!startDate.toLocalDate().equals(endDate.toLocalDate())) {
+      String skMin = this.df.format(endDate.toLocalDate().atStartOfDay().toInstant(ZoneOffset.UTC));
+      String skMax = this.df.format(endDate.toInstant(ZoneOffset.UTC));
+
+      if (!skMin.equals(skMax)) {
+        addSources(list, endDate.toLocalDate(), skMin, skMax);
+      }
+    }
+
+    if (token != null) {
+      Map<String, Object> cursors = token.getAttributeMap();
+      Object legacy = cursors.get(GSI1_SK);
+
+      if (legacy != null) {
+        list.forEach(s -> s.skMin = max(s.skMin, legacy.toString()));
+      } else {
+        list.removeIf(s -> !cursors.containsKey(s.name));
+        list.forEach(s -> s.skMin = cursors.get(s.name).toString());
+      }
+    }
+
+    return list;
+  }
+
+  /**
+   * Find the document ids inserted in the 24 hours starting at a date, in inserted date order.
+   * 
+   * @param siteId {@link String}
+   * @param date {@link ZonedDateTime}
+   * @param token {@link PaginationMapToken}
+   * @param maxresults int
+   * @return {@link PaginationResults} {@link String}
+   */
+  public PaginationResults<String> findDocumentIds(final String siteId, final ZonedDateTime date,
+      final PaginationMapToken token, final int maxresults) {
+
+    List<Source> sources = createSources(date, token);
+
+    // read a share of the page from every partition concurrently
+    int limit = maxresults / Math.max(1, sources.size()) + 1;
+    List<Supplier<Source>> tasks = sources.stream()
+        .map(s -> (Supplier<Source>) () -> query(siteId, s, limit)).collect(Collectors.toList());
+    DynamoDbBatchExecutor.invokeAll(tasks);
+
+    // k-way merge of the partitions
+    PriorityQueue<Source> queue = new PriorityQueue<>(Comparator.comparing(Source::head));
+    sources.stream().filter(s -> s.consumed < s.items.size()).forEach(queue::add);
+
+    List<String> documentIds = new ArrayList<>();
+
+    while (documentIds.size() < maxresults && !queue.isEmpty()) {
+      Source source = queue.poll();
+      documentIds.add(source.items.get(source.consumed).get("documentId").s());
+      source.skMin = source.head();
+      source.consumed++;
+
+      if (source.consumed == source.items.size() && source.more
+          && documentIds.size() < maxresults) {
+        // partition drained before the page is full, read its next items
+        query(siteId, source, maxresults - documentIds.size() + 1);
+      }
+
+      if (source.consumed < source.items.size()) {
+        queue.add(source);
+      }
+    }
+
+    // a partition that stopped at the read limit may have nothing left, check before paging
+    DynamoDbBatchExecutor
+        .invokeAll(sources.stream().filter(s -> s.consumed == s.items.size() && s.more)
+            .map(s -> (Supplier<Source>) () -> query(siteId, s, 1)).collect(Collectors.toList()));
+
+    Map<String, Object> cursors = new HashMap<>();
+    sources.stream().filter(Source::hasNext).forEach(s -> cursors.put(s.name, s.skMin));
+
+    return new PaginationResults<>(documentIds,
+        !cursors.isEmpty() ? new PaginationMapToken(cursors) : null);
+  }
+
+  /**
+   * Get the first day the sharded partitions were written. Once found it never changes, so it is
+   * cached.
+   * 
+   * @return {@link LocalDate}
+   */
+  private LocalDate getShardedSince() {
+
+    if (this.shardedSince == null) {
+      GetItemRequest r = GetItemRequest.builder().tableName(this.documentTableName)
+          .key(keysGeneric(MARKER_PK, MARKER_SK)).build();
+      Map<String, AttributeValue> item = this.dbClient.getItem(r).item();
+
+      if (item != null && item.containsKey(MARKER_SK)) {
+        this.shardedSince = LocalDate.parse(item.get(MARKER_SK).s(), YYYY_MM_DD);
+      }
+    }
+
+    return this.shardedSince;
+  }
+
+  /**
+   * Record today as the first day the sharded partitions were written, the record is only written
+   * once per instance and keeps the earliest day.
+   */
+  public void markSharded() {
+
+    if (!this.marked) {
+      UpdateItemRequest r = UpdateItemRequest.builder().tableName(this.documentTableName)
+          .key(keysGeneric(MARKER_PK, MARKER_SK))
+          .updateExpression("SET #since = if_not_exists(#since, :since)")
+          .expressionAttributeNames(Map.of("#since", MARKER_SK))
+          .expressionAttributeValues(Map.of(":since",
+              AttributeValue.builder().s(LocalDate.now(ZoneOffset.UTC).format(YYYY_MM_DD)).build()))
+          .build();
+      this.dbClient.updateItem(r);
+      this.marked = true;
+    }
+  }
+
+  /**
+   * Greater of two {@link String}.
+   * 
+   * @param s0 {@link String}
+   * @param s1 {@link String}
+   * @return {@link String}
+   */
+  private String max(final String s0, final String s1) {
+    return s0.compareTo(s1) > 0 ? s0 : s1;
+  }
+
+  /**
+   * Read the next items of a partition, after the last consumed item.
+   * 
+   * @param siteId {@link String}
+   * @param source {@link Source}
+   * @param limit int
+   * @return {@link Source}
+   */
+  private Source query(final String siteId, final Source source, final int limit) {
+
+    source.items = new ArrayList<>();
+    source.consumed = 0;
+    source.more = false;
+
+    Map<String, AttributeValue> values = new HashMap<>();
+    values.put(":pk", AttributeValue.builder().s(createDatabaseKey(siteId, source.name)).build());
+    values.put(":sk", AttributeValue.builder().s(source.skMin).build());
+
+    QueryRequest q = QueryRequest.builder().tableName(this.documentTableName).indexName(GSI1)
+        .keyConditionExpression(GSI1_PK + " = :pk and " + GSI1_SK + " > :sk")
+        .expressionAttributeValues(values).limit(Integer.valueOf(limit)).build();
+
+    QueryResponse response = this.dbClient.query(q);
+
+    for (Map<String, AttributeValue> item : response.items()) {
+      if (source.skMax != null && item.get(GSI1_SK).s().compareTo(source.skMax) > 0) {
+        return source;
+      }
+      source.items.add(item);
+    }
+
+    source.more = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty();
+    return source;
+  }
+}
@@ -0,0 +1,130 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import com.formkiq.aws.dynamodb.BatchGetConfig;
+import com.formkiq.aws.dynamodb.DbKeys;
+import com.formkiq.aws.dynamodb.ReadRequestBuilder;
+import com.formkiq.aws.dynamodb.metrics.DynamoDbOperation;
+import com.formkiq.aws.dynamodb.model.DocumentItem;
+import com.formkiq.aws.dynamodb.model.DocumentTag;
+import com.formkiq.aws.dynamodb.model.DynamicDocumentItem;
+import com.formkiq.aws.dynamodb.objects.Objects;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * 
+ * Fetches the documents of search results together with their response tags in one BatchGetItem
+ * wave, instead of a document batch followed by a tag batch.
+ *
+ */
+public class DocumentSearchHydrator implements DbKeys {
+
+  /** {@link DynamoDbClient}. */
+  private final DynamoDbClient dbClient;
+  /** Documents Table Name. */
+  private final String documentTableName;
+
+  /**
+   * constructor.
+   * 
+   * @param client {@link DynamoDbClient}
+   * @param documentsTable {@link String}
+   */
+  public DocumentSearchHydrator(final DynamoDbClient client, final String documentsTable) {
+    this.dbClient = client;
+    this.documentTableName = documentsTable;
+  }
+
+  /**
+   * Find Documents and their tags. Documents that do not exist are skipped. When tag keys are
+   * requested every document gets a "tags" map of tag key to value(s).
+   * 
+   * @param siteId {@link String}
+   * @param documentIds {@link List} {@link String}
+   * @param tagKeys {@link List} {@link String}
+   * @return {@link Map} of documentId to {@link DynamicDocumentItem}, in documentIds order
+   */
+  public Map<String, DynamicDocumentItem> hydrate(final String siteId,
+      final List<String> documentIds, final List<String> tagKeys) {
+
+    final long start = System.nanoTime();
+    List<String> ids = documentIds.stream().distinct().collect(Collectors.toList());
+    List<String> keys = Objects.notNull(tagKeys);
+
+    List<Map<String, AttributeValue>> requests = new ArrayList<>();
+    ids.forEach(id -> {
+      requests.add(keysDocument(siteId, id));
+      keys.forEach(key -> requests.add(keysDocumentTag(siteId, id, key)));
+    });
+
+    List<Map<String, AttributeValue>> items = !requests.isEmpty()
+        ? Objects.notNull(new ReadRequestBuilder().append(this.documentTableName, requests)
+            .batchReadItems(this.dbClient, new BatchGetConfig()).get(this.documentTableName))
+        : new ArrayList<>();
+
+    if (!requests.isEmpty()) {
+      DynamoDbOperation.increment("hydrate.batches", 1);
+      DynamoDbOperation.increment("hydrate.keys", requests.size());
+    }
+
+    Map<String, DocumentItem> documents = new HashMap<>();
+    Map<String, Map<String, Object>> tags = new HashMap<>();
+    AttributeValueToDocumentItem toDocumentItem = new AttributeValueToDocumentItem();
+    AttributeValueToDocumentTag toDocumentTag = new AttributeValueToDocumentTag(siteId);
+
+    for (Map<String, AttributeValue> item : items) {
+
+      if (item.get(SK).s().startsWith(PREFIX_TAGS)) {
+        DocumentTag tag = toDocumentTag.apply(item);
+        Object value = tag.getValues() != null ? tag.getValues() : tag.getValue();
+        tags.computeIfAbsent(tag.getDocumentId(), d -> new HashMap<>()).put(tag.getKey(), value);
+      } else {
+        DocumentItem document = toDocumentItem.apply(item);
+        documents.put(document.getDocumentId(), document);
+      }
+    }
+
+    DocumentItemToDynamicDocumentItem transform = new DocumentItemToDynamicDocumentItem();
+    Map<String, DynamicDocumentItem> results = new LinkedHashMap<>();
+
+    ids.stream().filter(documents::containsKey).forEach(id -> {
+      DynamicDocumentItem result = transform.apply(documents.get(id));
+      if (!keys.isEmpty()) {
+        result.put("tags", tags.getOrDefault(id, new HashMap<>()));
+      }
+      results.put(id, result);
+    });
+
+    DynamoDbOperation.recordTime("hydrate", start);
+    return results;
+  }
+}
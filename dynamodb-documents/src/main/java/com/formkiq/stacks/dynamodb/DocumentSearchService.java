@@ -23,10 +23,13 @@
  */
 package com.formkiq.stacks.dynamodb;
 
+import java.util.List;
+import com.formkiq.aws.dynamodb.DynamicObject;
 import com.formkiq.aws.dynamodb.PaginationMapToken;
 import com.formkiq.aws.dynamodb.PaginationResults;
 import com.formkiq.aws.dynamodb.model.DynamicDocumentItem;
 import com.formkiq.aws.dynamodb.model.SearchQuery;
+import com.formkiq.aws.dynamodb.model.SearchResponseFields;
 import com.formkiq.aws.dynamodb.model.SearchTagCriteria;
 
 /**
@@ -48,6 +51,22 @@ public interface DocumentSearchService {
   PaginationResults<DynamicDocumentItem> findInFolder(String siteId, String indexKey,
       PaginationMapToken token, int maxresults);
 
+  /**
+   * Find the number of documents with each value of a tag key, highest count first.
+   * 
+   * Without a scope the counts are read from the tag value counters. A scope limits the counts to
+   * the documents in a folder ('meta.folder') or matching a tag ('tag'), which are read to count
+   * them.
+   *
+   * @param siteId Optional Grouping siteId
+   * @param tagKey {@link String}
+   * @param scope {@link SearchQuery}, null for all documents
+   * @param maxresults int maximum number of values
+   * @return {@link List} {@link DynamicObject} with "value" and "count"
+   */
+  List<DynamicObject> findTagValueCounts(String siteId, String tagKey, SearchQuery scope,
+      int maxresults);
+
   /**
    * Search for Documents.
    *
@@ -60,6 +79,19 @@ public interface DocumentSearchService {
   PaginationResults<DynamicDocumentItem> search(String siteId, SearchQuery search,
       PaginationMapToken token, int maxresults);
 
+  /**
+   * Search for Documents, including the requested response fields.
+   *
+   * @param siteId Optional Grouping siteId
+   * @param search {@link SearchQuery}
+   * @param responseFields {@link SearchResponseFields}
+   * @param token {@link PaginationMapToken}
+   * @param maxresults int
+   * @return {@link PaginationResults} {@link DynamicDocumentItem}
+   */
+  PaginationResults<DynamicDocumentItem> search(String siteId, SearchQuery search,
+      SearchResponseFields responseFields, PaginationMapToken token, int maxresults);
+
   /**
    * Search for Document Ids.
    *
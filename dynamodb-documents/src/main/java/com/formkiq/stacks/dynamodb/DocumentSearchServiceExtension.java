@@ -54,8 +54,11 @@ public class DocumentSearchServiceExtension implements AwsServiceExtension<Docum
           awsServiceCache.getExtension(DynamoDbConnectionBuilder.class);
       DocumentService documentService = awsServiceCache.getExtension(DocumentService.class);
 
-      this.service = new DocumentSearchServiceImpl(connection, documentService,
+      DocumentSearchServiceImpl impl = new DocumentSearchServiceImpl(connection, documentService,
           awsServiceCache.environment("DOCUMENTS_TABLE"), documentTagSchemaPlugin);
+      impl.setFolderPathCache(FolderPathCacheExtension.getFolderPathCache(awsServiceCache));
+
+      this.service = impl;
     }
 
     return this.service;
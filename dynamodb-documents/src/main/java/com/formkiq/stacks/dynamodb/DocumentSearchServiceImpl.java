@@ -26,9 +26,13 @@ package com.formkiq.stacks.dynamodb;
 import static com.formkiq.aws.dynamodb.DbKeys.GLOBAL_FOLDER_METADATA;
 import static com.formkiq.aws.dynamodb.DbKeys.GSI1;
 import static com.formkiq.aws.dynamodb.DbKeys.GSI1_PK;
+import static com.formkiq.aws.dynamodb.DbKeys.GSI1_SK;
 import static com.formkiq.aws.dynamodb.DbKeys.GSI2;
 import static com.formkiq.aws.dynamodb.DbKeys.GSI2_PK;
 import static com.formkiq.aws.dynamodb.DbKeys.GSI2_SK;
+import static com.formkiq.aws.dynamodb.DbKeys.GSI3;
+import static com.formkiq.aws.dynamodb.DbKeys.GSI3_PK;
+import static com.formkiq.aws.dynamodb.DbKeys.GSI3_SK;
 import static com.formkiq.aws.dynamodb.DbKeys.PK;
 import static com.formkiq.aws.dynamodb.DbKeys.PREFIX_DOCS;
 import static com.formkiq.aws.dynamodb.DbKeys.PREFIX_TAG;
@@ -42,33 +46,42 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import com.formkiq.aws.dynamodb.BatchGetConfig;
 import com.formkiq.aws.dynamodb.DbKeys;
 import com.formkiq.aws.dynamodb.DynamicObject;
+import com.formkiq.aws.dynamodb.DynamoDbBatchExecutor;
 import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
 import com.formkiq.aws.dynamodb.PaginationMapToken;
 import com.formkiq.aws.dynamodb.PaginationResults;
 import com.formkiq.aws.dynamodb.PaginationToAttributeValue;
 import com.formkiq.aws.dynamodb.QueryResponseToPagination;
-import com.formkiq.aws.dynamodb.model.DocumentItem;
+import com.formkiq.aws.dynamodb.ReadRequestBuilder;
 import com.formkiq.aws.dynamodb.model.DocumentTag;
 import com.formkiq.aws.dynamodb.model.DocumentTagType;
 import com.formkiq.aws.dynamodb.model.DynamicDocumentItem;
 import com.formkiq.aws.dynamodb.model.SearchMetaCriteria;
 import com.formkiq.aws.dynamodb.model.SearchQuery;
+import com.formkiq.aws.dynamodb.model.SearchResponseFields;
 import com.formkiq.aws.dynamodb.model.SearchTagCriteria;
+import com.formkiq.aws.dynamodb.metrics.DynamoDbOperation;
 import com.formkiq.aws.dynamodb.objects.Objects;
 import com.formkiq.plugins.tagschema.DocumentTagSchemaPlugin;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
-import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
-import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
-import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
 import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
 import software.amazon.awssdk.utils.StringUtils;
@@ -80,14 +93,98 @@ import software.amazon.awssdk.utils.StringUtils;
  */
 public class DocumentSearchServiceImpl implements DocumentSearchService {
 
+  /**
+   * Results of the GSI1 query of one tag value.
+   */
+  private static final class TagValueStream {
+
+    /** Number of items consumed. */
+    private int consumed;
+    /** GSI1SK of the last consumed item, empty to start at the newest. */
+    private String cursor;
+    /** Items read. */
+    private List<Map<String, AttributeValue>> items = Collections.emptyList();
+    /** Whether there are items after the ones read. */
+    private boolean more;
+    /** Tag Value. */
+    private final String value;
+
+    /**
+     * constructor.
+     * 
+     * @param tagValue {@link String}
+     * @param startCursor {@link String}
+     */
+    private TagValueStream(final String tagValue, final String startCursor) {
+      this.value = tagValue;
+      this.cursor = startCursor;
+    }
+
+    /**
+     * Whether there is an item left to consume.
+     * 
+     * @return boolean
+     */
+    private boolean hasItem() {
+      return this.consumed < this.items.size();
+    }
+
+    /**
+     * Whether there are items left to consume or query.
+     * 
+     * @return boolean
+     */
+    private boolean hasNext() {
+      return hasItem() || this.more;
+    }
+
+    /**
+     * GSI1SK of next item to consume.
+     * 
+     * @return {@link String}
+     */
+    private String head() {
+      return this.items.get(this.consumed).get(GSI1_SK).s();
+    }
+
+    /**
+     * Set the items read.
+     * 
+     * @param response {@link QueryResponse}
+     */
+    private void read(final QueryResponse response) {
+      this.items = response.items();
+      this.more = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty();
+    }
+  }
+
+  /** Maximum number of index chunks read to fill one page of search results. */
+  private static final int MAX_HYDRATION_CHUNKS = 10;
+  /** Maximum number of leading posting list pages read for one page of multi tag search. */
+  private static final int MAX_LEADER_PAGES = 20;
+  /** Maximum number of documents in a tag value count scope. */
+  private static final int MAX_SCOPE_DOCUMENTS = 10000;
+  /** Number of documents read per page of a tag value count scope. */
+  private static final int SCOPE_PAGE_SIZE = 100;
+  /** Multi tag search token key of the leading criteria. */
+  private static final String TOKEN_LEADER = "leader";
+  /** Multi tag search token prefix of the leading list token. */
+  private static final String TOKEN_LEADER_PREFIX = "leader#";
+
+  /** {@link FolderAggregateCounter}. */
+  private FolderAggregateCounter aggregates;
   /** {@link DynamoDbClient}. */
   private DynamoDbClient dbClient;
   /** {@link DocumentService}. */
   private DocumentService docService;
   /** Documents Table Name. */
   private String documentTableName;
-  /** {@link FolderIndexProcessor}. */
-  private FolderIndexProcessor folderIndexProcesor;
+  /** {@link FolderIndexProcessorImpl}. */
+  private FolderIndexProcessorImpl folderIndexProcesor;
+  /** {@link DocumentSearchHydrator}. */
+  private DocumentSearchHydrator hydrator;
+  /** {@link TagValueCounter}. */
+  private TagValueCounter tagCounter;
   /** {@link DocumentTagSchemaPlugin}. */
   private DocumentTagSchemaPlugin tagSchemaPlugin;
 
@@ -113,6 +210,9 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
 
     this.documentTableName = documentsTable;
     this.folderIndexProcesor = new FolderIndexProcessorImpl(connection, documentsTable);
+    this.hydrator = new DocumentSearchHydrator(this.dbClient, documentsTable);
+    this.tagCounter = new TagValueCounter(this.dbClient, documentsTable);
+    this.aggregates = new FolderAggregateCounter(this.dbClient, documentsTable);
   }
 
   private QueryRequest createQueryRequest(final String index, final String expression,
@@ -128,6 +228,54 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
     return q;
   }
 
+  /**
+   * Create the GSI1 query of the next results of a tag value.
+   * 
+   * @param siteId DynamoDB PK siteId
+   * @param key {@link String}
+   * @param stream {@link TagValueStream}
+   * @param maxresults int
+   * @return {@link QueryRequest}
+   */
+  private QueryRequest createTagValueQuery(final String siteId, final String key,
+      final TagValueStream stream, final int maxresults) {
+
+    String expression = GSI1_PK + " = :pk";
+
+    Map<String, AttributeValue> values = new HashMap<String, AttributeValue>();
+    values.put(":pk", AttributeValue.builder()
+        .s(createDatabaseKey(siteId, PREFIX_TAG + key + TAG_DELIMINATOR + stream.value)).build());
+
+    if (!stream.cursor.isEmpty()) {
+      expression += " and " + GSI1_SK + " < :sk";
+      values.put(":sk", AttributeValue.fromS(stream.cursor));
+    }
+
+    // one more result than can be returned shows if there are more results
+    return QueryRequest.builder().tableName(this.documentTableName).indexName(GSI1)
+        .keyConditionExpression(expression).expressionAttributeValues(values)
+        .projectionExpression("documentId,tagKey,tagValue," + GSI1_SK)
+        .scanIndexForward(Boolean.FALSE).limit(Integer.valueOf(maxresults + 1)).build();
+  }
+
+  /**
+   * Create a {@link TagValueStream} for each tag value, when paginating only the values that have
+   * more results.
+   * 
+   * @param eqOr {@link Collection} {@link String}
+   * @param token {@link PaginationMapToken}
+   * @return {@link List} {@link TagValueStream}
+   */
+  private List<TagValueStream> createTagValueStreams(final Collection<String> eqOr,
+      final PaginationMapToken token) {
+
+    Map<String, Object> cursors = token != null ? token.getAttributeMap() : null;
+
+    return new LinkedHashSet<>(eqOr).stream().filter(v -> cursors == null || cursors.containsKey(v))
+        .map(v -> new TagValueStream(v, cursors != null ? cursors.get(v).toString() : ""))
+        .collect(Collectors.toList());
+  }
+
   /**
    * Filter {@link AttributeValue} by {@link SearchTagCriteria}.
    * 
@@ -138,7 +286,9 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
   private boolean filterByValue(final SearchTagCriteria search, final AttributeValue v) {
     boolean filter = false;
 
-    if (search.beginsWith() != null) {
+    if (TagValueRange.isRange(search)) {
+      filter = TagValueRange.of(search).contains(v.s());
+    } else if (search.beginsWith() != null) {
       filter = v.s().startsWith(search.beginsWith());
     } else if (!Objects.notNull(search.eqOr()).isEmpty()) {
       filter = search.eqOr().contains(v.s());
@@ -187,6 +337,9 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
         return result;
 
       }).collect(Collectors.toMap(x -> x.getKey(), x -> x.getValue()));
+
+      DynamoDbOperation.increment("filter.candidates", docMap.size());
+      DynamoDbOperation.increment("filter.matched", map.size());
     }
 
     return map;
@@ -211,34 +364,27 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
             AttributeValue.builder().s(PREFIX_TAGS + tagKey).build()))
         .collect(Collectors.toList());
 
-    Map<String, KeysAndAttributes> items =
-        Map.of(this.documentTableName, KeysAndAttributes.builder().keys(keys).build());
-    BatchGetItemRequest batchReq = BatchGetItemRequest.builder().requestItems(items).build();
-    BatchGetItemResponse batchResponse = this.dbClient.batchGetItem(batchReq);
-
-    Collection<List<Map<String, AttributeValue>>> values = batchResponse.responses().values();
+    ReadRequestBuilder builder = new ReadRequestBuilder().append(this.documentTableName, keys);
+    List<Map<String, AttributeValue>> list = Objects.notNull(
+        builder.batchReadItems(this.dbClient, new BatchGetConfig()).get(this.documentTableName));
 
-    if (!values.isEmpty()) {
-      List<Map<String, AttributeValue>> list = values.iterator().next();
+    list.forEach(m -> {
 
-      list.forEach(m -> {
+      Map<String, AttributeValue> item = new HashMap<>();
+      item.put("type", m.get("type"));
+      item.put("tagKey", m.get("tagKey"));
 
-        Map<String, AttributeValue> item = new HashMap<>();
-        item.put("type", m.get("type"));
-        item.put("tagKey", m.get("tagKey"));
-
-        if (m.containsKey("tagValue")) {
-          item.put("tagValue", m.get("tagValue"));
-        }
+      if (m.containsKey("tagValue")) {
+        item.put("tagValue", m.get("tagValue"));
+      }
 
-        if (m.containsKey("tagValues")) {
-          item.put("tagValues", m.get("tagValues"));
-        }
+      if (m.containsKey("tagValues")) {
+        item.put("tagValues", m.get("tagValues"));
+      }
 
-        String documentId = m.get("documentId").s();
-        map.put(documentId, item);
-      });
-    }
+      String documentId = m.get("documentId").s();
+      map.put(documentId, item);
+    });
 
     return map;
   }
@@ -269,7 +415,79 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
     QueryRequest q = createQueryRequest(GSI2, expression, values, token, maxresults, Boolean.FALSE,
         projectionExpression);
 
-    return searchForDocuments(q, siteId, query);
+    return searchForDocuments(q, query);
+  }
+
+  /**
+   * Find Document that have a number or date tagKey value in a {@link TagValueRange}, in value
+   * order.
+   *
+   * @param siteId DynamoDB siteId Key
+   * @param query {@link SearchQuery}
+   * @param key {@link String}
+   * @param range {@link TagValueRange}
+   * @param token {@link PaginationMapToken}
+   * @param maxresults int
+   * @param projectionExpression {@link String}
+   * @return {@link PaginationResults}
+   */
+  private PaginationResults<DynamicDocumentItem> findDocumentsTagRange(final String siteId,
+      final SearchQuery query, final String key, final TagValueRange range,
+      final PaginationMapToken token, final int maxresults, final String projectionExpression) {
+
+    PaginationResults<DynamicDocumentItem> result =
+        new PaginationResults<>(Collections.emptyList(), null);
+
+    if (!range.isEmpty()) {
+      QueryRequest q =
+          createTagRangeQuery(siteId, key, range, token, maxresults, projectionExpression);
+      result = searchForDocuments(q, query);
+    }
+
+    return result;
+  }
+
+  /**
+   * Create the GSI3 query of a {@link TagValueRange}.
+   *
+   * @param siteId DynamoDB siteId Key
+   * @param key {@link String}
+   * @param range {@link TagValueRange}
+   * @param token {@link PaginationMapToken}
+   * @param maxresults int
+   * @param projectionExpression {@link String}
+   * @return {@link QueryRequest}
+   */
+  private QueryRequest createTagRangeQuery(final String siteId, final String key,
+      final TagValueRange range, final PaginationMapToken token, final int maxresults,
+      final String projectionExpression) {
+
+    String expression = GSI3_PK + " = :pk";
+
+    Map<String, AttributeValue> values = new HashMap<String, AttributeValue>();
+    values.put(":pk",
+        AttributeValue.builder()
+            .s(createDatabaseKey(siteId, PREFIX_TAG + key + TAG_DELIMINATOR + range.type().name()))
+            .build());
+
+    if (range.lower() != null && range.upper() != null) {
+      expression += " and " + GSI3_SK + " between :lower and :upper";
+    } else if (range.lower() != null) {
+      expression += " and " + GSI3_SK + " >= :lower";
+    } else {
+      expression += " and " + GSI3_SK + " <= :upper";
+    }
+
+    if (range.lower() != null) {
+      values.put(":lower", AttributeValue.fromS(range.lower()));
+    }
+
+    if (range.upper() != null) {
+      values.put(":upper", AttributeValue.fromS(range.upper()));
+    }
+
+    return createQueryRequest(GSI3, expression, values, token, maxresults, Boolean.TRUE,
+        projectionExpression);
   }
 
   /**
@@ -296,7 +514,7 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
 
     QueryRequest q = createQueryRequest(GSI2, expression, values, token, maxresults, Boolean.FALSE,
         projectionExpression);
-    return searchForDocuments(q, siteId, query);
+    return searchForDocuments(q, query);
   }
 
   /**
@@ -322,32 +540,48 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
         .s(createDatabaseKey(siteId, PREFIX_TAG + key + TAG_DELIMINATOR + value)).build());
     QueryRequest q = createQueryRequest(GSI1, expression, values, token, maxresults, Boolean.FALSE,
         projectionExpression);
-    return searchForDocuments(q, siteId, query);
+    return searchForDocuments(q, query);
   }
 
   /**
-   * Find Document that match tagKey & tagValues.
+   * Find Document that match tagKey & any of the tagValues. The GSI1 query of each value is run in
+   * parallel and the results are merged newest first, deduplicated by documentId. The
+   * {@link PaginationMapToken} holds the last read GSI1SK of each value with more results.
    *
    * @param siteId DynamoDB PK siteId
    * @param query {@link SearchQuery}
    * @param key {@link String}
    * @param eqOr {@link Collection} {@link String}
+   * @param token {@link PaginationMapToken}
    * @param maxresults int
    * @param projectionExpression {@link String}
    * @return {@link PaginationResults}
    */
   private PaginationResults<DynamicDocumentItem> findDocumentsWithTagAndValues(final String siteId,
       final SearchQuery query, final String key, final Collection<String> eqOr,
-      final int maxresults, final String projectionExpression) {
+      final PaginationMapToken token, final int maxresults, final String projectionExpression) {
+
+    List<TagValueStream> streams = createTagValueStreams(eqOr, token);
+
+    List<Supplier<QueryResponse>> queries =
+        streams.stream()
+            .map(s -> (Supplier<QueryResponse>) () -> this.dbClient
+                .query(createTagValueQuery(siteId, key, s, maxresults)))
+            .collect(Collectors.toList());
 
-    List<DynamicDocumentItem> list = new ArrayList<>();
-    for (String eq : eqOr) {
-      PaginationResults<DynamicDocumentItem> result = findDocumentsWithTagAndValue(siteId, query,
-          key, eq, null, maxresults, projectionExpression);
-      list.addAll(result.getResults());
+    List<QueryResponse> responses = DynamoDbBatchExecutor.invokeAll(queries);
+
+    for (int i = 0; i < streams.size(); i++) {
+      streams.get(i).read(responses.get(i));
     }
 
-    return new PaginationResults<DynamicDocumentItem>(list, null);
+    List<Map<String, AttributeValue>> items = mergeTagValueStreams(streams, maxresults);
+
+    Map<String, Object> cursors = new HashMap<>();
+    streams.stream().filter(TagValueStream::hasNext).forEach(s -> cursors.put(s.value, s.cursor));
+    PaginationMapToken next = !cursors.isEmpty() ? new PaginationMapToken(cursors) : null;
+
+    return toSearchResults(query, items, next, projectionExpression);
   }
 
   @Override
@@ -361,7 +595,114 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
       value += o.getString("documentId");
     }
 
-    return searchByMeta(siteId, value, null, token, maxresults);
+    PaginationResults<DynamicDocumentItem> results =
+        searchByMeta(siteId, value, null, List.of(), token, maxresults);
+    addFolderAggregates(siteId, results.getResults());
+    return results;
+  }
+
+  /**
+   * Add the {@link FolderAggregate} of the folders of a folder listing, folders whose aggregate is
+   * not initialized are left without them.
+   * 
+   * @param siteId {@link String}
+   * @param results {@link List} {@link DynamicDocumentItem}
+   */
+  private void addFolderAggregates(final String siteId, final List<DynamicDocumentItem> results) {
+
+    List<DynamicDocumentItem> folders =
+        results.stream().filter(r -> Boolean.TRUE.equals(r.getBoolean("folder")))
+            .filter(r -> r.getDocumentId() != null).collect(Collectors.toList());
+
+    if (!folders.isEmpty()) {
+
+      Map<String, FolderAggregate> map = this.aggregates.get(siteId,
+          folders.stream().map(DynamicDocumentItem::getDocumentId).collect(Collectors.toList()));
+
+      for (DynamicDocumentItem folder : folders) {
+        FolderAggregate aggregate = map.get(folder.getDocumentId());
+        if (aggregate.isInitialized()) {
+          folder.put("childCount", Long.valueOf(aggregate.childCount()));
+          folder.put("documentCount", Long.valueOf(aggregate.documentCount()));
+          folder.put("contentLength", Long.valueOf(aggregate.contentLength()));
+        }
+      }
+    }
+  }
+
+  /**
+   * Find the documentIds of a tag value count scope.
+   * 
+   * @param siteId {@link String}
+   * @param scope {@link SearchQuery}
+   * @return {@link List} {@link String}
+   */
+  private List<String> findScopeDocumentIds(final String siteId, final SearchQuery scope) {
+
+    List<String> documentIds = new ArrayList<>();
+    PaginationMapToken token = null;
+
+    do {
+
+      if (documentIds.size() >= MAX_SCOPE_DOCUMENTS) {
+        throw new IllegalArgumentException(
+            "scope matches more than " + MAX_SCOPE_DOCUMENTS + " documents");
+      }
+
+      PaginationResults<String> page = null;
+
+      if (scope.tag() != null) {
+        page = searchForDocumentIds(siteId, scope.tag(), token, SCOPE_PAGE_SIZE);
+      } else {
+        PaginationResults<DynamicDocumentItem> results = searchDocuments(siteId,
+            new SearchQuery().meta(scope.meta()), List.of(), token, SCOPE_PAGE_SIZE);
+        page = new PaginationResults<>(results.getResults().stream()
+            .map(DynamicDocumentItem::getDocumentId).collect(Collectors.toList()),
+            results.getToken());
+      }
+
+      documentIds.addAll(page.getResults());
+      token = page.getToken();
+
+    } while (token != null);
+
+    return documentIds;
+  }
+
+  @Override
+  public List<DynamicObject> findTagValueCounts(final String siteId, final String tagKey,
+      final SearchQuery scope, final int maxresults) {
+
+    DynamoDbOperation op = DynamoDbOperation.start("search.tagValueCounts");
+    try {
+
+      Map<String, Long> counts = null;
+
+      if (scope != null && (scope.tag() != null || scope.meta() != null)) {
+
+        counts = new HashMap<>();
+        List<String> documentIds = findScopeDocumentIds(siteId, scope);
+
+        for (Map<String, AttributeValue> record : findDocumentsTags(siteId,
+            new LinkedHashSet<>(documentIds), tagKey).values()) {
+          for (String value : TagValueCounter.getTagValues(record)) {
+            counts.merge(value, Long.valueOf(1), Long::sum);
+          }
+        }
+
+      } else {
+        counts = this.tagCounter.get(siteId, tagKey);
+      }
+
+      return counts.entrySet().stream()
+          .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+              .thenComparing(Map.Entry.comparingByKey()))
+          .limit(maxresults)
+          .map(e -> new DynamicObject(Map.of("value", e.getKey(), "count", e.getValue())))
+          .collect(Collectors.toList());
+    } finally {
+      op.close();
+    }
   }
 
   private String getFolderMetaDataKey(final String siteId, final SearchMetaCriteria meta) {
@@ -409,6 +750,64 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
     return key;
   }
 
+  /**
+   * Get the {@link DynamoDbOperation} name for a {@link SearchQuery}.
+   * 
+   * @param query {@link SearchQuery}
+   * @return {@link String}
+   */
+  private String getSearchOperation(final SearchQuery query) {
+
+    String operation = null;
+
+    if (query.meta() != null) {
+      operation = query.meta().path() != null ? "search.byPath" : "search.byMeta";
+    } else if (isMultiTagSearch(query)) {
+      operation = "search.byTags";
+    } else if (!Objects.notNull(query.documentIds()).isEmpty()) {
+      operation = "search.byDocumentIds";
+    } else {
+      operation = getTagSearchOperation(query.tag());
+    }
+
+    return operation;
+  }
+
+  /**
+   * Get Tag Search Operation Name.
+   * 
+   * @param tag {@link SearchTagCriteria}
+   * @return {@link String}
+   */
+  private String getTagSearchOperation(final SearchTagCriteria tag) {
+
+    String operation = "search.byTag";
+
+    if (tag != null && TagValueRange.isRange(tag)) {
+      operation = "search.byTagRange";
+    } else if (tag != null && !Objects.notNull(tag.eqOr()).isEmpty()) {
+      operation = "search.byTagEqOr";
+    } else if (tag != null && tag.eq() != null) {
+      operation = "search.byTagValue";
+    } else if (tag != null && tag.beginsWith() != null) {
+      operation = "search.byTagBeginsWith";
+    }
+
+    return operation;
+  }
+
+  /**
+   * Whether {@link SearchQuery} tags are searched natively, rather than through the composite keys
+   * of an active {@link DocumentTagSchemaPlugin}.
+   * 
+   * @param query {@link SearchQuery}
+   * @return boolean
+   */
+  private boolean isMultiTagSearch(final SearchQuery query) {
+    boolean composite = this.tagSchemaPlugin != null && this.tagSchemaPlugin.isActive();
+    return !composite && !notNull(query.tags()).isEmpty();
+  }
+
   /**
    * {@link SearchTagCriteria} has filter criteria.
    * 
@@ -417,12 +816,82 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
    */
   private boolean hasFilter(final SearchTagCriteria search) {
     return search.eq() != null || search.beginsWith() != null
-        || !Objects.notNull(search.eqOr()).isEmpty();
+        || !Objects.notNull(search.eqOr()).isEmpty() || TagValueRange.isRange(search);
+  }
+
+  /**
+   * K-way merge of the {@link TagValueStream}, newest first. Tag records with the same GSI1SK
+   * belong to the same document and are always taken together.
+   * 
+   * @param streams {@link List} {@link TagValueStream}
+   * @param maxresults int
+   * @return {@link List} {@link Map}
+   */
+  private List<Map<String, AttributeValue>> mergeTagValueStreams(final List<TagValueStream> streams,
+      final int maxresults) {
+
+    PriorityQueue<TagValueStream> queue =
+        new PriorityQueue<>(Comparator.comparing(TagValueStream::head, Comparator.reverseOrder()));
+    streams.stream().filter(TagValueStream::hasItem).forEach(queue::add);
+
+    Set<String> documentIds = new HashSet<>();
+    List<Map<String, AttributeValue>> items = new ArrayList<>();
+    String last = null;
+
+    while (!queue.isEmpty()
+        && (documentIds.size() < maxresults || queue.peek().head().equals(last))) {
+
+      TagValueStream stream = queue.poll();
+      Map<String, AttributeValue> item = stream.items.get(stream.consumed);
+      items.add(item);
+      documentIds.add(item.get("documentId").s());
+
+      last = stream.head();
+      stream.cursor = last;
+      stream.consumed++;
+
+      if (stream.hasItem()) {
+        queue.add(stream);
+      }
+    }
+
+    return items;
   }
 
   @Override
   public PaginationResults<DynamicDocumentItem> search(final String siteId, final SearchQuery query,
       final PaginationMapToken token, final int maxresults) {
+    return search(siteId, query, null, token, maxresults);
+  }
+
+  @Override
+  public PaginationResults<DynamicDocumentItem> search(final String siteId, final SearchQuery query,
+      final SearchResponseFields responseFields, final PaginationMapToken token,
+      final int maxresults) {
+
+    List<String> tagKeys = responseFields != null ? notNull(responseFields.tags()) : List.of();
+
+    DynamoDbOperation op = DynamoDbOperation.start(getSearchOperation(query));
+    try {
+      return searchDocuments(siteId, query, tagKeys, token, maxresults);
+    } finally {
+      op.close();
+    }
+  }
+
+  /**
+   * Perform Document search.
+   * 
+   * @param siteId {@link String}
+   * @param query {@link SearchQuery}
+   * @param tagKeys {@link List} {@link String} response tags
+   * @param token {@link PaginationMapToken}
+   * @param maxresults int
+   * @return {@link PaginationResults}
+   */
+  private PaginationResults<DynamicDocumentItem> searchDocuments(final String siteId,
+      final SearchQuery query, final List<String> tagKeys, final PaginationMapToken token,
+      final int maxresults) {
 
     SearchMetaCriteria meta = query.meta();
     PaginationResults<DynamicDocumentItem> results = null;
@@ -435,10 +904,9 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
           Map<String, String> map = this.folderIndexProcesor.getIndex(siteId, meta.path());
           String documentId = map.get("documentId");
 
-          DocumentItem item = this.docService.findDocument(siteId, documentId);
-
-          DynamicDocumentItem result = new DocumentItemToDynamicDocumentItem().apply(item);
-          results = new PaginationResults<>(Arrays.asList(result), null);
+          Collection<DynamicDocumentItem> documents =
+              this.hydrator.hydrate(siteId, Arrays.asList(documentId), tagKeys).values();
+          results = new PaginationResults<>(new ArrayList<>(documents), null);
 
         } catch (IOException e) {
           results = new PaginationResults<>(Collections.emptyList(), null);
@@ -446,12 +914,16 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
 
       } else {
         updateFolderMetaData(meta);
-        results = searchByMeta(siteId, query, meta, token, maxresults);
+        results = searchByMeta(siteId, meta, tagKeys, token, maxresults);
       }
 
+    } else if (isMultiTagSearch(query)) {
+      results = searchAndHydrate(siteId, (t, max) -> searchByTags(siteId, query, t, max), tagKeys,
+          token, maxresults);
     } else {
       SearchTagCriteria search = query.tag();
-      results = searchByTag(siteId, query, search, token, maxresults, null);
+      results = searchAndHydrate(siteId,
+          (t, max) -> searchByTag(siteId, query, search, t, max, null), tagKeys, token, maxresults);
     }
 
     return results;
@@ -461,23 +933,23 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
    * Perform Meta Data search.
    * 
    * @param siteId {@link String}
-   * @param query {@link SearchQuery}
    * @param meta {@link SearchMetaCriteria}
+   * @param tagKeys {@link List} {@link String} response tags
    * @param token {@link PaginationMapToken}
    * @param maxresults int
    * @return {@link PaginationResults}
    */
   private PaginationResults<DynamicDocumentItem> searchByMeta(final String siteId,
-      final SearchQuery query, final SearchMetaCriteria meta, final PaginationMapToken token,
+      final SearchMetaCriteria meta, final List<String> tagKeys, final PaginationMapToken token,
       final int maxresults) {
 
     String value = getMetaDataKey(siteId, meta);
-    return searchByMeta(siteId, value, meta.indexFilterBeginsWith(), token, maxresults);
+    return searchByMeta(siteId, value, meta.indexFilterBeginsWith(), tagKeys, token, maxresults);
   }
 
   private PaginationResults<DynamicDocumentItem> searchByMeta(final String siteId,
-      final String value, final String indexFilterBeginsWith, final PaginationMapToken token,
-      final int maxresults) {
+      final String value, final String indexFilterBeginsWith, final List<String> tagKeys,
+      final PaginationMapToken token, final int maxresults) {
 
     PaginationResults<DynamicDocumentItem> result = null;
 
@@ -495,7 +967,7 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
       QueryRequest q =
           createQueryRequest(null, expression, values, token, maxresults, Boolean.TRUE, null);
 
-      result = searchForMetaDocuments(q, siteId);
+      result = searchForMetaDocuments(q, siteId, tagKeys);
 
     } else {
       result = new PaginationResults<>(Collections.emptyList(), null);
@@ -526,40 +998,282 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
 
       Map<String, Map<String, AttributeValue>> filteredDocs = filterDocumentTags(docs, search);
 
-      List<String> fetchDocumentIds = new ArrayList<>(filteredDocs.keySet());
+      List<DynamicDocumentItem> results =
+          documentIds.stream().distinct().filter(filteredDocs::containsKey).map(id -> {
+            DocumentTag tag = new AttributeValueToDocumentTag(siteId).apply(filteredDocs.get(id));
+            return toSearchResult(id, new DocumentTagToDynamicDocumentTag().apply(tag));
+          }).collect(Collectors.toList());
 
-      List<DocumentItem> list = this.docService.findDocuments(siteId, fetchDocumentIds);
+      result = new PaginationResults<>(results, null);
 
-      List<DynamicDocumentItem> results =
-          list != null ? list.stream().map(l -> new DocumentItemToDynamicDocumentItem().apply(l))
-              .collect(Collectors.toList()) : Collections.emptyList();
+    } else {
+      result = searchByTagCriteria(siteId, query, search, token, maxresults, projectionExpression);
+    }
 
-      results.forEach(r -> {
-        Map<String, AttributeValue> tagMap = filteredDocs.get(r.getDocumentId());
-        DocumentTag tag = new AttributeValueToDocumentTag(siteId).apply(tagMap);
-        r.put("matchedTag", new DocumentTagToDynamicDocumentTag().apply(tag));
-      });
+    return result;
+  }
 
-      result = new PaginationResults<>(results, null);
+  /**
+   * Query the documents matching a {@link SearchTagCriteria}.
+   * 
+   * @param siteId {@link String}
+   * @param query {@link SearchQuery}
+   * @param search {@link SearchTagCriteria}
+   * @param token {@link PaginationMapToken}
+   * @param maxresults int
+   * @param projectionExpression {@link String}
+   * @return {@link PaginationResults}
+   */
+  private PaginationResults<DynamicDocumentItem> searchByTagCriteria(final String siteId,
+      final SearchQuery query, final SearchTagCriteria search, final PaginationMapToken token,
+      final int maxresults, final String projectionExpression) {
 
+    String key = getSearchKey(search);
+    PaginationResults<DynamicDocumentItem> result = null;
+
+    if (TagValueRange.isRange(search)) {
+      result = findDocumentsTagRange(siteId, query, key, TagValueRange.of(search), token,
+          maxresults, projectionExpression);
+    } else if (!Objects.notNull(search.eqOr()).isEmpty()) {
+      result = findDocumentsWithTagAndValues(siteId, query, key, search.eqOr(), token, maxresults,
+          projectionExpression);
+    } else if (search.eq() != null) {
+      result = findDocumentsWithTagAndValue(siteId, query, key, search.eq(), token, maxresults,
+          projectionExpression);
+    } else if (search.beginsWith() != null) {
+      result = findDocumentsTagStartWith(siteId, query, key, search.beginsWith(), token, maxresults,
+          projectionExpression);
     } else {
+      result =
+          findDocumentsWithTag(siteId, query, key, null, token, maxresults, projectionExpression);
+    }
 
-      if (!Objects.notNull(search.eqOr()).isEmpty()) {
-        result = findDocumentsWithTagAndValues(siteId, query, key, search.eqOr(), maxresults,
-            projectionExpression);
-      } else if (search.eq() != null) {
-        result = findDocumentsWithTagAndValue(siteId, query, key, search.eq(), token, maxresults,
-            projectionExpression);
-      } else if (search.beginsWith() != null) {
-        result = findDocumentsTagStartWith(siteId, query, key, search.beginsWith(), token,
-            maxresults, projectionExpression);
-      } else {
-        result =
-            findDocumentsWithTag(siteId, query, key, null, token, maxresults, projectionExpression);
+    return result;
+  }
+
+  /**
+   * Perform a search matching all of the {@link SearchQuery} tags.
+   * 
+   * The documentId posting list of each criteria is read in parallel and the list estimated to be
+   * the smallest from its first page, or the {@link TagValueCounter} count of an eq criteria,
+   * leads. Each page of the leading list is probed against the other criteria with batched tag
+   * lookups, and pagination follows the leading list.
+   * 
+   * @param siteId {@link String}
+   * @param query {@link SearchQuery}
+   * @param token {@link PaginationMapToken}
+   * @param maxresults int
+   * @return {@link PaginationResults}
+   */
+  private PaginationResults<DynamicDocumentItem> searchByTags(final String siteId,
+      final SearchQuery query, final PaginationMapToken token, final int maxresults) {
+
+    List<SearchTagCriteria> criteria = new ArrayList<>(notNull(query.tags()));
+    if (query.tag() != null) {
+      criteria.add(0, query.tag());
+    }
+
+    PaginationResults<String> documentIds = null;
+
+    if (!notNull(query.documentIds()).isEmpty()) {
+      List<String> ids = new ArrayList<>(new LinkedHashSet<>(query.documentIds()));
+      documentIds = new PaginationResults<>(probeDocumentTags(siteId, ids, criteria), null);
+    } else {
+      documentIds = intersectDocumentTags(siteId, criteria, token, maxresults);
+    }
+
+    List<DynamicDocumentItem> results = documentIds.getResults().stream()
+        .map(d -> toSearchResult(d, null)).collect(Collectors.toList());
+    results.forEach(r -> updateToMatchedTags(criteria, r));
+
+    return new PaginationResults<>(results, documentIds.getToken());
+  }
+
+  /**
+   * Intersect the documentId posting lists of {@link SearchTagCriteria}.
+   * 
+   * @param siteId {@link String}
+   * @param criteria {@link List} {@link SearchTagCriteria}
+   * @param token {@link PaginationMapToken}
+   * @param maxresults int
+   * @return {@link PaginationResults}
+   */
+  private PaginationResults<String> intersectDocumentTags(final String siteId,
+      final List<SearchTagCriteria> criteria, final PaginationMapToken token,
+      final int maxresults) {
+
+    int leader = 0;
+    PaginationMapToken leaderToken = null;
+    PaginationResults<String> page = null;
+
+    if (token != null) {
+      leader = Integer.parseInt(token.getAttributeMap().get(TOKEN_LEADER).toString());
+      leaderToken = fromMultiTagToken(token);
+    } else {
+
+      List<Supplier<PaginationResults<String>>> tasks = criteria.stream()
+          .map(c -> (Supplier<PaginationResults<String>>) () -> findPostingList(siteId, c, null,
+              maxresults))
+          .collect(Collectors.toList());
+
+      List<CompletableFuture<Long>> counts = countPostingLists(siteId, criteria);
+      List<PaginationResults<String>> pages = DynamoDbBatchExecutor.invokeAll(tasks);
+      leader = selectLeader(pages,
+          counts.stream().map(DynamoDbBatchExecutor::join).collect(Collectors.toList()));
+      page = pages.get(leader);
+    }
+
+    SearchTagCriteria lead = criteria.get(leader);
+    List<SearchTagCriteria> probes = new ArrayList<>(criteria);
+    probes.remove(leader);
+
+    Set<String> documentIds = new LinkedHashSet<>();
+    int reads = 0;
+
+    do {
+
+      if (page == null) {
+        page = findPostingList(siteId, lead, leaderToken, maxresults - documentIds.size());
+      }
+
+      documentIds.addAll(probeDocumentTags(siteId, page.getResults(), probes));
+      leaderToken = page.getToken();
+      page = null;
+      reads++;
+
+    } while (leaderToken != null && documentIds.size() < maxresults && reads < MAX_LEADER_PAGES);
+
+    PaginationMapToken next = leaderToken != null ? toMultiTagToken(leader, leaderToken) : null;
+    return new PaginationResults<>(new ArrayList<>(documentIds), next);
+  }
+
+  /**
+   * Start reading the {@link TagValueCounter} count of the documentId posting list of each eq
+   * {@link SearchTagCriteria}, other criteria have no count.
+   * 
+   * @param siteId {@link String}
+   * @param criteria {@link List} {@link SearchTagCriteria}
+   * @return {@link List} {@link CompletableFuture}
+   */
+  private List<CompletableFuture<Long>> countPostingLists(final String siteId,
+      final List<SearchTagCriteria> criteria) {
+    return criteria.stream()
+        .map(c -> c.eq() != null
+            ? DynamoDbBatchExecutor.submit(() -> this.tagCounter.get(siteId, c.key(), c.eq()))
+            : CompletableFuture.<Long>completedFuture(null))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Find a page of the documentId posting list of a {@link SearchTagCriteria}.
+   * 
+   * @param siteId {@link String}
+   * @param criteria {@link SearchTagCriteria}
+   * @param token {@link PaginationMapToken}
+   * @param maxresults int
+   * @return {@link PaginationResults}
+   */
+  private PaginationResults<String> findPostingList(final String siteId,
+      final SearchTagCriteria criteria, final PaginationMapToken token, final int maxresults) {
+
+    PaginationResults<DynamicDocumentItem> results =
+        searchByTagCriteria(siteId, new SearchQuery(), criteria, token, maxresults, "documentId");
+
+    List<String> documentIds = results.getResults().stream().map(m -> m.getString("documentId"))
+        .collect(Collectors.toList());
+
+    return new PaginationResults<>(documentIds, results.getToken());
+  }
+
+  /**
+   * Select the posting list estimated to be the smallest. A list that fits in its first page has a
+   * known size, a longer list is sized by its {@link TagValueCounter} count, which only eq criteria
+   * of initialized tag keys have. Longer lists without a count are assumed larger than any other,
+   * so the first of them leads when no list has a size.
+   * 
+   * @param pages {@link List} {@link PaginationResults}
+   * @param counts {@link List} {@link Long} document count of each list, null when unknown
+   * @return int
+   */
+  private int selectLeader(final List<PaginationResults<String>> pages, final List<Long> counts) {
+
+    int leader = 0;
+    long smallest = Long.MAX_VALUE;
+
+    for (int i = 0; i < pages.size(); i++) {
+
+      PaginationResults<String> page = pages.get(i);
+      Long count = counts.get(i);
+      long estimate = page.getToken() == null ? page.getResults().size()
+          : count != null ? count.longValue() : Long.MAX_VALUE;
+
+      if (estimate < smallest) {
+        smallest = estimate;
+        leader = i;
       }
     }
 
-    return result;
+    return leader;
+  }
+
+  /**
+   * Filter documentIds to the ones matching all {@link SearchTagCriteria}, probing one batch of tag
+   * records per criteria.
+   * 
+   * @param siteId {@link String}
+   * @param documentIds {@link List} {@link String}
+   * @param criteria {@link List} {@link SearchTagCriteria}
+   * @return {@link List} {@link String}
+   */
+  private List<String> probeDocumentTags(final String siteId, final List<String> documentIds,
+      final List<SearchTagCriteria> criteria) {
+
+    List<String> matches = documentIds;
+
+    for (SearchTagCriteria c : criteria) {
+
+      if (!matches.isEmpty()) {
+        Map<String, Map<String, AttributeValue>> docs =
+            filterDocumentTags(findDocumentsTags(siteId, matches, getSearchKey(c)), c);
+        matches = matches.stream().filter(docs::containsKey).collect(Collectors.toList());
+      }
+    }
+
+    return matches;
+  }
+
+  /**
+   * Create multi tag search {@link PaginationMapToken} from the leading list token.
+   * 
+   * @param leader int
+   * @param leaderToken {@link PaginationMapToken}
+   * @return {@link PaginationMapToken}
+   */
+  private PaginationMapToken toMultiTagToken(final int leader,
+      final PaginationMapToken leaderToken) {
+
+    Map<String, Object> map = new HashMap<>();
+    map.put(TOKEN_LEADER, String.valueOf(leader));
+    leaderToken.getAttributeMap().forEach((k, v) -> map.put(TOKEN_LEADER_PREFIX + k, v));
+    return new PaginationMapToken(map);
+  }
+
+  /**
+   * Get leading list {@link PaginationMapToken} from multi tag search token.
+   * 
+   * @param token {@link PaginationMapToken}
+   * @return {@link PaginationMapToken}
+   */
+  private PaginationMapToken fromMultiTagToken(final PaginationMapToken token) {
+
+    Map<String, Object> map = new HashMap<>();
+    token.getAttributeMap().forEach((k, v) -> {
+      if (k.startsWith(TOKEN_LEADER_PREFIX)) {
+        map.put(k.substring(TOKEN_LEADER_PREFIX.length()), v);
+      }
+    });
+
+    return new PaginationMapToken(map);
   }
 
   @Override
@@ -581,51 +1295,15 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
    * Search for Documents.
    *
    * @param q {@link QueryRequest}
-   * @param siteId DynamoDB PK siteId
    * @param query {@link SearchQuery}
    * @return {@link PaginationResults} {@link DocumentItemSearchResult}
    */
   private PaginationResults<DynamicDocumentItem> searchForDocuments(final QueryRequest q,
-      final String siteId, final SearchQuery query) {
+      final SearchQuery query) {
 
-    String projectionExpression = q.projectionExpression();
     QueryResponse result = this.dbClient.query(q);
-
-    Map<String, DocumentTag> tags = transformToDocumentTagMap(result);
-
-    PaginationResults<DynamicDocumentItem> ret = null;
-
-    List<String> documentIds = new ArrayList<>(tags.keySet());
-
-    if (projectionExpression == null || !"documentId".equals(projectionExpression)) {
-
-      List<DocumentItem> list = this.docService.findDocuments(siteId, documentIds);
-
-      List<DynamicDocumentItem> results =
-          list != null ? list.stream().map(l -> new DocumentItemToDynamicDocumentItem().apply(l))
-              .collect(Collectors.toList()) : Collections.emptyList();
-
-      results.forEach(r -> {
-
-        DocumentTag tag = tags.get(r.getDocumentId());
-        r.put("matchedTag", new DocumentTagToDynamicDocumentTag().apply(tag));
-
-        if (!notNull(query.tags()).isEmpty()) {
-          updateToMatchedTags(query, r);
-        }
-      });
-
-      ret = new PaginationResults<>(results, new QueryResponseToPagination().apply(result));
-
-    } else {
-
-      List<DynamicDocumentItem> results = documentIds.stream()
-          .map(d -> new DynamicDocumentItem(Map.of("documentId", d))).collect(Collectors.toList());
-
-      ret = new PaginationResults<>(results, new QueryResponseToPagination().apply(result));
-    }
-
-    return ret;
+    return toSearchResults(query, result.items(), new QueryResponseToPagination().apply(result),
+        q.projectionExpression());
   }
 
   /**
@@ -633,31 +1311,28 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
    *
    * @param q {@link QueryRequest}
    * @param siteId DynamoDB PK siteId
+   * @param tagKeys {@link List} {@link String} response tags
    * @return {@link PaginationResults} {@link DocumentItemSearchResult}
    */
   private PaginationResults<DynamicDocumentItem> searchForMetaDocuments(final QueryRequest q,
-      final String siteId) {
+      final String siteId, final List<String> tagKeys) {
 
     QueryResponse result = this.dbClient.query(q);
 
     List<String> documentIds = result.items().stream().filter(r -> r.containsKey("documentId"))
         .map(r -> r.get("documentId").s()).distinct().collect(Collectors.toList());
 
-    List<DocumentItem> list = this.docService.findDocuments(siteId, documentIds);
-
-    Map<String, DocumentItem> documentMap = list != null
-        ? list.stream().collect(Collectors.toMap(DocumentItem::getDocumentId, Function.identity()))
-        : Collections.emptyMap();
+    Map<String, DynamicDocumentItem> documentMap =
+        this.hydrator.hydrate(siteId, documentIds, tagKeys);
 
     AttributeValueToGlobalMetaFolder metaFolder = new AttributeValueToGlobalMetaFolder();
-    DocumentItemToDynamicDocumentItem transform = new DocumentItemToDynamicDocumentItem();
 
     List<DynamicDocumentItem> results = result.items().stream().map(r -> {
 
       AttributeValue documentId = r.get("documentId");
       boolean isDocument = documentId != null && documentMap.containsKey(documentId.s());
 
-      return isDocument ? transform.apply(documentMap.get(r.get("documentId").s()))
+      return isDocument ? documentMap.get(documentId.s())
           : new DynamicDocumentItem(metaFolder.apply(r));
 
     }).collect(Collectors.toList());
@@ -666,15 +1341,151 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
   }
 
   /**
-   * Transform {@link QueryResponse} to {@link DocumentTag} {@link Map}.
+   * Run a tag search and hydrate its results with their documents and response tags.
+   * 
+   * The search runs in index chunks until maxresults documents are found. Results whose document no
+   * longer exists are dropped. While a chunk is hydrated, the next chunk is already queried for the
+   * number of results still missing if every result of the chunk were found, so it can never
+   * overrun maxresults or the pagination token.
    * 
-   * @param result {@link QueryResponse}
+   * @param siteId {@link String}
+   * @param source {@link BiFunction} of token and maxresults to search results
+   * @param tagKeys {@link List} {@link String} response tags
+   * @param token {@link PaginationMapToken}
+   * @param maxresults int
+   * @return {@link PaginationResults}
+   */
+  private PaginationResults<DynamicDocumentItem> searchAndHydrate(final String siteId,
+      final BiFunction<PaginationMapToken, Integer, PaginationResults<DynamicDocumentItem>> source,
+      final List<String> tagKeys, final PaginationMapToken token, final int maxresults) {
+
+    final BiFunction<PaginationMapToken, Integer, PaginationResults<DynamicDocumentItem>> query =
+        (t, max) -> DynamoDbOperation.time("query", () -> source.apply(t, max));
+
+    List<DynamicDocumentItem> results = new ArrayList<>();
+    PaginationResults<DynamicDocumentItem> chunk = query.apply(token, Integer.valueOf(maxresults));
+    PaginationMapToken next = null;
+    int chunks = 1;
+
+    while (chunk != null) {
+
+      PaginationMapToken chunkToken = chunk.getToken();
+      int minimum = maxresults - results.size() - chunk.getResults().size();
+      boolean prefetch = chunkToken != null && minimum > 0 && chunks < MAX_HYDRATION_CHUNKS;
+
+      final CompletableFuture<PaginationResults<DynamicDocumentItem>> nextChunk = prefetch
+          ? DynamoDbBatchExecutor.submit(() -> query.apply(chunkToken, Integer.valueOf(minimum)))
+          : null;
+
+      results.addAll(hydrate(siteId, chunk.getResults(), tagKeys));
+      next = chunkToken;
+
+      int remaining = maxresults - results.size();
+      chunk = null;
+
+      if (nextChunk != null) {
+        chunk = DynamoDbBatchExecutor.join(nextChunk);
+      } else if (chunkToken != null && remaining > 0 && chunks < MAX_HYDRATION_CHUNKS) {
+        chunk = query.apply(chunkToken, Integer.valueOf(remaining));
+      }
+
+      chunks++;
+    }
+
+    return new PaginationResults<>(results, next);
+  }
+
+  /**
+   * Hydrate search results with their documents and response tags, in one BatchGetItem wave.
+   * 
+   * @param siteId {@link String}
+   * @param items {@link List} {@link DynamicDocumentItem}
+   * @param tagKeys {@link List} {@link String} response tags
+   * @return {@link List} {@link DynamicDocumentItem}
+   */
+  private List<DynamicDocumentItem> hydrate(final String siteId,
+      final List<DynamicDocumentItem> items, final List<String> tagKeys) {
+
+    List<String> documentIds =
+        items.stream().map(DynamicDocumentItem::getDocumentId).collect(Collectors.toList());
+    Map<String, DynamicDocumentItem> documents =
+        this.hydrator.hydrate(siteId, documentIds, tagKeys);
+
+    return items.stream().filter(i -> documents.containsKey(i.getDocumentId())).map(i -> {
+      DynamicDocumentItem document = documents.get(i.getDocumentId());
+      i.forEach((k, v) -> document.put(k, v));
+      return document;
+    }).collect(Collectors.toList());
+  }
+
+  /**
+   * Set the {@link FolderPathCache} folder reads go through.
+   * 
+   * @param cache {@link FolderPathCache}
+   */
+  public void setFolderPathCache(final FolderPathCache cache) {
+    this.folderIndexProcesor.setFolderPathCache(cache);
+  }
+
+  /**
+   * Create search result of documentId, to be hydrated.
+   * 
+   * @param documentId {@link String}
+   * @param matchedTag {@link DynamicDocumentTag}
+   * @return {@link DynamicDocumentItem}
+   */
+  private DynamicDocumentItem toSearchResult(final String documentId,
+      final DynamicDocumentTag matchedTag) {
+
+    DynamicDocumentItem result = new DynamicDocumentItem(new HashMap<>());
+    result.put("documentId", documentId);
+
+    if (matchedTag != null) {
+      result.put("matchedTag", matchedTag);
+    }
+
+    return result;
+  }
+
+  /**
+   * Convert tag records to search results, to be hydrated.
+   * 
+   * @param query {@link SearchQuery}
+   * @param items {@link List} {@link Map}
+   * @param token {@link PaginationMapToken}
+   * @param projectionExpression {@link String}
+   * @return {@link PaginationResults} {@link DynamicDocumentItem}
+   */
+  private PaginationResults<DynamicDocumentItem> toSearchResults(final SearchQuery query,
+      final List<Map<String, AttributeValue>> items, final PaginationMapToken token,
+      final String projectionExpression) {
+
+    Map<String, DocumentTag> tags = transformToDocumentTagMap(items);
+    boolean documentIdOnly = "documentId".equals(projectionExpression);
+
+    List<DynamicDocumentItem> results = tags.entrySet().stream()
+        .map(e -> toSearchResult(e.getKey(),
+            documentIdOnly ? null : new DocumentTagToDynamicDocumentTag().apply(e.getValue())))
+        .collect(Collectors.toList());
+
+    if (!documentIdOnly && !notNull(query.tags()).isEmpty()) {
+      results.forEach(r -> updateToMatchedTags(query, r));
+    }
+
+    return new PaginationResults<>(results, token);
+  }
+
+  /**
+   * Transform tag records to {@link DocumentTag} {@link Map}, in the order of the records.
+   * 
+   * @param items {@link List} {@link Map}
    * @return {@link Map} {@link DocumentTag}
    */
-  private Map<String, DocumentTag> transformToDocumentTagMap(final QueryResponse result) {
+  private Map<String, DocumentTag> transformToDocumentTagMap(
+      final List<Map<String, AttributeValue>> items) {
 
-    Map<String, DocumentTag> tags = new HashMap<>();
-    result.items().forEach(s -> {
+    Map<String, DocumentTag> tags = new LinkedHashMap<>();
+    items.forEach(s -> {
 
       if (s.containsKey("documentId")) {
         String documentId = s.get("documentId").s();
@@ -728,10 +1539,20 @@ public class DocumentSearchServiceImpl implements DocumentSearchService {
    * @param r {@link DynamicDocumentItem}
    */
   private void updateToMatchedTags(final SearchQuery query, final DynamicDocumentItem r) {
+    updateToMatchedTags(query.tags(), r);
+  }
+
+  /**
+   * Update Search Result matchedTags from {@link SearchTagCriteria}.
+   * 
+   * @param tags {@link List} {@link SearchTagCriteria}
+   * @param r {@link DynamicDocumentItem}
+   */
+  private void updateToMatchedTags(final List<SearchTagCriteria> tags,
+      final DynamicDocumentItem r) {
 
     List<DynamicDocumentItem> matchedTags = new ArrayList<>();
 
-    List<SearchTagCriteria> tags = query.tags();
     for (SearchTagCriteria c : tags) {
       DynamicDocumentItem tag = new DynamicDocumentItem(new HashMap<>());
       tag.put("key", c.key());
@@ -423,6 +423,18 @@ public interface DocumentService extends DocumentTagLoader {
    */
   DocumentItem saveDocumentItemWithTag(String siteId, DynamicDocumentItem doc);
 
+  /**
+   * Save multiple Documents and Tags. Folders shared by the documents are resolved once, Tag Index
+   * keys are deduplicated across all documents and every record is written in batches of 25 sent in
+   * parallel.
+   * 
+   * @param siteId Optional Grouping siteId
+   * @param documents {@link List} {@link DocumentItem}
+   * @param tags {@link Map} {@link DocumentTag} by documentId
+   */
+  void saveDocuments(String siteId, List<DocumentItem> documents,
+      Map<String, Collection<DocumentTag>> tags);
+
   /**
    * Save Preset.
    * 
@@ -51,8 +51,16 @@ public class DocumentServiceExtension implements AwsServiceExtension<DocumentSer
       DocumentVersionService versionService =
           awsServiceCache.getExtension(DocumentVersionService.class);
 
-      this.service = new DocumentServiceImpl(connection,
+      DocumentServiceImpl impl = new DocumentServiceImpl(connection,
           awsServiceCache.environment("DOCUMENTS_TABLE"), versionService);
+
+      if (!awsServiceCache.containsExtension(DocumentCache.class)) {
+        awsServiceCache.register(DocumentCache.class, new DocumentCacheExtension());
+      }
+      impl.setDocumentCache(awsServiceCache.getExtensionOrNull(DocumentCache.class));
+      impl.setFolderPathCache(FolderPathCacheExtension.getFolderPathCache(awsServiceCache));
+
+      this.service = impl;
     }
 
     return this.service;
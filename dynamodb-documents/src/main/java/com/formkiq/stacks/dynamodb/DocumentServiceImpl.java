@@ -31,12 +31,11 @@ import static com.formkiq.aws.dynamodb.objects.Strings.isUuid;
 import static com.formkiq.aws.dynamodb.objects.Strings.removeQuotes;
 import static software.amazon.awssdk.services.dynamodb.model.AttributeValue.fromS;
 import java.io.IOException;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.LocalDateTime;
+import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -47,10 +46,13 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Optional;
-import java.util.TimeZone;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import com.formkiq.aws.dynamodb.BatchGetConfig;
 import com.formkiq.aws.dynamodb.DbKeys;
@@ -70,19 +72,15 @@ import com.formkiq.aws.dynamodb.model.DocumentItem;
 import com.formkiq.aws.dynamodb.model.DocumentTag;
 import com.formkiq.aws.dynamodb.model.DocumentTagType;
 import com.formkiq.aws.dynamodb.model.DynamicDocumentItem;
+import com.formkiq.aws.dynamodb.metrics.DynamoDbOperation;
 import com.formkiq.aws.dynamodb.objects.DateUtil;
-import com.formkiq.aws.dynamodb.objects.Objects;
 import com.formkiq.aws.dynamodb.objects.Strings;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
-import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
-import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
-import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
-import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest.Builder;
@@ -92,28 +90,35 @@ import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
 /** Implementation of the {@link DocumentService}. */
 public class DocumentServiceImpl implements DocumentService, DbKeys {
 
-  /** Maximum number of Records DynamoDb can be queries for at a time. */
-  private static final int MAX_QUERY_RECORDS = 100;
+  /** {@link DocumentCache}, null if documents are not cached. */
+  private DocumentCache cache;
+  /** {@link DocumentDateIndex}. */
+  private DocumentDateIndex dateIndex;
+  /** {@link FolderAggregateCounter}. */
+  private FolderAggregateCounter aggregates;
   /** {@link DynamoDbClient}. */
   private DynamoDbClient dbClient;
   /** {@link DynamoDbService}. */
   private DynamoDbService dbService;
-  /** {@link SimpleDateFormat} in ISO Standard format. */
-  private SimpleDateFormat df = DateUtil.getIsoDateFormatter();
+  /** {@link DateTimeFormatter} in ISO Standard format. */
+  private DateTimeFormatter df = DateUtil.getIsoDateTimeFormatter();
   /** Documents Table Name. */
   private String documentTableName;
-  /** {@link FolderIndexProcessor}. */
-  private FolderIndexProcessor folderIndexProcessor;
+  /** {@link FolderPathCache}, null if folders are not cached. */
+  private FolderPathCache folderCache;
+  /** {@link FolderIndexProcessorImpl}. */
+  private FolderIndexProcessorImpl folderIndexProcessor;
   /** {@link GlobalIndexService}. */
   private GlobalIndexService indexWriter;
-  /** Last Short Date. */
-  private String lastShortDate = null;
+  /** Last Short Date, shared by all threads using this instance. */
+  private volatile String lastShortDate = null;
+  /** {@link TagValueCounter}. */
+  private TagValueCounter tagCounter;
   /** {@link DocumentVersionService}. */
   private DocumentVersionService versionsService;
-  /** {@link SimpleDateFormat} YYYY-mm-dd format. */
-  private SimpleDateFormat yyyymmddFormat;
-  /** {@link DateTimeFormatter}. */
-  private DateTimeFormatter yyyymmddFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+  /** {@link DateTimeFormatter} YYYY-mm-dd format in UTC. */
+  private DateTimeFormatter yyyymmddFormat =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneOffset.UTC);
 
   /**
    * constructor.
@@ -132,14 +137,12 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     this.indexWriter = new GlobalIndexService(connection, documentsTable);
     this.versionsService = documentVersionsService;
     this.dbClient = connection.build();
+    this.dateIndex = new DocumentDateIndex(this.dbClient, documentsTable);
     this.documentTableName = documentsTable;
     this.folderIndexProcessor = new FolderIndexProcessorImpl(connection, documentsTable);
     this.dbService = new DynamoDbServiceImpl(connection, documentsTable);
-
-    this.yyyymmddFormat = new SimpleDateFormat("yyyy-MM-dd");
-
-    TimeZone tz = TimeZone.getTimeZone("UTC");
-    this.yyyymmddFormat.setTimeZone(tz);
+    this.tagCounter = new TagValueCounter(this.dbClient, documentsTable);
+    this.aggregates = new FolderAggregateCounter(this.dbClient, documentsTable);
   }
 
   @Override
@@ -156,6 +159,31 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
         new WriteRequestBuilder().appends(this.documentTableName, folderIndex);
 
     writeBuilder.batchWriteItem(this.dbClient);
+
+    Map<String, FolderAggregate> changes = new HashMap<>();
+    FolderAggregateCounter.addFolders(changes, list);
+    this.aggregates.update(siteId, changes);
+  }
+
+  /**
+   * Add a document being added (delta 1) or removed (delta -1) to the {@link FolderAggregate}
+   * changes of its folders.
+   * 
+   * @param changes {@link Map} of folder documentId to {@link FolderAggregate} change
+   * @param folders {@link Map} of path to its {@link FolderIndexRecord} folders
+   * @param attrs {@link Map} document attributes
+   * @param delta long
+   */
+  private void addFolderAggregate(final Map<String, FolderAggregate> changes,
+      final Map<String, List<FolderIndexRecord>> folders, final Map<String, AttributeValue> attrs,
+      final long delta) {
+
+    List<FolderIndexRecord> list = folders.get(getPath(attrs));
+
+    if (list != null) {
+      FolderAggregateCounter.addDocument(changes, list, FolderAggregateCounter.contentLength(attrs),
+          delta);
+    }
   }
 
   private void addMetadata(final DocumentItem document,
@@ -186,12 +214,21 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
 
     if (!items.isEmpty()) {
 
+      List<Map<String, AttributeValue>> previous = findPreviousTagRecords(items);
+      List<Map<String, AttributeValue>> tagIndex =
+          this.indexWriter.generateTagIndex(siteId, tagKeys);
+
       WriteRequestBuilder writeBuilder =
-          new WriteRequestBuilder().appends(this.documentTableName, items);
+          new WriteRequestBuilder().appends(this.documentTableName, items)
+              .appends(this.documentTableName, tagIndex).appends(this.documentTableName,
+                  this.indexWriter.generateTagCountersInitialized(siteId, tagIndex));
 
-      writeBuilder.batchWriteItem(this.dbClient);
+      if (writeBuilder.batchWriteItem(this.dbClient)) {
+        this.indexWriter.addTagIndexCache(siteId, tagKeys);
+      }
 
-      this.indexWriter.writeTagIndex(siteId, tagKeys);
+      updateTagCounts(siteId, previous, items);
+      tags.keySet().forEach(documentId -> invalidate(siteId, documentId));
     }
   }
 
@@ -201,25 +238,6 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     addTags(siteId, Map.of(documentId, tags), timeToLive);
   }
 
-  /**
-   * Build DynamoDB Search Map.
-   * 
-   * @param siteId {@link String}
-   * @param pk {@link String}
-   * @param skMin {@link String}
-   * @param skMax {@link String}
-   * @return {@link Map}
-   */
-  private Map<String, String> createSearchMap(final String siteId, final String pk,
-      final String skMin, final String skMax) {
-    Map<String, String> map = new HashMap<>();
-    map.put("pk", createDatabaseKey(siteId, pk));
-    map.put("skMin", skMin);
-    map.put("skMax", skMax);
-
-    return map;
-  }
-
   /**
    * Delete Record.
    * 
@@ -241,15 +259,26 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
 
     this.versionsService.deleteAllVersionIds(this.dbClient, siteId, documentId);
 
+    invalidate(siteId, documentId);
     DocumentItem item = findDocument(siteId, documentId);
 
-    deleteFolderIndex(siteId, item);
+    if (deleteFolderIndex(siteId, item)) {
+      Map<String, AttributeValue> values = new HashMap<>();
+      addS(values, "path", item.getPath());
+      if (item.getContentLength() != null) {
+        addN(values, "contentLength", "" + item.getContentLength());
+      }
+
+      updateFolderAggregates(siteId, Arrays.asList(values), Arrays.asList(Collections.emptyMap()),
+          new HashMap<>(), new HashMap<>());
+    }
 
     Map<String, AttributeValue> keys = keysGeneric(siteId, PREFIX_DOCS + documentId, null);
     AttributeValue pk = keys.get(PK);
     AttributeValue sk = null;
 
     List<Map<String, AttributeValue>> list = queryDocumentAttributes(pk, sk, softDelete);
+    List<Map<String, AttributeValue>> tagRecords = new ArrayList<>(list);
 
     if (softDelete) {
 
@@ -267,11 +296,17 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
 
       list.addAll(queryDocumentAttributes(pk, sk, false));
 
-      if (this.dbService.deleteItems(list)) {
+      if (this.dbService.deleteItems(list.stream()
+          .map(a -> keysGeneric(a.get(PK).s(), a.get(SK).s())).collect(Collectors.toList()))) {
         deleted = true;
       }
     }
 
+    if (deleted) {
+      updateTagCounts(siteId, tagRecords, Collections.emptyList());
+    }
+
+    invalidate(siteId, documentId);
     return deleted;
   }
 
@@ -279,12 +314,14 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
   public void deleteDocumentFormat(final String siteId, final String documentId,
       final String contentType) {
     delete(keysDocumentFormats(siteId, documentId, contentType));
+    invalidate(siteId, documentId);
   }
 
   @Override
   public void deleteDocumentFormats(final String siteId, final String documentId) {
 
     PaginationMapToken startkey = null;
+    invalidate(siteId, documentId);
 
     do {
       PaginationResults<DocumentFormat> pr =
@@ -301,13 +338,25 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
 
   @Override
   public void deleteDocumentTag(final String siteId, final String documentId, final String tagKey) {
-    deleteItem(keysDocumentTag(siteId, documentId, tagKey));
+
+    DeleteItemRequest deleteItemRequest = DeleteItemRequest.builder()
+        .tableName(this.documentTableName).key(keysDocumentTag(siteId, documentId, tagKey))
+        .returnValues(ReturnValue.ALL_OLD).build();
+
+    DeleteItemResponse response = this.dbClient.deleteItem(deleteItemRequest);
+
+    if (response.hasAttributes()) {
+      updateTagCounts(siteId, List.of(response.attributes()), Collections.emptyList());
+    }
+
+    invalidate(siteId, documentId);
   }
 
   @Override
   public void deleteDocumentTags(final String siteId, final String documentId) {
 
     PaginationMapToken startkey = null;
+    invalidate(siteId, documentId);
 
     do {
       PaginationResults<DocumentTag> pr =
@@ -327,21 +376,33 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
    * 
    * @param siteId {@link String}
    * @param item {@link DocumentItem}
+   * @return boolean whether the document's folder index was deleted
    */
-  private void deleteFolderIndex(final String siteId, final DocumentItem item) {
+  private boolean deleteFolderIndex(final String siteId, final DocumentItem item) {
+
+    boolean deleted = false;
+
     if (item != null) {
 
       try {
         Map<String, String> attr = this.folderIndexProcessor.getIndex(siteId, item.getPath());
 
-        if (attr.containsKey("documentId")) {
+        if (item.getDocumentId().equals(attr.get("documentId"))) {
           deleteItem(Map.of(PK, AttributeValue.builder().s(attr.get(PK)).build(), SK,
               AttributeValue.builder().s(attr.get(SK)).build()));
+
+          if (this.folderCache != null) {
+            this.folderCache.invalidate(attr.get(PK), attr.get(SK));
+          }
+
+          deleted = true;
         }
       } catch (IOException e) {
         // ignore folder doesn't exist
       }
     }
+
+    return deleted;
   }
 
   /**
@@ -497,10 +558,31 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     PaginationResults<Map<String, AttributeValue>> results =
         find(pk, sk, indexName, token, null, maxresults);
 
-    List<T> list =
-        results.getResults().stream().map(s -> func.apply(s)).collect(Collectors.toList());
+    return transform(results, func);
+  }
 
-    return new PaginationResults<T>(list, results.getToken());
+  /**
+   * Find the current tag records replaced by saving tag records, only the first record of a tag is
+   * read as it holds all the values the {@link TagValueCounter} counts.
+   * 
+   * @param tagRecords {@link List} {@link Map}
+   * @return {@link List} {@link Map}
+   */
+  private List<Map<String, AttributeValue>> findPreviousTagRecords(
+      final List<Map<String, AttributeValue>> tagRecords) {
+
+    List<Map<String, AttributeValue>> keys = tagRecords.stream()
+        .filter(r -> r.containsKey("tagKey")
+            && (PREFIX_TAGS + r.get("tagKey").s()).equals(r.get(SK).s()))
+        .map(r -> keysGeneric(r.get(PK).s(), r.get(SK).s())).distinct()
+        .collect(Collectors.toList());
+
+    BatchGetConfig config =
+        new BatchGetConfig().projectionExpression("#sk,tagKey,tagValue,tagValues")
+            .expressionAttributeNames(Map.of("#sk", SK));
+
+    return !keys.isEmpty() ? notNull(getBatch(config, keys).get(this.documentTableName))
+        : Collections.emptyList();
   }
 
   @Override
@@ -515,10 +597,13 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     DocumentItem item = null;
     PaginationMapToken pagination = null;
 
-    GetItemRequest r = GetItemRequest.builder().key(keysDocument(siteId, documentId))
-        .tableName(this.documentTableName).consistentRead(Boolean.TRUE).build();
-
-    Map<String, AttributeValue> result = this.dbClient.getItem(r).item();
+    Map<String, AttributeValue> keys = keysDocument(siteId, documentId);
+    Map<String, AttributeValue> result = readThrough(keys.get(PK).s(), "document", () -> {
+      GetItemRequest r = GetItemRequest.builder().key(keys).tableName(this.documentTableName)
+          .consistentRead(Boolean.TRUE).build();
+      Map<String, AttributeValue> attributes = this.dbClient.getItem(r).item();
+      return attributes != null && !attributes.isEmpty() ? attributes : null;
+    });
 
     if (result != null && !result.isEmpty()) {
 
@@ -556,7 +641,10 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
       final String contentType) {
 
     Map<String, AttributeValue> keyMap = keysDocumentFormats(siteId, documentId, contentType);
-    Optional<Map<String, AttributeValue>> result = find(keyMap.get("PK").s(), keyMap.get("SK").s());
+    String pk = keyMap.get(PK).s();
+    String sk = keyMap.get(SK).s();
+    Optional<Map<String, AttributeValue>> result =
+        Optional.ofNullable(readThrough(pk, sk, () -> find(pk, sk).orElse(null)));
 
     AttributeValueToDocumentFormat format = new AttributeValueToDocumentFormat();
     return result.isPresent() ? Optional.of(format.apply(result.get())) : Optional.empty();
@@ -566,7 +654,29 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
   public PaginationResults<DocumentFormat> findDocumentFormats(final String siteId,
       final String documentId, final PaginationMapToken token, final int maxresults) {
     Map<String, AttributeValue> keys = keysDocumentFormats(siteId, documentId, null);
-    return findAndTransform(keys, token, maxresults, new AttributeValueToDocumentFormat());
+    PaginationResults<Map<String, AttributeValue>> results =
+        findDocumentRecords(keys, token, maxresults);
+    return transform(results, new AttributeValueToDocumentFormat());
+  }
+
+  /**
+   * Find the records of a document, the first page is read through the {@link DocumentCache}.
+   * 
+   * @param keys {@link Map} {@link AttributeValue}
+   * @param token {@link PaginationMapToken}
+   * @param maxresults int
+   * @return {@link PaginationResults} {@link Map}
+   */
+  private PaginationResults<Map<String, AttributeValue>> findDocumentRecords(
+      final Map<String, AttributeValue> keys, final PaginationMapToken token,
+      final int maxresults) {
+
+    String pk = keys.get(PK).s();
+    String sk = keys.get(SK).s();
+    Supplier<PaginationResults<Map<String, AttributeValue>>> loader =
+        () -> find(pk, sk, null, token, null, maxresults);
+
+    return token == null ? readThrough(pk, "list#" + sk + maxresults, loader) : loader.get();
   }
 
   @Override
@@ -602,63 +712,11 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
   public PaginationResults<DocumentItem> findDocumentsByDate(final String siteId,
       final ZonedDateTime date, final PaginationMapToken token, final int maxresults) {
 
-    List<Map<String, String>> searchMap = generateSearchCriteria(siteId, date, token);
-
-    PaginationResults<DocumentItem> results =
-        findDocumentsBySearchMap(siteId, searchMap, token, maxresults);
-
-    // if number of results == maxresult, check to see if next page has at least 1 record.
-    if (results.getResults().size() == maxresults) {
-      PaginationMapToken nextToken = results.getToken();
-      searchMap = generateSearchCriteria(siteId, date, nextToken);
-      PaginationResults<DocumentItem> next =
-          findDocumentsBySearchMap(siteId, searchMap, nextToken, 1);
-
-      if (next.getResults().isEmpty()) {
-        results = new PaginationResults<DocumentItem>(results.getResults(), null);
-      }
-    }
-
-    return results;
-  }
-
-  /**
-   * Find Documents using the Search Map.
-   * 
-   * @param siteId DynamoDB PK siteId
-   * @param searchMap {@link List}
-   * @param token {@link PaginationMapToken}
-   * @param maxresults int
-   * @return {@link PaginationResults}
-   */
-  private PaginationResults<DocumentItem> findDocumentsBySearchMap(final String siteId,
-      final List<Map<String, String>> searchMap, final PaginationMapToken token,
-      final int maxresults) {
-
-    int max = maxresults;
-    PaginationMapToken itemsToken = null;
-    PaginationMapToken qtoken = token;
-    List<DocumentItem> items = new ArrayList<>();
+    PaginationResults<String> documentIds =
+        this.dateIndex.findDocumentIds(siteId, date, token, maxresults);
 
-    for (Map<String, String> map : searchMap) {
-      String pk = map.get("pk");
-      String skMin = map.get("skMin");
-      String skMax = map.get("skMax");
-      PaginationResults<DocumentItem> results =
-          queryDocuments(siteId, pk, skMin, skMax, qtoken, max);
-
-      items.addAll(results.getResults());
-      itemsToken = results.getToken();
-      max = max - results.getResults().size();
-
-      if (max < 1) {
-        break;
-      }
-
-      qtoken = null;
-    }
-
-    return new PaginationResults<DocumentItem>(items, itemsToken);
+    List<DocumentItem> list = findDocuments(siteId, documentIds.getResults());
+    return new PaginationResults<>(list, documentIds.getToken());
   }
 
   @Override
@@ -676,28 +734,15 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
       });
     });
 
-    List<List<Map<String, AttributeValue>>> paritions = Objects.parition(keys, MAX_QUERY_RECORDS);
-
-    for (List<Map<String, AttributeValue>> partition : paritions) {
-
-      Map<String, KeysAndAttributes> requestedItems =
-          Map.of(this.documentTableName, KeysAndAttributes.builder().keys(partition).build());
-
-      BatchGetItemRequest batchReq =
-          BatchGetItemRequest.builder().requestItems(requestedItems).build();
-      BatchGetItemResponse batchResponse = this.dbClient.batchGetItem(batchReq);
-
-      Collection<List<Map<String, AttributeValue>>> values = batchResponse.responses().values();
-      List<Map<String, AttributeValue>> result =
-          !values.isEmpty() ? values.iterator().next() : Collections.emptyList();
+    List<Map<String, AttributeValue>> result =
+        notNull(getBatch(new BatchGetConfig(), keys).get(this.documentTableName));
 
-      AttributeValueToDocumentTag toDocumentTag = new AttributeValueToDocumentTag(siteId);
-      List<DocumentTag> list =
-          result.stream().map(a -> toDocumentTag.apply(a)).collect(Collectors.toList());
+    AttributeValueToDocumentTag toDocumentTag = new AttributeValueToDocumentTag(siteId);
+    List<DocumentTag> list =
+        result.stream().map(a -> toDocumentTag.apply(a)).collect(Collectors.toList());
 
-      for (DocumentTag tag : list) {
-        tagMap.get(tag.getDocumentId()).add(tag);
-      }
+    for (DocumentTag tag : list) {
+      tagMap.get(tag.getDocumentId()).add(tag);
     }
 
     return tagMap;
@@ -708,9 +753,9 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
       final String tagKey) {
 
     DocumentTag item = null;
-    QueryResponse response =
-        findDocumentTagAttributes(siteId, documentId, tagKey, Integer.valueOf(1));
-    List<Map<String, AttributeValue>> items = response.items();
+    String pk = keysDocument(siteId, documentId).get(PK).s();
+    List<Map<String, AttributeValue>> items = readThrough(pk, "tag#" + tagKey,
+        () -> findDocumentTagAttributes(siteId, documentId, tagKey, Integer.valueOf(1)).items());
 
     if (!items.isEmpty()) {
       item = new AttributeValueToDocumentTag(siteId).apply(items.get(0));
@@ -768,8 +813,8 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
 
     Map<String, AttributeValue> keys = keysDocumentTag(siteId, documentId, null);
 
-    PaginationResults<DocumentTag> tags =
-        findAndTransform(keys, token, maxresults, new AttributeValueToDocumentTag(siteId));
+    PaginationResults<DocumentTag> tags = transform(findDocumentRecords(keys, token, maxresults),
+        new AttributeValueToDocumentTag(siteId));
 
     // filter duplicates
     DocumentTag prev = null;
@@ -850,51 +895,36 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
   }
 
   /**
-   * Generate DynamoDB PK(s)/SK(s) to search.
+   * Generate the Folder Index of a document being saved and remove the Folder Index of the previous
+   * path if the path has changed.
    * 
-   * @param siteId DynamoDB PK siteId
-   * @param date {@link ZonedDateTime}
-   * @param token {@link PaginationMapToken}
-   * @return {@link List} {@link String}
+   * @param siteId {@link String}
+   * @param document {@link DocumentItem}
+   * @param previous {@link Map}
+   * @param documentValues {@link Map}
+   * @param changes {@link Map} of folder documentId to {@link FolderAggregate} change
+   * @param folders {@link Map} of document path to its {@link FolderIndexRecord} folders
+   * @return {@link List} {@link Map}
    */
-  private List<Map<String, String>> generateSearchCriteria(final String siteId,
-      final ZonedDateTime date, final PaginationMapToken token) {
-
-    List<Map<String, String>> list = new ArrayList<>();
-
-    LocalDateTime startDate = LocalDateTime.ofInstant(date.toInstant(), ZoneOffset.UTC);
-    LocalDateTime endDate = startDate.plusDays(1);
+  private List<Map<String, AttributeValue>> generateFolderIndex(final String siteId,
+      final DocumentItem document, final Map<String, AttributeValue> previous,
+      final Map<String, AttributeValue> documentValues, final Map<String, FolderAggregate> changes,
+      final Map<String, List<FolderIndexRecord>> folders) {
 
-    Map<String, AttributeValue> startkey = new PaginationToAttributeValue().apply(token);
-
-    String pk1 = PREFIX_DOCUMENT_DATE_TS + startDate.format(this.yyyymmddFormatter);
-    String pk2 = PREFIX_DOCUMENT_DATE_TS + endDate.format(this.yyyymmddFormatter);
-    boolean nextDayPagination = isNextDayPagination(siteId, pk1, startkey);
-
-    if (!nextDayPagination) {
-      String skMin = startkey != null ? startkey.get(GSI1_SK).s()
-          : this.df.format(Date.from(startDate.toInstant(ZoneOffset.UTC)));
-      Map<String, String> map = createSearchMap(siteId, pk1, skMin, null);
-      list.add(map);
-    }
-
-    if (!pk1.equals(pk2)) {
-      String skMin =
-          this.df.format(Date.from(endDate.toLocalDate().atStartOfDay().toInstant(ZoneOffset.UTC)));
-      String skMax = this.df.format(Date.from(endDate.toInstant(ZoneOffset.UTC)));
-
-      if (startkey != null && nextDayPagination) {
-        Map<String, String> map = createSearchMap(siteId, pk2, startkey.get(GSI1_SK).s(), skMax);
-        list.add(map);
-      } else if (!skMin.equals(skMax)) {
-        Map<String, String> map = createSearchMap(siteId, pk2, skMin, skMax);
-        list.add(map);
-      }
-    }
-
-    list.forEach(m -> m.put("pk", resetDatabaseKey(siteId, m.get("pk"))));
+    List<Map<String, AttributeValue>> folderIndex =
+        this.folderIndexProcessor.generateIndex(siteId, document, changes, folders);
+    updateSaveDocumentPath(siteId, document, previous, documentValues);
+    return folderIndex;
+  }
 
-    return list;
+  /**
+   * Get the path of document attributes, empty if it has no path.
+   * 
+   * @param attrs {@link Map}
+   * @return {@link String}
+   */
+  private String getPath(final Map<String, AttributeValue> attrs) {
+    return attrs.containsKey("path") ? attrs.get("path").s() : "";
   }
 
   /**
@@ -922,14 +952,31 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     return date != null ? date : defaultDate;
   }
 
+  /**
+   * Get the Document attributes of existing documents.
+   * 
+   * @param siteId {@link String}
+   * @param documents {@link List} {@link DocumentItem}
+   * @return {@link Map} attributes by documentId
+   */
+  private Map<String, Map<String, AttributeValue>> getDocumentAttributes(final String siteId,
+      final List<DocumentItem> documents) {
+
+    List<Map<String, AttributeValue>> keys = documents.stream().map(d -> d.getDocumentId())
+        .distinct().map(id -> keysDocument(siteId, id)).collect(Collectors.toList());
+
+    return this.dbService.getBatch(new BatchGetConfig(), keys).stream().collect(Collectors.toMap(
+        a -> a.get("documentId").s(), a -> new HashMap<String, AttributeValue>(a), (a, b) -> a));
+  }
+
   private Date getPreviousInsertedDate(final Map<String, AttributeValue> previous) {
 
     Date date = null;
     AttributeValue insertedDate = previous.get("inserteddate");
     if (insertedDate != null) {
       try {
-        date = this.df.parse(insertedDate.s());
-      } catch (ParseException e) {
+        date = Date.from(Instant.from(this.df.parse(insertedDate.s())));
+      } catch (DateTimeParseException e) {
         // ignore
       }
     }
@@ -968,14 +1015,15 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     }
     document.setLastModifiedDate(lastModifiedDate);
 
-    String shortdate = this.yyyymmddFormat.format(insertedDate);
-    String fullInsertedDate = this.df.format(insertedDate);
-    String fullLastModifiedDate = this.df.format(lastModifiedDate);
+    String shortdate = this.yyyymmddFormat.format(insertedDate.toInstant());
+    String fullInsertedDate = this.df.format(insertedDate.toInstant());
+    String fullLastModifiedDate = this.df.format(lastModifiedDate.toInstant());
 
     Map<String, AttributeValue> pkvalues = new HashMap<>(keys);
 
     if (options.saveDocumentDate()) {
-      addS(pkvalues, GSI1_PK, createDatabaseKey(siteId, PREFIX_DOCUMENT_DATE_TS + shortdate));
+      addS(pkvalues, GSI1_PK,
+          createDatabaseKey(siteId, DocumentDateIndex.getPk(shortdate, document.getDocumentId())));
       addS(pkvalues, GSI1_SK, fullInsertedDate + TAG_DELIMINATOR + document.getDocumentId());
     }
 
@@ -1020,6 +1068,41 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     return pkvalues;
   }
 
+  /**
+   * Get the attributes of a document being saved, adding the previous document to the document
+   * versions if it has changed.
+   * 
+   * @param siteId {@link String}
+   * @param document {@link DocumentItem}
+   * @param previousValues {@link Map}, null if the document does not exist
+   * @param options {@link SaveDocumentOptions}
+   * @param versions {@link List} of previous documents to write to the document versions table
+   * @return {@link Map}
+   */
+  private Map<String, AttributeValue> getSaveDocumentValues(final String siteId,
+      final DocumentItem document, final Map<String, AttributeValue> previousValues,
+      final SaveDocumentOptions options, final List<Map<String, AttributeValue>> versions) {
+
+    Map<String, AttributeValue> previous =
+        previousValues != null ? previousValues : Collections.emptyMap();
+    Map<String, AttributeValue> keys = keysDocument(siteId, document.getDocumentId());
+
+    Map<String, AttributeValue> documentValues = new HashMap<>(previous);
+    Map<String, AttributeValue> current =
+        getSaveDocumentAttributes(keys, siteId, document, previous, options, !previous.isEmpty());
+    documentValues.putAll(current);
+
+    removeNullMetadata(document, documentValues);
+
+    if (this.versionsService.getDocumentVersionsTableName() != null && !previous.isEmpty()
+        && isChangedMatching(previous, current)) {
+      this.versionsService.addDocumentVersionAttributes(previous, documentValues);
+      versions.add(previous);
+    }
+
+    return documentValues;
+  }
+
   /**
    * Generate Save Tags DynamoDb Keys.
    * 
@@ -1035,8 +1118,8 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     Predicate<DocumentTag> predicate = tag -> DocumentTagType.SYSTEMDEFINED.equals(tag.getType())
         || !SYSTEM_DEFINED_TAGS.contains(tag.getKey());
 
-    DocumentTagToAttributeValueMap mapper =
-        new DocumentTagToAttributeValueMap(this.df, PREFIX_DOCS, siteId, documentId);
+    DocumentTagToAttributeValueMap mapper = new DocumentTagToAttributeValueMap(
+        DateUtil.getIsoDateFormatter(), PREFIX_DOCS, siteId, documentId);
 
     List<Map<String, AttributeValue>> items = notNull(tags).stream().filter(predicate).map(mapper)
         .flatMap(List::stream).collect(Collectors.toList());
@@ -1089,6 +1172,29 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     }).count() > 0 : false;
   }
 
+  /**
+   * Remove a document from the {@link DocumentCache}.
+   * 
+   * @param pk {@link String}
+   */
+  private void invalidate(final String pk) {
+    if (this.cache != null) {
+      this.cache.invalidate(pk);
+    }
+  }
+
+  /**
+   * Remove a document from the {@link DocumentCache}.
+   * 
+   * @param siteId {@link String}
+   * @param documentId {@link String}
+   */
+  private void invalidate(final String siteId, final String documentId) {
+    if (this.cache != null) {
+      invalidate(keysDocument(siteId, documentId).get(PK).s());
+    }
+  }
+
   @Override
   public boolean isFolderExists(final String siteId, final DocumentItem item) {
 
@@ -1112,17 +1218,16 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
   }
 
   /**
-   * Checks the {@link Map} of {@link AttributeValue} if the PK in the map matches DateKey. If they
-   * do NOT match and map is NOT null. Then we are pagination on the NEXT Day.
+   * Whether a document's change changes the {@link FolderAggregate} of its folders.
    * 
-   * @param siteId DynamoDB PK siteId
-   * @param dateKey (yyyy-MM-dd) format
-   * @param map {@link Map}
+   * @param previous {@link Map}
+   * @param current {@link Map}
    * @return boolean
    */
-  private boolean isNextDayPagination(final String siteId, final String dateKey,
-      final Map<String, AttributeValue> map) {
-    return map != null && !dateKey.equals(resetDatabaseKey(siteId, map.get(GSI1_PK).s()));
+  private boolean isFolderAggregateChanged(final Map<String, AttributeValue> previous,
+      final Map<String, AttributeValue> current) {
+    return !getPath(previous).equals(getPath(current)) || FolderAggregateCounter
+        .contentLength(previous) != FolderAggregateCounter.contentLength(current);
   }
 
   /**
@@ -1153,7 +1258,8 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     final int limit = 100;
     Map<String, AttributeValue> startkey = null;
     List<Map<String, AttributeValue>> list = new ArrayList<>();
-    QueryConfig config = new QueryConfig().projectionExpression(softDelete ? null : "PK,SK");
+    QueryConfig config = new QueryConfig()
+        .projectionExpression(softDelete ? null : "PK,SK,tagKey,tagValue,tagValues");
 
     do {
 
@@ -1171,57 +1277,6 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
 
   }
 
-  /**
-   * Query Documents by Primary Key.
-   * 
-   * @param siteId DynamoDB PK siteId
-   * @param pk {@link String}
-   * @param skMin {@link String}
-   * @param skMax {@link String}
-   * @param token {@link PaginationMapToken}
-   * @param maxresults int
-   * @return {@link PaginationResults}
-   */
-  private PaginationResults<DocumentItem> queryDocuments(final String siteId, final String pk,
-      final String skMin, final String skMax, final PaginationMapToken token,
-      final int maxresults) {
-
-    String expr = GSI1_PK + " = :pk";
-    Map<String, AttributeValue> values = new HashMap<String, AttributeValue>();
-    values.put(":pk", AttributeValue.builder().s(createDatabaseKey(siteId, pk)).build());
-
-    Map<String, AttributeValue> startkey = new PaginationToAttributeValue().apply(token);
-
-    if (skMax != null) {
-      values.put(":sk1", AttributeValue.builder().s(skMin).build());
-      values.put(":sk2", AttributeValue.builder().s(skMax).build());
-      expr += " and " + GSI1_SK + " between :sk1 and :sk2";
-    } else if (skMin != null) {
-      values.put(":sk", AttributeValue.builder().s(skMin).build());
-      expr += " and " + GSI1_SK + " >= :sk";
-    }
-
-    QueryRequest q = QueryRequest.builder().tableName(this.documentTableName).indexName(GSI1)
-        .keyConditionExpression(expr).expressionAttributeValues(values)
-        .limit(Integer.valueOf(maxresults)).exclusiveStartKey(startkey).build();
-
-    QueryResponse result = this.dbClient.query(q);
-
-    List<DocumentItem> list = result.items().stream().map(s -> {
-      String documentId = s.get("documentId").s();
-      return new DocumentItemDynamoDb(documentId, null, null);
-    }).collect(Collectors.toList());
-
-    if (!list.isEmpty()) {
-      List<String> documentIds =
-          list.stream().map(s -> s.getDocumentId()).collect(Collectors.toList());
-
-      list = findDocuments(siteId, documentIds);
-    }
-
-    return new PaginationResults<>(list, new QueryResponseToPagination().apply(result));
-  }
-
   /**
    * Remove Null Metadata.
    * 
@@ -1235,6 +1290,31 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
         .forEach(m -> documentValues.remove(PREFIX_DOCUMENT_METADATA + m.getKey()));
   }
 
+  /**
+   * Read value through the {@link DocumentCache}, null values are not cached.
+   * 
+   * @param <T> Type of value
+   * @param pk {@link String}
+   * @param name {@link String}
+   * @param loader {@link Supplier}
+   * @return T
+   */
+  private <T> T readThrough(final String pk, final String name, final Supplier<T> loader) {
+
+    T value = this.cache != null ? this.cache.get(pk, name) : null;
+
+    if (value == null) {
+      long stamp = this.cache != null ? this.cache.stamp() : 0;
+      value = loader.get();
+
+      if (this.cache != null) {
+        this.cache.put(pk, name, value, stamp);
+      }
+    }
+
+    return value;
+  }
+
   @Override
   public boolean removeTag(final String siteId, final String documentId, final String tagKey,
       final String tagValue) {
@@ -1277,6 +1357,10 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     deletes.forEach(i -> this.dbClient.deleteItem(i));
     puts.forEach(i -> this.dbClient.putItem(i));
 
+    updateTagCounts(siteId, items,
+        puts.stream().map(PutItemRequest::item).collect(Collectors.toList()));
+    invalidate(siteId, documentId);
+
     return !deletes.isEmpty();
   }
 
@@ -1299,7 +1383,11 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
 
         this.dbClient.deleteItem(deleteItemRequest);
       });
+
+      updateTagCounts(siteId, items, Collections.emptyList());
     }
+
+    invalidate(siteId, documentId);
   }
 
   @Override
@@ -1338,8 +1426,14 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
 
       } while (startkey != null && !startkey.isEmpty());
 
-      restored = this.dbService.moveItems(list,
-          new DocumentRestoreMoveAttributeFunction(siteId, documentId));
+      DocumentRestoreMoveAttributeFunction restore =
+          new DocumentRestoreMoveAttributeFunction(siteId, documentId);
+      restored = this.dbService.moveItems(list, restore);
+
+      if (restored) {
+        updateTagCounts(siteId, Collections.emptyList(),
+            list.stream().map(restore::transform).collect(Collectors.toList()));
+      }
 
       String path = attr.get("path").s();
       String userId = attr.get("userId").s();
@@ -1347,15 +1441,23 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
       DocumentItem item = new DocumentItemDynamoDb(documentId, new Date(), userId);
       item.setPath(path);
 
+      Map<String, FolderAggregate> changes = new HashMap<>();
+      Map<String, List<FolderIndexRecord>> folders = new HashMap<>();
       List<Map<String, AttributeValue>> folderIndex =
-          this.folderIndexProcessor.generateIndex(siteId, item);
+          this.folderIndexProcessor.generateIndex(siteId, item, changes, folders);
 
       WriteRequestBuilder writeBuilder =
           new WriteRequestBuilder().appends(this.documentTableName, folderIndex);
 
       writeBuilder.batchWriteItem(this.dbClient);
+
+      Map<String, AttributeValue> values = new HashMap<>(attr);
+      values.put("path", AttributeValue.fromS(item.getPath()));
+      updateFolderAggregates(siteId, Arrays.asList(Collections.emptyMap()),
+          Arrays.asList(restored ? values : Collections.emptyMap()), changes, folders);
     }
 
+    invalidate(siteId, documentId);
     return restored;
   }
 
@@ -1410,7 +1512,8 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
 
       List<DynamicObject> doctags = subdoc.getList("tags");
       tags = doctags.stream().map(t -> {
-        DynamicObjectToDocumentTag transformer = new DynamicObjectToDocumentTag(this.df);
+        DynamicObjectToDocumentTag transformer =
+            new DynamicObjectToDocumentTag(DateUtil.getIsoDateFormatter());
         return transformer.apply(t);
       }).collect(Collectors.toList());
 
@@ -1423,7 +1526,8 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
   }
 
   /**
-   * Save Document.
+   * Save Document, reads the previous document once and writes the document, tags, folder index,
+   * document version, tag index and document date records in a single batch write.
    * 
    * @param keys {@link Map}
    * @param siteId {@link String}
@@ -1435,11 +1539,9 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
       final DocumentItem document, final Collection<DocumentTag> tags,
       final SaveDocumentOptions options) {
 
-    boolean documentExists = exists(siteId, document.getDocumentId());
-
     Map<String, AttributeValue> previous =
-        documentExists ? new HashMap<>(this.dbService.get(keys.get(PK), keys.get(SK)))
-            : Collections.emptyMap();
+        new HashMap<>(this.dbService.get(keys.get(PK), keys.get(SK)));
+    boolean documentExists = !previous.isEmpty();
 
     Map<String, AttributeValue> documentValues = new HashMap<>(previous);
     Map<String, AttributeValue> current =
@@ -1449,97 +1551,93 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     removeNullMetadata(document, documentValues);
 
     String documentVersionsTableName = this.versionsService.getDocumentVersionsTableName();
-    boolean hasDocumentChanged = documentVersionsTableName != null && !previous.isEmpty()
-        && isChangedMatching(previous, current);
+    boolean hasDocumentChanged =
+        documentVersionsTableName != null && documentExists && isChangedMatching(previous, current);
 
     if (hasDocumentChanged) {
       this.versionsService.addDocumentVersionAttributes(previous, documentValues);
     }
 
+    Map<String, FolderAggregate> changes = new HashMap<>();
+    Map<String, List<FolderIndexRecord>> folders = new HashMap<>();
     List<Map<String, AttributeValue>> folderIndex =
-        this.folderIndexProcessor.generateIndex(siteId, document);
-    if (!isEmpty(document.getPath())) {
-      documentValues.put("path", AttributeValue.fromS(document.getPath()));
-    }
+        generateFolderIndex(siteId, document, previous, documentValues, changes, folders);
 
-    if (isPathChanges(previous, documentValues)) {
-      this.folderIndexProcessor.deletePath(siteId, document.getDocumentId(),
-          previous.get("path").s());
-    }
+    List<String> tagKeys = notNull(tags).stream().map(t -> t.getKey()).collect(Collectors.toList());
+    List<Map<String, AttributeValue>> tagIndex = this.indexWriter.generateTagIndex(siteId, tagKeys);
+    String shortdate = options.saveDocumentDate() ? getDocumentDate(document) : null;
 
-    List<Map<String, AttributeValue>> tagValues =
+    List<Map<String, AttributeValue>> tagRecords =
         getSaveTagsAttributes(siteId, document.getDocumentId(), tags, options.timeToLive());
+    final List<Map<String, AttributeValue>> previousTags =
+        documentExists ? findPreviousTagRecords(tagRecords) : Collections.emptyList();
 
     WriteRequestBuilder writeBuilder = new WriteRequestBuilder()
-        .append(this.documentTableName, documentValues).appends(this.documentTableName, tagValues)
-        .appends(this.documentTableName, folderIndex);
+        .append(this.documentTableName, documentValues).appends(this.documentTableName, tagRecords)
+        .appends(this.documentTableName, folderIndex).appends(this.documentTableName, tagIndex)
+        .appends(this.documentTableName,
+            this.indexWriter.generateTagCountersInitialized(siteId, tagIndex));
 
     if (hasDocumentChanged) {
       writeBuilder = writeBuilder.appends(documentVersionsTableName, Arrays.asList(previous));
     }
 
-    if (writeBuilder.batchWriteItem(this.dbClient)) {
-
-      List<String> tagKeys =
-          notNull(tags).stream().map(t -> t.getKey()).collect(Collectors.toList());
-      this.indexWriter.writeTagIndex(siteId, tagKeys);
+    if (shortdate != null) {
+      writeBuilder =
+          writeBuilder.append(this.documentTableName, keysGeneric(PREFIX_DOCUMENT_DATE, shortdate));
+    }
 
-      if (options.saveDocumentDate()) {
-        saveDocumentDate(document);
-      }
+    if (writeBuilder.batchWriteItem(this.dbClient)) {
+      this.indexWriter.addTagIndexCache(siteId, tagKeys);
+      setDocumentDateSaved(shortdate);
     }
+
+    updateTagCounts(siteId, previousTags, tagRecords);
+    updateFolderAggregates(siteId, Arrays.asList(previous), Arrays.asList(documentValues), changes,
+        folders);
+    invalidate(keys.get(PK).s());
   }
 
   @Override
   public void saveDocument(final String siteId, final DocumentItem document,
       final Collection<DocumentTag> tags) {
     SaveDocumentOptions options = new SaveDocumentOptions().saveDocumentDate(true).timeToLive(null);
-    Map<String, AttributeValue> keys = keysDocument(siteId, document.getDocumentId());
-    saveDocument(keys, siteId, document, tags, options);
+    saveDocument(siteId, document, tags, options);
   }
 
   @Override
   public void saveDocument(final String siteId, final DocumentItem document,
       final Collection<DocumentTag> tags, final SaveDocumentOptions options) {
-    Map<String, AttributeValue> keys = keysDocument(siteId, document.getDocumentId());
-    saveDocument(keys, siteId, document, tags, options);
+    DynamoDbOperation op = DynamoDbOperation.start("document.save");
+    try {
+      Map<String, AttributeValue> keys = keysDocument(siteId, document.getDocumentId());
+      saveDocument(keys, siteId, document, tags, options);
+    } finally {
+      op.close();
+    }
   }
 
   /**
-   * Save Document Date record, if it already doesn't exist.
+   * Get the Document Date (yyyy-MM-dd) record that needs saving, null if it was already saved by
+   * this instance.
    * 
    * @param document {@link DocumentItem}
+   * @return {@link String}
    */
-  private void saveDocumentDate(final DocumentItem document) {
+  private String getDocumentDate(final DocumentItem document) {
 
     Date insertedDate =
         document.getInsertedDate() != null ? document.getInsertedDate() : new Date();
-    String shortdate = this.yyyymmddFormat.format(insertedDate);
-
-    if (this.lastShortDate == null || !this.lastShortDate.equals(shortdate)) {
+    String shortdate = this.yyyymmddFormat.format(insertedDate.toInstant());
 
-      this.lastShortDate = shortdate;
-
-      Map<String, AttributeValue> values =
-          Map.of(PK, AttributeValue.builder().s(PREFIX_DOCUMENT_DATE).build(), SK,
-              AttributeValue.builder().s(shortdate).build());
-      String conditionExpression = "attribute_not_exists(" + PK + ")";
-      PutItemRequest put = PutItemRequest.builder().tableName(this.documentTableName)
-          .conditionExpression(conditionExpression).item(values).build();
-
-      try {
-        this.dbClient.putItem(put).attributes();
-      } catch (ConditionalCheckFailedException e) {
-        // Conditional Check Fails on second insert attempt
-      }
-    }
+    return !shortdate.equals(this.lastShortDate) ? shortdate : null;
   }
 
   @Override
   public DocumentFormat saveDocumentFormat(final String siteId, final DocumentFormat format) {
 
     Date insertedDate = format.getInsertedDate();
-    String fulldate = this.df.format(insertedDate);
+    String fulldate = this.df.format(insertedDate.toInstant());
 
     Map<String, AttributeValue> pkvalues =
         keysDocumentFormats(siteId, format.getDocumentId(), format.getContentType());
@@ -1550,6 +1648,7 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     addS(pkvalues, "userId", format.getUserId());
 
     save(pkvalues);
+    invalidate(siteId, format.getDocumentId());
 
     return format;
   }
@@ -1570,7 +1669,8 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     List<DynamicObject> doctags = doc.getList("tags");
 
     List<DocumentTag> tags = doctags.stream().filter(t -> t.containsKey("key")).map(t -> {
-      DynamicObjectToDocumentTag transform = new DynamicObjectToDocumentTag(this.df);
+      DynamicObjectToDocumentTag transform =
+          new DynamicObjectToDocumentTag(DateUtil.getIsoDateFormatter());
       DocumentTag tag = transform.apply(t);
       tag.setInsertedDate(date);
       tag.setUserId(username);
@@ -1633,7 +1733,7 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
 
     if (preset != null) {
       Date insertedDate = preset.getInsertedDate();
-      String fulldate = this.df.format(insertedDate);
+      String fulldate = this.df.format(insertedDate.toInstant());
 
       Map<String, AttributeValue> pkvalues = keysPreset(siteId, preset.getId());
       addS(pkvalues, "inserteddate", fulldate);
@@ -1651,7 +1751,7 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
       for (PresetTag tag : tags) {
 
         Date insertedDate = tag.getInsertedDate();
-        String fulldate = this.df.format(insertedDate);
+        String fulldate = this.df.format(insertedDate.toInstant());
 
         Map<String, AttributeValue> pkvalues = keysPresetTag(siteId, id, tag.getKey());
         addS(pkvalues, "inserteddate", fulldate);
@@ -1665,6 +1765,38 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     return preset;
   }
 
+  /**
+   * Set the {@link DocumentCache} document reads go through.
+   * 
+   * @param documentCache {@link DocumentCache}
+   */
+  public void setDocumentCache(final DocumentCache documentCache) {
+    this.cache = documentCache;
+    this.folderIndexProcessor.setDocumentCache(documentCache);
+  }
+
+  /**
+   * Set the {@link FolderPathCache} folder reads go through.
+   * 
+   * @param folderPathCache {@link FolderPathCache}
+   */
+  public void setFolderPathCache(final FolderPathCache folderPathCache) {
+    this.folderCache = folderPathCache;
+    this.folderIndexProcessor.setFolderPathCache(folderPathCache);
+  }
+
+  /**
+   * Document Date (yyyy-MM-dd) record was saved.
+   * 
+   * @param shortdate {@link String}
+   */
+  private void setDocumentDateSaved(final String shortdate) {
+    if (shortdate != null) {
+      this.lastShortDate = shortdate;
+      this.dateIndex.markSharded();
+    }
+  }
+
   /**
    * Set Last Short Date.
    * 
@@ -1674,6 +1806,87 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     this.lastShortDate = date;
   }
 
+  /**
+   * Save {@link DocumentItem} and their {@link DocumentTag} in combined batch writes.
+   * 
+   * @param siteId {@link String}
+   * @param documents {@link List} {@link DocumentItem}
+   * @param tags {@link Map} {@link DocumentTag}
+   * @param options {@link SaveDocumentOptions}
+   */
+  private void saveDocuments(final String siteId, final List<DocumentItem> documents,
+      final Map<String, Collection<DocumentTag>> tags, final SaveDocumentOptions options) {
+
+    Map<String, Map<String, AttributeValue>> previous = getDocumentAttributes(siteId, documents);
+
+    List<Map<String, AttributeValue>> versions = new ArrayList<>();
+    List<Map<String, AttributeValue>> values = documents.stream().map(
+        d -> getSaveDocumentValues(siteId, d, previous.get(d.getDocumentId()), options, versions))
+        .collect(Collectors.toList());
+
+    Map<String, FolderAggregate> changes = new HashMap<>();
+    Map<String, List<FolderIndexRecord>> folders = new HashMap<>();
+    List<Map<String, AttributeValue>> folderIndex =
+        this.folderIndexProcessor.generateIndex(siteId, documents, changes, folders);
+
+    List<Map<String, AttributeValue>> previousValues = documents.stream()
+        .map(d -> previous.getOrDefault(d.getDocumentId(), Collections.emptyMap()))
+        .collect(Collectors.toList());
+    for (int i = 0; i < documents.size(); i++) {
+      updateSaveDocumentPath(siteId, documents.get(i), previousValues.get(i), values.get(i));
+    }
+
+    List<Map<String, AttributeValue>> tagValues = documents.stream()
+        .flatMap(
+            d -> getSaveTagsAttributes(siteId, d.getDocumentId(), tags.get(d.getDocumentId()), null)
+                .stream())
+        .collect(Collectors.toList());
+    List<Map<String, AttributeValue>> previousTags = findPreviousTagRecords(tagValues.stream()
+        .filter(r -> previous.containsKey(r.get("documentId").s())).collect(Collectors.toList()));
+    Set<String> tagKeys =
+        documents.stream().flatMap(d -> notNull(tags.get(d.getDocumentId())).stream())
+            .map(t -> t.getKey()).collect(Collectors.toSet());
+    List<Map<String, AttributeValue>> tagIndex = this.indexWriter.generateTagIndex(siteId, tagKeys);
+    NavigableSet<String> dates = documents.stream()
+        .map(d -> this.yyyymmddFormat.format(d.getInsertedDate().toInstant()))
+        .filter(d -> !d.equals(this.lastShortDate)).collect(Collectors.toCollection(TreeSet::new));
+
+    WriteRequestBuilder writeBuilder = new WriteRequestBuilder()
+        .appends(this.documentTableName, values).appends(this.documentTableName, tagValues)
+        .appends(this.documentTableName, folderIndex).appends(this.documentTableName, tagIndex)
+        .appends(this.documentTableName,
+            this.indexWriter.generateTagCountersInitialized(siteId, tagIndex))
+        .appends(this.documentTableName, dates.stream()
+            .map(d -> keysGeneric(PREFIX_DOCUMENT_DATE, d)).collect(Collectors.toList()));
+
+    if (!versions.isEmpty()) {
+      writeBuilder =
+          writeBuilder.appends(this.versionsService.getDocumentVersionsTableName(), versions);
+    }
+
+    if (writeBuilder.batchWriteItem(this.dbClient)) {
+      this.indexWriter.addTagIndexCache(siteId, tagKeys);
+      setDocumentDateSaved(!dates.isEmpty() ? dates.last() : null);
+    }
+
+    updateTagCounts(siteId, previousTags, tagValues);
+    updateFolderAggregates(siteId, previousValues, values, changes, folders);
+    documents.forEach(d -> invalidate(siteId, d.getDocumentId()));
+  }
+
+  @Override
+  public void saveDocuments(final String siteId, final List<DocumentItem> documents,
+      final Map<String, Collection<DocumentTag>> tags) {
+
+    DynamoDbOperation op = DynamoDbOperation.start("document.saveBatch");
+    try {
+      saveDocuments(siteId, documents, tags,
+          new SaveDocumentOptions().saveDocumentDate(true).timeToLive(null));
+    } finally {
+      op.close();
+    }
+  }
+
   /**
    * Sort {@link DocumentItem} to match DocumentIds {@link List}.
    * 
@@ -1716,11 +1929,48 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     }
   }
 
+  /**
+   * Transform {@link PaginationResults} records.
+   * 
+   * @param <T> Type of object
+   * @param results {@link PaginationResults}
+   * @param func {@link Function}
+   * @return {@link PaginationResults}
+   */
+  private <T> PaginationResults<T> transform(
+      final PaginationResults<Map<String, AttributeValue>> results,
+      final Function<Map<String, AttributeValue>, T> func) {
+    List<T> list =
+        results.getResults().stream().map(s -> func.apply(s)).collect(Collectors.toList());
+    return new PaginationResults<T>(list, results.getToken());
+  }
+
+  /**
+   * Update the {@link TagValueCounter} from the tag records removed and added.
+   * 
+   * @param siteId {@link String}
+   * @param removed {@link Collection} {@link Map}
+   * @param added {@link Collection} {@link Map}
+   */
+  private void updateTagCounts(final String siteId,
+      final Collection<Map<String, AttributeValue>> removed,
+      final Collection<Map<String, AttributeValue>> added) {
+
+    Map<String, Map<String, Long>> changes = new HashMap<>();
+    TagValueCounter.addChanges(changes, removed, -1);
+    TagValueCounter.addChanges(changes, added, 1);
+
+    this.tagCounter.update(siteId, changes);
+  }
+
   @Override
   public void updateDocument(final String siteId, final String documentId,
       final Map<String, AttributeValue> attributes, final boolean updateVersioning) {
 
     Map<String, AttributeValue> keys = keysDocument(siteId, documentId);
+    Map<String, AttributeValue> previous =
+        attributes.containsKey("contentLength") ? this.dbService.get(keys.get(PK), keys.get(SK))
+            : Collections.emptyMap();
 
     if (updateVersioning) {
 
@@ -1732,7 +1982,7 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
         Map<String, AttributeValue> updated = new HashMap<>(current);
         updated.putAll(attributes);
 
-        String fullLastModifiedDate = this.df.format(new Date());
+        String fullLastModifiedDate = this.df.format(Instant.now());
         addS(updated, "lastModifiedDate", fullLastModifiedDate);
 
         this.versionsService.addDocumentVersionAttributes(current, updated);
@@ -1745,6 +1995,62 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
     }
 
     this.dbService.updateValues(keys.get(PK), keys.get(SK), attributes);
+
+    if (!previous.isEmpty()) {
+      Map<String, AttributeValue> updated = new HashMap<>(previous);
+      updated.putAll(attributes);
+      updateFolderAggregates(siteId, Arrays.asList(previous), Arrays.asList(updated),
+          new HashMap<>(), new HashMap<>());
+    }
+
+    invalidate(keys.get(PK).s());
+  }
+
+  /**
+   * Update the {@link FolderAggregate} of the folders of documents whose path or content length has
+   * changed, the folders of the paths not already resolved are resolved together.
+   * 
+   * @param siteId {@link String}
+   * @param previous {@link List} previous document attributes, empty if the document is new
+   * @param current {@link List} current document attributes, empty if the document is removed
+   * @param changes {@link Map} of folder documentId to {@link FolderAggregate} change
+   * @param resolved {@link Map} of document path to its {@link FolderIndexRecord} folders already
+   *        resolved when generating the folder index
+   */
+  private void updateFolderAggregates(final String siteId,
+      final List<Map<String, AttributeValue>> previous,
+      final List<Map<String, AttributeValue>> current, final Map<String, FolderAggregate> changes,
+      final Map<String, List<FolderIndexRecord>> resolved) {
+
+    List<Integer> changed = new ArrayList<>();
+    for (int i = 0; i < current.size(); i++) {
+      if (isFolderAggregateChanged(previous.get(i), current.get(i))) {
+        changed.add(Integer.valueOf(i));
+      }
+    }
+
+    if (!changed.isEmpty()) {
+
+      Set<String> paths = new HashSet<>();
+      changed.forEach(i -> {
+        paths.add(getPath(previous.get(i)));
+        paths.add(getPath(current.get(i)));
+      });
+      paths.remove("");
+      paths.removeAll(resolved.keySet());
+
+      Map<String, List<FolderIndexRecord>> folders = new HashMap<>(resolved);
+      if (!paths.isEmpty()) {
+        folders.putAll(this.folderIndexProcessor.resolveFolderPaths(siteId, paths));
+      }
+
+      for (Integer i : changed) {
+        addFolderAggregate(changes, folders, previous.get(i), -1);
+        addFolderAggregate(changes, folders, current.get(i), 1);
+      }
+    }
+
+    this.aggregates.update(siteId, changes);
   }
 
   private void updatePathFromDeepLink(final DocumentItem item) {
@@ -1755,4 +2061,27 @@ public class DocumentServiceImpl implements DocumentService, DbKeys {
       }
     }
   }
+
+  /**
+   * Set the path of a document being saved and remove the Folder Index of the previous path if the
+   * path has changed.
+   * 
+   * @param siteId {@link String}
+   * @param document {@link DocumentItem}
+   * @param previous {@link Map}
+   * @param documentValues {@link Map}
+   */
+  private void updateSaveDocumentPath(final String siteId, final DocumentItem document,
+      final Map<String, AttributeValue> previous,
+      final Map<String, AttributeValue> documentValues) {
+
+    if (!isEmpty(document.getPath())) {
+      documentValues.put("path", AttributeValue.fromS(document.getPath()));
+    }
+
+    if (isPathChanges(previous, documentValues)) {
+      this.folderIndexProcessor.deletePath(siteId, document.getDocumentId(),
+          previous.get("path").s());
+    }
+  }
 }
@@ -27,6 +27,8 @@ import static com.formkiq.aws.dynamodb.DbKeys.GSI1_PK;
 import static com.formkiq.aws.dynamodb.DbKeys.GSI1_SK;
 import static com.formkiq.aws.dynamodb.DbKeys.GSI2_PK;
 import static com.formkiq.aws.dynamodb.DbKeys.GSI2_SK;
+import static com.formkiq.aws.dynamodb.DbKeys.GSI3_PK;
+import static com.formkiq.aws.dynamodb.DbKeys.GSI3_SK;
 import static com.formkiq.aws.dynamodb.DbKeys.PK;
 import static com.formkiq.aws.dynamodb.DbKeys.PREFIX_TAG;
 import static com.formkiq.aws.dynamodb.DbKeys.PREFIX_TAGS;
@@ -164,10 +166,36 @@ public class DocumentTagToAttributeValueMap
     }
 
     pkvalues.put("inserteddate", AttributeValue.builder().s(fulldate).build());
+    addSortableValue(pkvalues, siteId, documentId, tagKey, tagValue);
 
     return pkvalues;
   }
 
+  /**
+   * Add the GSI3 keys of number and date tag values, sorted by {@link SortableTagValue}.
+   *
+   * @param pkvalues {@link Map}
+   * @param siteId {@link String}
+   * @param documentId {@link String}
+   * @param tagKey {@link String}
+   * @param tagValue {@link String}
+   */
+  static void addSortableValue(final Map<String, AttributeValue> pkvalues, final String siteId,
+      final String documentId, final String tagKey, final String tagValue) {
+
+    SortableTagValue.Type type = SortableTagValue.type(tagValue);
+
+    if (type != null) {
+      String fulldate = pkvalues.get("inserteddate").s();
+      pkvalues.put(GSI3_PK,
+          AttributeValue.builder()
+              .s(createDatabaseKey(siteId, PREFIX_TAG + tagKey + TAG_DELIMINATOR + type.name()))
+              .build());
+      pkvalues.put(GSI3_SK, AttributeValue.builder().s(SortableTagValue.encode(tagValue)
+          + TAG_DELIMINATOR + fulldate + TAG_DELIMINATOR + documentId).build());
+    }
+  }
+
   /**
    * Is Has Value List.
    * 
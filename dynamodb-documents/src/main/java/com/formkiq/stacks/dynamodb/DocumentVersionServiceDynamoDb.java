@@ -29,8 +29,8 @@ import static com.formkiq.aws.dynamodb.DbKeys.SK;
 import static com.formkiq.aws.dynamodb.DbKeys.TAG_DELIMINATOR;
 import static com.formkiq.aws.dynamodb.SiteIdKeyGenerator.createDatabaseKey;
 import static software.amazon.awssdk.utils.StringUtils.isEmpty;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
@@ -52,8 +52,8 @@ public class DocumentVersionServiceDynamoDb implements DocumentVersionService {
 
   /** The Default maximum results returned. */
   private static final int MAX_RESULTS = 100;
-  /** {@link SimpleDateFormat} in ISO Standard format. */
-  private SimpleDateFormat df = DateUtil.getIsoDateFormatter();
+  /** {@link DateTimeFormatter} in ISO Standard format. */
+  private DateTimeFormatter df = DateUtil.getIsoDateTimeFormatter();
   /** DynamoDB Document Versions Table Name. */
   private String tableName = null;
 
@@ -106,7 +106,7 @@ public class DocumentVersionServiceDynamoDb implements DocumentVersionService {
   }
 
   private String getSk(final Map<String, AttributeValue> previous, final String version) {
-    String sk = previous.get(SK).s() + TAG_DELIMINATOR + this.df.format(new Date())
+    String sk = previous.get(SK).s() + TAG_DELIMINATOR + this.df.format(Instant.now())
         + TAG_DELIMINATOR + "v" + version;
     return sk;
   }
@@ -0,0 +1,140 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+/**
+ * 
+ * Aggregate values of a folder, or a change to them.
+ *
+ */
+public class FolderAggregate {
+
+  /** Number of direct child folders and documents. */
+  private long childCount;
+  /** Total content length of the documents under the folder. */
+  private long contentLength;
+  /** Number of documents under the folder, recursively. */
+  private long documentCount;
+  /** Whether the folder's values have been tracked since it was created. */
+  private boolean initialized;
+  /** Whether the folder is a top level folder. */
+  private boolean topLevel;
+
+  /**
+   * constructor.
+   */
+  public FolderAggregate() {}
+
+  /**
+   * Add to the aggregate values.
+   * 
+   * @param children long
+   * @param documents long
+   * @param length long
+   * @return {@link FolderAggregate}
+   */
+  public FolderAggregate add(final long children, final long documents, final long length) {
+    this.childCount += children;
+    this.documentCount += documents;
+    this.contentLength += length;
+    return this;
+  }
+
+  /**
+   * Get Number of direct child folders and documents.
+   * 
+   * @return long
+   */
+  public long childCount() {
+    return this.childCount;
+  }
+
+  /**
+   * Get Total content length of the documents under the folder.
+   * 
+   * @return long
+   */
+  public long contentLength() {
+    return this.contentLength;
+  }
+
+  /**
+   * Get Number of documents under the folder, recursively.
+   * 
+   * @return long
+   */
+  public long documentCount() {
+    return this.documentCount;
+  }
+
+  /**
+   * Set whether the folder's values have been tracked since it was created.
+   * 
+   * @param isInitialized boolean
+   * @return {@link FolderAggregate}
+   */
+  public FolderAggregate initialized(final boolean isInitialized) {
+    this.initialized = isInitialized;
+    return this;
+  }
+
+  /**
+   * Whether all the values are zero.
+   * 
+   * @return boolean
+   */
+  public boolean isEmpty() {
+    return this.childCount == 0 && this.documentCount == 0 && this.contentLength == 0;
+  }
+
+  /**
+   * Whether the folder's values have been tracked since it was created, folders created before
+   * aggregates were tracked have partial values.
+   * 
+   * @return boolean
+   */
+  public boolean isInitialized() {
+    return this.initialized;
+  }
+
+  /**
+   * Is a top level folder.
+   * 
+   * @return boolean
+   */
+  public boolean isTopLevel() {
+    return this.topLevel;
+  }
+
+  /**
+   * Set whether the folder is a top level folder.
+   * 
+   * @param isTopLevel boolean
+   * @return {@link FolderAggregate}
+   */
+  public FolderAggregate topLevel(final boolean isTopLevel) {
+    this.topLevel = isTopLevel;
+    return this;
+  }
+}
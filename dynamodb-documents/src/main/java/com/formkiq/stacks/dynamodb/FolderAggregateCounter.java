@@ -0,0 +1,437 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import static com.formkiq.aws.dynamodb.DbKeys.PK;
+import static com.formkiq.aws.dynamodb.DbKeys.PREFIX_FOLDER_AGGREGATES;
+import static com.formkiq.aws.dynamodb.DbKeys.SK;
+import static com.formkiq.aws.dynamodb.DbKeys.TAG_DELIMINATOR;
+import static com.formkiq.aws.dynamodb.SiteIdKeyGenerator.createDatabaseKey;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import com.formkiq.aws.dynamodb.DynamoDbBatchExecutor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+/**
+ * 
+ * Incrementally maintained {@link FolderAggregate} of each folder.
+ * 
+ * Aggregates are kept per folder under PK "folderaggs#{folderId}", keyed by the folder's documentId
+ * so they follow the folder when it is moved. Every document change updates all the folders of its
+ * path, so top level folders are the hottest and their changes are added to a random one of a
+ * number of shard records (SK "shard#{n}"), deeper folders use a single record. The aggregate of a
+ * folder is the sum of all its records, read with one query.
+ * 
+ * A folder created while aggregates are tracked also gets a marker record (SK "initialized"),
+ * folders created before only have partial values and are not initialized.
+ *
+ */
+public class FolderAggregateCounter {
+
+  /** Default number of counter shards of top level folders. */
+  public static final int DEFAULT_SHARDS = 8;
+  /** Child Count attribute. */
+  private static final String CHILD_COUNT = "childCount";
+  /** Content Length attribute. */
+  private static final String CONTENT_LENGTH = "contentLength";
+  /** Document Count attribute. */
+  private static final String DOCUMENT_COUNT = "documentCount";
+  /** Initialized marker SK. */
+  private static final String SK_INITIALIZED = "initialized";
+  /** Counter shard SK prefix. */
+  private static final String SK_SHARD = "shard" + TAG_DELIMINATOR;
+
+  /** {@link DynamoDbClient}. */
+  private final DynamoDbClient dbClient;
+  /** Documents Table Name. */
+  private final String documentTableName;
+  /** Number of counter shards of top level folders. */
+  private final int shards;
+
+  /**
+   * constructor.
+   * 
+   * @param client {@link DynamoDbClient}
+   * @param documentsTable {@link String}
+   */
+  public FolderAggregateCounter(final DynamoDbClient client, final String documentsTable) {
+    this(client, documentsTable, DEFAULT_SHARDS);
+  }
+
+  /**
+   * constructor.
+   * 
+   * @param client {@link DynamoDbClient}
+   * @param documentsTable {@link String}
+   * @param numberOfShards int
+   */
+  public FolderAggregateCounter(final DynamoDbClient client, final String documentsTable,
+      final int numberOfShards) {
+
+    if (numberOfShards < 1) {
+      throw new IllegalArgumentException("'numberOfShards' must be greater than 0");
+    }
+
+    this.dbClient = client;
+    this.documentTableName = documentsTable;
+    this.shards = numberOfShards;
+  }
+
+  /**
+   * Add a change to every folder, the last folder also gets the child count change.
+   * 
+   * @param changes {@link Map} of folder documentId to {@link FolderAggregate} change
+   * @param folders {@link List} {@link FolderIndexRecord} top level folder first
+   * @param documents long
+   * @param length long
+   * @param children long
+   */
+  private static void add(final Map<String, FolderAggregate> changes,
+      final List<FolderIndexRecord> folders, final long documents, final long length,
+      final long children) {
+
+    for (int i = 0; i < folders.size(); i++) {
+
+      boolean topLevel = i == 0;
+      long childCount = i == folders.size() - 1 ? children : 0;
+
+      changes.computeIfAbsent(folders.get(i).documentId(),
+          k -> new FolderAggregate().topLevel(topLevel)).add(childCount, documents, length);
+    }
+  }
+
+  /**
+   * Add a document being added (delta 1) or removed (delta -1) to aggregate changes.
+   * 
+   * @param changes {@link Map} of folder documentId to {@link FolderAggregate} change
+   * @param folders {@link List} {@link FolderIndexRecord} folders of the document's path, top level
+   *        folder first
+   * @param contentLength long
+   * @param delta long
+   */
+  public static void addDocument(final Map<String, FolderAggregate> changes,
+      final List<FolderIndexRecord> folders, final long contentLength, final long delta) {
+    add(changes, folders, delta, delta * contentLength, delta);
+  }
+
+  /**
+   * Add a folder being added (delta 1) or removed (delta -1) to aggregate changes.
+   * 
+   * @param changes {@link Map} of folder documentId to {@link FolderAggregate} change
+   * @param parents {@link List} {@link FolderIndexRecord} parent folders of the folder, top level
+   *        folder first
+   * @param aggregate {@link FolderAggregate} of the folder, null for a new folder
+   * @param delta long
+   */
+  public static void addFolder(final Map<String, FolderAggregate> changes,
+      final List<FolderIndexRecord> parents, final FolderAggregate aggregate, final long delta) {
+
+    long documents = aggregate != null ? delta * aggregate.documentCount() : 0;
+    long length = aggregate != null ? delta * aggregate.contentLength() : 0;
+    add(changes, parents, documents, length, delta);
+  }
+
+  /**
+   * Add a folder being created to aggregate changes, the folder's aggregate is initialized.
+   * 
+   * @param changes {@link Map} of folder documentId to {@link FolderAggregate} change
+   * @param parents {@link List} {@link FolderIndexRecord} parent folders of the folder, top level
+   *        folder first
+   * @param folder {@link FolderIndexRecord}
+   */
+  public static void addNewFolder(final Map<String, FolderAggregate> changes,
+      final List<FolderIndexRecord> parents, final FolderIndexRecord folder) {
+
+    addFolder(changes, parents, null, 1);
+
+    boolean topLevel = parents.isEmpty();
+    changes.computeIfAbsent(folder.documentId(), k -> new FolderAggregate().topLevel(topLevel))
+        .initialized(true);
+  }
+
+  /**
+   * Add the folders created in a path to aggregate changes.
+   * 
+   * @param changes {@link Map} of folder documentId to {@link FolderAggregate} change
+   * @param records {@link List} {@link FolderIndexRecordExtended} records of a path, top level
+   *        folder first
+   */
+  public static void addFolders(final Map<String, FolderAggregate> changes,
+      final List<FolderIndexRecordExtended> records) {
+
+    List<FolderIndexRecord> parents = new ArrayList<>();
+
+    for (FolderIndexRecordExtended record : records) {
+
+      if (record.isCreated() && "folder".equals(record.record().type())) {
+        addNewFolder(changes, new ArrayList<>(parents), record.record());
+      }
+
+      parents.add(record.record());
+    }
+  }
+
+  /**
+   * Get the content length of a document record, 0 if it is not set.
+   * 
+   * @param document {@link Map}
+   * @return long
+   */
+  public static long contentLength(final Map<String, AttributeValue> document) {
+    return document.containsKey(CONTENT_LENGTH) ? Long.parseLong(document.get(CONTENT_LENGTH).n())
+        : 0;
+  }
+
+  /**
+   * Create the ADD {@link UpdateItemRequest} of a folder's change.
+   * 
+   * @param siteId {@link String}
+   * @param folderId {@link String}
+   * @param change {@link FolderAggregate}
+   * @return {@link UpdateItemRequest}
+   */
+  private UpdateItemRequest createUpdate(final String siteId, final String folderId,
+      final FolderAggregate change) {
+
+    int shard = change.isTopLevel() ? ThreadLocalRandom.current().nextInt(this.shards) : 0;
+
+    return UpdateItemRequest.builder().tableName(this.documentTableName)
+        .key(Map.of(PK, AttributeValue.fromS(getPk(siteId, folderId)), SK,
+            AttributeValue.fromS(SK_SHARD + shard)))
+        .updateExpression("ADD #children :children, #documents :documents, #length :length")
+        .expressionAttributeNames(Map.of("#children", CHILD_COUNT, "#documents", DOCUMENT_COUNT,
+            "#length", CONTENT_LENGTH))
+        .expressionAttributeValues(Map.of(":children", number(change.childCount()), ":documents",
+            number(change.documentCount()), ":length", number(change.contentLength())))
+        .build();
+  }
+
+  /**
+   * Get the {@link FolderAggregate} of folders, the folders are read in parallel.
+   * 
+   * @param siteId {@link String}
+   * @param folderIds {@link Collection} {@link String}
+   * @return {@link Map} of folder documentId to {@link FolderAggregate}
+   */
+  public Map<String, FolderAggregate> get(final String siteId, final Collection<String> folderIds) {
+
+    List<String> ids = new ArrayList<>(new LinkedHashSet<>(folderIds));
+    List<Supplier<FolderAggregate>> tasks =
+        ids.stream().map(id -> (Supplier<FolderAggregate>) () -> sum(query(siteId, id)))
+            .collect(Collectors.toList());
+
+    List<FolderAggregate> results = DynamoDbBatchExecutor.invokeAll(tasks);
+
+    Map<String, FolderAggregate> aggregates = new HashMap<>();
+    for (int i = 0; i < ids.size(); i++) {
+      aggregates.put(ids.get(i), results.get(i));
+    }
+
+    return aggregates;
+  }
+
+  /**
+   * Get the {@link FolderAggregate} of a folder.
+   * 
+   * @param siteId {@link String}
+   * @param folderId {@link String}
+   * @return {@link FolderAggregate}
+   */
+  public FolderAggregate get(final String siteId, final String folderId) {
+    return sum(query(siteId, folderId));
+  }
+
+  /**
+   * Get Counter PK.
+   * 
+   * @param siteId {@link String}
+   * @param folderId {@link String}
+   * @return {@link String}
+   */
+  private String getPk(final String siteId, final String folderId) {
+    return createDatabaseKey(siteId, PREFIX_FOLDER_AGGREGATES + folderId);
+  }
+
+  /**
+   * Number {@link AttributeValue}.
+   * 
+   * @param value long
+   * @return {@link AttributeValue}
+   */
+  private AttributeValue number(final long value) {
+    return AttributeValue.fromN(String.valueOf(value));
+  }
+
+  /**
+   * Query all counter records of a folder.
+   * 
+   * @param siteId {@link String}
+   * @param folderId {@link String}
+   * @return {@link List} {@link Map}
+   */
+  private List<Map<String, AttributeValue>> query(final String siteId, final String folderId) {
+
+    List<Map<String, AttributeValue>> items = new ArrayList<>();
+    Map<String, AttributeValue> startKey = null;
+
+    do {
+
+      QueryRequest q = QueryRequest.builder().tableName(this.documentTableName)
+          .keyConditionExpression(PK + " = :pk")
+          .expressionAttributeValues(Map.of(":pk", AttributeValue.fromS(getPk(siteId, folderId))))
+          .exclusiveStartKey(startKey).build();
+
+      QueryResponse response = this.dbClient.query(q);
+      items.addAll(response.items());
+
+      startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+          ? response.lastEvaluatedKey()
+          : null;
+
+    } while (startKey != null);
+
+    return items;
+  }
+
+  /**
+   * Remove the counter records of deleted folders.
+   * 
+   * @param siteId {@link String}
+   * @param folderIds {@link Collection} {@link String}
+   */
+  public void remove(final String siteId, final Collection<String> folderIds) {
+
+    List<Supplier<Boolean>> tasks = new ArrayList<>();
+
+    for (String folderId : folderIds) {
+      tasks.add(() -> {
+        for (Map<String, AttributeValue> item : query(siteId, folderId)) {
+          this.dbClient.deleteItem(DeleteItemRequest.builder().tableName(this.documentTableName)
+              .key(Map.of(PK, item.get(PK), SK, item.get(SK))).build());
+        }
+        return Boolean.TRUE;
+      });
+    }
+
+    DynamoDbBatchExecutor.invokeAll(tasks);
+  }
+
+  /**
+   * Sum the counter records.
+   * 
+   * @param items {@link List} {@link Map}
+   * @return {@link FolderAggregate}
+   */
+  private FolderAggregate sum(final List<Map<String, AttributeValue>> items) {
+
+    FolderAggregate aggregate = new FolderAggregate();
+
+    for (Map<String, AttributeValue> item : items) {
+      aggregate.add(value(item, CHILD_COUNT), value(item, DOCUMENT_COUNT),
+          value(item, CONTENT_LENGTH));
+
+      if (SK_INITIALIZED.equals(item.get(SK).s())) {
+        aggregate.initialized(true);
+      }
+    }
+
+    return aggregate;
+  }
+
+  /**
+   * Remove the initialized marker of folders whose values can no longer be trusted, ie: a folder
+   * that is not initialized was moved into them.
+   * 
+   * @param siteId {@link String}
+   * @param folderIds {@link Collection} {@link String}
+   */
+  public void uninitialize(final String siteId, final Collection<String> folderIds) {
+
+    List<Supplier<Object>> deletes =
+        folderIds.stream().filter(id -> !id.isEmpty())
+            .map(id -> (Supplier<Object>) () -> this.dbClient
+                .deleteItem(DeleteItemRequest.builder().tableName(this.documentTableName)
+                    .key(Map.of(PK, AttributeValue.fromS(getPk(siteId, id)), SK,
+                        AttributeValue.fromS(SK_INITIALIZED)))
+                    .build()))
+            .collect(Collectors.toList());
+
+    if (!deletes.isEmpty()) {
+      DynamoDbBatchExecutor.invokeAll(deletes);
+    }
+  }
+
+  /**
+   * Apply aggregate changes, the changes of different folders are written in parallel.
+   * 
+   * @param siteId {@link String}
+   * @param changes {@link Map} of folder documentId to {@link FolderAggregate} change
+   */
+  public void update(final String siteId, final Map<String, FolderAggregate> changes) {
+
+    List<Supplier<Object>> updates = new ArrayList<>();
+
+    changes.forEach((folderId, change) -> {
+      if (!change.isEmpty() && !folderId.isEmpty()) {
+        updates.add(() -> this.dbClient.updateItem(createUpdate(siteId, folderId, change)));
+      }
+
+      if (change.isInitialized() && !folderId.isEmpty()) {
+        updates.add(
+            () -> this.dbClient.putItem(PutItemRequest.builder().tableName(this.documentTableName)
+                .item(Map.of(PK, AttributeValue.fromS(getPk(siteId, folderId)), SK,
+                    AttributeValue.fromS(SK_INITIALIZED)))
+                .build()));
+      }
+    });
+
+    if (!updates.isEmpty()) {
+      DynamoDbBatchExecutor.invokeAll(updates);
+    }
+  }
+
+  /**
+   * Get a number attribute, 0 if missing.
+   * 
+   * @param item {@link Map}
+   * @param name {@link String}
+   * @return long
+   */
+  private long value(final Map<String, AttributeValue> item, final String name) {
+    return item.containsKey(name) ? Long.parseLong(item.get(name).n()) : 0;
+  }
+}
@@ -24,6 +24,7 @@
 package com.formkiq.stacks.dynamodb;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -91,6 +92,16 @@ public interface FolderIndexProcessor {
    */
   List<Map<String, AttributeValue>> generateIndex(String siteId, DocumentItem item);
 
+  /**
+   * Generates Folder Index of multiple {@link DocumentItem}, folders shared by the documents are
+   * only resolved once and each index record is only returned once.
+   * 
+   * @param siteId {@link String}
+   * @param items {@link List} {@link DocumentItem}
+   * @return {@link List} {@link Map} {@link AttributeValue}
+   */
+  List<Map<String, AttributeValue>> generateIndex(String siteId, List<DocumentItem> items);
+
   /**
    * Get {@link FolderIndexRecord} based on {@link String} path.
    * 
@@ -173,4 +184,15 @@ public interface FolderIndexProcessor {
    */
   void moveIndex(String siteId, String sourcePath, String targetPath, String userId)
       throws IOException;
+
+  /**
+   * Resolve a number of paths, reading the folders shared between paths once and each level of the
+   * folder tree in a single batch. The last element of a path is a file, unless the path ends with
+   * a '/'.
+   * 
+   * @param siteId {@link String}
+   * @param paths {@link Collection} {@link String}
+   * @return {@link Map} of path to {@link FolderIndexRecord}, paths that do not exist are skipped
+   */
+  Map<String, FolderIndexRecord> resolvePaths(String siteId, Collection<String> paths);
 }
@@ -51,8 +51,12 @@ public class FolderIndexProcessorExtension implements AwsServiceExtension<Folder
       DynamoDbConnectionBuilder connection =
           awsServiceCache.getExtension(DynamoDbConnectionBuilder.class);
 
-      this.service =
+      FolderIndexProcessorImpl impl =
           new FolderIndexProcessorImpl(connection, awsServiceCache.environment("DOCUMENTS_TABLE"));
+      impl.setDocumentCache(awsServiceCache.getExtensionOrNull(DocumentCache.class));
+      impl.setFolderPathCache(FolderPathCacheExtension.getFolderPathCache(awsServiceCache));
+
+      this.service = impl;
     }
 
     return this.service;
@@ -26,38 +26,47 @@ package com.formkiq.stacks.dynamodb;
 import static com.formkiq.aws.dynamodb.objects.Objects.last;
 import static com.formkiq.aws.dynamodb.objects.Strings.isEmpty;
 import static com.formkiq.aws.dynamodb.objects.Strings.removeBackSlashes;
+import static com.formkiq.stacks.dynamodb.FolderIndexRecord.INDEX_FOLDER_SK;
 import java.io.IOException;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import com.formkiq.aws.dynamodb.AttributeValueToDynamicObject;
+import com.formkiq.aws.dynamodb.BatchGetConfig;
 import com.formkiq.aws.dynamodb.DbKeys;
 import com.formkiq.aws.dynamodb.DynamicObject;
 import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
 import com.formkiq.aws.dynamodb.DynamoDbService;
 import com.formkiq.aws.dynamodb.DynamoDbServiceImpl;
+import com.formkiq.aws.dynamodb.QueryConfig;
+import com.formkiq.aws.dynamodb.ReadConsistency;
+import com.formkiq.aws.dynamodb.metrics.DynamoDbOperation;
 import com.formkiq.aws.dynamodb.model.DocumentItem;
 import com.formkiq.aws.dynamodb.objects.DateUtil;
 import com.formkiq.aws.dynamodb.objects.Strings;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
-import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionCheck;
 import software.amazon.awssdk.services.dynamodb.model.Put;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
 import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
-import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
 import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
 import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
 import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
@@ -70,6 +79,33 @@ import software.amazon.awssdk.utils.StringUtils;
  */
 public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
 
+  /** Maximum number of items in a DynamoDb transaction. */
+  private static final int MAX_TRANSACTION_ITEMS = 100;
+
+  /**
+   * Folder / File of the folder tree of paths being resolved.
+   */
+  private static final class PathNode {
+
+    /** Child folders / files, by sort key. */
+    private final Map<String, PathNode> children = new LinkedHashMap<>();
+    /** Parent Document Id, set once the parent is resolved. */
+    private String parentId;
+    /** {@link FolderIndexRecord}, null if not resolved. */
+    private FolderIndexRecord record;
+    /** Sort Key. */
+    private final String sk;
+
+    /**
+     * constructor.
+     * 
+     * @param sortKey {@link String}
+     */
+    private PathNode(final String sortKey) {
+      this.sk = sortKey;
+    }
+  }
+
   /**
    * Is File Token.
    * 
@@ -82,6 +118,29 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
     return i >= len - 1 && !path.endsWith("/");
   }
 
+  /**
+   * Get the paths of the folders of a document's path, top level folder first, ie: "a/b/c.txt"
+   * returns "a/", "a/b/".
+   * 
+   * @param path {@link String}
+   * @return {@link List} {@link String}
+   */
+  static List<String> folderPaths(final String path) {
+
+    String[] tokens = tokens(path);
+    int len = !isEmpty(path) && path.endsWith(DELIMINATOR) ? tokens.length : tokens.length - 1;
+
+    List<String> paths = new ArrayList<>();
+    StringBuilder sb = new StringBuilder();
+
+    for (int i = 0; i < len; i++) {
+      sb.append(tokens[i]).append(DELIMINATOR);
+      paths.add(sb.toString());
+    }
+
+    return paths;
+  }
+
   /**
    * Generate Path Tokens.
    * 
@@ -105,12 +164,18 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
     return strs;
   }
 
+  /** {@link FolderAggregateCounter}. */
+  private FolderAggregateCounter aggregates;
   /** {@link DynamoDbClient}. */
   private DynamoDbClient dbClient;
+  /** {@link DocumentCache}, null if documents are not cached. */
+  private DocumentCache documentCache;
   /** Documents Table Name. */
   private String documentTableName;
   /** {@link DynamoDbService}. */
   private DynamoDbService dynamoDb;
+  /** {@link FolderPathCache}, null if folders are not cached. */
+  private FolderPathCache folderCache;
 
   /**
    * constructor.
@@ -123,6 +188,29 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
     this.dbClient = connection.build();
     this.documentTableName = documentsTable;
     this.dynamoDb = new DynamoDbServiceImpl(connection, documentsTable);
+    this.aggregates = new FolderAggregateCounter(this.dbClient, documentsTable);
+  }
+
+  /**
+   * Add a path to the folder tree.
+   * 
+   * @param root {@link PathNode}
+   * @param path {@link String}
+   * @param tokens {@link String}
+   * @return {@link PathNode} last element of the path
+   */
+  private PathNode addPath(final PathNode root, final String path, final String[] tokens) {
+
+    int len = tokens.length;
+    boolean allDirectories = path.endsWith(DELIMINATOR);
+    PathNode node = root;
+
+    for (int i = 0; i < len; i++) {
+      boolean isFile = !allDirectories && isFileToken(tokens[i], i, len);
+      node = node.children.computeIfAbsent(getSk(tokens[i], isFile), PathNode::new);
+    }
+
+    return node;
   }
 
   private void checkParentId(final FolderIndexRecord record, final String parentId) {
@@ -132,78 +220,69 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
   }
 
   /**
-   * Create Folder.
+   * Create the ConditionCheck that the folder new folders are created in still exists, when it may
+   * have been read from the {@link FolderPathCache} after another process deleted it.
    * 
    * @param siteId {@link String}
-   * @param parentId {@link String}
-   * @param folder {@link String}
-   * @param insertedDate {@link Date}
-   * @param userId {@link String}
-   * @return {@link FolderIndexRecord}
+   * @param records {@link List} {@link FolderIndexRecord} resolved folders
+   * @return {@link TransactWriteItem}, null if no check is needed
    */
-  private FolderIndexRecord createFolder(final String siteId, final String parentId,
-      final String folder, final Date insertedDate, final String userId) {
-
-    String uuid;
-
-    uuid = UUID.randomUUID().toString();
-
-    FolderIndexRecord record = new FolderIndexRecord().parentDocumentId(parentId).documentId(uuid)
-        .insertedDate(insertedDate).lastModifiedDate(insertedDate).userId(userId).path(folder)
-        .type("folder");
-    Map<String, AttributeValue> values = new HashMap<>(record.getAttributes(siteId));
-
-    String conditionExpression = "attribute_not_exists(" + PK + ")";
-
-    Put put = Put.builder().tableName(this.documentTableName)
-        .conditionExpression(conditionExpression).item(values)
-        .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD).build();
-
-    try {
-      this.dbClient.transactWriteItems(TransactWriteItemsRequest.builder()
-          .transactItems(TransactWriteItem.builder().put(put).build()).build());
-    } catch (TransactionCanceledException e) {
-      if (!e.cancellationReasons().isEmpty()) {
-        CancellationReason cr = e.cancellationReasons().get(0);
-        if (cr.item() != null && cr.item().containsKey("documentId")) {
-          values = cr.item();
-          record = record.getFromAttributes(siteId, values);
-        } else {
-          throw e;
-        }
-      } else {
-        throw e;
-      }
+  private TransactWriteItem createParentCheck(final String siteId,
+      final List<FolderIndexRecord> records) {
+
+    TransactWriteItem item = null;
+
+    if (this.folderCache != null && !records.isEmpty()) {
+      FolderIndexRecord parent = last(records);
+      item = TransactWriteItem.builder()
+          .conditionCheck(ConditionCheck.builder().tableName(this.documentTableName)
+              .key(Map.of(PK, AttributeValue.fromS(parent.pk(siteId)), SK,
+                  AttributeValue.fromS(parent.sk())))
+              .conditionExpression("attribute_exists(" + PK + ")").build())
+          .build();
     }
 
-    return record;
+    return item;
   }
 
   private List<Map<String, String>> createFolderPaths(final String siteId, final String[] folders,
       final Date insertedDate, final String userId, final boolean allDirectories) {
 
     int i = 0;
-    String lastUuid = "";
     int len = folders.length;
-    List<Map<String, String>> list = new ArrayList<>();
+    List<String> directories = new ArrayList<>();
 
     for (String folder : folders) {
 
       if (allDirectories || !isFileToken(folder, i, len)) {
+        directories.add(folder);
+      }
 
-        FolderIndexRecord record = createFolder(siteId, lastUuid, folder, insertedDate, userId);
-        record.parentDocumentId(lastUuid);
+      i++;
+    }
 
-        String indexKey = record.createIndexKey(siteId);
-        list.add(Map.of("folder", folder, "indexKey", indexKey));
+    List<FolderIndexRecord> records = resolveFolders(siteId, directories);
 
-        lastUuid = record.documentId();
-      }
+    if (records.size() < directories.size()) {
+      try {
+        writeFolders(siteId, directories, records, insertedDate, userId);
+      } catch (TransactionCanceledException e) {
 
-      i++;
+        if (!isConditionalCheckFailed(e)) {
+          throw e;
+        }
+
+        // another request created part of the path or deleted a cached folder, resolve it again
+        // and create the rest
+        records.forEach(r -> invalidate(r.pk(siteId), r.sk()));
+        records = resolveFolders(siteId, directories);
+        writeFolders(siteId, directories, records, insertedDate, userId);
+      }
     }
 
-    return list;
+    return records.stream()
+        .map(r -> Map.of("folder", r.path(), "indexKey", r.createIndexKey(siteId)))
+        .collect(Collectors.toList());
   }
 
   @Override
@@ -247,6 +326,10 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
 
       if (!hasFiles(siteId, documentId)) {
         this.dynamoDb.deleteItem(AttributeValue.fromS(pk), AttributeValue.fromS(sk));
+        invalidate(pk, sk);
+
+        this.aggregates.update(siteId, Map.of(parentId, new FolderAggregate().add(-1, 0, 0)));
+        this.aggregates.remove(siteId, Arrays.asList(documentId));
         deleted = true;
       } else {
         throw new IOException("folder is not empty");
@@ -324,10 +407,56 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
   @Override
   public List<Map<String, AttributeValue>> generateIndex(final String siteId,
       final DocumentItem item) {
+    return generateIndex(siteId, item, new HashMap<>(), new HashMap<>());
+  }
+
+  /**
+   * Generates Folder Index of a {@link DocumentItem}, adding the folders it creates to the
+   * {@link FolderAggregate} changes.
+   * 
+   * @param siteId {@link String}
+   * @param item {@link DocumentItem}
+   * @param changes {@link Map} of folder documentId to {@link FolderAggregate} change
+   * @param folders {@link Map} of document path to its {@link FolderIndexRecord} folders, top level
+   *        folder first
+   * @return {@link List} {@link Map} {@link AttributeValue}
+   */
+  List<Map<String, AttributeValue>> generateIndex(final String siteId, final DocumentItem item,
+      final Map<String, FolderAggregate> changes,
+      final Map<String, List<FolderIndexRecord>> folders) {
+    return generateIndex(siteId, item, new HashMap<>(), new HashSet<>(), changes, folders);
+  }
+
+  /**
+   * Generates Folder Index of a {@link DocumentItem}.
+   * 
+   * @param siteId {@link String}
+   * @param item {@link DocumentItem}
+   * @param resolved {@link Map} index records already resolved, by PK and SK
+   * @param checked {@link Set} keys of the folders checked to exist
+   * @param changes {@link Map} of folder documentId to {@link FolderAggregate} change
+   * @param folders {@link Map} of document path to its {@link FolderIndexRecord} folders
+   * @return {@link List} {@link Map} {@link AttributeValue}
+   */
+  private List<Map<String, AttributeValue>> generateIndex(final String siteId,
+      final DocumentItem item, final Map<String, Map<String, AttributeValue>> resolved,
+      final Set<String> checked, final Map<String, FolderAggregate> changes,
+      final Map<String, List<FolderIndexRecord>> folders) {
 
     Date now = new Date();
     List<FolderIndexRecordExtended> records =
-        get(siteId, item.getPath(), "file", item.getUserId(), now);
+        get(siteId, item.getPath(), "file", item.getUserId(), now, resolved);
+
+    if (!isParentExists(siteId, records, checked)) {
+      for (FolderIndexRecordExtended r : records) {
+        String pk = r.record().pk(siteId);
+        invalidate(pk, r.record().sk());
+        resolved.remove(getResolvedKey(pk, r.record().sk()));
+      }
+      records = get(siteId, item.getPath(), "file", item.getUserId(), now, resolved);
+    }
+
+    FolderAggregateCounter.addFolders(changes, records);
 
     if (!records.isEmpty()) {
       FolderIndexRecordExtended extended = last(records);
@@ -350,15 +479,73 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
       }
 
       record.documentId(item.getDocumentId());
+      resolved.put(getResolvedKey(record.pk(siteId), record.sk()), record.getAttributes(siteId));
+      folders.put(item.getPath(), records(records, 1));
     }
 
     return records.stream().filter(r -> r.isChanged()).map(r -> r.record().getAttributes(siteId))
         .collect(Collectors.toList());
   }
 
+  @Override
+  public List<Map<String, AttributeValue>> generateIndex(final String siteId,
+      final List<DocumentItem> items) {
+    return generateIndex(siteId, items, new HashMap<>(), new HashMap<>());
+  }
+
+  /**
+   * Generates Folder Index of {@link DocumentItem}, adding the folders they create to the
+   * {@link FolderAggregate} changes.
+   * 
+   * @param siteId {@link String}
+   * @param items {@link List} {@link DocumentItem}
+   * @param changes {@link Map} of folder documentId to {@link FolderAggregate} change
+   * @param folders {@link Map} of document path to its {@link FolderIndexRecord} folders, top level
+   *        folder first
+   * @return {@link List} {@link Map} {@link AttributeValue}
+   */
+  List<Map<String, AttributeValue>> generateIndex(final String siteId,
+      final List<DocumentItem> items, final Map<String, FolderAggregate> changes,
+      final Map<String, List<FolderIndexRecord>> folders) {
+
+    Set<String> checked = new HashSet<>();
+    Map<String, Map<String, AttributeValue>> resolved = new HashMap<>();
+    Map<String, Map<String, AttributeValue>> index = new LinkedHashMap<>();
+
+    List<String> paths = items.stream().map(DocumentItem::getPath).filter(p -> !isEmpty(p))
+        .collect(Collectors.toList());
+    resolvePaths(siteId, paths, resolved);
+
+    for (DocumentItem item : items) {
+      for (Map<String, AttributeValue> attrs : generateIndex(siteId, item, resolved, checked,
+          changes, folders)) {
+        index.put(getResolvedKey(attrs.get(PK).s(), attrs.get(SK).s()), attrs);
+      }
+    }
+
+    return new ArrayList<>(index.values());
+  }
+
   @Override
   public List<FolderIndexRecordExtended> get(final String siteId, final String path,
       final String pathType, final String userId, final Date nowTimestamp) {
+    return get(siteId, path, pathType, userId, nowTimestamp, new HashMap<>());
+  }
+
+  /**
+   * Get Folder Index records of a path.
+   * 
+   * @param siteId {@link String}
+   * @param path {@link String}
+   * @param pathType {@link String}
+   * @param userId {@link String}
+   * @param nowTimestamp {@link Date}
+   * @param resolved {@link Map} index records already resolved, by PK and SK
+   * @return {@link List} {@link FolderIndexRecordExtended}
+   */
+  private List<FolderIndexRecordExtended> get(final String siteId, final String path,
+      final String pathType, final String userId, final Date nowTimestamp,
+      final Map<String, Map<String, AttributeValue>> resolved) {
 
     String parentId = "";
     String[] tokens = tokens(path);
@@ -375,8 +562,9 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
       FolderIndexRecord record =
           new FolderIndexRecord().parentDocumentId(parentId).documentId("").path(token).type(type);
 
-      Map<String, AttributeValue> attrs = this.dynamoDb.get(AttributeValue.fromS(record.pk(siteId)),
-          AttributeValue.fromS(record.sk()));
+      String key = getResolvedKey(record.pk(siteId), record.sk());
+      Map<String, AttributeValue> attrs =
+          resolved.containsKey(key) ? resolved.get(key) : getFolder(record.pk(siteId), record.sk());
 
       if (!attrs.isEmpty()) {
 
@@ -396,10 +584,14 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
         isRecordChanged = true;
       }
 
-      list.add(new FolderIndexRecordExtended(record, isRecordChanged));
+      list.add(new FolderIndexRecordExtended(record, isRecordChanged).created(isRecordChanged));
 
       checkParentId(record, parentId);
 
+      if (!"file".equals(type)) {
+        resolved.put(key, record.getAttributes(siteId));
+      }
+
       if (record.documentId() != null) {
         parentId = record.documentId();
       }
@@ -407,16 +599,9 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
       i++;
     }
 
-    FolderIndexRecordExtended last = null;
-    for (FolderIndexRecordExtended e : list) {
-
-      if (e.isChanged() && last != null) {
-        last.record().lastModifiedDate(new Date());
-        last.changed(true);
-      }
-
-      last = e;
-    }
+    updateParentLastModifiedDate(list);
+    list.stream().filter(r -> r.isChanged())
+        .forEach(r -> invalidate(r.record().pk(siteId), r.record().sk()));
 
     return list;
   }
@@ -428,6 +613,33 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
     return map.containsKey(documentId) ? map.get(documentId) : null;
   }
 
+  /**
+   * Get a folder and all of its parent folders, top level folder first, by walking up the folder
+   * tree.
+   * 
+   * @param siteId {@link String}
+   * @param folderId {@link String}
+   * @return {@link List} {@link FolderIndexRecord}
+   */
+  List<FolderIndexRecord> getFolderPath(final String siteId, final String folderId) {
+
+    LinkedList<FolderIndexRecord> folders = new LinkedList<>();
+    String documentId = folderId;
+
+    while (!isEmpty(documentId)) {
+
+      FolderIndexRecord record = getFolderByDocumentId(siteId, documentId);
+      if (record == null) {
+        break;
+      }
+
+      folders.addFirst(record);
+      documentId = record.parentDocumentId();
+    }
+
+    return folders;
+  }
+
   @Override
   public Map<String, FolderIndexRecord> getFolderByDocumentIds(final String siteId,
       final List<String> documentIds) {
@@ -445,6 +657,93 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
 
   }
 
+  /**
+   * Get Folder / File index record. Path lookups are eventually consistent, missing records are
+   * read again with a strongly consistent read before being treated as not existing. Existing
+   * folder records are read through the {@link FolderPathCache}, files and missing folders are
+   * never cached.
+   * 
+   * @param pk {@link String}
+   * @param sk {@link String}
+   * @return {@link Map}
+   */
+  private Map<String, AttributeValue> getFolder(final String pk, final String sk) {
+
+    boolean cacheable = isCacheable(sk);
+    Map<String, AttributeValue> attrs = cacheable ? this.folderCache.get(pk, sk) : null;
+
+    if (attrs == null) {
+      final long stamp = cacheable ? this.folderCache.stamp() : 0;
+      QueryConfig config =
+          new QueryConfig().readConsistency(ReadConsistency.EVENTUAL_WITH_FALLBACK);
+      attrs = this.dynamoDb.get(config, AttributeValue.fromS(pk), AttributeValue.fromS(sk));
+
+      if (cacheable) {
+        this.folderCache.put(pk, sk, attrs, stamp);
+      }
+    }
+
+    return attrs;
+  }
+
+  /**
+   * Get Folder / File index records, missing records are read again with a strongly consistent read
+   * before being treated as not existing.
+   * 
+   * @param keys {@link List} {@link Map}
+   * @param resolved {@link Map} index records read, by PK and SK, empty if they do not exist
+   */
+  private void getFolders(final List<Map<String, AttributeValue>> keys,
+      final Map<String, Map<String, AttributeValue>> resolved) {
+
+    List<Map<String, AttributeValue>> uncached = new ArrayList<>();
+
+    for (Map<String, AttributeValue> key : keys) {
+      String pk = key.get(PK).s();
+      String sk = key.get(SK).s();
+      Map<String, AttributeValue> attrs = isCacheable(sk) ? this.folderCache.get(pk, sk) : null;
+
+      if (attrs != null) {
+        resolved.put(getResolvedKey(pk, sk), attrs);
+      } else {
+        uncached.add(key);
+      }
+    }
+
+    final long stamp = this.folderCache != null ? this.folderCache.stamp() : 0;
+    getFolders(new BatchGetConfig(), uncached, resolved, stamp);
+
+    List<Map<String, AttributeValue>> missing = uncached.stream()
+        .filter(k -> !resolved.containsKey(getResolvedKey(k.get(PK).s(), k.get(SK).s())))
+        .collect(Collectors.toList());
+    getFolders(new BatchGetConfig().consistentRead(Boolean.TRUE), missing, resolved, stamp);
+
+    missing.forEach(k -> resolved.putIfAbsent(getResolvedKey(k.get(PK).s(), k.get(SK).s()),
+        Collections.emptyMap()));
+  }
+
+  /**
+   * Batch Get Folder / File index records.
+   * 
+   * @param config {@link BatchGetConfig}
+   * @param keys {@link List} {@link Map}
+   * @param resolved {@link Map} index records read, by PK and SK
+   * @param stamp long {@link FolderPathCache} stamp
+   */
+  private void getFolders(final BatchGetConfig config, final List<Map<String, AttributeValue>> keys,
+      final Map<String, Map<String, AttributeValue>> resolved, final long stamp) {
+
+    for (Map<String, AttributeValue> attrs : this.dynamoDb.getBatch(config, keys)) {
+      String pk = attrs.get(PK).s();
+      String sk = attrs.get(SK).s();
+      resolved.put(getResolvedKey(pk, sk), attrs);
+
+      if (isCacheable(sk)) {
+        this.folderCache.put(pk, sk, attrs, stamp);
+      }
+    }
+  }
+
   /**
    * Get Folder Id.
    * 
@@ -458,8 +757,7 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
   private FolderIndexRecord getFolderId(final String siteId, final String pk, final String sk,
       final String folder) throws IOException {
 
-    Map<String, AttributeValue> map =
-        this.dynamoDb.get(AttributeValue.fromS(pk), AttributeValue.fromS(sk));
+    Map<String, AttributeValue> map = getFolder(pk, sk);
 
     if (!map.containsKey("documentId")) {
       throw new IOException(String.format("index for '%s' does not exist", folder));
@@ -538,8 +836,7 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
       String pk = getPk(siteId, parentId);
       String sk = getSk(path, isFile);
 
-      Map<String, AttributeValue> attr =
-          this.dynamoDb.get(AttributeValue.fromS(pk), AttributeValue.fromS(sk));
+      Map<String, AttributeValue> attr = getFolder(pk, sk);
 
       o = new AttributeValueToDynamicObject().apply(attr);
     }
@@ -547,6 +844,10 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
     return o;
   }
 
+  private String getResolvedKey(final String pk, final String sk) {
+    return pk + "\n" + sk;
+  }
+
   private String getPk(final String siteId, final String id) {
     return new FolderIndexRecord().parentDocumentId(id).pk(siteId);
   }
@@ -571,6 +872,86 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
     return !response.items().isEmpty();
   }
 
+  /**
+   * Remove a folder record from the {@link FolderPathCache}.
+   * 
+   * @param pk {@link String}
+   * @param sk {@link String}
+   */
+  private void invalidate(final String pk, final String sk) {
+    if (this.folderCache != null) {
+      this.folderCache.invalidate(pk, sk);
+    }
+  }
+
+  /**
+   * Whether an index record is read through the {@link FolderPathCache}.
+   * 
+   * @param sk {@link String}
+   * @return boolean
+   */
+  private boolean isCacheable(final String sk) {
+    return this.folderCache != null && sk.startsWith(INDEX_FOLDER_SK);
+  }
+
+  /**
+   * Whether a transaction was cancelled because a condition check failed.
+   * 
+   * @param e {@link TransactionCanceledException}
+   * @return boolean
+   */
+  private boolean isConditionalCheckFailed(final TransactionCanceledException e) {
+    return e.cancellationReasons().stream()
+        .anyMatch(r -> "ConditionalCheckFailed".equals(r.code()));
+  }
+
+  /**
+   * Check the folder new folders / files of a path are created in still exists. With a
+   * {@link FolderPathCache} the folder may have been read from the cache after another process
+   * deleted it, the path records are written in a batch that cannot hold a ConditionCheck so the
+   * folder is read again with a strongly consistent read, once per folder.
+   * 
+   * @param siteId {@link String}
+   * @param records {@link List} {@link FolderIndexRecordExtended} records of the path
+   * @param checked {@link Set} keys of the folders checked to exist
+   * @return boolean false if the folder has been deleted
+   */
+  private boolean isParentExists(final String siteId, final List<FolderIndexRecordExtended> records,
+      final Set<String> checked) {
+
+    boolean exists = true;
+    FolderIndexRecord parent = null;
+
+    for (FolderIndexRecordExtended r : records) {
+      if (r.isCreated()) {
+        break;
+      }
+      parent = r.record();
+    }
+
+    boolean created = records.stream().anyMatch(FolderIndexRecordExtended::isCreated);
+
+    if (this.folderCache != null && parent != null && created) {
+
+      String pk = parent.pk(siteId);
+      String sk = parent.sk();
+
+      String key = getResolvedKey(pk, sk);
+
+      if (!checked.contains(key)) {
+        QueryConfig config = new QueryConfig().readConsistency(ReadConsistency.STRONG);
+        exists = !this.dynamoDb.get(config, AttributeValue.fromS(pk), AttributeValue.fromS(sk))
+            .isEmpty();
+
+        if (exists) {
+          checked.add(key);
+        }
+      }
+    }
+
+    return exists;
+  }
+
   @Override
   public boolean isFolderIdInPath(final String siteId, final String path, final String folderId)
       throws IOException {
@@ -636,6 +1017,7 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
         .map(r -> r.record().getAttributes(siteId)).collect(Collectors.toList());
     toBeSaved.add(source.getAttributes(siteId));
     this.dynamoDb.putItems(toBeSaved);
+    toBeSaved.forEach(a -> invalidate(a.get(PK).s(), a.get(SK).s()));
 
     // update path on document
     String newPath =
@@ -646,6 +1028,19 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
     this.dynamoDb.updateValues(keys.get(PK), keys.get(SK),
         Map.of("path", AttributeValue.fromS(newPath)));
 
+    if (this.documentCache != null) {
+      this.documentCache.invalidate(keys.get(PK).s());
+    }
+
+    Map<String, AttributeValue> document = this.dynamoDb.get(keys.get(PK), keys.get(SK));
+    long contentLength = FolderAggregateCounter.contentLength(document);
+
+    Map<String, FolderAggregate> changes = new HashMap<>();
+    FolderAggregateCounter.addDocument(changes, records(sourceRecords, 1), contentLength, -1);
+    FolderAggregateCounter.addFolders(changes, targetRecords);
+    FolderAggregateCounter.addDocument(changes, records(targetRecords, 0), contentLength, 1);
+    this.aggregates.update(siteId, changes);
+
     // update parent folder lastModifiedDate
     if (!isEmpty(target.documentId())) {
       SimpleDateFormat df = DateUtil.getIsoDateFormatter();
@@ -686,6 +1081,7 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
 
     this.dynamoDb.deleteItem(AttributeValue.fromS(source.pk(siteId)),
         AttributeValue.fromS(source.sk()));
+    invalidate(source.pk(siteId), source.sk());
 
     // String site = siteId != null ? siteId : DEFAULT_SITE_ID;
     // final FolderEvent event = new FolderEvent().siteId(site).documentId(source.documentId())
@@ -700,6 +1096,19 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
     toBeSaved.add(source.getAttributes(siteId));
     this.dynamoDb.putItems(toBeSaved);
 
+    FolderAggregate totals = this.aggregates.get(siteId, source.documentId());
+
+    Map<String, FolderAggregate> changes = new HashMap<>();
+    FolderAggregateCounter.addFolder(changes, records(sourceRecords, 1), totals, -1);
+    FolderAggregateCounter.addFolders(changes, targetRecords);
+    FolderAggregateCounter.addFolder(changes, records(targetRecords, 0), totals, 1);
+    this.aggregates.update(siteId, changes);
+
+    if (!totals.isInitialized()) {
+      this.aggregates.uninitialize(siteId, records(targetRecords, 0).stream()
+          .map(FolderIndexRecord::documentId).collect(Collectors.toList()));
+    }
+
     // this.eventService.publish(event);
   }
 
@@ -710,17 +1119,23 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
     String sourceType = sourcePath.endsWith("/") || "".equals(sourcePath) ? "folder" : "file";
     String targetType = targetPath.endsWith("/") || "".equals(targetPath) ? "folder" : "file";
 
-    if ("file".equals(sourceType) && "folder".equals(targetType)) {
+    DynamoDbOperation op = DynamoDbOperation.start("folder.move");
+    try {
 
-      moveFileToFolder(siteId, sourcePath, targetPath, userId);
+      if ("file".equals(sourceType) && "folder".equals(targetType)) {
 
-    } else if ("folder".equals(sourceType) && "folder".equals(targetType)) {
+        moveFileToFolder(siteId, sourcePath, targetPath, userId);
 
-      moveFolderToFolder(siteId, sourcePath, targetPath, userId);
+      } else if ("folder".equals(sourceType) && "folder".equals(targetType)) {
 
-    } else {
-      throw new RuntimeException(
-          String.format("Unsupported move %s to %s", sourceType, targetType));
+        moveFolderToFolder(siteId, sourcePath, targetPath, userId);
+
+      } else {
+        throw new RuntimeException(
+            String.format("Unsupported move %s to %s", sourceType, targetType));
+      }
+    } finally {
+      op.close();
     }
   }
 
@@ -738,6 +1153,202 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
     return response;
   }
 
+  /**
+   * Resolve a level of the folder tree in one batch.
+   * 
+   * @param siteId {@link String}
+   * @param level {@link List} {@link PathNode} whose parent is resolved
+   * @param resolved {@link Map} index records read, by PK and SK, empty if they do not exist
+   * @return {@link List} {@link PathNode} the next level
+   */
+  private List<PathNode> resolveLevel(final String siteId, final List<PathNode> level,
+      final Map<String, Map<String, AttributeValue>> resolved) {
+
+    List<Map<String, AttributeValue>> keys = level.stream()
+        .filter(n -> !resolved.containsKey(getResolvedKey(getPk(siteId, n.parentId), n.sk)))
+        .map(n -> Map.of(PK, AttributeValue.fromS(getPk(siteId, n.parentId)), SK,
+            AttributeValue.fromS(n.sk)))
+        .collect(Collectors.toList());
+
+    getFolders(keys, resolved);
+
+    List<PathNode> next = new ArrayList<>();
+
+    for (PathNode node : level) {
+
+      Map<String, AttributeValue> attrs =
+          resolved.get(getResolvedKey(getPk(siteId, node.parentId), node.sk));
+
+      if (attrs != null && !attrs.isEmpty()) {
+        node.record = new FolderIndexRecord().getFromAttributes(siteId, attrs);
+        checkParentId(node.record, node.parentId);
+
+        for (PathNode child : node.children.values()) {
+          child.parentId = node.record.documentId();
+          next.add(child);
+        }
+      }
+    }
+
+    return next;
+  }
+
+  /**
+   * Resolve the folders of document paths, all paths are resolved together one level at a time.
+   * 
+   * @param siteId {@link String}
+   * @param paths {@link Collection} {@link String} document paths
+   * @return {@link Map} of path to its {@link FolderIndexRecord} folders, top level folder first,
+   *         paths with a missing folder are not included
+   */
+  Map<String, List<FolderIndexRecord>> resolveFolderPaths(final String siteId,
+      final Collection<String> paths) {
+
+    Map<String, List<String>> folderPaths = new HashMap<>();
+    paths.forEach(p -> folderPaths.computeIfAbsent(p, FolderIndexProcessorImpl::folderPaths));
+
+    Map<String, FolderIndexRecord> records = resolvePaths(siteId,
+        folderPaths.values().stream().flatMap(List::stream).collect(Collectors.toSet()));
+
+    Map<String, List<FolderIndexRecord>> folders = new HashMap<>();
+
+    folderPaths.forEach((path, list) -> {
+      if (list.stream().allMatch(records::containsKey)) {
+        folders.put(path, list.stream().map(records::get).collect(Collectors.toList()));
+      }
+    });
+
+    return folders;
+  }
+
+  @Override
+  public Map<String, FolderIndexRecord> resolvePaths(final String siteId,
+      final Collection<String> paths) {
+
+    Map<String, FolderIndexRecord> records = new LinkedHashMap<>();
+
+    resolvePaths(siteId, paths, new HashMap<>()).forEach((path, node) -> {
+      if (node.record != null) {
+        records.put(path, node.record);
+      }
+    });
+
+    return records;
+  }
+
+  /**
+   * Resolve paths, walking the folder tree of all the paths one level at a time.
+   * 
+   * @param siteId {@link String}
+   * @param paths {@link Collection} {@link String}
+   * @param resolved {@link Map} index records read, by PK and SK, empty if they do not exist
+   * @return {@link Map} of path to its last {@link PathNode}
+   */
+  private Map<String, PathNode> resolvePaths(final String siteId, final Collection<String> paths,
+      final Map<String, Map<String, AttributeValue>> resolved) {
+
+    PathNode root = new PathNode("");
+    Map<String, PathNode> nodes = new LinkedHashMap<>();
+
+    for (String path : paths) {
+      String[] tokens = tokens(path);
+      if (tokens.length > 0) {
+        nodes.put(path, addPath(root, path, tokens));
+      }
+    }
+
+    List<PathNode> level = new ArrayList<>(root.children.values());
+    level.forEach(n -> n.parentId = "");
+
+    while (!level.isEmpty()) {
+      level = resolveLevel(siteId, level, resolved);
+    }
+
+    return nodes;
+  }
+
+  /**
+   * Get the {@link FolderIndexRecord} of a path's records, without the root folder placeholder.
+   * 
+   * @param list {@link List} {@link FolderIndexRecordExtended}
+   * @param skipLast number of records to skip from the end of the list
+   * @return {@link List} {@link FolderIndexRecord}
+   */
+  private List<FolderIndexRecord> records(final List<FolderIndexRecordExtended> list,
+      final int skipLast) {
+    return list.subList(0, Math.max(0, list.size() - skipLast)).stream().map(r -> r.record())
+        .filter(r -> !isEmpty(r.documentId())).collect(Collectors.toList());
+  }
+
+  /**
+   * Resolve the folders of a path that already exist, stopping at the first missing folder.
+   * 
+   * @param siteId {@link String}
+   * @param directories {@link List} {@link String}
+   * @return {@link List} {@link FolderIndexRecord}
+   */
+  private List<FolderIndexRecord> resolveFolders(final String siteId,
+      final List<String> directories) {
+
+    String parentId = "";
+    boolean exists = true;
+    List<FolderIndexRecord> records = new ArrayList<>();
+    Iterator<String> itr = directories.iterator();
+
+    while (exists && itr.hasNext()) {
+
+      Map<String, AttributeValue> attrs =
+          getFolder(getPk(siteId, parentId), getSk(itr.next(), false));
+      exists = attrs.containsKey("documentId");
+
+      if (exists) {
+        FolderIndexRecord record = new FolderIndexRecord().getFromAttributes(siteId, attrs);
+        record.parentDocumentId(parentId);
+        records.add(record);
+        parentId = record.documentId();
+      }
+    }
+
+    return records;
+  }
+
+  /**
+   * Set the {@link DocumentCache} to invalidate when document paths change.
+   * 
+   * @param cache {@link DocumentCache}
+   */
+  public void setDocumentCache(final DocumentCache cache) {
+    this.documentCache = cache;
+  }
+
+  /**
+   * Set the {@link FolderPathCache} folder reads go through.
+   * 
+   * @param cache {@link FolderPathCache}
+   */
+  public void setFolderPathCache(final FolderPathCache cache) {
+    this.folderCache = cache;
+  }
+
+  /**
+   * Update the Last Modified Date of folders whose child folder / file is changed.
+   * 
+   * @param list {@link List} {@link FolderIndexRecordExtended}
+   */
+  private void updateParentLastModifiedDate(final List<FolderIndexRecordExtended> list) {
+
+    FolderIndexRecordExtended last = null;
+    for (FolderIndexRecordExtended e : list) {
+
+      if (e.isChanged() && last != null) {
+        last.record().lastModifiedDate(new Date());
+        last.changed(true);
+      }
+
+      last = e;
+    }
+  }
+
   /**
    * Validate Path exists.
    * 
@@ -755,4 +1366,68 @@ public class FolderIndexProcessorImpl implements FolderIndexProcessor, DbKeys {
       throw new IOException(msg);
     }
   }
+
+  /**
+   * Create the missing folders of a path, following the already resolved folders. The folders are
+   * written in as few transactions as possible, parent folders first, all conditional on the folder
+   * not existing yet.
+   * 
+   * @param siteId {@link String}
+   * @param directories {@link List} {@link String}
+   * @param records {@link List} {@link FolderIndexRecord} resolved folders, created folders are
+   *        added
+   * @param insertedDate {@link Date}
+   * @param userId {@link String}
+   */
+  private void writeFolders(final String siteId, final List<String> directories,
+      final List<FolderIndexRecord> records, final Date insertedDate, final String userId) {
+
+    Map<String, FolderAggregate> changes = new HashMap<>();
+
+    String parentId = !records.isEmpty() ? last(records).documentId() : "";
+    List<FolderIndexRecord> missing = new ArrayList<>();
+
+    for (String folder : directories.subList(records.size(), directories.size())) {
+      FolderIndexRecord record = new FolderIndexRecord().parentDocumentId(parentId)
+          .documentId(UUID.randomUUID().toString()).insertedDate(insertedDate)
+          .lastModifiedDate(insertedDate).userId(userId).path(folder).type("folder");
+      missing.add(record);
+      parentId = record.documentId();
+    }
+
+    String conditionExpression = "attribute_not_exists(" + PK + ")";
+    TransactWriteItem parentCheck = createParentCheck(siteId, records);
+    final int max = parentCheck != null ? MAX_TRANSACTION_ITEMS - 1 : MAX_TRANSACTION_ITEMS;
+
+    for (int i = 0; i < missing.size(); i += max) {
+
+      List<FolderIndexRecord> chunk = missing.subList(i, Math.min(i + max, missing.size()));
+
+      List<TransactWriteItem> items = chunk.stream()
+          .map(r -> TransactWriteItem.builder()
+              .put(Put.builder().tableName(this.documentTableName)
+                  .conditionExpression(conditionExpression).item(r.getAttributes(siteId)).build())
+              .build())
+          .collect(Collectors.toCollection(ArrayList::new));
+
+      if (i == 0 && parentCheck != null) {
+        items.add(parentCheck);
+      }
+
+      final long stamp = this.folderCache != null ? this.folderCache.stamp() : 0;
+      this.dbClient
+          .transactWriteItems(TransactWriteItemsRequest.builder().transactItems(items).build());
+
+      for (FolderIndexRecord record : chunk) {
+        FolderAggregateCounter.addNewFolder(changes, new ArrayList<>(records), record);
+        records.add(record);
+
+        if (this.folderCache != null) {
+          this.folderCache.put(record.pk(siteId), record.sk(), record.getAttributes(siteId), stamp);
+        }
+      }
+    }
+
+    this.aggregates.update(siteId, changes);
+  }
 }
@@ -30,6 +30,8 @@ public class FolderIndexRecordExtended {
 
   /** Record has changed. */
   private boolean isChanged = false;
+  /** Record did not exist. */
+  private boolean isCreated = false;
   /** {@link FolderIndexRecord}. */
   private FolderIndexRecord record = null;
 
@@ -56,6 +58,17 @@ public class FolderIndexRecordExtended {
     return this;
   }
 
+  /**
+   * Set IsCreated.
+   * 
+   * @param created boolean
+   * @return {@link FolderIndexRecordExtended}
+   */
+  public FolderIndexRecordExtended created(final boolean created) {
+    this.isCreated = created;
+    return this;
+  }
+
   /**
    * Is Record Changed.
    * 
@@ -65,6 +78,15 @@ public class FolderIndexRecordExtended {
     return this.isChanged;
   }
 
+  /**
+   * Is Record Created.
+   * 
+   * @return boolean
+   */
+  public boolean isCreated() {
+    return this.isCreated;
+  }
+
   /**
    * Get {@link FolderIndexRecord}.
    * 
@@ -0,0 +1,497 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import static com.formkiq.aws.dynamodb.SiteIdKeyGenerator.createDatabaseKey;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import com.formkiq.aws.dynamodb.DbKeys;
+import com.formkiq.aws.dynamodb.DynamodbRecord;
+import com.formkiq.aws.dynamodb.objects.DateUtil;
+import com.formkiq.graalvm.annotations.Reflectable;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * 
+ * {@link DynamodbRecord} for a background recursive folder move / delete. The folder being
+ * processed and the position within it are saved after every page, so an interrupted job resumes
+ * where it stopped. The folders still waiting to be processed are stored as separate records under
+ * the job's PK, so the job record stays small however wide the folder tree is.
+ *
+ */
+@Reflectable
+public class FolderJob implements DynamodbRecord<FolderJob>, DbKeys {
+
+  /** GSI1 PK of jobs that are not finished. */
+  public static final String PENDING_PK = "folderjobs" + TAG_DELIMINATOR + "pending";
+  /** SK prefix of the folders waiting to be processed. */
+  public static final String PENDING_SK = "pending" + TAG_DELIMINATOR;
+
+  /** Folder being processed, as "folderId#path". */
+  @Reflectable
+  private String current;
+  /** Position within the current folder, SK of the last processed child. */
+  @Reflectable
+  private String cursor;
+  /** Number of documents processed. */
+  @Reflectable
+  private long documents;
+  /** Number of folders processed. */
+  @Reflectable
+  private long folders;
+  /** Record inserted date. */
+  @Reflectable
+  private Date insertedDate;
+  /** Job Id. */
+  @Reflectable
+  private String jobId;
+  /** Record modified date. */
+  @Reflectable
+  private Date lastModifiedDate;
+  /** Error Message. */
+  @Reflectable
+  private String message;
+  /** Folder path. */
+  @Reflectable
+  private String path;
+  /** Number of folders waiting to be processed after the current one. */
+  @Reflectable
+  private long pendingCount;
+  /** Site Id. */
+  @Reflectable
+  private String siteId;
+  /** {@link FolderJobStatus}. */
+  @Reflectable
+  private FolderJobStatus status;
+  /** {@link FolderJobType}. */
+  @Reflectable
+  private FolderJobType type;
+  /** Creator of record. */
+  @Reflectable
+  private String userId;
+
+  /**
+   * constructor.
+   */
+  public FolderJob() {}
+
+  /**
+   * Get Folder being processed.
+   * 
+   * @return {@link String}
+   */
+  public String current() {
+    return this.current;
+  }
+
+  /**
+   * Set Folder being processed.
+   * 
+   * @param entry {@link String}
+   * @return {@link FolderJob}
+   */
+  public FolderJob current(final String entry) {
+    this.current = entry;
+    return this;
+  }
+
+  /**
+   * Get Cursor.
+   * 
+   * @return {@link String}
+   */
+  public String cursor() {
+    return this.cursor;
+  }
+
+  /**
+   * Set Cursor.
+   * 
+   * @param sk {@link String}
+   * @return {@link FolderJob}
+   */
+  public FolderJob cursor(final String sk) {
+    this.cursor = sk;
+    return this;
+  }
+
+  /**
+   * Get Number of documents processed.
+   * 
+   * @return long
+   */
+  public long documents() {
+    return this.documents;
+  }
+
+  /**
+   * Set Number of documents processed.
+   * 
+   * @param count long
+   * @return {@link FolderJob}
+   */
+  public FolderJob documents(final long count) {
+    this.documents = count;
+    return this;
+  }
+
+  /**
+   * Get Number of folders processed.
+   * 
+   * @return long
+   */
+  public long folders() {
+    return this.folders;
+  }
+
+  /**
+   * Set Number of folders processed.
+   * 
+   * @param count long
+   * @return {@link FolderJob}
+   */
+  public FolderJob folders(final long count) {
+    this.folders = count;
+    return this;
+  }
+
+  @Override
+  public Map<String, AttributeValue> getAttributes(final String site) {
+
+    SimpleDateFormat df = DateUtil.getIsoDateFormatter();
+
+    Map<String, AttributeValue> attrs = new HashMap<>(Map.of(PK, AttributeValue.fromS(pk(site)), SK,
+        AttributeValue.fromS(sk()), "jobId", AttributeValue.fromS(this.jobId), "type",
+        AttributeValue.fromS(this.type.name()), "status", AttributeValue.fromS(this.status.name()),
+        "documents", AttributeValue.fromN(String.valueOf(this.documents)), "folders",
+        AttributeValue.fromN(String.valueOf(this.folders)), "pendingCount",
+        AttributeValue.fromN(String.valueOf(this.pendingCount)), "inserteddate",
+        AttributeValue.fromS(df.format(this.insertedDate)), "lastModifiedDate",
+        AttributeValue.fromS(df.format(this.lastModifiedDate))));
+
+    putIfNotNull(attrs, "siteId", site);
+    putIfNotNull(attrs, "path", this.path);
+    putIfNotNull(attrs, "userId", this.userId);
+    putIfNotNull(attrs, "current", this.current);
+    putIfNotNull(attrs, "cursor", this.cursor);
+    putIfNotNull(attrs, "message", this.message);
+
+    if (isActive()) {
+      attrs.put(GSI1_PK, AttributeValue.fromS(pkGsi1(site)));
+      attrs.put(GSI1_SK, AttributeValue.fromS(skGsi1()));
+    }
+
+    return attrs;
+  }
+
+  @Override
+  public FolderJob getFromAttributes(final String site, final Map<String, AttributeValue> attrs) {
+
+    FolderJob job = new FolderJob().jobId(ss(attrs, "jobId")).siteId(ss(attrs, "siteId"))
+        .type(FolderJobType.valueOf(ss(attrs, "type")))
+        .status(FolderJobStatus.valueOf(ss(attrs, "status"))).path(ss(attrs, "path"))
+        .userId(ss(attrs, "userId")).current(ss(attrs, "current")).cursor(ss(attrs, "cursor"))
+        .message(ss(attrs, "message")).documents(Long.parseLong(attrs.get("documents").n()))
+        .folders(Long.parseLong(attrs.get("folders").n()));
+
+    if (attrs.containsKey("pendingCount")) {
+      job.pendingCount(Long.parseLong(attrs.get("pendingCount").n()));
+    }
+
+    SimpleDateFormat df = DateUtil.getIsoDateFormatter();
+
+    try {
+      job.insertedDate(df.parse(ss(attrs, "inserteddate")))
+          .lastModifiedDate(df.parse(ss(attrs, "lastModifiedDate")));
+    } catch (ParseException e) {
+      throw new IllegalArgumentException("invalid 'inserteddate'");
+    }
+
+    return job;
+  }
+
+  /**
+   * Get Inserted Date.
+   * 
+   * @return {@link Date}
+   */
+  public Date insertedDate() {
+    return this.insertedDate;
+  }
+
+  /**
+   * Set Inserted Date.
+   * 
+   * @param date {@link Date}
+   * @return {@link FolderJob}
+   */
+  public FolderJob insertedDate(final Date date) {
+    this.insertedDate = date;
+    return this;
+  }
+
+  /**
+   * Whether the job still has folders to process.
+   * 
+   * @return boolean
+   */
+  public boolean isActive() {
+    return FolderJobStatus.PENDING.equals(this.status)
+        || FolderJobStatus.RUNNING.equals(this.status);
+  }
+
+  /**
+   * Get Job Id.
+   * 
+   * @return {@link String}
+   */
+  public String jobId() {
+    return this.jobId;
+  }
+
+  /**
+   * Set Job Id.
+   * 
+   * @param id {@link String}
+   * @return {@link FolderJob}
+   */
+  public FolderJob jobId(final String id) {
+    this.jobId = id;
+    return this;
+  }
+
+  /**
+   * Get Last Modified Date.
+   * 
+   * @return {@link Date}
+   */
+  public Date lastModifiedDate() {
+    return this.lastModifiedDate;
+  }
+
+  /**
+   * Set Last Modified Date.
+   * 
+   * @param date {@link Date}
+   * @return {@link FolderJob}
+   */
+  public FolderJob lastModifiedDate(final Date date) {
+    this.lastModifiedDate = date;
+    return this;
+  }
+
+  /**
+   * Get Error Message.
+   * 
+   * @return {@link String}
+   */
+  public String message() {
+    return this.message;
+  }
+
+  /**
+   * Set Error Message.
+   * 
+   * @param error {@link String}
+   * @return {@link FolderJob}
+   */
+  public FolderJob message(final String error) {
+    this.message = error;
+    return this;
+  }
+
+  /**
+   * Get Folder Path.
+   * 
+   * @return {@link String}
+   */
+  public String path() {
+    return this.path;
+  }
+
+  /**
+   * Set Folder Path.
+   * 
+   * @param folderPath {@link String}
+   * @return {@link FolderJob}
+   */
+  public FolderJob path(final String folderPath) {
+    this.path = folderPath;
+    return this;
+  }
+
+  /**
+   * Get Number of folders waiting to be processed after the current one.
+   * 
+   * @return long
+   */
+  public long pendingCount() {
+    return this.pendingCount;
+  }
+
+  /**
+   * Set Number of folders waiting to be processed after the current one.
+   * 
+   * @param count long
+   * @return {@link FolderJob}
+   */
+  public FolderJob pendingCount(final long count) {
+    this.pendingCount = count;
+    return this;
+  }
+
+  @Override
+  public String pk(final String site) {
+    if (this.jobId == null) {
+      throw new IllegalArgumentException("'jobId' is required");
+    }
+    return createDatabaseKey(site, "folderjobs" + TAG_DELIMINATOR + this.jobId);
+  }
+
+  @Override
+  public String pkGsi1(final String site) {
+    return PENDING_PK;
+  }
+
+  @Override
+  public String pkGsi2(final String site) {
+    return null;
+  }
+
+  private void putIfNotNull(final Map<String, AttributeValue> attrs, final String key,
+      final String value) {
+    if (value != null) {
+      attrs.put(key, AttributeValue.fromS(value));
+    }
+  }
+
+  /**
+   * Get Site Id.
+   * 
+   * @return {@link String}
+   */
+  public String siteId() {
+    return this.siteId;
+  }
+
+  /**
+   * Set Site Id.
+   * 
+   * @param id {@link String}
+   * @return {@link FolderJob}
+   */
+  public FolderJob siteId(final String id) {
+    this.siteId = id;
+    return this;
+  }
+
+  @Override
+  public String sk() {
+    return "folderjob";
+  }
+
+  /**
+   * Get SK of a pending folder record.
+   * 
+   * @param folderId {@link String}
+   * @return {@link String}
+   */
+  public static String skPending(final String folderId) {
+    return PENDING_SK + folderId;
+  }
+
+  @Override
+  public String skGsi1() {
+    SimpleDateFormat df = DateUtil.getIsoDateFormatter();
+    return df.format(this.insertedDate) + TAG_DELIMINATOR + this.jobId;
+  }
+
+  @Override
+  public String skGsi2() {
+    return null;
+  }
+
+  /**
+   * Get {@link FolderJobStatus}.
+   * 
+   * @return {@link FolderJobStatus}
+   */
+  public FolderJobStatus status() {
+    return this.status;
+  }
+
+  /**
+   * Set {@link FolderJobStatus}.
+   * 
+   * @param jobStatus {@link FolderJobStatus}
+   * @return {@link FolderJob}
+   */
+  public FolderJob status(final FolderJobStatus jobStatus) {
+    this.status = jobStatus;
+    return this;
+  }
+
+  /**
+   * Get {@link FolderJobType}.
+   * 
+   * @return {@link FolderJobType}
+   */
+  public FolderJobType type() {
+    return this.type;
+  }
+
+  /**
+   * Set {@link FolderJobType}.
+   * 
+   * @param jobType {@link FolderJobType}
+   * @return {@link FolderJob}
+   */
+  public FolderJob type(final FolderJobType jobType) {
+    this.type = jobType;
+    return this;
+  }
+
+  /**
+   * Get User Id.
+   * 
+   * @return {@link String}
+   */
+  public String userId() {
+    return this.userId;
+  }
+
+  /**
+   * Set User Id.
+   * 
+   * @param user {@link String}
+   * @return {@link FolderJob}
+   */
+  public FolderJob userId(final String user) {
+    this.userId = user;
+    return this;
+  }
+}
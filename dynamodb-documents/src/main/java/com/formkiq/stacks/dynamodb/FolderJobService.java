@@ -0,0 +1,93 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import java.util.List;
+
+/**
+ * 
+ * Service for running recursive folder move / delete as resumable background jobs.
+ *
+ */
+public interface FolderJobService {
+
+  /** Default number of pages of folder children a job processes per run. */
+  int DEFAULT_PAGES = 50;
+
+  /**
+   * Find jobs that are not finished.
+   * 
+   * @param limit int
+   * @return {@link List} {@link FolderJob}
+   */
+  List<FolderJob> findActiveJobs(int limit);
+
+  /**
+   * Get Job.
+   * 
+   * @param siteId {@link String}
+   * @param jobId {@link String}
+   * @return {@link FolderJob}, null if not found
+   */
+  FolderJob getJob(String siteId, String jobId);
+
+  /**
+   * Run unfinished jobs.
+   * 
+   * @param maxPages int maximum number of pages to process per job
+   */
+  void runActiveJobs(int maxPages);
+
+  /**
+   * Run job, continuing from where it last stopped.
+   * 
+   * @param siteId {@link String}
+   * @param jobId {@link String}
+   * @param maxPages int maximum number of pages to process
+   * @return {@link FolderJob}, null if not found
+   */
+  FolderJob runJob(String siteId, String jobId, int maxPages);
+
+  /**
+   * Start recursive delete of a folder. The folder is removed from its parent immediately, its
+   * children are removed and its documents soft deleted by the job.
+   * 
+   * @param siteId {@link String}
+   * @param indexKey {@link String}
+   * @param userId {@link String}
+   * @return {@link FolderJob}, null if the folder does not exist
+   */
+  FolderJob startDelete(String siteId, String indexKey, String userId);
+
+  /**
+   * Start updating the path of the documents of a moved folder.
+   * 
+   * @param siteId {@link String}
+   * @param folderId {@link String} document id of the moved folder
+   * @param path {@link String} new path of the folder
+   * @param userId {@link String}
+   * @return {@link FolderJob}
+   */
+  FolderJob startMove(String siteId, String folderId, String path, String userId);
+}
@@ -0,0 +1,417 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import static com.formkiq.stacks.dynamodb.FolderIndexRecord.INDEX_FILE_SK;
+import static com.formkiq.stacks.dynamodb.FolderIndexRecord.INDEX_FOLDER_SK;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import com.formkiq.aws.dynamodb.BatchGetConfig;
+import com.formkiq.aws.dynamodb.DbKeys;
+import com.formkiq.aws.dynamodb.DynamoDbBatchExecutor;
+import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
+import com.formkiq.aws.dynamodb.DynamoDbService;
+import com.formkiq.aws.dynamodb.DynamoDbServiceImpl;
+import com.formkiq.aws.dynamodb.QueryConfig;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+/**
+ * 
+ * DynamoDb implementation of {@link FolderJobService}. A job walks the folder tree one page of
+ * folder children at a time, the documents of a page are updated in parallel and the job's progress
+ * is saved after every page. Sub folders found along the way are queued as separate pending records
+ * under the job's PK and picked up one at a time.
+ *
+ */
+public class FolderJobServiceDynamoDb implements FolderJobService, DbKeys {
+
+  /** Number of folder children per page. */
+  private static final int PAGE_SIZE = 100;
+
+  /** {@link FolderAggregateCounter}. */
+  private FolderAggregateCounter aggregates;
+  /** {@link DynamoDbService}. */
+  private DynamoDbService db;
+  /** {@link DynamoDbClient}. */
+  private DynamoDbClient dbClient;
+  /** {@link DocumentCache}, null if documents are not cached. */
+  private DocumentCache documentCache;
+  /** {@link DocumentService}. */
+  private DocumentService documentService;
+  /** Documents Table Name. */
+  private String documentTableName;
+  /** {@link FolderPathCache}, null if folders are not cached. */
+  private FolderPathCache folderCache;
+  /** {@link FolderIndexProcessorImpl}. */
+  private FolderIndexProcessorImpl folderIndexProcessor;
+
+  /**
+   * constructor.
+   * 
+   * @param connection {@link DynamoDbConnectionBuilder}
+   * @param documentsTable {@link String}
+   * @param service {@link DocumentService}
+   */
+  public FolderJobServiceDynamoDb(final DynamoDbConnectionBuilder connection,
+      final String documentsTable, final DocumentService service) {
+
+    if (documentsTable == null) {
+      throw new IllegalArgumentException("'documentsTable' is null");
+    }
+
+    this.dbClient = connection.build();
+    this.documentTableName = documentsTable;
+    this.db = new DynamoDbServiceImpl(connection, documentsTable);
+    this.documentService = service;
+    this.aggregates = new FolderAggregateCounter(connection.build(), documentsTable);
+    this.folderIndexProcessor = new FolderIndexProcessorImpl(connection, documentsTable);
+  }
+
+  private String childPath(final String path, final Map<String, AttributeValue> child) {
+    String name = child.get("path").s();
+    return !path.isEmpty() ? path + "/" + name : name;
+  }
+
+  /**
+   * Queue sub folders as pending records of the job.
+   * 
+   * @param siteId {@link String}
+   * @param job {@link FolderJob}
+   * @param path {@link String} parent folder path
+   * @param folders {@link List} {@link Map}
+   */
+  private void addPending(final String siteId, final FolderJob job, final String path,
+      final List<Map<String, AttributeValue>> folders) {
+
+    if (!folders.isEmpty()) {
+
+      AttributeValue pk = AttributeValue.fromS(job.pk(siteId));
+      List<Map<String, AttributeValue>> items = folders.stream()
+          .map(f -> Map.of(PK, pk, SK,
+              AttributeValue.fromS(FolderJob.skPending(f.get("documentId").s())), "entry",
+              AttributeValue.fromS(f.get("documentId").s() + TAG_DELIMINATOR + childPath(path, f))))
+          .collect(Collectors.toList());
+
+      this.db.putItems(items);
+      job.pendingCount(job.pendingCount() + items.size());
+    }
+  }
+
+  private FolderJob createJob(final String siteId, final FolderJobType type, final String path,
+      final String entry, final String userId) {
+
+    Date now = new Date();
+
+    FolderJob job = new FolderJob().jobId(UUID.randomUUID().toString()).siteId(siteId).type(type)
+        .status(entry == null ? FolderJobStatus.COMPLETE : FolderJobStatus.PENDING).path(path)
+        .userId(userId).insertedDate(now).lastModifiedDate(now).current(entry);
+
+    this.db.putItem(job.getAttributes(siteId));
+    return job;
+  }
+
+  /**
+   * Remove a page of folder children and soft delete their documents.
+   * 
+   * @param siteId {@link String}
+   * @param children {@link List} {@link Map}
+   * @param files {@link List} {@link Map}
+   */
+  private void deleteChildren(final String siteId, final List<Map<String, AttributeValue>> children,
+      final List<Map<String, AttributeValue>> files) {
+
+    this.db.deleteItems(children.stream().map(c -> Map.of(PK, c.get(PK), SK, c.get(SK)))
+        .collect(Collectors.toList()));
+
+    if (this.folderCache != null) {
+      children.forEach(c -> this.folderCache.invalidate(c.get(PK).s(), c.get(SK).s()));
+    }
+
+    this.aggregates.remove(siteId,
+        children.stream().filter(c -> c.get(SK).s().startsWith(INDEX_FOLDER_SK))
+            .map(c -> c.get("documentId").s()).collect(Collectors.toList()));
+
+    List<Supplier<Boolean>> tasks = files.stream().map(f -> f.get("documentId").s())
+        .map(documentId -> (Supplier<Boolean>) () -> Boolean
+            .valueOf(this.documentService.deleteDocument(siteId, documentId, true)))
+        .collect(Collectors.toList());
+
+    DynamoDbBatchExecutor.invokeAll(tasks);
+  }
+
+  @Override
+  public List<FolderJob> findActiveJobs(final int limit) {
+    QueryResponse response =
+        this.db.queryIndex(GSI1, AttributeValue.fromS(FolderJob.PENDING_PK), null, limit);
+    // GSI1 only projects the keys, so read the full job records
+    List<Map<String, AttributeValue>> keys = response.items().stream()
+        .map(a -> Map.of(PK, a.get(PK), SK, a.get(SK))).collect(Collectors.toList());
+    return this.db.getBatch(new BatchGetConfig(), keys).stream()
+        .map(a -> new FolderJob().getFromAttributes(null, a)).collect(Collectors.toList());
+  }
+
+  @Override
+  public FolderJob getJob(final String siteId, final String jobId) {
+
+    FolderJob job = new FolderJob().jobId(jobId);
+    Map<String, AttributeValue> attrs =
+        this.db.get(AttributeValue.fromS(job.pk(siteId)), AttributeValue.fromS(job.sk()));
+
+    return !attrs.isEmpty() ? job.getFromAttributes(siteId, attrs) : null;
+  }
+
+  private String getPk(final String siteId, final String folderId) {
+    return new FolderIndexRecord().parentDocumentId(folderId).pk(siteId);
+  }
+
+  /**
+   * Update the path of a page of documents. Documents deleted since the page was read are skipped.
+   * 
+   * @param siteId {@link String}
+   * @param path {@link String} folder path
+   * @param files {@link List} {@link Map}
+   */
+  private void moveDocuments(final String siteId, final String path,
+      final List<Map<String, AttributeValue>> files) {
+
+    List<Supplier<Boolean>> tasks = new ArrayList<>();
+
+    for (Map<String, AttributeValue> file : files) {
+
+      Map<String, AttributeValue> keys = keysDocument(siteId, file.get("documentId").s());
+      AttributeValue documentPath = AttributeValue.fromS(childPath(path, file));
+
+      UpdateItemRequest u = UpdateItemRequest.builder().tableName(this.documentTableName).key(keys)
+          .updateExpression("SET #path = :path").conditionExpression("attribute_exists(#key)")
+          .expressionAttributeNames(Map.of("#path", "path", "#key", PK))
+          .expressionAttributeValues(Map.of(":path", documentPath)).build();
+
+      tasks.add(() -> {
+        try {
+          this.dbClient.updateItem(u);
+        } catch (ConditionalCheckFailedException e) {
+          return Boolean.FALSE;
+        }
+
+        if (this.documentCache != null) {
+          this.documentCache.invalidate(keys.get(PK).s());
+        }
+        return Boolean.TRUE;
+      });
+    }
+
+    DynamoDbBatchExecutor.invokeAll(tasks);
+  }
+
+  /**
+   * Move on to the next pending folder of the job, the job is finished when there is none.
+   * 
+   * @param siteId {@link String}
+   * @param job {@link FolderJob}
+   * @return {@link Map} key of the pending record to remove once the job is saved, null if none
+   */
+  private Map<String, AttributeValue> nextPending(final String siteId, final FolderJob job) {
+
+    AttributeValue pk = AttributeValue.fromS(job.pk(siteId));
+    QueryResponse response = this.db.queryBeginsWith(new QueryConfig(), pk,
+        AttributeValue.fromS(FolderJob.PENDING_SK), null, 1);
+
+    Map<String, AttributeValue> key = null;
+    job.cursor(null).current(null);
+
+    if (!response.items().isEmpty()) {
+      Map<String, AttributeValue> item = response.items().get(0);
+      key = Map.of(PK, item.get(PK), SK, item.get(SK));
+      job.current(item.get("entry").s()).pendingCount(Math.max(0, job.pendingCount() - 1));
+    }
+
+    return key;
+  }
+
+  /**
+   * Remove a deleted folder's {@link FolderAggregate} from its parent folders.
+   * 
+   * @param siteId {@link String}
+   * @param parentId {@link String}
+   * @param folderId {@link String}
+   */
+  private void removeFolderAggregate(final String siteId, final String parentId,
+      final String folderId) {
+
+    Map<String, FolderAggregate> changes = new HashMap<>();
+    FolderAggregateCounter.addFolder(changes,
+        this.folderIndexProcessor.getFolderPath(siteId, parentId),
+        this.aggregates.get(siteId, folderId), -1);
+
+    this.aggregates.update(siteId, changes);
+    this.aggregates.remove(siteId, Arrays.asList(folderId));
+  }
+
+  @Override
+  public void runActiveJobs(final int maxPages) {
+    for (FolderJob job : findActiveJobs(PAGE_SIZE)) {
+      runJob(job.siteId(), job.jobId(), maxPages);
+    }
+  }
+
+  /**
+   * Process the next page of children of the current folder.
+   * 
+   * @param siteId {@link String}
+   * @param job {@link FolderJob}
+   * @return {@link Map} key of the pending record to remove once the job is saved, null if none
+   */
+  private Map<String, AttributeValue> runPage(final String siteId, final FolderJob job) {
+
+    String[] folder = job.current().split(TAG_DELIMINATOR, 2);
+    AttributeValue pk = AttributeValue.fromS(getPk(siteId, folder[0]));
+    Map<String, AttributeValue> startKey =
+        job.cursor() != null ? Map.of(PK, pk, SK, AttributeValue.fromS(job.cursor())) : null;
+
+    QueryResponse response = this.db.query(pk, startKey, PAGE_SIZE);
+    List<Map<String, AttributeValue>> children = response.items();
+
+    List<Map<String, AttributeValue>> files = children.stream()
+        .filter(c -> c.get(SK).s().startsWith(INDEX_FILE_SK)).collect(Collectors.toList());
+    List<Map<String, AttributeValue>> folders = children.stream()
+        .filter(c -> c.get(SK).s().startsWith(INDEX_FOLDER_SK)).collect(Collectors.toList());
+
+    addPending(siteId, job, folder[1], folders);
+
+    if (FolderJobType.MOVE.equals(job.type())) {
+      moveDocuments(siteId, folder[1], files);
+    } else {
+      deleteChildren(siteId, children, files);
+    }
+
+    job.documents(job.documents() + files.size()).folders(job.folders() + folders.size());
+
+    Map<String, AttributeValue> lastKey = response.lastEvaluatedKey();
+    Map<String, AttributeValue> done = null;
+
+    if (lastKey == null || lastKey.isEmpty()) {
+      done = nextPending(siteId, job);
+    } else {
+      job.cursor(lastKey.get(SK).s());
+    }
+
+    job.status(job.current() == null ? FolderJobStatus.COMPLETE : FolderJobStatus.RUNNING)
+        .message(null).lastModifiedDate(new Date());
+    return done;
+  }
+
+  @Override
+  public FolderJob runJob(final String siteId, final String jobId, final int maxPages) {
+
+    FolderJob job = getJob(siteId, jobId);
+
+    try {
+
+      for (int i = 0; job != null && job.isActive() && i < maxPages; i++) {
+        Map<String, AttributeValue> done = runPage(siteId, job);
+        this.db.putItem(job.getAttributes(siteId));
+
+        if (done != null) {
+          this.db.deleteItem(done.get(PK), done.get(SK));
+        }
+      }
+
+    } catch (RuntimeException e) {
+      job.message(e.getMessage());
+      this.db.putItem(job.getAttributes(siteId));
+      throw e;
+    }
+
+    return job;
+  }
+
+  /**
+   * Set the {@link DocumentCache} to invalidate when document paths change.
+   * 
+   * @param cache {@link DocumentCache}
+   */
+  public void setDocumentCache(final DocumentCache cache) {
+    this.documentCache = cache;
+  }
+
+  /**
+   * Set the {@link FolderPathCache} to invalidate when folders are removed.
+   * 
+   * @param cache {@link FolderPathCache}
+   */
+  public void setFolderPathCache(final FolderPathCache cache) {
+    this.folderCache = cache;
+  }
+
+  @Override
+  public FolderJob startDelete(final String siteId, final String indexKey, final String userId) {
+
+    FolderJob job = null;
+    int pos = indexKey.indexOf(TAG_DELIMINATOR);
+
+    if (pos != -1) {
+
+      FolderIndexRecord record =
+          new FolderIndexRecord().parentDocumentId(indexKey.substring(0, pos))
+              .path(indexKey.substring(pos + 1)).type("folder");
+      AttributeValue pk = AttributeValue.fromS(record.pk(siteId));
+      AttributeValue sk = AttributeValue.fromS(record.sk());
+
+      Map<String, AttributeValue> attrs = this.db.get(pk, sk);
+
+      if (attrs.containsKey("documentId")) {
+
+        this.db.deleteItem(pk, sk);
+        if (this.folderCache != null) {
+          this.folderCache.invalidate(pk.s(), sk.s());
+        }
+
+        String folderId = attrs.get("documentId").s();
+        removeFolderAggregate(siteId, record.parentDocumentId(), folderId);
+
+        job = createJob(siteId, FolderJobType.DELETE, record.path(),
+            folderId + TAG_DELIMINATOR + record.path(), userId);
+      }
+    }
+
+    return job;
+  }
+
+  @Override
+  public FolderJob startMove(final String siteId, final String folderId, final String path,
+      final String userId) {
+    return createJob(siteId, FolderJobType.MOVE, path, folderId + TAG_DELIMINATOR + path, userId);
+  }
+}
@@ -0,0 +1,66 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
+import com.formkiq.module.lambdaservices.AwsServiceCache;
+import com.formkiq.module.lambdaservices.AwsServiceExtension;
+
+/**
+ * 
+ * {@link AwsServiceExtension} for {@link FolderJobService}.
+ *
+ */
+public class FolderJobServiceExtension implements AwsServiceExtension<FolderJobService> {
+
+  /** {@link FolderJobService}. */
+  private FolderJobService service;
+
+  /**
+   * constructor.
+   */
+  public FolderJobServiceExtension() {}
+
+  @Override
+  public FolderJobService loadService(final AwsServiceCache awsServiceCache) {
+    if (this.service == null) {
+      DynamoDbConnectionBuilder connection =
+          awsServiceCache.getExtension(DynamoDbConnectionBuilder.class);
+      DocumentService documentService = awsServiceCache.getExtension(DocumentService.class);
+
+      FolderJobServiceDynamoDb impl = new FolderJobServiceDynamoDb(connection,
+          awsServiceCache.environment("DOCUMENTS_TABLE"), documentService);
+
+      if (!awsServiceCache.containsExtension(DocumentCache.class)) {
+        awsServiceCache.register(DocumentCache.class, new DocumentCacheExtension());
+      }
+      impl.setDocumentCache(awsServiceCache.getExtensionOrNull(DocumentCache.class));
+      impl.setFolderPathCache(FolderPathCacheExtension.getFolderPathCache(awsServiceCache));
+
+      this.service = impl;
+    }
+
+    return this.service;
+  }
+}
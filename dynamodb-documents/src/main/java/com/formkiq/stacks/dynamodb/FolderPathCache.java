@@ -0,0 +1,244 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * 
+ * Bounded, time to live based cache of folder index records keyed by their partition key (siteId
+ * and parent folder) and sort key (folder name), so resolving a path does not read every folder in
+ * it. Values are the raw DynamoDb attributes and are read only. Least recently used folders are
+ * evicted once the maximum size is reached.
+ * 
+ * Records are only cached if no folder was invalidated while they were being read (see
+ * {@link #stamp()}), so a concurrent move or delete can not be overwritten by a stale read. Changes
+ * made by other processes are only seen once the cached record expires.
+ *
+ */
+public class FolderPathCache {
+
+  /** {@link LinkedHashMap} load factor. */
+  private static final float LOAD_FACTOR = 0.75f;
+
+  /**
+   * Cached folder record.
+   */
+  private static final class Entry {
+
+    /** Folder record attributes. */
+    private final Map<String, AttributeValue> attributes;
+    /** Expiry time in milliseconds. */
+    private final long expiresAt;
+
+    /**
+     * constructor.
+     * 
+     * @param attrs {@link Map}
+     * @param expiry long
+     */
+    private Entry(final Map<String, AttributeValue> attrs, final long expiry) {
+      this.attributes = attrs;
+      this.expiresAt = expiry;
+    }
+  }
+
+  /** Cache entries, in access order. */
+  private final LinkedHashMap<String, Entry> entries;
+  /** Number of evicted folders. */
+  private final AtomicLong evictions = new AtomicLong();
+  /** Number of cache hits. */
+  private final AtomicLong hits = new AtomicLong();
+  /** Number of invalidations. */
+  private final AtomicLong invalidations = new AtomicLong();
+  /** Maximum number of folders. */
+  private final int maxSize;
+  /** Number of cache misses. */
+  private final AtomicLong misses = new AtomicLong();
+  /** Time to live in milliseconds. */
+  private final long ttl;
+
+  /**
+   * constructor.
+   * 
+   * @param timeToLive {@link Duration}
+   * @param maximumSize int
+   */
+  public FolderPathCache(final Duration timeToLive, final int maximumSize) {
+
+    if (timeToLive == null || timeToLive.isNegative() || timeToLive.isZero()) {
+      throw new IllegalArgumentException("'timeToLive' must be positive");
+    }
+
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("'maximumSize' must be positive");
+    }
+
+    this.ttl = timeToLive.toMillis();
+    this.maxSize = maximumSize;
+    this.entries = new LinkedHashMap<>(maximumSize, LOAD_FACTOR, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+        boolean remove = size() > FolderPathCache.this.maxSize;
+        if (remove) {
+          FolderPathCache.this.evictions.incrementAndGet();
+        }
+        return remove;
+      }
+    };
+  }
+
+  /**
+   * Number of folders evicted because the cache was full.
+   * 
+   * @return long
+   */
+  public long evictions() {
+    return this.evictions.get();
+  }
+
+  /**
+   * Get Cached folder record.
+   * 
+   * @param pk {@link String}
+   * @param sk {@link String}
+   * @return {@link Map} or null if not cached
+   */
+  public Map<String, AttributeValue> get(final String pk, final String sk) {
+
+    String key = getKey(pk, sk);
+    Entry entry;
+
+    synchronized (this.entries) {
+      entry = this.entries.get(key);
+      if (entry != null && entry.expiresAt <= System.currentTimeMillis()) {
+        this.entries.remove(key);
+        entry = null;
+      }
+    }
+
+    if (entry != null) {
+      this.hits.incrementAndGet();
+    } else {
+      this.misses.incrementAndGet();
+    }
+
+    return entry != null ? entry.attributes : null;
+  }
+
+  private String getKey(final String pk, final String sk) {
+    return pk + "\n" + sk;
+  }
+
+  /**
+   * Number of cache hits.
+   * 
+   * @return long
+   */
+  public long hits() {
+    return this.hits.get();
+  }
+
+  /**
+   * Remove a cached folder record.
+   * 
+   * @param pk {@link String}
+   * @param sk {@link String}
+   */
+  public void invalidate(final String pk, final String sk) {
+    synchronized (this.entries) {
+      this.invalidations.incrementAndGet();
+      this.entries.remove(getKey(pk, sk));
+    }
+  }
+
+  /**
+   * Remove all cached folder records.
+   */
+  public void invalidateAll() {
+    synchronized (this.entries) {
+      this.invalidations.incrementAndGet();
+      this.entries.clear();
+    }
+  }
+
+  /**
+   * Number of cache misses.
+   * 
+   * @return long
+   */
+  public long misses() {
+    return this.misses.get();
+  }
+
+  /**
+   * Cache folder record, unless a folder was invalidated since the {@link #stamp()} was taken.
+   * 
+   * @param pk {@link String}
+   * @param sk {@link String}
+   * @param attributes {@link Map}
+   * @param stamp long
+   */
+  public void put(final String pk, final String sk, final Map<String, AttributeValue> attributes,
+      final long stamp) {
+
+    if (attributes != null && !attributes.isEmpty()) {
+
+      Entry entry = new Entry(Map.copyOf(attributes), System.currentTimeMillis() + this.ttl);
+
+      synchronized (this.entries) {
+        if (stamp == this.invalidations.get()) {
+          this.entries.put(getKey(pk, sk), entry);
+        }
+      }
+    }
+  }
+
+  /**
+   * Number of cached folders.
+   * 
+   * @return int
+   */
+  public int size() {
+    synchronized (this.entries) {
+      return this.entries.size();
+    }
+  }
+
+  /**
+   * Stamp to take before reading a folder record from DynamoDb that will be passed to
+   * {@link #put(String, String, Map, long)}.
+   * 
+   * @return long
+   */
+  public long stamp() {
+    return this.invalidations.get();
+  }
+}
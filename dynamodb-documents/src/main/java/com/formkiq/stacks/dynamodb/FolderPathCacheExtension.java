@@ -0,0 +1,79 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import java.time.Duration;
+import com.formkiq.module.lambdaservices.AwsServiceCache;
+import com.formkiq.module.lambdaservices.AwsServiceExtension;
+
+/**
+ * 
+ * {@link AwsServiceExtension} for {@link FolderPathCache}. Caching is enabled by setting the
+ * FOLDER_CACHE_TTL environment variable (seconds), FOLDER_CACHE_SIZE sets the maximum number of
+ * cached folders.
+ *
+ */
+public class FolderPathCacheExtension implements AwsServiceExtension<FolderPathCache> {
+
+  /** Default Maximum number of cached folders. */
+  private static final int DEFAULT_SIZE = 10000;
+
+  /** {@link FolderPathCache}. */
+  private FolderPathCache cache;
+
+  /**
+   * constructor.
+   */
+  public FolderPathCacheExtension() {}
+
+  /**
+   * Register the {@link FolderPathCacheExtension} if not registered and get the
+   * {@link FolderPathCache}.
+   * 
+   * @param awsServiceCache {@link AwsServiceCache}
+   * @return {@link FolderPathCache}, null if folders are not cached
+   */
+  public static FolderPathCache getFolderPathCache(final AwsServiceCache awsServiceCache) {
+    if (!awsServiceCache.containsExtension(FolderPathCache.class)) {
+      awsServiceCache.register(FolderPathCache.class, new FolderPathCacheExtension());
+    }
+    return awsServiceCache.getExtensionOrNull(FolderPathCache.class);
+  }
+
+  @Override
+  public FolderPathCache loadService(final AwsServiceCache awsServiceCache) {
+
+    String ttl = awsServiceCache.environment("FOLDER_CACHE_TTL");
+
+    if (this.cache == null && ttl != null && !ttl.isEmpty()) {
+
+      String size = awsServiceCache.environment("FOLDER_CACHE_SIZE");
+      int maximumSize = size != null && !size.isEmpty() ? Integer.parseInt(size) : DEFAULT_SIZE;
+
+      this.cache = new FolderPathCache(Duration.ofSeconds(Long.parseLong(ttl)), maximumSize);
+    }
+
+    return this.cache;
+  }
+}
@@ -27,13 +27,16 @@ import static com.formkiq.aws.dynamodb.DbKeys.GLOBAL_FOLDER_TAGS;
 import static com.formkiq.aws.dynamodb.DbKeys.PK;
 import static com.formkiq.aws.dynamodb.DbKeys.SK;
 import static com.formkiq.aws.dynamodb.DbKeys.TAG_DELIMINATOR;
+import static com.formkiq.aws.dynamodb.SiteIdKeyGenerator.DEFAULT_SITE_ID;
 import static com.formkiq.aws.dynamodb.SiteIdKeyGenerator.createDatabaseKey;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import com.formkiq.aws.dynamodb.BatchGetConfig;
 import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
@@ -60,8 +63,8 @@ public class GlobalIndexService {
   private String documentTableName;
   /** {@link DynamoDbService}. */
   private DynamoDbService service;
-  /** Cache Queue. */
-  private Map<String, ArrayBlockingQueue<String>> tagCache = new HashMap<>();// new
+  /** Cache Queue per SiteId. */
+  private Map<String, ArrayBlockingQueue<String>> tagCache = new ConcurrentHashMap<>();
 
   /**
    * constructor.
@@ -88,12 +91,10 @@ public class GlobalIndexService {
    */
   private void addToCache(final ArrayBlockingQueue<String> cache, final Collection<String> keys) {
     for (String key : keys) {
-
-      if (cache.remainingCapacity() == 0) {
-        cache.remove();
+      // evict the oldest entries until there is room, another thread may add at the same time
+      while (!cache.offer(key)) {
+        cache.poll();
       }
-
-      cache.add(key);
     }
   }
 
@@ -112,12 +113,8 @@ public class GlobalIndexService {
   }
 
   private ArrayBlockingQueue<String> getCache(final String siteId) {
-    ArrayBlockingQueue<String> cache = this.tagCache.get(siteId);
-    if (cache == null) {
-      cache = new ArrayBlockingQueue<String>(CACHE_SIZE);
-      this.tagCache.put(siteId, cache);
-    }
-    return cache;
+    String key = siteId != null ? siteId : DEFAULT_SITE_ID;
+    return this.tagCache.computeIfAbsent(key, k -> new ArrayBlockingQueue<String>(CACHE_SIZE));
   }
 
   private String getCacheKey(final Map<String, AttributeValue> r) {
@@ -133,19 +130,32 @@ public class GlobalIndexService {
   }
 
   /**
-   * Write Tag Index.
+   * Add Tag Keys to the cache of Tag Index records that have been written.
    * 
    * @param siteId {@link String}
    * @param tagKeys {@link Collection} {@link String}
    */
-  public void writeTagIndex(final String siteId, final Collection<String> tagKeys) {
-
+  public void addTagIndexCache(final String siteId, final Collection<String> tagKeys) {
     ArrayBlockingQueue<String> cache = getCache(siteId);
+    addToCache(cache,
+        tagKeys.stream().distinct().filter(k -> !cache.contains(k)).collect(Collectors.toList()));
+  }
 
-    tagKeys.removeIf(e -> cache.contains(e));
-    addToCache(cache, tagKeys);
+  /**
+   * Generate the Tag Index records of Tag Keys that are not in the cache. The records only contain
+   * the tag key, so writing a record that already exists is a no-op and the records can be added to
+   * the same batch write as the document.
+   * 
+   * @param siteId {@link String}
+   * @param tagKeys {@link Collection} {@link String}
+   * @return {@link List} {@link Map}
+   */
+  public List<Map<String, AttributeValue>> generateTagIndex(final String siteId,
+      final Collection<String> tagKeys) {
+
+    ArrayBlockingQueue<String> cache = getCache(siteId);
 
-    List<Map<String, AttributeValue>> valueList = tagKeys.stream().map(tagKey -> {
+    return tagKeys.stream().distinct().filter(k -> !cache.contains(k)).map(tagKey -> {
 
       String pk = getTagsPk(siteId);
       String sk = getTagsSk(tagKey);
@@ -155,10 +165,43 @@ public class GlobalIndexService {
 
       return values;
     }).collect(Collectors.toList());
+  }
+
+  /**
+   * Generate the {@link TagValueCounter} "initialized" records of Tag Index records that do not
+   * exist yet. A tag key recorded for the first time has no tags written before its counters, so
+   * its counters can be read from the start.
+   * 
+   * @param siteId {@link String}
+   * @param tagIndex {@link List} Tag Index records from generateTagIndex
+   * @return {@link List} {@link Map}
+   */
+  public List<Map<String, AttributeValue>> generateTagCountersInitialized(final String siteId,
+      final List<Map<String, AttributeValue>> tagIndex) {
+
+    List<Map<String, AttributeValue>> records = Collections.emptyList();
+
+    if (!tagIndex.isEmpty()) {
+      Set<String> existingKeys = findExistingKeys(tagIndex);
+      records = tagIndex.stream().filter(v -> !existingKeys.contains(getCacheKey(v)))
+          .map(v -> TagValueCounter.createInitialized(siteId, v.get("tagKey").s()))
+          .collect(Collectors.toList());
+    }
+
+    return records;
+  }
+
+  /**
+   * Find the cache keys of the Tag Index records that exist.
+   * 
+   * @param tagIndex {@link List} Tag Index records
+   * @return {@link Set} {@link String}
+   */
+  private Set<String> findExistingKeys(final List<Map<String, AttributeValue>> tagIndex) {
 
     BatchGetConfig config = new BatchGetConfig();
     ReadRequestBuilder readBuilder = new ReadRequestBuilder();
-    List<Map<String, AttributeValue>> keys = valueList.stream()
+    List<Map<String, AttributeValue>> keys = tagIndex.stream()
         .map(v -> Map.of(PK, v.get(PK), SK, v.get(SK))).collect(Collectors.toList());
     readBuilder.append(this.documentTableName, keys);
 
@@ -167,14 +210,30 @@ public class GlobalIndexService {
 
     List<Map<String, AttributeValue>> batchReads = batchReadItems.get(this.documentTableName);
 
-    Set<String> existingKeys =
-        batchReads.stream().map(r -> getCacheKey(r)).collect(Collectors.toSet());
+    return batchReads.stream().map(r -> getCacheKey(r)).collect(Collectors.toSet());
+  }
 
-    valueList.removeIf(v -> existingKeys.contains(getCacheKey(v)));
+  /**
+   * Write Tag Index, with the {@link TagValueCounter} "initialized" record of new tag keys.
+   * 
+   * @param siteId {@link String}
+   * @param tagKeys {@link Collection} {@link String}
+   */
+  public void writeTagIndex(final String siteId, final Collection<String> tagKeys) {
+
+    List<Map<String, AttributeValue>> valueList = generateTagIndex(siteId, tagKeys);
+    addTagIndexCache(siteId, tagKeys);
 
     if (!valueList.isEmpty()) {
-      WriteRequestBuilder builder =
-          new WriteRequestBuilder().appends(this.documentTableName, valueList);
+
+      Set<String> existingKeys = findExistingKeys(valueList);
+      valueList.removeIf(v -> existingKeys.contains(getCacheKey(v)));
+
+      WriteRequestBuilder builder = new WriteRequestBuilder()
+          .appends(this.documentTableName, valueList).appends(this.documentTableName,
+              valueList.stream()
+                  .map(v -> TagValueCounter.createInitialized(siteId, v.get("tagKey").s()))
+                  .collect(Collectors.toList()));
       builder.batchWriteItem(this.dbClient);
     }
   }
@@ -0,0 +1,232 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import static com.formkiq.aws.dynamodb.DbKeys.TAG_DELIMINATOR;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Pattern;
+
+/**
+ * 
+ * Order-preserving string encoding of numeric and date tag values, so a range of tag values is a
+ * range of GSI3 sort keys.
+ * 
+ * Numbers encode as a sign class ('0' negative, '1' zero, '2' positive), a 4 digit offset exponent
+ * and the significant digits. For negative numbers the exponent and digits are complemented and
+ * terminated by '~', so larger magnitudes sort first. Dates encode as the UTC
+ * "yyyy-MM-ddTHH:mm:ss.SSS" of the value, a date without time being midnight UTC.
+ *
+ */
+public final class SortableTagValue {
+
+  /** Sortable Tag Value Type. */
+  public enum Type {
+    /** Date / Date Time. */
+    DATE,
+    /** Number. */
+    NUMBER
+  }
+
+  /** Date Encoding. */
+  private static final DateTimeFormatter DATE_FORMAT =
+      DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSS").withZone(ZoneOffset.UTC);
+  /** Date Value. */
+  private static final Pattern DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}(T.+)?");
+  /** Offset added to the decimal exponent. */
+  private static final int EXPONENT_OFFSET = 5000;
+  /** Maximum offset exponent. */
+  private static final int MAX_EXPONENT = 9999;
+  /** Terminator of the complemented digits of a negative number, greater than any digit. */
+  private static final String NEGATIVE_TERMINATOR = "~";
+  /** Number Value. */
+  private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?");
+  /** Greater than any character following the value in the sort key. */
+  private static final String SORT_KEY_MAX = "~";
+
+  private SortableTagValue() {}
+
+  /**
+   * Complement digits.
+   * 
+   * @param digits {@link String}
+   * @return {@link String}
+   */
+  private static String complement(final String digits) {
+    StringBuilder sb = new StringBuilder(digits.length());
+    for (char c : digits.toCharArray()) {
+      sb.append((char) ('9' - c + '0'));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Encode a number or date tag value.
+   * 
+   * @param value {@link String}
+   * @return {@link String}, null when value is not a number or date
+   */
+  public static String encode(final String value) {
+
+    Type type = type(value);
+    String encoded = null;
+
+    if (Type.NUMBER.equals(type)) {
+      encoded = encodeNumber(new BigDecimal(value));
+    } else if (Type.DATE.equals(type)) {
+      encoded = DATE_FORMAT.format(toInstant(value));
+    }
+
+    return encoded;
+  }
+
+  /**
+   * Encode {@link BigDecimal}.
+   * 
+   * @param number {@link BigDecimal}
+   * @return {@link String}
+   */
+  private static String encodeNumber(final BigDecimal number) {
+
+    String encoded = "1";
+
+    if (number.signum() != 0) {
+
+      BigDecimal n = number.abs().stripTrailingZeros();
+      String digits = n.unscaledValue().toString();
+      int exponent = exponent(n) + EXPONENT_OFFSET;
+
+      if (number.signum() > 0) {
+        encoded = "2" + String.format("%04d", Integer.valueOf(exponent)) + digits;
+      } else {
+        encoded = "0" + String.format("%04d", Integer.valueOf(MAX_EXPONENT - exponent))
+            + complement(digits) + NEGATIVE_TERMINATOR;
+      }
+    }
+
+    return encoded;
+  }
+
+  /**
+   * Decimal exponent of the first significant digit.
+   * 
+   * @param n {@link BigDecimal}
+   * @return int
+   */
+  private static int exponent(final BigDecimal n) {
+    return n.precision() - n.scale() - 1;
+  }
+
+  /**
+   * Whether number can be encoded.
+   * 
+   * @param value {@link String}
+   * @return boolean
+   */
+  private static boolean isNumber(final String value) {
+
+    boolean number = NUMBER.matcher(value).matches();
+
+    if (number) {
+      BigDecimal n = new BigDecimal(value).stripTrailingZeros();
+      number = n.signum() == 0 || Math.abs(exponent(n)) < EXPONENT_OFFSET;
+    }
+
+    return number;
+  }
+
+  /**
+   * Lowest GSI3 sort key of a range starting at value.
+   * 
+   * @param value {@link String}
+   * @param inclusive whether value is in the range
+   * @return {@link String}
+   */
+  public static String lowerBound(final String value, final boolean inclusive) {
+    String key = encode(value) + TAG_DELIMINATOR;
+    return inclusive ? key : key + SORT_KEY_MAX;
+  }
+
+  /**
+   * Parse a date value.
+   * 
+   * @param value {@link String}
+   * @return {@link Instant}, null when value is not a date
+   */
+  private static Instant toInstant(final String value) {
+
+    Instant instant = null;
+
+    try {
+      if (value.length() == "yyyy-MM-dd".length()) {
+        instant = LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant();
+      } else if (value.endsWith("Z") || value.matches(".*[+-]\\d{2}:\\d{2}$")) {
+        instant = OffsetDateTime.parse(value).toInstant();
+      } else {
+        instant = LocalDateTime.parse(value).toInstant(ZoneOffset.UTC);
+      }
+    } catch (DateTimeParseException e) {
+      instant = null;
+    }
+
+    return instant;
+  }
+
+  /**
+   * Get the sortable {@link Type} of a tag value.
+   * 
+   * @param value {@link String}
+   * @return {@link Type}, null when value is neither a number nor a date
+   */
+  public static Type type(final String value) {
+
+    Type type = null;
+
+    if (value != null && isNumber(value)) {
+      type = Type.NUMBER;
+    } else if (value != null && DATE.matcher(value).matches() && toInstant(value) != null) {
+      type = Type.DATE;
+    }
+
+    return type;
+  }
+
+  /**
+   * Highest GSI3 sort key of a range ending at value.
+   * 
+   * @param value {@link String}
+   * @param inclusive whether value is in the range
+   * @return {@link String}
+   */
+  public static String upperBound(final String value, final boolean inclusive) {
+    String key = encode(value) + TAG_DELIMINATOR;
+    return inclusive ? key + SORT_KEY_MAX : key;
+  }
+}
@@ -0,0 +1,383 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import static com.formkiq.aws.dynamodb.SiteIdKeyGenerator.createDatabaseKey;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import com.formkiq.aws.dynamodb.DbKeys;
+import com.formkiq.aws.dynamodb.DynamodbRecord;
+import com.formkiq.aws.dynamodb.objects.DateUtil;
+import com.formkiq.graalvm.annotations.Reflectable;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * 
+ * {@link DynamodbRecord} for a background rebuild of the tag indices of a site. The tag key being
+ * processed and the position within it are saved after every page, so an interrupted job resumes
+ * where it stopped.
+ *
+ */
+@Reflectable
+public class TagIndexJob implements DynamodbRecord<TagIndexJob>, DbKeys {
+
+  /** GSI1 PK of jobs that are not finished. */
+  public static final String PENDING_PK = "tagindexjobs" + TAG_DELIMINATOR + "pending";
+
+  /** Position within the current tag key, GSI2SK of the last processed tag record. */
+  @Reflectable
+  private String cursor;
+  /** Record inserted date. */
+  @Reflectable
+  private Date insertedDate;
+  /** Job Id. */
+  @Reflectable
+  private String jobId;
+  /** Record modified date. */
+  @Reflectable
+  private Date lastModifiedDate;
+  /** Error Message. */
+  @Reflectable
+  private String message;
+  /** Site Id. */
+  @Reflectable
+  private String siteId;
+  /** {@link FolderJobStatus}. */
+  @Reflectable
+  private FolderJobStatus status;
+  /** Tag key being processed. */
+  @Reflectable
+  private String tagKey;
+  /** Number of tag records processed. */
+  @Reflectable
+  private long tags;
+  /** Creator of record. */
+  @Reflectable
+  private String userId;
+
+  /**
+   * constructor.
+   */
+  public TagIndexJob() {}
+
+  /**
+   * Get Cursor.
+   * 
+   * @return {@link String}
+   */
+  public String cursor() {
+    return this.cursor;
+  }
+
+  /**
+   * Set Cursor.
+   * 
+   * @param sk {@link String}
+   * @return {@link TagIndexJob}
+   */
+  public TagIndexJob cursor(final String sk) {
+    this.cursor = sk;
+    return this;
+  }
+
+  @Override
+  public Map<String, AttributeValue> getAttributes(final String site) {
+
+    SimpleDateFormat df = DateUtil.getIsoDateFormatter();
+
+    Map<String, AttributeValue> attrs = new HashMap<>(
+        Map.of(PK, AttributeValue.fromS(pk(site)), SK, AttributeValue.fromS(sk()), "jobId",
+            AttributeValue.fromS(this.jobId), "status", AttributeValue.fromS(this.status.name()),
+            "tags", AttributeValue.fromN(String.valueOf(this.tags)), "inserteddate",
+            AttributeValue.fromS(df.format(this.insertedDate)), "lastModifiedDate",
+            AttributeValue.fromS(df.format(this.lastModifiedDate))));
+
+    putIfNotNull(attrs, "siteId", site);
+    putIfNotNull(attrs, "userId", this.userId);
+    putIfNotNull(attrs, "tagKey", this.tagKey);
+    putIfNotNull(attrs, "cursor", this.cursor);
+    putIfNotNull(attrs, "message", this.message);
+
+    if (isActive()) {
+      attrs.put(GSI1_PK, AttributeValue.fromS(pkGsi1(site)));
+      attrs.put(GSI1_SK, AttributeValue.fromS(skGsi1()));
+    }
+
+    return attrs;
+  }
+
+  @Override
+  public TagIndexJob getFromAttributes(final String site, final Map<String, AttributeValue> attrs) {
+
+    TagIndexJob job = new TagIndexJob().jobId(ss(attrs, "jobId")).siteId(ss(attrs, "siteId"))
+        .status(FolderJobStatus.valueOf(ss(attrs, "status"))).userId(ss(attrs, "userId"))
+        .tagKey(ss(attrs, "tagKey")).cursor(ss(attrs, "cursor")).message(ss(attrs, "message"))
+        .tags(Long.parseLong(attrs.get("tags").n()));
+
+    SimpleDateFormat df = DateUtil.getIsoDateFormatter();
+
+    try {
+      job.insertedDate(df.parse(ss(attrs, "inserteddate")))
+          .lastModifiedDate(df.parse(ss(attrs, "lastModifiedDate")));
+    } catch (ParseException e) {
+      throw new IllegalArgumentException("invalid 'inserteddate'");
+    }
+
+    return job;
+  }
+
+  /**
+   * Get Inserted Date.
+   * 
+   * @return {@link Date}
+   */
+  public Date insertedDate() {
+    return this.insertedDate;
+  }
+
+  /**
+   * Set Inserted Date.
+   * 
+   * @param date {@link Date}
+   * @return {@link TagIndexJob}
+   */
+  public TagIndexJob insertedDate(final Date date) {
+    this.insertedDate = date;
+    return this;
+  }
+
+  /**
+   * Whether the job still has tag keys to process.
+   * 
+   * @return boolean
+   */
+  public boolean isActive() {
+    return FolderJobStatus.PENDING.equals(this.status)
+        || FolderJobStatus.RUNNING.equals(this.status);
+  }
+
+  /**
+   * Get Job Id.
+   * 
+   * @return {@link String}
+   */
+  public String jobId() {
+    return this.jobId;
+  }
+
+  /**
+   * Set Job Id.
+   * 
+   * @param id {@link String}
+   * @return {@link TagIndexJob}
+   */
+  public TagIndexJob jobId(final String id) {
+    this.jobId = id;
+    return this;
+  }
+
+  /**
+   * Get Last Modified Date.
+   * 
+   * @return {@link Date}
+   */
+  public Date lastModifiedDate() {
+    return this.lastModifiedDate;
+  }
+
+  /**
+   * Set Last Modified Date.
+   * 
+   * @param date {@link Date}
+   * @return {@link TagIndexJob}
+   */
+  public TagIndexJob lastModifiedDate(final Date date) {
+    this.lastModifiedDate = date;
+    return this;
+  }
+
+  /**
+   * Get Error Message.
+   * 
+   * @return {@link String}
+   */
+  public String message() {
+    return this.message;
+  }
+
+  /**
+   * Set Error Message.
+   * 
+   * @param error {@link String}
+   * @return {@link TagIndexJob}
+   */
+  public TagIndexJob message(final String error) {
+    this.message = error;
+    return this;
+  }
+
+  @Override
+  public String pk(final String site) {
+    if (this.jobId == null) {
+      throw new IllegalArgumentException("'jobId' is required");
+    }
+    return createDatabaseKey(site, "tagindexjobs" + TAG_DELIMINATOR + this.jobId);
+  }
+
+  @Override
+  public String pkGsi1(final String site) {
+    return PENDING_PK;
+  }
+
+  @Override
+  public String pkGsi2(final String site) {
+    return null;
+  }
+
+  private void putIfNotNull(final Map<String, AttributeValue> attrs, final String key,
+      final String value) {
+    if (value != null) {
+      attrs.put(key, AttributeValue.fromS(value));
+    }
+  }
+
+  /**
+   * Get Site Id.
+   * 
+   * @return {@link String}
+   */
+  public String siteId() {
+    return this.siteId;
+  }
+
+  /**
+   * Set Site Id.
+   * 
+   * @param id {@link String}
+   * @return {@link TagIndexJob}
+   */
+  public TagIndexJob siteId(final String id) {
+    this.siteId = id;
+    return this;
+  }
+
+  @Override
+  public String sk() {
+    return "tagindexjob";
+  }
+
+  @Override
+  public String skGsi1() {
+    SimpleDateFormat df = DateUtil.getIsoDateFormatter();
+    return df.format(this.insertedDate) + TAG_DELIMINATOR + this.jobId;
+  }
+
+  @Override
+  public String skGsi2() {
+    return null;
+  }
+
+  /**
+   * Get {@link FolderJobStatus}.
+   * 
+   * @return {@link FolderJobStatus}
+   */
+  public FolderJobStatus status() {
+    return this.status;
+  }
+
+  /**
+   * Set {@link FolderJobStatus}.
+   * 
+   * @param jobStatus {@link FolderJobStatus}
+   * @return {@link TagIndexJob}
+   */
+  public TagIndexJob status(final FolderJobStatus jobStatus) {
+    this.status = jobStatus;
+    return this;
+  }
+
+  /**
+   * Get Tag key being processed.
+   * 
+   * @return {@link String}
+   */
+  public String tagKey() {
+    return this.tagKey;
+  }
+
+  /**
+   * Set Tag key being processed.
+   * 
+   * @param key {@link String}
+   * @return {@link TagIndexJob}
+   */
+  public TagIndexJob tagKey(final String key) {
+    this.tagKey = key;
+    return this;
+  }
+
+  /**
+   * Get Number of tag records processed.
+   * 
+   * @return long
+   */
+  public long tags() {
+    return this.tags;
+  }
+
+  /**
+   * Set Number of tag records processed.
+   * 
+   * @param count long
+   * @return {@link TagIndexJob}
+   */
+  public TagIndexJob tags(final long count) {
+    this.tags = count;
+    return this;
+  }
+
+  /**
+   * Get User Id.
+   * 
+   * @return {@link String}
+   */
+  public String userId() {
+    return this.userId;
+  }
+
+  /**
+   * Set User Id.
+   * 
+   * @param user {@link String}
+   * @return {@link TagIndexJob}
+   */
+  public TagIndexJob userId(final String user) {
+    this.userId = user;
+    return this;
+  }
+}
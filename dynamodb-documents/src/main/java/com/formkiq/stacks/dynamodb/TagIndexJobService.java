@@ -0,0 +1,81 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import java.util.List;
+
+/**
+ * 
+ * Service for rebuilding the tag indices of a site as resumable background jobs.
+ *
+ */
+public interface TagIndexJobService {
+
+  /** Default number of pages of tag records a job processes per run. */
+  int DEFAULT_PAGES = 50;
+
+  /**
+   * Find jobs that are not finished.
+   * 
+   * @param limit int
+   * @return {@link List} {@link TagIndexJob}
+   */
+  List<TagIndexJob> findActiveJobs(int limit);
+
+  /**
+   * Get Job.
+   * 
+   * @param siteId {@link String}
+   * @param jobId {@link String}
+   * @return {@link TagIndexJob}, null if not found
+   */
+  TagIndexJob getJob(String siteId, String jobId);
+
+  /**
+   * Run unfinished jobs.
+   * 
+   * @param maxPages int maximum number of pages to process per job
+   */
+  void runActiveJobs(int maxPages);
+
+  /**
+   * Run job, continuing from where it last stopped.
+   * 
+   * @param siteId {@link String}
+   * @param jobId {@link String}
+   * @param maxPages int maximum number of pages to process
+   * @return {@link TagIndexJob}, null if not found
+   */
+  TagIndexJob runJob(String siteId, String jobId, int maxPages);
+
+  /**
+   * Start rebuilding the indices derived from the tag records of a site, for tags written before
+   * the indices existed.
+   * 
+   * @param siteId {@link String}
+   * @param userId {@link String}
+   * @return {@link TagIndexJob}
+   */
+  TagIndexJob start(String siteId, String userId);
+}
@@ -0,0 +1,161 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import com.formkiq.aws.dynamodb.BatchGetConfig;
+import com.formkiq.aws.dynamodb.DbKeys;
+import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
+import com.formkiq.aws.dynamodb.DynamoDbService;
+import com.formkiq.aws.dynamodb.DynamoDbServiceImpl;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+/**
+ * 
+ * DynamoDb implementation of {@link TagIndexJobService}. A job walks the tag keys of a site one
+ * page of tag records at a time using {@link TagIndexRebuilder}, the job's progress is saved after
+ * every page.
+ *
+ */
+public class TagIndexJobServiceDynamoDb implements TagIndexJobService, DbKeys {
+
+  /** Number of tag records per page. */
+  private static final int PAGE_SIZE = 100;
+
+  /** {@link DynamoDbService}. */
+  private DynamoDbService db;
+  /** {@link TagIndexRebuilder}. */
+  private TagIndexRebuilder tagIndex;
+
+  /**
+   * constructor.
+   * 
+   * @param connection {@link DynamoDbConnectionBuilder}
+   * @param documentsTable {@link String}
+   */
+  public TagIndexJobServiceDynamoDb(final DynamoDbConnectionBuilder connection,
+      final String documentsTable) {
+
+    if (documentsTable == null) {
+      throw new IllegalArgumentException("'documentsTable' is null");
+    }
+
+    this.db = new DynamoDbServiceImpl(connection, documentsTable);
+    this.tagIndex = new TagIndexRebuilder(connection.build(), documentsTable);
+  }
+
+  @Override
+  public List<TagIndexJob> findActiveJobs(final int limit) {
+    QueryResponse response =
+        this.db.queryIndex(GSI1, AttributeValue.fromS(TagIndexJob.PENDING_PK), null, limit);
+    // GSI1 only projects the keys, so read the full job records
+    List<Map<String, AttributeValue>> keys = response.items().stream()
+        .map(a -> Map.of(PK, a.get(PK), SK, a.get(SK))).collect(Collectors.toList());
+    return this.db.getBatch(new BatchGetConfig(), keys).stream()
+        .map(a -> new TagIndexJob().getFromAttributes(null, a)).collect(Collectors.toList());
+  }
+
+  @Override
+  public TagIndexJob getJob(final String siteId, final String jobId) {
+
+    TagIndexJob job = new TagIndexJob().jobId(jobId);
+    Map<String, AttributeValue> attrs =
+        this.db.get(AttributeValue.fromS(job.pk(siteId)), AttributeValue.fromS(job.sk()));
+
+    return !attrs.isEmpty() ? job.getFromAttributes(siteId, attrs) : null;
+  }
+
+  @Override
+  public void runActiveJobs(final int maxPages) {
+    for (TagIndexJob job : findActiveJobs(PAGE_SIZE)) {
+      runJob(job.siteId(), job.jobId(), maxPages);
+    }
+  }
+
+  @Override
+  public TagIndexJob runJob(final String siteId, final String jobId, final int maxPages) {
+
+    TagIndexJob job = getJob(siteId, jobId);
+
+    try {
+
+      for (int i = 0; job != null && job.isActive() && i < maxPages; i++) {
+        runPage(siteId, job);
+        this.db.putItem(job.getAttributes(siteId));
+      }
+
+    } catch (RuntimeException e) {
+      job.message(e.getMessage());
+      this.db.putItem(job.getAttributes(siteId));
+      throw e;
+    }
+
+    return job;
+  }
+
+  /**
+   * Rebuild the next page of tag records of the current tag key, moving on to the next tag key of
+   * the site once all its records are done.
+   * 
+   * @param siteId {@link String}
+   * @param job {@link TagIndexJob}
+   */
+  private void runPage(final String siteId, final TagIndexJob job) {
+
+    String tagKey = job.tagKey();
+    QueryResponse response = this.tagIndex.rebuild(siteId, tagKey, job.cursor(), PAGE_SIZE);
+    List<Map<String, AttributeValue>> records = response.items();
+
+    Map<String, AttributeValue> lastKey = response.lastEvaluatedKey();
+
+    if (lastKey == null || lastKey.isEmpty()) {
+      job.cursor(null).tagKey(this.tagIndex.nextTagKey(siteId, tagKey));
+    } else {
+      job.cursor(records.get(records.size() - 1).get(GSI2_SK).s());
+    }
+
+    job.tags(job.tags() + records.size())
+        .status(job.tagKey() == null ? FolderJobStatus.COMPLETE : FolderJobStatus.RUNNING)
+        .message(null).lastModifiedDate(new Date());
+  }
+
+  @Override
+  public TagIndexJob start(final String siteId, final String userId) {
+
+    Date now = new Date();
+    String tagKey = this.tagIndex.nextTagKey(siteId, null);
+
+    TagIndexJob job = new TagIndexJob().jobId(UUID.randomUUID().toString()).siteId(siteId)
+        .status(tagKey == null ? FolderJobStatus.COMPLETE : FolderJobStatus.PENDING).userId(userId)
+        .insertedDate(now).lastModifiedDate(now).tagKey(tagKey);
+
+    this.db.putItem(job.getAttributes(siteId));
+    return job;
+  }
+}
@@ -0,0 +1,178 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import static com.formkiq.aws.dynamodb.SiteIdKeyGenerator.createDatabaseKey;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import com.formkiq.aws.dynamodb.DbKeys;
+import com.formkiq.aws.dynamodb.DynamoDbBatchExecutor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+/**
+ * 
+ * Rebuilds the indices derived from the tag records of a site, one tag key and page of tag records
+ * at a time. Tag keys are read from the site's tag key index and the tag records of a key in GSI2
+ * order, the GSI2SK of the last record read is the cursor to continue from.
+ *
+ */
+public class TagIndexRebuilder implements DbKeys {
+
+  /** {@link DynamoDbClient}. */
+  private final DynamoDbClient dbClient;
+  /** Documents Table Name. */
+  private final String documentTableName;
+  /** {@link TagValueCounter}. */
+  private final TagValueCounter tagCounter;
+
+  /**
+   * constructor.
+   * 
+   * @param client {@link DynamoDbClient}
+   * @param documentsTable {@link String}
+   */
+  public TagIndexRebuilder(final DynamoDbClient client, final String documentsTable) {
+    this.dbClient = client;
+    this.documentTableName = documentsTable;
+    this.tagCounter = new TagValueCounter(client, documentsTable);
+  }
+
+  /**
+   * Get the tag key after a tag key in the site's tag key index.
+   * 
+   * @param siteId {@link String}
+   * @param tagKey {@link String}, null for the first tag key
+   * @return {@link String}, null if there are no more tag keys
+   */
+  public String nextTagKey(final String siteId, final String tagKey) {
+
+    String sk = "key" + TAG_DELIMINATOR + (tagKey != null ? tagKey : "");
+    String condition =
+        tagKey != null ? " and " + SK + " > :sk" : " and begins_with(" + SK + ",:sk)";
+
+    QueryRequest q = QueryRequest.builder().tableName(this.documentTableName)
+        .keyConditionExpression(PK + " = :pk" + condition)
+        .expressionAttributeValues(
+            Map.of(":pk", AttributeValue.fromS(createDatabaseKey(siteId, GLOBAL_FOLDER_TAGS)),
+                ":sk", AttributeValue.fromS(sk)))
+        .limit(Integer.valueOf(1)).build();
+
+    List<Map<String, AttributeValue>> items = this.dbClient.query(q).items();
+    return !items.isEmpty() ? items.get(0).get("tagKey").s() : null;
+  }
+
+  /**
+   * Rebuild the indices of a page of tag records of a tag key: the GSI3 keys of number and date
+   * values, which tags written before GSI3 existed do not have, and the {@link TagValueCounter}
+   * counts, which are reset on the first page and initialized after the last. Tags changed while a
+   * tag key is being recounted can be counted twice or not at all.
+   * 
+   * @param siteId {@link String}
+   * @param tagKey {@link String}
+   * @param cursor {@link String} GSI2SK to continue after, null to start at the first record
+   * @param limit int
+   * @return {@link QueryResponse} of the tag records read
+   */
+  public QueryResponse rebuild(final String siteId, final String tagKey, final String cursor,
+      final int limit) {
+
+    Map<String, AttributeValue> values = new HashMap<>();
+    values.put(":pk", AttributeValue.fromS(createDatabaseKey(siteId, PREFIX_TAG + tagKey)));
+
+    String expression = GSI2_PK + " = :pk";
+    if (cursor != null) {
+      expression += " and " + GSI2_SK + " > :sk";
+      values.put(":sk", AttributeValue.fromS(cursor));
+    } else {
+      this.tagCounter.reset(siteId, tagKey);
+    }
+
+    QueryRequest q = QueryRequest.builder().tableName(this.documentTableName).indexName(GSI2)
+        .keyConditionExpression(expression).expressionAttributeValues(values)
+        .limit(Integer.valueOf(limit)).build();
+    QueryResponse response = this.dbClient.query(q);
+
+    List<Supplier<Boolean>> updates = new ArrayList<>();
+
+    for (Map<String, AttributeValue> record : response.items()) {
+
+      Map<String, AttributeValue> keys = new HashMap<>();
+      keys.put("inserteddate", record.get("inserteddate"));
+
+      if (record.containsKey("tagValue")) {
+        DocumentTagToAttributeValueMap.addSortableValue(keys, siteId, record.get("documentId").s(),
+            tagKey, record.get("tagValue").s());
+      }
+
+      if (keys.containsKey(GSI3_PK)) {
+        updates.add(() -> updateSortableValue(record, keys));
+      }
+    }
+
+    DynamoDbBatchExecutor.invokeAll(updates);
+
+    Map<String, Long> counts = new HashMap<>();
+    TagValueCounter.addRecordChanges(counts, response.items());
+    this.tagCounter.update(siteId, Map.of(tagKey, counts));
+
+    if (!response.hasLastEvaluatedKey() || response.lastEvaluatedKey().isEmpty()) {
+      this.tagCounter.markInitialized(siteId, tagKey);
+    }
+
+    return response;
+  }
+
+  /**
+   * Set the GSI3 keys of a tag record, unless the tag has been removed since it was read.
+   * 
+   * @param record {@link Map}
+   * @param keys {@link Map} containing the GSI3 keys
+   * @return boolean whether the record was updated
+   */
+  private Boolean updateSortableValue(final Map<String, AttributeValue> record,
+      final Map<String, AttributeValue> keys) {
+
+    UpdateItemRequest u = UpdateItemRequest.builder().tableName(this.documentTableName)
+        .key(Map.of(PK, record.get(PK), SK, record.get(SK)))
+        .updateExpression("SET #pk = :pk, #sk = :sk").conditionExpression("attribute_exists(#key)")
+        .expressionAttributeNames(Map.of("#pk", GSI3_PK, "#sk", GSI3_SK, "#key", PK))
+        .expressionAttributeValues(Map.of(":pk", keys.get(GSI3_PK), ":sk", keys.get(GSI3_SK)))
+        .build();
+
+    try {
+      this.dbClient.updateItem(u);
+      return Boolean.TRUE;
+    } catch (ConditionalCheckFailedException e) {
+      return Boolean.FALSE;
+    }
+  }
+}
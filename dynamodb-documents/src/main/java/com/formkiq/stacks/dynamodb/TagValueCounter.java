@@ -0,0 +1,442 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import static com.formkiq.aws.dynamodb.DbKeys.GSI2;
+import static com.formkiq.aws.dynamodb.DbKeys.GSI2_PK;
+import static com.formkiq.aws.dynamodb.DbKeys.GSI2_SK;
+import static com.formkiq.aws.dynamodb.DbKeys.PK;
+import static com.formkiq.aws.dynamodb.DbKeys.PREFIX_TAG;
+import static com.formkiq.aws.dynamodb.DbKeys.PREFIX_TAGS;
+import static com.formkiq.aws.dynamodb.DbKeys.PREFIX_TAG_COUNTS;
+import static com.formkiq.aws.dynamodb.DbKeys.SK;
+import static com.formkiq.aws.dynamodb.DbKeys.TAG_DELIMINATOR;
+import static com.formkiq.aws.dynamodb.SiteIdKeyGenerator.createDatabaseKey;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import com.formkiq.aws.dynamodb.BatchGetConfig;
+import com.formkiq.aws.dynamodb.DynamoDbBatchExecutor;
+import com.formkiq.aws.dynamodb.ReadRequestBuilder;
+import com.formkiq.aws.dynamodb.WriteRequestBuilder;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+/**
+ * 
+ * Number of documents with each value of a tag key.
+ * 
+ * Counts are kept per tag key under PK "tagcounts#{tagKey}", with one record per value and shard
+ * (SK "{tagValue}#shard#{n}"). Changes are added to a random shard, so documents tagged with a hot
+ * value concurrently do not all update the same item, and the counts of a tag key are read with one
+ * query of (values * shards) records.
+ * 
+ * Tags written before the counters existed are not counted, so the counters of a tag key are only
+ * read once they have an "initialized" record. It is written with the tag index record of a new tag
+ * key, which has no uncounted tags, or by the tag index rebuild once it has recounted them. Until
+ * then the values are counted from at most {@link #MAX_COUNT_RECORDS} tag records in GSI2.
+ *
+ */
+public class TagValueCounter {
+
+  /** Default number of counter shards per tag value. */
+  public static final int DEFAULT_SHARDS = 4;
+  /** Maximum number of tag records counted for a tag key whose counters are not initialized. */
+  public static final int MAX_COUNT_RECORDS = 10000;
+  /** Counter Value attribute. */
+  private static final String METRIC_VALUE = "MetricValue";
+  /** Counters initialized SK. */
+  private static final String SK_INITIALIZED = "initialized";
+  /** Counter shard SK. */
+  private static final String SK_SHARD = TAG_DELIMINATOR + "shard" + TAG_DELIMINATOR;
+  /** Counter tag value attribute. */
+  private static final String TAG_VALUE = "tagValue";
+
+  /** {@link DynamoDbClient}. */
+  private final DynamoDbClient dbClient;
+  /** Documents Table Name. */
+  private final String documentTableName;
+  /** Maximum number of tag records counted. */
+  private final int maxCountRecords;
+  /** Number of counter shards. */
+  private final int shards;
+
+  /**
+   * constructor.
+   * 
+   * @param client {@link DynamoDbClient}
+   * @param documentsTable {@link String}
+   */
+  public TagValueCounter(final DynamoDbClient client, final String documentsTable) {
+    this(client, documentsTable, DEFAULT_SHARDS);
+  }
+
+  /**
+   * constructor.
+   * 
+   * @param client {@link DynamoDbClient}
+   * @param documentsTable {@link String}
+   * @param numberOfShards int
+   */
+  public TagValueCounter(final DynamoDbClient client, final String documentsTable,
+      final int numberOfShards) {
+    this(client, documentsTable, numberOfShards, MAX_COUNT_RECORDS);
+  }
+
+  /**
+   * constructor.
+   * 
+   * @param client {@link DynamoDbClient}
+   * @param documentsTable {@link String}
+   * @param numberOfShards int
+   * @param maxRecords Maximum number of tag records counted for tag keys that are not initialized
+   */
+  TagValueCounter(final DynamoDbClient client, final String documentsTable,
+      final int numberOfShards, final int maxRecords) {
+
+    if (numberOfShards < 1) {
+      throw new IllegalArgumentException("'numberOfShards' must be greater than 0");
+    }
+
+    this.dbClient = client;
+    this.documentTableName = documentsTable;
+    this.shards = numberOfShards;
+    this.maxCountRecords = maxRecords;
+  }
+
+  /**
+   * Add the tag values of tag records to counter changes. Only the first record of a tag is
+   * counted, it holds all the values of a multi-value tag.
+   * 
+   * @param changes {@link Map} of tag key to tag value to count change
+   * @param records {@link Collection} tag records
+   * @param delta count change of each value
+   */
+  public static void addChanges(final Map<String, Map<String, Long>> changes,
+      final Collection<Map<String, AttributeValue>> records, final long delta) {
+
+    for (Map<String, AttributeValue> record : records) {
+
+      String sk = record.containsKey(SK) ? record.get(SK).s() : "";
+      String tagKey = record.containsKey("tagKey") ? record.get("tagKey").s() : null;
+
+      if (tagKey != null && (PREFIX_TAGS + tagKey).equals(sk)) {
+
+        Map<String, Long> values = changes.computeIfAbsent(tagKey, k -> new HashMap<>());
+
+        for (String value : getTagValues(record)) {
+          values.merge(value, Long.valueOf(delta), Long::sum);
+        }
+      }
+    }
+  }
+
+  /**
+   * Add the tag values of a page of tag records read from GSI2 to counter changes. Every value has
+   * its own record, records of the same value of a document share their GSI2SK and are counted
+   * once.
+   * 
+   * @param changes {@link Map} of tag value to count change
+   * @param records {@link Collection} tag records in GSI2 order
+   */
+  static void addRecordChanges(final Map<String, Long> changes,
+      final Collection<Map<String, AttributeValue>> records) {
+
+    String last = null;
+
+    for (Map<String, AttributeValue> record : records) {
+
+      String sk = record.get(GSI2_SK).s();
+
+      if (record.containsKey(TAG_VALUE) && !sk.equals(last)) {
+        changes.merge(record.get(TAG_VALUE).s(), Long.valueOf(1), Long::sum);
+      }
+
+      last = sk;
+    }
+  }
+
+  /**
+   * Count the documents with each value of a tag key from its tag records.
+   * 
+   * @param siteId {@link String}
+   * @param tagKey {@link String}
+   * @return {@link Map} of tag value to document count
+   * @throws IllegalArgumentException when the tag key has more tag records than can be counted
+   */
+  private Map<String, Long> count(final String siteId, final String tagKey) {
+
+    Map<String, Long> counts = new HashMap<>();
+    Map<String, AttributeValue> startKey = null;
+    int read = 0;
+
+    do {
+
+      if (read >= this.maxCountRecords) {
+        throw new IllegalArgumentException("tag key '" + tagKey + "' has more than "
+            + this.maxCountRecords + " tags, its values are counted once its tag index is rebuilt");
+      }
+
+      QueryRequest q = QueryRequest.builder().tableName(this.documentTableName).indexName(GSI2)
+          .keyConditionExpression(GSI2_PK + " = :pk")
+          .expressionAttributeValues(
+              Map.of(":pk", AttributeValue.fromS(createDatabaseKey(siteId, PREFIX_TAG + tagKey))))
+          .limit(Integer.valueOf(this.maxCountRecords - read)).exclusiveStartKey(startKey).build();
+
+      QueryResponse response = this.dbClient.query(q);
+      addRecordChanges(counts, response.items());
+      read += response.items().size();
+
+      startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+          ? response.lastEvaluatedKey()
+          : null;
+
+    } while (startKey != null);
+
+    return counts;
+  }
+
+  /**
+   * Create the "initialized" record of the counters of a tag key.
+   * 
+   * @param siteId {@link String}
+   * @param tagKey {@link String}
+   * @return {@link Map}
+   */
+  static Map<String, AttributeValue> createInitialized(final String siteId, final String tagKey) {
+    return Map.of(PK, AttributeValue.fromS(getPk(siteId, tagKey)), SK,
+        AttributeValue.fromS(SK_INITIALIZED));
+  }
+
+  /**
+   * Get the distinct values of a tag record.
+   * 
+   * @param record {@link Map}
+   * @return {@link Collection} {@link String}
+   */
+  static Collection<String> getTagValues(final Map<String, AttributeValue> record) {
+
+    Collection<String> values = new LinkedHashSet<>();
+
+    if (record.containsKey("tagValues")) {
+      record.get("tagValues").l().forEach(v -> values.add(v.s()));
+    } else if (record.containsKey(TAG_VALUE)) {
+      values.add(record.get(TAG_VALUE).s());
+    }
+
+    return values;
+  }
+
+  /**
+   * Get the document count of each value of a tag key, values with no documents are skipped. Tag
+   * keys whose counters are not initialized are counted from their tag records.
+   * 
+   * @param siteId {@link String}
+   * @param tagKey {@link String}
+   * @return {@link Map} of tag value to document count
+   * @throws IllegalArgumentException when a tag key that is not initialized has more than
+   *         {@link #MAX_COUNT_RECORDS} tags
+   */
+  public Map<String, Long> get(final String siteId, final String tagKey) {
+
+    Map<String, Long> counts = new HashMap<>();
+    Map<String, AttributeValue> startKey = null;
+    boolean initialized = false;
+
+    do {
+
+      QueryRequest q = QueryRequest.builder().tableName(this.documentTableName)
+          .keyConditionExpression(PK + " = :pk")
+          .expressionAttributeValues(Map.of(":pk", AttributeValue.fromS(getPk(siteId, tagKey))))
+          .exclusiveStartKey(startKey).build();
+
+      QueryResponse response = this.dbClient.query(q);
+
+      for (Map<String, AttributeValue> item : response.items()) {
+        if (SK_INITIALIZED.equals(item.get(SK).s())) {
+          initialized = true;
+        } else {
+          counts.merge(item.get(TAG_VALUE).s(), Long.valueOf(item.get(METRIC_VALUE).n()),
+              Long::sum);
+        }
+      }
+
+      startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+          ? response.lastEvaluatedKey()
+          : null;
+
+    } while (startKey != null);
+
+    if (!initialized) {
+      counts = count(siteId, tagKey);
+    }
+
+    counts.values().removeIf(c -> c.longValue() == 0);
+    return counts;
+  }
+
+  /**
+   * Get the document count of a tag value, its counter shards and the "initialized" record are read
+   * with one batch get.
+   * 
+   * @param siteId {@link String}
+   * @param tagKey {@link String}
+   * @param tagValue {@link String}
+   * @return {@link Long}, null when the counters of the tag key are not initialized
+   */
+  public Long get(final String siteId, final String tagKey, final String tagValue) {
+
+    List<Map<String, AttributeValue>> keys = new ArrayList<>();
+    keys.add(createInitialized(siteId, tagKey));
+
+    for (int i = 0; i < this.shards; i++) {
+      keys.add(Map.of(PK, AttributeValue.fromS(getPk(siteId, tagKey)), SK,
+          AttributeValue.fromS(tagValue + SK_SHARD + i)));
+    }
+
+    List<Map<String, AttributeValue>> items =
+        new ReadRequestBuilder().append(this.documentTableName, keys)
+            .batchReadItems(this.dbClient, new BatchGetConfig()).get(this.documentTableName);
+
+    Long count = null;
+
+    if (items.stream().anyMatch(i -> SK_INITIALIZED.equals(i.get(SK).s()))) {
+      count = Long.valueOf(items.stream().filter(i -> i.containsKey(METRIC_VALUE))
+          .mapToLong(i -> Long.parseLong(i.get(METRIC_VALUE).n())).sum());
+    }
+
+    return count;
+  }
+
+  /**
+   * Get Counter PK.
+   * 
+   * @param siteId {@link String}
+   * @param tagKey {@link String}
+   * @return {@link String}
+   */
+  private static String getPk(final String siteId, final String tagKey) {
+    return createDatabaseKey(siteId, PREFIX_TAG_COUNTS + tagKey);
+  }
+
+  /**
+   * Mark the counters of a tag key as initialized, they are read from then on.
+   * 
+   * @param siteId {@link String}
+   * @param tagKey {@link String}
+   */
+  public void markInitialized(final String siteId, final String tagKey) {
+    this.dbClient.putItem(PutItemRequest.builder().tableName(this.documentTableName)
+        .item(createInitialized(siteId, tagKey)).build());
+  }
+
+  /**
+   * Remove the counters of a tag key, including the initialized record, before recounting them.
+   * 
+   * @param siteId {@link String}
+   * @param tagKey {@link String}
+   */
+  public void reset(final String siteId, final String tagKey) {
+
+    Map<String, AttributeValue> startKey = null;
+
+    do {
+
+      QueryRequest q = QueryRequest.builder().tableName(this.documentTableName)
+          .keyConditionExpression(PK + " = :pk").projectionExpression("#pk,#sk")
+          .expressionAttributeNames(Map.of("#pk", PK, "#sk", SK))
+          .expressionAttributeValues(Map.of(":pk", AttributeValue.fromS(getPk(siteId, tagKey))))
+          .exclusiveStartKey(startKey).build();
+
+      QueryResponse response = this.dbClient.query(q);
+
+      List<WriteRequest> deletes = response.items().stream().map(
+          k -> WriteRequest.builder().deleteRequest(DeleteRequest.builder().key(k).build()).build())
+          .collect(Collectors.toList());
+      new WriteRequestBuilder().append(this.documentTableName, deletes)
+          .batchWriteItem(this.dbClient);
+
+      startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+          ? response.lastEvaluatedKey()
+          : null;
+
+    } while (startKey != null);
+  }
+
+  /**
+   * Apply counter changes, the changes of different values are written in parallel.
+   * 
+   * @param siteId {@link String}
+   * @param changes {@link Map} of tag key to tag value to count change
+   */
+  public void update(final String siteId, final Map<String, Map<String, Long>> changes) {
+
+    List<Supplier<Object>> updates = new ArrayList<>();
+
+    changes.forEach((tagKey, values) -> values.forEach((value, delta) -> {
+      if (delta.longValue() != 0) {
+        updates.add(() -> this.dbClient.updateItem(createUpdate(siteId, tagKey, value, delta)));
+      }
+    }));
+
+    if (!updates.isEmpty()) {
+      DynamoDbBatchExecutor.invokeAll(updates);
+    }
+  }
+
+  /**
+   * Create the ADD {@link UpdateItemRequest} of a random shard of a tag value.
+   * 
+   * @param siteId {@link String}
+   * @param tagKey {@link String}
+   * @param tagValue {@link String}
+   * @param delta {@link Long}
+   * @return {@link UpdateItemRequest}
+   */
+  private UpdateItemRequest createUpdate(final String siteId, final String tagKey,
+      final String tagValue, final Long delta) {
+
+    String sk = tagValue + SK_SHARD + ThreadLocalRandom.current().nextInt(this.shards);
+
+    return UpdateItemRequest.builder().tableName(this.documentTableName)
+        .key(Map.of(PK, AttributeValue.fromS(getPk(siteId, tagKey)), SK, AttributeValue.fromS(sk)))
+        .updateExpression("ADD #val :incr SET #value = :value")
+        .expressionAttributeNames(Map.of("#val", METRIC_VALUE, "#value", TAG_VALUE))
+        .expressionAttributeValues(Map.of(":incr", AttributeValue.fromN(delta.toString()), ":value",
+            AttributeValue.fromS(tagValue)))
+        .build();
+  }
+}
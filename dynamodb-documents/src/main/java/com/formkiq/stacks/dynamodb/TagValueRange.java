@@ -0,0 +1,198 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import com.formkiq.aws.dynamodb.model.SearchTagCriteria;
+import com.formkiq.aws.dynamodb.model.SearchTagCriteriaRange;
+
+/**
+ * 
+ * The GSI3 sort key bounds of the range / gt / lt of a {@link SearchTagCriteria}.
+ *
+ */
+final class TagValueRange {
+
+  /** Lowest Sort Key. */
+  private final String lower;
+  /** {@link SortableTagValue.Type}. */
+  private final SortableTagValue.Type type;
+  /** Highest Sort Key. */
+  private final String upper;
+
+  private TagValueRange(final SortableTagValue.Type valueType, final String lowerKey,
+      final String upperKey) {
+    this.type = valueType;
+    this.lower = lowerKey;
+    this.upper = upperKey;
+  }
+
+  /**
+   * Whether {@link SearchTagCriteria} is a range search.
+   * 
+   * @param search {@link SearchTagCriteria}
+   * @return boolean
+   */
+  static boolean isRange(final SearchTagCriteria search) {
+    return search.gt() != null || search.lt() != null || search.range() != null;
+  }
+
+  /**
+   * Create {@link TagValueRange} from {@link SearchTagCriteria}.
+   * 
+   * @param search {@link SearchTagCriteria}
+   * @return {@link TagValueRange}
+   */
+  static TagValueRange of(final SearchTagCriteria search) {
+
+    SearchTagCriteriaRange range = search.range();
+    String start = range != null ? range.start() : null;
+    String end = range != null ? range.end() : null;
+
+    if (start != null && search.gt() != null || end != null && search.lt() != null) {
+      throw new IllegalArgumentException("'range' cannot be combined with 'gt' / 'lt'");
+    }
+
+    String lowerValue = start != null ? start : search.gt();
+    String upperValue = end != null ? end : search.lt();
+
+    SortableTagValue.Type type = getType(lowerValue, upperValue);
+
+    return new TagValueRange(type, toBound(lowerValue, start != null, true),
+        toBound(upperValue, end != null, false));
+  }
+
+  /**
+   * Get the GSI3 sort key bound of a range value.
+   * 
+   * @param value {@link String}
+   * @param inclusive boolean
+   * @param lowerBound whether the value is the start of the range
+   * @return {@link String}
+   */
+  private static String toBound(final String value, final boolean inclusive,
+      final boolean lowerBound) {
+
+    String bound = null;
+
+    if (value != null) {
+      bound = lowerBound ? SortableTagValue.lowerBound(value, inclusive)
+          : SortableTagValue.upperBound(value, inclusive);
+    }
+
+    return bound;
+  }
+
+  /**
+   * Get the {@link SortableTagValue.Type} of the range bounds.
+   * 
+   * @param lowerValue {@link String}
+   * @param upperValue {@link String}
+   * @return {@link SortableTagValue.Type}
+   */
+  private static SortableTagValue.Type getType(final String lowerValue, final String upperValue) {
+
+    if (lowerValue == null && upperValue == null) {
+      throw new IllegalArgumentException("range requires a 'start' or 'end'");
+    }
+
+    SortableTagValue.Type lowerType = lowerValue != null ? toType(lowerValue) : null;
+    SortableTagValue.Type upperType = upperValue != null ? toType(upperValue) : null;
+
+    if (lowerType != null && upperType != null && !lowerType.equals(upperType)) {
+      throw new IllegalArgumentException("range bounds must both be numbers or dates");
+    }
+
+    return lowerType != null ? lowerType : upperType;
+  }
+
+  /**
+   * Get the {@link SortableTagValue.Type} of a range bound.
+   * 
+   * @param value {@link String}
+   * @return {@link SortableTagValue.Type}
+   */
+  private static SortableTagValue.Type toType(final String value) {
+    SortableTagValue.Type type = SortableTagValue.type(value);
+    if (type == null) {
+      throw new IllegalArgumentException("invalid range value '" + value + "'");
+    }
+    return type;
+  }
+
+  /**
+   * Whether a tag value is in the range.
+   * 
+   * @param value {@link String}
+   * @return boolean
+   */
+  boolean contains(final String value) {
+
+    boolean contains = this.type.equals(SortableTagValue.type(value));
+
+    if (contains) {
+      // any character between the delimiter and the upper bound stands in for the sort key suffix
+      String key = SortableTagValue.lowerBound(value, true) + "0";
+      contains = (this.lower == null || this.lower.compareTo(key) <= 0)
+          && (this.upper == null || this.upper.compareTo(key) >= 0);
+    }
+
+    return contains;
+  }
+
+  /**
+   * Whether the range is empty.
+   * 
+   * @return boolean
+   */
+  boolean isEmpty() {
+    return this.lower != null && this.upper != null && this.lower.compareTo(this.upper) > 0;
+  }
+
+  /**
+   * Get Lowest Sort Key.
+   * 
+   * @return {@link String}
+   */
+  String lower() {
+    return this.lower;
+  }
+
+  /**
+   * Get {@link SortableTagValue.Type}.
+   * 
+   * @return {@link SortableTagValue.Type}
+   */
+  SortableTagValue.Type type() {
+    return this.type;
+  }
+
+  /**
+   * Get Highest Sort Key.
+   * 
+   * @return {@link String}
+   */
+  String upper() {
+    return this.upper;
+  }
+}
@@ -0,0 +1,239 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import static com.formkiq.testutils.aws.DynamoDbExtension.DOCUMENTS_TABLE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
+import com.formkiq.aws.dynamodb.model.DocumentItem;
+import com.formkiq.aws.dynamodb.model.DocumentTag;
+import com.formkiq.testutils.aws.DynamoDbExtension;
+import com.formkiq.testutils.aws.DynamoDbTestServices;
+
+/**
+ * Unit Tests for {@link DocumentCache}.
+ */
+@ExtendWith(DynamoDbExtension.class)
+public class DocumentCacheTest {
+
+  /** Maximum Cache Size. */
+  private static final int MAX_SIZE = 3;
+  /** Cache Time to Live. */
+  private static final Duration TTL = Duration.ofMinutes(1);
+
+  /** {@link DocumentCache}. */
+  private DocumentCache cache;
+  /** {@link DocumentServiceImpl}. */
+  private DocumentServiceImpl service;
+
+  /**
+   * Before Each Test.
+   * 
+   * @throws Exception Exception
+   */
+  @BeforeEach
+  public void before() throws Exception {
+    DynamoDbConnectionBuilder dynamoDbConnection = DynamoDbTestServices.getDynamoDbConnection();
+    this.cache = new DocumentCache(TTL, MAX_SIZE);
+    this.service = new DocumentServiceImpl(dynamoDbConnection, DOCUMENTS_TABLE,
+        new DocumentVersionServiceNoVersioning());
+    this.service.setDocumentCache(this.cache);
+  }
+
+  /**
+   * Invalid constructor arguments.
+   */
+  @Test
+  public void testConstructor01() {
+    assertThrows(IllegalArgumentException.class, () -> new DocumentCache(null, 1));
+    assertThrows(IllegalArgumentException.class, () -> new DocumentCache(Duration.ZERO, 1));
+    assertThrows(IllegalArgumentException.class, () -> new DocumentCache(TTL, 0));
+  }
+
+  /**
+   * Get / Put / Invalidate.
+   */
+  @Test
+  public void testGet01() {
+    // given
+    long stamp = this.cache.stamp();
+
+    // when
+    this.cache.put("pk1", "document", "value", stamp);
+
+    // then
+    assertEquals("value", this.cache.get("pk1", "document"));
+    assertNull(this.cache.get("pk1", "tags"));
+    assertEquals(1, this.cache.hits());
+    assertEquals(1, this.cache.misses());
+
+    // when
+    this.cache.invalidate("pk1");
+
+    // then
+    assertNull(this.cache.get("pk1", "document"));
+    assertEquals(0, this.cache.size());
+  }
+
+  /**
+   * Put with a stamp taken before an invalidation is not cached.
+   */
+  @Test
+  public void testPut01() {
+    // given
+    long stamp = this.cache.stamp();
+    this.cache.invalidate("pk1");
+
+    // when
+    this.cache.put("pk1", "document", "stale", stamp);
+
+    // then
+    assertNull(this.cache.get("pk1", "document"));
+    assertEquals(0, this.cache.size());
+  }
+
+  /**
+   * Least recently used documents are evicted.
+   */
+  @Test
+  public void testPut02() {
+    // given
+    List<String> pks = Arrays.asList("pk1", "pk2", "pk3", "pk4");
+
+    // when
+    for (String pk : pks) {
+      this.cache.put(pk, "document", pk, this.cache.stamp());
+      this.cache.get("pk1", "document");
+    }
+
+    // then
+    assertEquals(MAX_SIZE, this.cache.size());
+    assertEquals(1, this.cache.evictions());
+    assertEquals("pk1", this.cache.get("pk1", "document"));
+    assertNull(this.cache.get("pk2", "document"));
+    assertEquals("pk4", this.cache.get("pk4", "document"));
+  }
+
+  /**
+   * Expired documents are not returned.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testPut03() throws Exception {
+    // given
+    final long sleep = 50;
+    DocumentCache c = new DocumentCache(Duration.ofMillis(1), MAX_SIZE);
+
+    // when
+    c.put("pk1", "document", "value", c.stamp());
+    Thread.sleep(sleep);
+
+    // then
+    assertNull(c.get("pk1", "document"));
+    assertEquals(0, c.size());
+  }
+
+  /**
+   * {@link DocumentServiceImpl} reads through the cache and writes invalidate it.
+   */
+  @Test
+  public void testService01() {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      String userId = "jsmith";
+      String documentId = UUID.randomUUID().toString();
+      DocumentItem item = new DocumentItemDynamoDb(documentId, new Date(), userId);
+      DocumentTag tag = new DocumentTag(documentId, "status", "active", new Date(), userId);
+      this.service.saveDocument(siteId, item, Arrays.asList(tag));
+      final long hits = this.cache.hits();
+
+      // when
+      assertNotNull(this.service.findDocument(siteId, documentId));
+      assertNotNull(this.service.findDocument(siteId, documentId));
+      assertEquals("active", this.service.findDocumentTag(siteId, documentId, "status").getValue());
+      assertEquals("active", this.service.findDocumentTag(siteId, documentId, "status").getValue());
+
+      // then
+      final int expected = 2;
+      assertEquals(hits + expected, this.cache.hits());
+
+      // when
+      this.service.addTags(siteId, documentId,
+          Arrays.asList(new DocumentTag(documentId, "status", "inactive", new Date(), userId)),
+          null);
+
+      // then
+      assertEquals("inactive",
+          this.service.findDocumentTag(siteId, documentId, "status").getValue());
+      assertEquals(1,
+          this.service.findDocumentTags(siteId, documentId, null, MAX_SIZE).getResults().size());
+
+      // when
+      this.service.deleteDocument(siteId, documentId, false);
+
+      // then
+      assertNull(this.service.findDocument(siteId, documentId));
+      assertNull(this.service.findDocumentTag(siteId, documentId, "status"));
+    }
+  }
+
+  /**
+   * Moving a file invalidates the cached document.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testService02() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      String documentId = UUID.randomUUID().toString();
+      DocumentItem item = new DocumentItemDynamoDb(documentId, new Date(), "jsmith");
+      item.setPath("a/test.pdf");
+      this.service.saveDocument(siteId, item, null);
+      assertEquals("a/test.pdf", this.service.findDocument(siteId, documentId).getPath());
+
+      FolderIndexProcessorImpl index = new FolderIndexProcessorImpl(
+          DynamoDbTestServices.getDynamoDbConnection(), DOCUMENTS_TABLE);
+      index.setDocumentCache(this.cache);
+
+      // when
+      index.moveIndex(siteId, "a/test.pdf", "b/", "jsmith");
+
+      // then
+      assertEquals("b/test.pdf", this.service.findDocument(siteId, documentId).getPath());
+    }
+  }
+}
@@ -26,6 +26,8 @@ package com.formkiq.stacks.dynamodb;
 import static com.formkiq.testutils.aws.DynamoDbExtension.DOCUMENTS_TABLE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.time.Duration;
+import java.util.Map;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,6 +35,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
 import com.formkiq.testutils.aws.DynamoDbExtension;
 import com.formkiq.testutils.aws.DynamoDbTestServices;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 
 /** Unit Tests for {@link DocumentCountServiceDynamoDb}. */
 @ExtendWith(DynamoDbExtension.class)
@@ -92,4 +97,74 @@ public class DocumentCountServiceDynamoDbTest {
       this.service.removeDocumentCount(siteId);
     }
   }
+
+  /**
+   * Increment Document Count across shards and compact.
+   */
+  @Test
+  public void testIncrementDocumentCount03() {
+    // given
+    final int count = 50;
+    final int shards = 3;
+    String siteId = UUID.randomUUID().toString();
+    DocumentCountService sharded =
+        new DocumentCountServiceDynamoDb(this.db, DOCUMENTS_TABLE, shards, Duration.ZERO);
+
+    try {
+      // when
+      for (int i = 0; i < count; i++) {
+        sharded.incrementDocumentCount(siteId);
+      }
+
+      // then
+      assertEquals(count, sharded.getDocumentCount(siteId));
+
+      // when
+      assertTrue(sharded.compactDocumentCount(siteId));
+      sharded.incrementDocumentCount(siteId);
+
+      // then
+      assertEquals(count + 1, sharded.getDocumentCount(siteId));
+      assertEquals(count + 1, this.service.getDocumentCount(siteId));
+
+      // when
+      sharded.compactDocumentCounts();
+
+      // then
+      assertEquals(count + 1, sharded.getDocumentCount(siteId));
+
+    } finally {
+      sharded.removeDocumentCount(siteId);
+    }
+
+    assertEquals(0, sharded.getDocumentCount(siteId));
+  }
+
+  /**
+   * Get Document Count includes an existing unsharded count.
+   */
+  @Test
+  public void testGetDocumentCount01() {
+    // given
+    final int existing = 5;
+    String siteId = UUID.randomUUID().toString();
+
+    DynamoDbClient client = this.db.build();
+    client.putItem(PutItemRequest.builder().tableName(DOCUMENTS_TABLE)
+        .item(Map.of("PK", AttributeValue.builder().s("documentscount#" + siteId).build(), "SK",
+            AttributeValue.builder().s("all").build(), "MetricValue",
+            AttributeValue.builder().n(String.valueOf(existing)).build()))
+        .build());
+
+    try {
+      // when
+      this.service.incrementDocumentCount(siteId);
+
+      // then
+      assertEquals(existing + 1, this.service.getDocumentCount(siteId));
+
+    } finally {
+      this.service.removeDocumentCount(siteId);
+    }
+  }
 }
@@ -23,12 +23,17 @@
  */
 package com.formkiq.stacks.dynamodb;
 
+import static com.formkiq.aws.dynamodb.DbKeys.GSI2_SK;
+import static com.formkiq.aws.dynamodb.DbKeys.PK;
+import static com.formkiq.aws.dynamodb.DbKeys.SK;
+import static com.formkiq.aws.dynamodb.SiteIdKeyGenerator.createDatabaseKey;
 import static com.formkiq.stacks.dynamodb.DocumentService.MAX_RESULTS;
 import static com.formkiq.testutils.aws.DynamoDbExtension.DOCUMENTS_TABLE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
@@ -38,26 +43,40 @@ import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import com.formkiq.aws.dynamodb.DynamicObject;
 import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
 import com.formkiq.aws.dynamodb.PaginationMapToken;
 import com.formkiq.aws.dynamodb.PaginationResults;
+import com.formkiq.aws.dynamodb.metrics.DynamoDbOperation;
+import com.formkiq.aws.dynamodb.metrics.DynamoDbOperationStats;
 import com.formkiq.aws.dynamodb.model.DocumentItem;
 import com.formkiq.aws.dynamodb.model.DocumentTag;
 import com.formkiq.aws.dynamodb.model.DocumentTagType;
 import com.formkiq.aws.dynamodb.model.DynamicDocumentItem;
 import com.formkiq.aws.dynamodb.model.SearchMetaCriteria;
 import com.formkiq.aws.dynamodb.model.SearchQuery;
+import com.formkiq.aws.dynamodb.model.SearchResponseFields;
 import com.formkiq.aws.dynamodb.model.SearchTagCriteria;
+import com.formkiq.aws.dynamodb.model.SearchTagCriteriaRange;
 import com.formkiq.aws.dynamodb.objects.DateUtil;
 import com.formkiq.testutils.aws.DynamoDbExtension;
 import com.formkiq.testutils.aws.DynamoDbTestServices;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
 
 /** Unit Tests for {@link DocumentSearchServiceImpl}. */
 @ExtendWith(DynamoDbExtension.class)
@@ -676,8 +695,9 @@ public class DocumentSearchServiceImplTest {
       assertEquals(2, list.size());
       assertNull(results.getToken());
 
-      assertEquals("thing", list.get(0).getMap("matchedTag").get("value"));
-      assertEquals("person1", list.get(1).getMap("matchedTag").get("value"));
+      assertEquals(Set.of("thing", "person1"),
+          list.stream().map(l -> l.getMap("matchedTag").get("value")).collect(Collectors.toSet()));
+      assertTrue(list.get(0).getInsertedDate().compareTo(list.get(1).getInsertedDate()) >= 0);
 
       list.forEach(s -> {
         assertNotNull(s.getInsertedDate());
@@ -920,6 +940,187 @@ public class DocumentSearchServiceImplTest {
     }
   }
 
+  /** Search for tag 'eqOr' paging through the merged results. */
+  @Test
+  public void testSearch19() {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      final int count = 7;
+      final int max = 2;
+      String tagKey = UUID.randomUUID().toString();
+      List<String> values = Arrays.asList("a", "b", "c");
+
+      Collection<String> expected = new HashSet<>();
+      for (int i = 0; i < count; i++) {
+        expected.add(createDocument(siteId, tagKey, values.get(i % values.size())));
+      }
+
+      DynamicDocumentItem multi =
+          createTestDocumentWithTags(Map.of(tagKey, Arrays.asList("a", "b")), false);
+      this.service.saveDocumentItemWithTag(siteId, multi);
+      expected.add(multi.getDocumentId());
+      createDocument(siteId, tagKey, "d");
+
+      SearchQuery q = new SearchQuery().tag(new SearchTagCriteria(tagKey).eqOr(values));
+
+      List<DynamicDocumentItem> list = new ArrayList<>();
+      PaginationMapToken token = null;
+
+      // when
+      do {
+        PaginationResults<DynamicDocumentItem> results =
+            this.searchService.search(siteId, q, token, max);
+        assertTrue(results.getResults().size() <= max);
+        list.addAll(results.getResults());
+        token = results.getToken();
+      } while (token != null);
+
+      // then
+      List<String> documentIds =
+          list.stream().map(DynamicDocumentItem::getDocumentId).collect(Collectors.toList());
+      assertEquals(expected.size(), documentIds.size());
+      assertEquals(expected, new HashSet<>(documentIds));
+
+      DynamicDocumentItem item = list.stream()
+          .filter(l -> multi.getDocumentId().equals(l.getDocumentId())).findFirst().orElseThrow();
+      assertEquals(Set.of("a", "b"),
+          new HashSet<>((Collection<?>) item.getMap("matchedTag").get("values")));
+    }
+  }
+
+  /** Search by multiple tags, 'eq', 'beginsWith' and key only, with pagination. */
+  @Test
+  public void testSearch20() {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      final int count = 12;
+      final int max = 2;
+      final int every = 3;
+      String key0 = UUID.randomUUID().toString();
+      String key1 = UUID.randomUUID().toString();
+      String key2 = UUID.randomUUID().toString();
+
+      Collection<String> expected = new HashSet<>();
+      for (int i = 0; i < count; i++) {
+
+        Map<String, Object> tags = new HashMap<>();
+        tags.put(key0, "person");
+        tags.put(key1, i % 2 == 0 ? "category" + i : "other");
+
+        if (i % every == 0) {
+          tags.put(key2, "");
+        }
+
+        DynamicDocumentItem doc = createTestDocumentWithTags(tags, true);
+        this.service.saveDocumentItemWithTag(siteId, doc);
+
+        if (i % 2 == 0 && i % every == 0) {
+          expected.add(doc.getDocumentId());
+        }
+      }
+
+      SearchQuery q = new SearchQuery().tags(Arrays.asList(new SearchTagCriteria(key0).eq("person"),
+          new SearchTagCriteria(key1).beginsWith("cat"), new SearchTagCriteria(key2)));
+
+      List<DynamicDocumentItem> list = new ArrayList<>();
+      PaginationMapToken token = null;
+
+      // when
+      do {
+        PaginationResults<DynamicDocumentItem> results =
+            this.searchService.search(siteId, q, token, max);
+        assertTrue(results.getResults().size() <= max);
+        list.addAll(results.getResults());
+        token = results.getToken();
+      } while (token != null);
+
+      // then
+      List<String> documentIds =
+          list.stream().map(DynamicDocumentItem::getDocumentId).collect(Collectors.toList());
+      assertEquals(expected.size(), documentIds.size());
+      assertEquals(expected, new HashSet<>(documentIds));
+
+      List<DynamicObject> matchedTags = list.get(0).getList("matchedTags");
+      assertEquals(q.tags().size(), matchedTags.size());
+      assertEquals(key0, matchedTags.get(0).getString("key"));
+      assertEquals("person", matchedTags.get(0).getString("value"));
+
+      // given
+      q.documentsIds(new ArrayList<>(documentIds.subList(0, 1)));
+
+      // when
+      PaginationResults<DynamicDocumentItem> results =
+          this.searchService.search(siteId, q, null, max);
+
+      // then
+      assertNull(results.getToken());
+      assertEquals(1, results.getResults().size());
+      assertEquals(documentIds.get(0), results.getResults().get(0).getDocumentId());
+    }
+  }
+
+  /**
+   * Search with response tags, skipping tag records of missing documents.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testSearch21() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      final int count = 7;
+      final int max = 2;
+      final int every = 3;
+      String tagKey = UUID.randomUUID().toString();
+      DynamoDbClient db = DynamoDbTestServices.getDynamoDbConnection().build();
+
+      Collection<String> expected = new HashSet<>();
+      for (int i = 0; i < count; i++) {
+
+        DynamicDocumentItem doc =
+            createTestDocumentWithTags(Map.of(tagKey, "person", "category", "c" + i), true);
+        this.service.saveDocumentItemWithTag(siteId, doc);
+
+        if (i % every == 1) {
+          Map<String, AttributeValue> keys = Map.of(PK,
+              AttributeValue.fromS(createDatabaseKey(siteId, "docs#" + doc.getDocumentId())), SK,
+              AttributeValue.fromS("document"));
+          db.deleteItem(DeleteItemRequest.builder().tableName(DOCUMENTS_TABLE).key(keys).build());
+        } else {
+          expected.add(doc.getDocumentId());
+        }
+      }
+
+      SearchQuery q = new SearchQuery().tag(new SearchTagCriteria(tagKey).eq("person"));
+      SearchResponseFields fields = new SearchResponseFields().tags(Arrays.asList("category"));
+
+      List<DynamicDocumentItem> list = new ArrayList<>();
+      List<Integer> sizes = new ArrayList<>();
+      PaginationMapToken token = null;
+
+      // when
+      do {
+        PaginationResults<DynamicDocumentItem> results =
+            this.searchService.search(siteId, q, fields, token, max);
+        sizes.add(Integer.valueOf(results.getResults().size()));
+        list.addAll(results.getResults());
+        token = results.getToken();
+      } while (token != null);
+
+      // then
+      assertEquals(expected,
+          list.stream().map(DynamicDocumentItem::getDocumentId).collect(Collectors.toSet()));
+      assertEquals(expected.size(), list.size());
+      sizes.subList(0, sizes.size() - 1).forEach(size -> assertEquals(max, size.intValue()));
+
+      list.forEach(d -> {
+        assertEquals("person", d.getMap("matchedTag").get("value"));
+        assertTrue(d.getMap("tags").get("category").toString().startsWith("c"));
+        assertNotNull(d.getInsertedDate());
+      });
+    }
+  }
+
   /** Search by 'eq' / 'beginsWith' Tag Key & Value. */
   @Test
   public void testSearchForDocumentIds01() {
@@ -954,4 +1155,388 @@ public class DocumentSearchServiceImplTest {
       assertTrue(results.getResults().contains(documentId1));
     }
   }
+
+  /** Search by numeric and date tag value ranges. */
+  @Test
+  public void testSearch22() {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      final int max = 2;
+      String amount = UUID.randomUUID().toString();
+      String due = UUID.randomUUID().toString();
+
+      Map<String, String> amounts = new HashMap<>();
+      for (String value : Arrays.asList("-5", "0", "2.5", "10", "99", "100", "abc")) {
+        amounts.put(value, createDocument(siteId, amount, value));
+      }
+
+      Map<String, String> dates = new HashMap<>();
+      for (String value : Arrays.asList("2023-12-31", "2024-01-01", "2024-01-15T10:00:00Z",
+          "2024-02-01")) {
+        dates.put(value, createDocument(siteId, due, value));
+      }
+
+      // when
+      final List<String> range = searchAll(siteId,
+          new SearchTagCriteria(amount).range(new SearchTagCriteriaRange().start("0").end("99")),
+          max);
+      final List<String> gtlt =
+          searchAll(siteId, new SearchTagCriteria(amount).gt("0").lt("100"), max);
+      final List<String> gt = searchAll(siteId, new SearchTagCriteria(amount).gt("10"), max);
+      final List<String> lt = searchAll(siteId, new SearchTagCriteria(amount).lt("2.5"), max);
+      final List<String> empty =
+          searchAll(siteId, new SearchTagCriteria(amount).gt("100").lt("0"), max);
+      final List<String> month =
+          searchAll(siteId,
+              new SearchTagCriteria(due).range(
+                  new SearchTagCriteriaRange().start("2024-01-01").end("2024-01-31T23:59:59Z")),
+              max);
+
+      // then
+      assertEquals(toDocumentIds(amounts, "0", "2.5", "10", "99"), range);
+      assertEquals(toDocumentIds(amounts, "2.5", "10", "99"), gtlt);
+      assertEquals(toDocumentIds(amounts, "99", "100"), gt);
+      assertEquals(toDocumentIds(amounts, "-5", "0"), lt);
+      assertTrue(empty.isEmpty());
+      assertEquals(toDocumentIds(dates, "2024-01-01", "2024-01-15T10:00:00Z"), month);
+
+      // given
+      SearchQuery q = new SearchQuery().tag(new SearchTagCriteria(amount).gt("1"))
+          .documentsIds(Arrays.asList(amounts.get("-5"), amounts.get("10"), amounts.get("abc")));
+
+      // when
+      PaginationResults<DynamicDocumentItem> results =
+          this.searchService.search(siteId, q, null, max);
+
+      // then
+      assertEquals(1, results.getResults().size());
+      assertEquals(amounts.get("10"), results.getResults().get(0).getDocumentId());
+      assertEquals("10", results.getResults().get(0).getMap("matchedTag").get("value"));
+
+      // when
+      final SearchQuery invalid =
+          new SearchQuery().tag(new SearchTagCriteria(amount).gt("1").lt("2024-01-01"));
+
+      // then
+      assertThrows(IllegalArgumentException.class,
+          () -> this.searchService.search(siteId, invalid, null, max));
+    }
+  }
+
+  /**
+   * Search collects {@link DynamoDbOperationStats} in the enclosing operation.
+   */
+  @Test
+  public void testSearch23() {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      String key = UUID.randomUUID().toString();
+      String doc0 = createDocument(siteId, key, "a");
+      String doc1 = createDocument(siteId, key, "b");
+
+      SearchQuery byValue = new SearchQuery().tag(new SearchTagCriteria(key).eq("a"));
+      SearchQuery byDocumentIds = new SearchQuery().tag(new SearchTagCriteria(key).eq("a"))
+          .documentsIds(Arrays.asList(doc0, doc1));
+
+      // when
+      final DynamoDbOperationStats valueStats = searchStats(siteId, byValue);
+      final DynamoDbOperationStats documentIdsStats = searchStats(siteId, byDocumentIds);
+
+      // then
+      assertEquals("[search.byTagValue]", valueStats.operations().toString());
+      assertEquals(Long.valueOf(1), valueStats.counters().get("hydrate.batches"));
+      assertTrue(valueStats.timings().keySet()
+          .containsAll(Arrays.asList("query", "hydrate", "search.byTagValue")));
+
+      assertEquals("[search.byDocumentIds]", documentIdsStats.operations().toString());
+      assertEquals(Long.valueOf(2), documentIdsStats.counters().get("filter.candidates"));
+      assertEquals(Long.valueOf(1), documentIdsStats.counters().get("filter.matched"));
+    }
+  }
+
+  /** Search by multiple tags led by the 'eq' criteria with the smallest tag value count. */
+  @Test
+  public void testSearch24() {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      final int count = 8;
+      final int max = 2;
+      String key0 = UUID.randomUUID().toString();
+      String key1 = UUID.randomUUID().toString();
+
+      for (int i = 0; i < count; i++) {
+        DocumentItem doc = createDocument(UUID.randomUUID().toString(), ZonedDateTime.now(),
+            "text/plain", "test" + i + ".txt");
+        List<DocumentTag> tags = new ArrayList<>(Arrays
+            .asList(new DocumentTag(doc.getDocumentId(), key0, "person", new Date(), "testuser")));
+        if (i < count / 2) {
+          tags.add(new DocumentTag(doc.getDocumentId(), key1, "x", new Date(), "testuser"));
+        }
+        this.service.saveDocument(siteId, doc, tags);
+      }
+
+      SearchQuery q = new SearchQuery().tags(Arrays.asList(new SearchTagCriteria(key0).eq("person"),
+          new SearchTagCriteria(key1).eq("x")));
+
+      // when
+      PaginationResults<DynamicDocumentItem> results =
+          this.searchService.search(siteId, q, null, max);
+
+      // then
+      assertEquals(max, results.getResults().size());
+      assertNotNull(results.getToken());
+      assertEquals("1", results.getToken().getAttributeMap().get("leader").toString());
+    }
+  }
+
+  /**
+   * Tag value counts maintained on tag add, remove and document delete / restore.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testFindTagValueCounts01() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      final int max = 10;
+      String key = UUID.randomUUID().toString();
+      DynamoDbClient db = DynamoDbTestServices.getDynamoDbConnection().build();
+      new TagIndexRebuilder(db, DOCUMENTS_TABLE).rebuild(siteId, key, null, max);
+
+      final String doc0 = createDocument(siteId, key, "a");
+      final String doc1 = createDocument(siteId, key, "a");
+      String doc2 = createDocument(siteId, key, "b");
+
+      DocumentTag multi = new DocumentTag(doc2, key, null, new Date(), "testuser");
+      multi.setValues(Arrays.asList("b", "c", "c"));
+      String doc3 = createDocument(siteId, "other", "x");
+      this.service.addTags(siteId, doc3, Arrays.asList(multi), null);
+
+      // when / then
+      assertEquals("a=2,b=2,c=1", toCounts(siteId, key, null, max));
+      assertEquals("a=2", toCounts(siteId, key, null, 1));
+
+      // given
+      this.service.addTags(siteId, doc2, Arrays.asList(multi), null);
+
+      // when / then
+      assertEquals("a=2,b=2,c=2", toCounts(siteId, key, null, max));
+
+      // given
+      this.service.removeTag(siteId, doc2, key, "c");
+      this.service.deleteDocumentTag(siteId, doc3, key);
+      this.service.deleteDocument(siteId, doc0, false);
+
+      // when / then
+      assertEquals("a=1,b=1", toCounts(siteId, key, null, max));
+
+      // given
+      this.service.deleteDocument(siteId, doc1, true);
+
+      // when / then
+      assertEquals("b=1", toCounts(siteId, key, null, max));
+
+      // given
+      this.service.restoreSoftDeletedDocument(siteId, doc1);
+
+      // when / then
+      assertEquals("a=1,b=1", toCounts(siteId, key, null, max));
+    }
+  }
+
+  /**
+   * Tag value counts limited to a folder or a tag.
+   */
+  @Test
+  public void testFindTagValueCounts02() {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      final int max = 10;
+      String key = UUID.randomUUID().toString();
+      String folder = UUID.randomUUID().toString();
+
+      int i = 0;
+      for (String value : Arrays.asList("a", "a", "b", "c")) {
+        DocumentItem doc = createDocument(UUID.randomUUID().toString(), ZonedDateTime.now(),
+            "text/plain", i < 2 ? folder + "/test" + i + ".txt" : "test" + i + ".txt");
+        this.service.saveDocument(siteId, doc,
+            Arrays.asList(new DocumentTag(doc.getDocumentId(), key, value, new Date(), "testuser"),
+                new DocumentTag(doc.getDocumentId(), "type", i % 2 == 0 ? "invoice" : "receipt",
+                    new Date(), "testuser")));
+        i++;
+      }
+
+      // when
+      String all = toCounts(siteId, key, null, max);
+      String inFolder = toCounts(siteId, key,
+          new SearchQuery().meta(new SearchMetaCriteria().folder(folder)), max);
+      String withTag = toCounts(siteId, key,
+          new SearchQuery().tag(new SearchTagCriteria("type").eq("invoice")), max);
+
+      // then
+      assertEquals("a=2,b=1,c=1", all);
+      assertEquals("a=2", inFolder);
+      assertEquals("a=1,b=1", withTag);
+    }
+  }
+
+  /**
+   * Tag value counts of tags written before the counters, counted from the tag records until the
+   * tag index rebuild has recounted them.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testFindTagValueCounts03() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      final int max = 10;
+      String key = UUID.randomUUID().toString();
+      DynamoDbClient db = DynamoDbTestServices.getDynamoDbConnection().build();
+      final TagValueCounter counter = new TagValueCounter(db, DOCUMENTS_TABLE);
+      final TagIndexRebuilder rebuilder = new TagIndexRebuilder(db, DOCUMENTS_TABLE);
+
+      createDocument(siteId, key, "a");
+      createDocument(siteId, key, "b");
+      String doc2 = createDocument(siteId, key, "b");
+
+      DocumentTag multi = new DocumentTag(doc2, key, null, new Date(), "testuser");
+      multi.setValues(Arrays.asList("b", "c", "c"));
+      this.service.addTags(siteId, doc2, Arrays.asList(multi), null);
+      counter.reset(siteId, key);
+
+      // when
+      this.service.removeTags(siteId, doc2, Arrays.asList(key));
+
+      // then
+      assertEquals("a=1,b=1", toCounts(siteId, key, null, max));
+
+      // given
+      this.service.addTags(siteId, doc2, Arrays.asList(multi), null);
+
+      // when
+      String cursor = null;
+      QueryResponse page = null;
+      do {
+        page = rebuilder.rebuild(siteId, key, cursor, 1);
+        cursor = !page.items().isEmpty() ? page.items().get(0).get(GSI2_SK).s() : null;
+      } while (page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty());
+
+      // then
+      assertEquals("b=2,a=1,c=1", toCounts(siteId, key, null, max));
+      assertEquals("a=1,b=2,c=1",
+          counter.get(siteId, key).entrySet().stream().sorted(Map.Entry.comparingByKey())
+              .map(e -> e.getKey() + "=" + e.getValue()).collect(Collectors.joining(",")));
+
+      // when
+      this.service.removeTag(siteId, doc2, key, "c");
+
+      // then
+      assertEquals("b=2,a=1", toCounts(siteId, key, null, max));
+    }
+  }
+
+  /**
+   * Tag value counters of a new tag key are initialized with its tag index record, tag keys that
+   * are not initialized are only counted up to a limit.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testFindTagValueCounts04() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      String key = UUID.randomUUID().toString();
+      DynamoDbClient db = DynamoDbTestServices.getDynamoDbConnection().build();
+      final TagValueCounter counter =
+          new TagValueCounter(db, DOCUMENTS_TABLE, TagValueCounter.DEFAULT_SHARDS, 1);
+
+      createDocument(siteId, key, "a");
+      createDocument(siteId, key, "b");
+
+      // when
+      Map<String, Long> counts = counter.get(siteId, key);
+
+      // then
+      assertEquals("{a=1, b=1}", new TreeMap<>(counts).toString());
+
+      // given
+      counter.reset(siteId, key);
+
+      // when
+      IllegalArgumentException e =
+          assertThrows(IllegalArgumentException.class, () -> counter.get(siteId, key));
+
+      // then
+      assertEquals(
+          "tag key '" + key
+              + "' has more than 1 tags, its values are counted once its tag index is rebuilt",
+          e.getMessage());
+    }
+  }
+
+  /**
+   * Tag value counts as "value=count" list.
+   * 
+   * @param siteId {@link String}
+   * @param key {@link String}
+   * @param scope {@link SearchQuery}
+   * @param max int
+   * @return {@link String}
+   */
+  private String toCounts(final String siteId, final String key, final SearchQuery scope,
+      final int max) {
+    return this.searchService.findTagValueCounts(siteId, key, scope, max).stream()
+        .map(o -> o.getString("value") + "=" + o.getLong("count")).collect(Collectors.joining(","));
+  }
+
+  /**
+   * Run search inside an operation and return its {@link DynamoDbOperationStats}.
+   * 
+   * @param siteId {@link String}
+   * @param query {@link SearchQuery}
+   * @return {@link DynamoDbOperationStats}
+   */
+  private DynamoDbOperationStats searchStats(final String siteId, final SearchQuery query) {
+    try (DynamoDbOperation op = DynamoDbOperation.start("test")) {
+      this.searchService.search(siteId, query, null, MAX_RESULTS);
+      return op.stats();
+    }
+  }
+
+  /**
+   * Read all pages of a tag search.
+   * 
+   * @param siteId {@link String}
+   * @param tag {@link SearchTagCriteria}
+   * @param max int
+   * @return {@link List} {@link String}
+   */
+  private List<String> searchAll(final String siteId, final SearchTagCriteria tag, final int max) {
+
+    List<String> documentIds = new ArrayList<>();
+    SearchQuery q = new SearchQuery().tag(tag);
+    PaginationMapToken token = null;
+
+    do {
+      PaginationResults<DynamicDocumentItem> results =
+          this.searchService.search(siteId, q, token, max);
+      assertTrue(results.getResults().size() <= max);
+      results.getResults().forEach(r -> documentIds.add(r.getDocumentId()));
+      token = results.getToken();
+    } while (token != null);
+
+    return documentIds;
+  }
+
+  /**
+   * Map values to documentIds.
+   * 
+   * @param documents {@link Map}
+   * @param values {@link String}
+   * @return {@link List} {@link String}
+   */
+  private List<String> toDocumentIds(final Map<String, String> documents, final String... values) {
+    return Arrays.stream(values).map(documents::get).collect(Collectors.toList());
+  }
 }
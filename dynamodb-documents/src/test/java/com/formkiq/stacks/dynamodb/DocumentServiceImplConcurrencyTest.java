@@ -0,0 +1,235 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import static com.formkiq.testutils.aws.DynamoDbExtension.DOCUMENTS_TABLE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
+import com.formkiq.aws.dynamodb.PaginationResults;
+import com.formkiq.aws.dynamodb.model.DocumentItem;
+import com.formkiq.aws.dynamodb.model.DocumentTag;
+import com.formkiq.testutils.aws.DynamoDbExtension;
+import com.formkiq.testutils.aws.DynamoDbTestServices;
+
+/**
+ * Concurrency stress tests for a single {@link DocumentServiceImpl} / {@link GlobalIndexService}
+ * instance shared by multiple threads.
+ */
+@ExtendWith(DynamoDbExtension.class)
+public class DocumentServiceImplConcurrencyTest {
+
+  /** Number of Days the documents are spread over. */
+  private static final int DAYS = 3;
+  /** Hours in a Day. */
+  private static final int HOURS = 24;
+  /** Documents per Thread. */
+  private static final int PER_THREAD = 50;
+  /** Number of Tag Keys. */
+  private static final int TAG_KEYS = 5;
+  /** Number of Threads. */
+  private static final int THREADS = 8;
+  /** Timeout in Seconds. */
+  private static final int TIMEOUT = 120;
+  /** Year of the documents. */
+  private static final int YEAR = 2023;
+
+  /** {@link GlobalIndexService}. */
+  private static GlobalIndexService indexService;
+  /** {@link DocumentService}. */
+  private static DocumentService service;
+
+  /**
+   * Before Test.
+   *
+   * @throws Exception Exception
+   */
+  @BeforeAll
+  public static void beforeAll() throws Exception {
+    DynamoDbConnectionBuilder dynamoDbConnection = DynamoDbTestServices.getDynamoDbConnection();
+    service = new DocumentServiceImpl(dynamoDbConnection, DOCUMENTS_TABLE,
+        new DocumentVersionServiceNoVersioning());
+    indexService = new GlobalIndexService(dynamoDbConnection, DOCUMENTS_TABLE);
+  }
+
+  /**
+   * Run {@link Callable} on all threads at the same time and return the results.
+   * 
+   * @param <T> Type of result
+   * @param tasks {@link List} {@link Callable}
+   * @return {@link List}
+   * @throws Exception Exception
+   */
+  private static <T> List<T> runConcurrently(final List<Callable<T>> tasks) throws Exception {
+
+    ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+    CountDownLatch start = new CountDownLatch(1);
+
+    try {
+      List<Future<T>> futures = new ArrayList<>();
+      for (Callable<T> task : tasks) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          return task.call();
+        }));
+      }
+
+      start.countDown();
+
+      List<T> results = new ArrayList<>();
+      for (Future<T> future : futures) {
+        results.add(future.get(TIMEOUT, TimeUnit.SECONDS));
+      }
+      return results;
+
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Create {@link DocumentItem}.
+   * 
+   * @param thread int
+   * @param i int
+   * @return {@link DocumentItem}
+   */
+  private DocumentItem createDocument(final int thread, final int i) {
+    ZonedDateTime date =
+        ZonedDateTime.of(YEAR, 1, 1 + i % DAYS, i % HOURS, thread, 0, 0, ZoneOffset.UTC);
+    DocumentItem item = new DocumentItemDynamoDb(UUID.randomUUID().toString(),
+        Date.from(date.toInstant()), "thread" + thread);
+    item.setPath("shared/t" + thread + "/doc" + i + ".txt");
+    return item;
+  }
+
+  /**
+   * Concurrent saveDocument / findDocument using one shared {@link DocumentService}.
+   *
+   * @throws Exception Exception
+   */
+  @Test
+  public void testSaveDocument01() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      DocumentItem root = new DocumentItemDynamoDb(UUID.randomUUID().toString(), new Date(), "joe");
+      root.setPath("shared/root.txt");
+      service.saveDocument(siteId, root, null);
+
+      List<Callable<List<DocumentItem>>> tasks =
+          IntStream.range(0, THREADS).mapToObj(thread -> (Callable<List<DocumentItem>>) () -> {
+
+            List<DocumentItem> items = new ArrayList<>();
+
+            for (int i = 0; i < PER_THREAD; i++) {
+              DocumentItem item = createDocument(thread, i);
+              DocumentTag tag = new DocumentTag(item.getDocumentId(), "key" + (i % TAG_KEYS),
+                  "value" + i, item.getInsertedDate(), item.getUserId());
+              service.saveDocument(siteId, item, Arrays.asList(tag));
+              items.add(item);
+            }
+
+            return items;
+          }).collect(Collectors.toList());
+
+      // when
+      List<DocumentItem> items =
+          runConcurrently(tasks).stream().flatMap(List::stream).collect(Collectors.toList());
+
+      // then
+      assertEquals(THREADS * PER_THREAD, items.size());
+
+      for (DocumentItem expected : items) {
+        DocumentItem item = service.findDocument(siteId, expected.getDocumentId());
+        assertNotNull(item);
+        assertEquals(expected.getPath(), item.getPath());
+        assertEquals(expected.getInsertedDate(), item.getInsertedDate());
+        assertEquals(expected.getUserId(), item.getUserId());
+      }
+
+      for (int day = 0; day < DAYS; day++) {
+        ZonedDateTime date = ZonedDateTime.of(YEAR, 1, 1 + day, 0, 0, 0, 0, ZoneOffset.UTC);
+        final int day0 = day;
+        long expected = IntStream.range(0, PER_THREAD).filter(i -> i % DAYS == day0).count();
+
+        PaginationResults<DocumentItem> results =
+            service.findDocumentsByDate(siteId, date, null, THREADS * PER_THREAD);
+        assertEquals(expected * THREADS, results.getResults().size());
+      }
+    }
+  }
+
+  /**
+   * Concurrent Tag Index cache updates beyond the cache size.
+   *
+   * @throws Exception Exception
+   */
+  @Test
+  public void testTagIndexCache01() throws Exception {
+    final int keysPerThread = 1000;
+
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      List<Callable<Integer>> tasks =
+          IntStream.range(0, THREADS).mapToObj(thread -> (Callable<Integer>) () -> {
+
+            List<String> keys = IntStream.range(0, keysPerThread).mapToObj(i -> "key" + i)
+                .collect(Collectors.toList());
+
+            int generated = indexService.generateTagIndex(siteId, keys).size();
+            indexService.addTagIndexCache(siteId, keys);
+            return Integer.valueOf(generated);
+          }).collect(Collectors.toList());
+
+      // when
+      List<Integer> results = runConcurrently(tasks);
+
+      // then
+      assertEquals(THREADS, results.size());
+
+      List<String> keys = Arrays.asList("newkey");
+      assertEquals(1, indexService.generateTagIndex(siteId, keys).size());
+      indexService.addTagIndexCache(siteId, keys);
+      assertEquals(0, indexService.generateTagIndex(siteId, keys).size());
+    }
+  }
+}
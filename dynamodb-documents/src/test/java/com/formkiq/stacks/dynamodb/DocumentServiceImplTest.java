@@ -23,6 +23,7 @@
  */
 package com.formkiq.stacks.dynamodb;
 
+import static com.formkiq.aws.dynamodb.SiteIdKeyGenerator.createDatabaseKey;
 import static com.formkiq.stacks.dynamodb.DocumentService.MAX_RESULTS;
 import static com.formkiq.stacks.dynamodb.DocumentService.SYSTEM_DEFINED_TAGS;
 import static com.formkiq.testutils.aws.DynamoDbExtension.DOCUMENTS_TABLE;
@@ -43,6 +44,7 @@ import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
@@ -83,6 +85,7 @@ import com.formkiq.testutils.aws.DynamoDbTestServices;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
 
 /**
  * Unit Tests for {@link DocumentServiceImpl}.
@@ -824,15 +827,10 @@ public class DocumentServiceImplTest implements DbKeys {
       assertArrayEquals(expected0.toArray(new String[0]), resultDates.toArray(new String[0]));
 
       String documentId = results.getResults().get(results.getResults().size() - 1).getDocumentId();
-      if (siteId == null) {
-        assertTrue(results.getToken().toString()
-            .startsWith("{GSI1PK=docts#2020-01-30, GSI1SK=2020-01-30T02:20:00+0000#" + documentId
-                + ", SK=document, PK="));
-      } else {
-        assertTrue(results.getToken().toString()
-            .startsWith("{GSI1PK=" + siteId + "/docts#2020-01-30, GSI1SK=2020-01-30T02:20:00+0000#"
-                + documentId + ", SK=document, PK="));
-      }
+      String lastSk = "2020-01-30T02:20:00+0000#" + documentId;
+      assertTrue(results.getToken().getAttributeMap().entrySet().stream()
+          .allMatch(e -> e.getKey().startsWith("docts#2020-01-30")
+              && e.getValue().toString().compareTo(lastSk) <= 0));
 
       // given
       final List<String> expected1 = Arrays.asList("2020-01-30T05:20Z[UTC]",
@@ -886,15 +884,10 @@ public class DocumentServiceImplTest implements DbKeys {
 
       String documentId = results.getResults().get(results.getResults().size() - 1).getDocumentId();
 
-      if (siteId == null) {
-        assertTrue(results.getToken().toString()
-            .startsWith("{GSI1PK=docts#2020-01-31, GSI1SK=2020-01-31T10:00:00+0000#" + documentId
-                + ", SK=document, PK="));
-      } else {
-        assertTrue(results.getToken().toString()
-            .startsWith("{GSI1PK=" + siteId + "/docts#2020-01-31, GSI1SK=2020-01-31T10:00:00+0000#"
-                + documentId + ", SK=document, PK="));
-      }
+      String lastSk = "2020-01-31T10:00:00+0000#" + documentId;
+      assertTrue(results.getToken().getAttributeMap().entrySet().stream()
+          .allMatch(e -> e.getKey().startsWith("docts#2020-01-3")
+              && e.getValue().toString().compareTo(lastSk) <= 0));
 
       // given
       List<String> expected1 = Arrays.asList("2020-01-31T11:00Z[UTC]");
@@ -973,6 +966,103 @@ public class DocumentServiceImplTest implements DbKeys {
     assertNull(results.getResults().get(0).getBelongsToDocumentId());
   }
 
+  /**
+   * Paging through documents by date spread over the date index partitions, including the unsharded
+   * partition.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testFindDocumentsByDate06() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      final int count = 20;
+      final int max = 3;
+      final int hour = 10;
+      ZonedDateTime date = DateUtil.toDateTimeFromString("2019-06-15T00:00:00", "+0000");
+
+      List<String> expected = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        Date insertedDate = Date.from(date.plusHours(hour).plusMinutes(i).toInstant());
+        DocumentItem item =
+            new DocumentItemDynamoDb(UUID.randomUUID().toString(), insertedDate, "jsmith");
+        service.saveDocument(siteId, item, null);
+        expected.add(item.getDocumentId());
+      }
+
+      Map<String, AttributeValue> keys = keysDocument(siteId, expected.get(1));
+      DynamoDbTestServices.getDynamoDbConnection().build()
+          .updateItem(UpdateItemRequest.builder().tableName(DOCUMENTS_TABLE).key(keys)
+              .updateExpression("SET " + GSI1_PK + " = :pk")
+              .expressionAttributeValues(Map.of(":pk",
+                  AttributeValue
+                      .fromS(createDatabaseKey(siteId, PREFIX_DOCUMENT_DATE_TS + "2019-06-15"))))
+              .build());
+
+      List<String> documentIds = new ArrayList<>();
+      PaginationMapToken token = null;
+      int pages = 0;
+
+      // when
+      do {
+        PaginationResults<DocumentItem> results =
+            service.findDocumentsByDate(siteId, date, token, max);
+        results.getResults().forEach(r -> documentIds.add(r.getDocumentId()));
+        token = results.getToken();
+        pages++;
+      } while (token != null);
+
+      // then
+      assertEquals(expected, documentIds);
+      assertEquals((count + max - 1) / max, pages);
+    }
+  }
+
+  /**
+   * The unsharded partition is not read for days after the index was sharded.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testFindDocumentsByDate07() throws Exception {
+    // new instance, tables are cleared between tests
+    DocumentService documentService =
+        new DocumentServiceImpl(DynamoDbTestServices.getDynamoDbConnection(), DOCUMENTS_TABLE,
+            new DocumentVersionServiceNoVersioning());
+
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      final int days = 3;
+      ZonedDateTime date =
+          ZonedDateTime.now(ZoneId.of("UTC")).plusDays(days).truncatedTo(ChronoUnit.DAYS);
+      String shortdate = date.toLocalDate().toString();
+
+      List<String> documentIds = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        DocumentItem item = new DocumentItemDynamoDb(UUID.randomUUID().toString(),
+            Date.from(date.plusHours(i).toInstant()), "jsmith");
+        documentService.saveDocument(siteId, item, null);
+        documentIds.add(item.getDocumentId());
+      }
+
+      Map<String, AttributeValue> keys = keysDocument(siteId, documentIds.get(0));
+      DynamoDbTestServices.getDynamoDbConnection().build().updateItem(UpdateItemRequest.builder()
+          .tableName(DOCUMENTS_TABLE).key(keys).updateExpression("SET " + GSI1_PK + " = :pk")
+          .expressionAttributeValues(Map.of(":pk",
+              AttributeValue.fromS(createDatabaseKey(siteId, PREFIX_DOCUMENT_DATE_TS + shortdate))))
+          .build());
+
+      // when
+      PaginationResults<DocumentItem> results =
+          documentService.findDocumentsByDate(siteId, date, null, MAX_RESULTS);
+
+      // then
+      assertEquals(1, results.getResults().size());
+      assertEquals(documentIds.get(1), results.getResults().get(0).getDocumentId());
+      assertNull(results.getToken());
+    }
+  }
+
   /**
    * Find Documents Tags.
    */
@@ -2062,6 +2152,68 @@ public class DocumentServiceImplTest implements DbKeys {
     }
   }
 
+  /**
+   * Test Bulk Saving Documents with shared folders and tags.
+   */
+  @Test
+  public void testSaveDocuments01() {
+    final int count = 60;
+    final int limit = 100;
+
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      List<DocumentItem> documents = new ArrayList<>();
+      Map<String, Collection<DocumentTag>> tags = new HashMap<>();
+
+      for (int i = 0; i <= count; i++) {
+        String folder = i % 2 == 0 ? "a/b" : "a/c";
+        String path = i < count ? folder + "/doc" + i + ".txt" : "a/b/doc0.txt";
+        DocumentItem item =
+            new DocumentItemDynamoDb(UUID.randomUUID().toString(), new Date(), "joe");
+        item.setPath(path);
+        documents.add(item);
+
+        tags.put(item.getDocumentId(), Arrays.asList(new DocumentTag(item.getDocumentId(),
+            "category", "c" + (i % 2), item.getInsertedDate(), "joe")));
+      }
+
+      // when
+      service.saveDocuments(siteId, documents, tags);
+
+      // then
+      for (DocumentItem document : documents) {
+        DocumentItem item = service.findDocument(siteId, document.getDocumentId());
+        assertNotNull(item);
+        assertEquals("c" + (documents.indexOf(document) % 2),
+            service.findDocumentTag(siteId, document.getDocumentId(), "category").getValue());
+      }
+
+      String duplicateId = documents.get(count).getDocumentId();
+      assertEquals("a/b/doc0 (" + duplicateId + ").txt",
+          service.findDocument(siteId, duplicateId).getPath());
+
+      SearchQuery q = new SearchQuery().meta(new SearchMetaCriteria().folder(""));
+      PaginationResults<DynamicDocumentItem> results =
+          searchService.search(siteId, q, null, MAX_RESULTS);
+      assertEquals(1, results.getResults().size());
+      assertEquals("a", results.getResults().get(0).get("path"));
+
+      q = new SearchQuery().meta(new SearchMetaCriteria().folder("a"));
+      results = searchService.search(siteId, q, null, MAX_RESULTS);
+      assertEquals(2, results.getResults().size());
+      assertEquals("b", results.getResults().get(0).get("path"));
+      assertEquals("c", results.getResults().get(1).get("path"));
+
+      q = new SearchQuery().meta(new SearchMetaCriteria().folder("a/b"));
+      results = searchService.search(siteId, q, null, limit);
+      assertEquals(count / 2 + 1, results.getResults().size());
+
+      q = new SearchQuery().tag(new SearchTagCriteria("category").eq("c0"));
+      results = searchService.search(siteId, q, null, limit);
+      assertEquals(count / 2 + 1, results.getResults().size());
+    }
+  }
+
   /**
    * Test Saving / updating folders.
    * 
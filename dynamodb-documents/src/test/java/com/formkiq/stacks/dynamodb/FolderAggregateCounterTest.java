@@ -0,0 +1,331 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import static com.formkiq.aws.dynamodb.SiteIdKeyGenerator.createDatabaseKey;
+import static com.formkiq.testutils.aws.DynamoDbExtension.DOCUMENTS_TABLE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.formkiq.aws.dynamodb.DbKeys;
+import com.formkiq.aws.dynamodb.DynamicObject;
+import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
+import com.formkiq.aws.dynamodb.PaginationResults;
+import com.formkiq.aws.dynamodb.model.DocumentItem;
+import com.formkiq.aws.dynamodb.model.DynamicDocumentItem;
+import com.formkiq.testutils.aws.DynamoDbExtension;
+import com.formkiq.testutils.aws.DynamoDbTestServices;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+
+/**
+ * Unit Tests for {@link FolderAggregateCounter}.
+ */
+@ExtendWith(DynamoDbExtension.class)
+public class FolderAggregateCounterTest {
+
+  /** {@link FolderAggregateCounter}. */
+  private FolderAggregateCounter counter;
+  /** {@link DynamoDbClient}. */
+  private DynamoDbClient dbClient;
+  /** {@link FolderIndexProcessorImpl}. */
+  private FolderIndexProcessorImpl index;
+  /** {@link DocumentSearchService}. */
+  private DocumentSearchService search;
+  /** {@link DocumentService}. */
+  private DocumentService service;
+
+  /**
+   * Before Each Test.
+   * 
+   * @throws Exception Exception
+   */
+  @BeforeEach
+  public void before() throws Exception {
+    DynamoDbConnectionBuilder dynamoDbConnection = DynamoDbTestServices.getDynamoDbConnection();
+    this.service = new DocumentServiceImpl(dynamoDbConnection, DOCUMENTS_TABLE,
+        new DocumentVersionServiceNoVersioning());
+    this.search =
+        new DocumentSearchServiceImpl(dynamoDbConnection, this.service, DOCUMENTS_TABLE, null);
+    this.index = new FolderIndexProcessorImpl(dynamoDbConnection, DOCUMENTS_TABLE);
+    this.dbClient = dynamoDbConnection.build();
+    this.counter = new FolderAggregateCounter(this.dbClient, DOCUMENTS_TABLE);
+  }
+
+  private DocumentItem addDocument(final String siteId, final String path,
+      final long contentLength) {
+    DocumentItem item = new DocumentItemDynamoDb(UUID.randomUUID().toString(), new Date(), "joe");
+    item.setPath(path);
+    item.setContentLength(Long.valueOf(contentLength));
+    this.service.saveDocument(siteId, item, null);
+    return item;
+  }
+
+  private void addDocuments(final String siteId, final String root) {
+    final long x = 10;
+    final long y = 20;
+    final long z = 30;
+    addDocument(siteId, root + "/a/x.pdf", x);
+    addDocument(siteId, root + "/a/b/y.pdf", y);
+    addDocument(siteId, root + "/a/b/c/z.pdf", z);
+  }
+
+  private void assertAggregate(final String siteId, final String path, final long childCount,
+      final long documentCount, final long contentLength) throws Exception {
+    FolderAggregate aggregate =
+        this.counter.get(siteId, this.index.getIndex(siteId, path).get("documentId"));
+    assertEquals(childCount, aggregate.childCount());
+    assertEquals(documentCount, aggregate.documentCount());
+    assertEquals(contentLength, aggregate.contentLength());
+  }
+
+  /**
+   * Save documents, save a batch of documents and update content length.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testSave01() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      String root = "r" + UUID.randomUUID();
+
+      // when
+      addDocuments(siteId, root);
+
+      // then
+      final long total = 60;
+      final long b = 50;
+      final long c = 30;
+      assertAggregate(siteId, root + "/", 1, 2 + 1, total);
+      assertAggregate(siteId, root + "/a/", 2, 2 + 1, total);
+      assertAggregate(siteId, root + "/a/b/", 2, 2, b);
+      assertAggregate(siteId, root + "/a/b/c/", 1, 1, c);
+
+      // given
+      final long length = 5;
+      List<DocumentItem> items = new ArrayList<>();
+      for (String path : Arrays.asList(root + "/d/1.txt", root + "/d/2.txt")) {
+        DocumentItem item =
+            new DocumentItemDynamoDb(UUID.randomUUID().toString(), new Date(), "joe");
+        item.setPath(path);
+        item.setContentLength(Long.valueOf(length));
+        items.add(item);
+      }
+
+      // when
+      this.service.saveDocuments(siteId, items, new HashMap<>());
+
+      // then
+      final long documents = 5;
+      final long d = 10;
+      assertAggregate(siteId, root + "/", 2, documents, total + d);
+      assertAggregate(siteId, root + "/d/", 2, 2, d);
+
+      // when
+      final long updated = 100;
+      this.service.updateDocument(siteId, items.get(0).getDocumentId(),
+          Map.of("contentLength", AttributeValue.fromN("" + updated)), false);
+
+      // then
+      assertAggregate(siteId, root + "/", 2, documents, total + length + updated);
+      assertAggregate(siteId, root + "/d/", 2, 2, length + updated);
+    }
+  }
+
+  /**
+   * Delete a document.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testDelete01() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      String root = "r" + UUID.randomUUID();
+      addDocuments(siteId, root);
+      final long length = 40;
+      DocumentItem item = addDocument(siteId, root + "/a/b/w.pdf", length);
+
+      // when
+      this.service.deleteDocument(siteId, item.getDocumentId(), false);
+
+      // then
+      final long total = 60;
+      final long b = 50;
+      assertAggregate(siteId, root + "/", 1, 2 + 1, total);
+      assertAggregate(siteId, root + "/a/b/", 2, 2, b);
+
+      // when
+      this.service.deleteDocument(siteId, item.getDocumentId(), false);
+
+      // then
+      assertAggregate(siteId, root + "/a/b/", 2, 2, b);
+    }
+  }
+
+  /**
+   * Folders created before aggregates were tracked are not initialized and are listed without
+   * aggregates, moving them into a folder uninitializes the target folders.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testInitialized01() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      String root = "r" + UUID.randomUUID();
+      addDocuments(siteId, root);
+      String rootId = this.index.getIndex(siteId, root + "/").get("documentId");
+      String folderId = this.index.getIndex(siteId, root + "/a/b/").get("documentId");
+      assertTrue(this.counter.get(siteId, rootId).isInitialized());
+      assertTrue(this.counter.get(siteId, folderId).isInitialized());
+
+      this.dbClient.deleteItem(DeleteItemRequest.builder().tableName(DOCUMENTS_TABLE)
+          .key(Map.of(DbKeys.PK,
+              AttributeValue
+                  .fromS(createDatabaseKey(siteId, DbKeys.PREFIX_FOLDER_AGGREGATES + folderId)),
+              DbKeys.SK, AttributeValue.fromS("initialized")))
+          .build());
+
+      // when
+      String indexKey = this.index.getIndex(siteId, root + "/a/").get("parentDocumentId") + "#a";
+      PaginationResults<DynamicDocumentItem> results =
+          this.search.findInFolder(siteId, indexKey, null, 2 + 1);
+
+      // then
+      DynamicObject o = results.getResults().stream()
+          .filter(r -> Boolean.TRUE.equals(r.getBoolean("folder"))).findFirst().get();
+      assertEquals("b", o.getString("path"));
+      assertNull(o.getLong("childCount"));
+      assertNull(o.getLong("documentCount"));
+      assertNull(o.getLong("contentLength"));
+
+      // when
+      this.index.moveIndex(siteId, root + "/a/b/", root + "/d/b/", "joe");
+
+      // then
+      String targetId = this.index.getIndex(siteId, root + "/d/").get("documentId");
+      assertFalse(this.counter.get(siteId, rootId).isInitialized());
+      assertFalse(this.counter.get(siteId, targetId).isInitialized());
+      assertTrue(
+          this.counter.get(siteId, this.index.getIndex(siteId, root + "/a/").get("documentId"))
+              .isInitialized());
+    }
+  }
+
+  /**
+   * Move a folder and a file, the aggregates follow the folder.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testMove01() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      String root = "r" + UUID.randomUUID();
+      addDocuments(siteId, root);
+
+      // when
+      this.index.moveIndex(siteId, root + "/a/b/", root + "/b/", "joe");
+
+      // then
+      final long total = 60;
+      final long a = 10;
+      final long b = 50;
+      assertAggregate(siteId, root + "/", 2, 2 + 1, total);
+      assertAggregate(siteId, root + "/a/", 1, 1, a);
+      assertAggregate(siteId, root + "/b/", 2, 2, b);
+
+      // when
+      this.index.moveIndex(siteId, root + "/a/x.pdf", root + "/e/", "joe");
+
+      // then
+      final long folders = 3;
+      assertAggregate(siteId, root + "/", folders, 2 + 1, total);
+      assertAggregate(siteId, root + "/a/", 0, 0, 0);
+      assertAggregate(siteId, root + "/e/", 1, 1, a);
+
+      // when
+      String indexKey = this.index.getIndex(siteId, root + "/a/").get("parentDocumentId") + "#a";
+      this.index.deleteEmptyDirectory(siteId, indexKey);
+
+      // then
+      assertAggregate(siteId, root + "/", 2, 2 + 1, total);
+    }
+  }
+
+  /**
+   * Top level folder changes are spread over shards and summed when read, folder listings include
+   * the aggregates.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testShards01() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      String root = "r" + UUID.randomUUID();
+      final int count = 20;
+      final long length = 3;
+      for (int i = 0; i < count; i++) {
+        addDocument(siteId, root + "/" + i + ".txt", length);
+      }
+      addDocument(siteId, root + "/s/x.txt", length);
+
+      // when
+      Map<String, String> folder = this.index.getIndex(siteId, root + "/");
+      FolderAggregate aggregate = this.counter.get(siteId, folder.get("documentId"));
+
+      // then
+      assertEquals(count + 1, aggregate.childCount());
+      assertEquals(count + 1, aggregate.documentCount());
+      assertEquals((count + 1) * length, aggregate.contentLength());
+
+      // when
+      PaginationResults<DynamicDocumentItem> results =
+          this.search.findInFolder(siteId, "#" + root, null, count + 1);
+
+      // then
+      DynamicObject o = results.getResults().stream()
+          .filter(r -> Boolean.TRUE.equals(r.getBoolean("folder"))).findFirst().get();
+      assertEquals("s", o.getString("path"));
+      assertEquals(Long.valueOf(1), o.getLong("documentCount"));
+      assertEquals(Long.valueOf(1), o.getLong("childCount"));
+      assertEquals(Long.valueOf(length), o.getLong("contentLength"));
+    }
+  }
+}
@@ -37,14 +37,19 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -106,6 +111,88 @@ class FolderIndexProcessorTest implements DbKeys {
     clearSqsQueue(sqsQueueUrl);
   }
 
+  /**
+   * Create folders, where part of the path already exists.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  void testCreateFolders01() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      final int expected = 6;
+      String root = "a" + UUID.randomUUID();
+      List<Map<String, String>> existing = index.createFolders(siteId, root + "/b", "joe");
+
+      // when
+      List<Map<String, String>> folders = index.createFolders(siteId, root + "/b/c/d/e/f", "joe");
+
+      // then
+      assertEquals(expected, folders.size());
+      assertEquals(existing, folders.subList(0, 2));
+      assertEquals("f", folders.get(expected - 1).get("folder"));
+
+      String documentIdE = folders.get(expected - 1).get("indexKey").split("#")[0];
+      assertTrue(index.isFolderIdInPath(siteId, root + "/b/c/d/e", documentIdE));
+      assertEquals("folder", index.getIndex(siteId, root + "/b/c/d/e/f/").get("type"));
+
+      // when
+      List<Map<String, String>> again = index.createFolders(siteId, root + "/b/c/d/e/f", "joe");
+
+      // then
+      assertEquals(folders, again);
+    }
+  }
+
+  /**
+   * Create folders deeper than a single DynamoDb transaction.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  void testCreateFolders02() throws Exception {
+    // given
+    final int depth = 150;
+    String siteId = UUID.randomUUID().toString();
+    String path = IntStream.range(0, depth).mapToObj(i -> "f" + i).collect(Collectors.joining("/"));
+
+    // when
+    List<Map<String, String>> folders = index.createFolders(siteId, path, "joe");
+
+    // then
+    assertEquals(depth, folders.size());
+    assertEquals("folder", index.getIndex(siteId, path + "/").get("type"));
+    assertEquals(folders, index.createFolders(siteId, path, "joe"));
+  }
+
+  /**
+   * Concurrent creation of the same folders resolves to the same folders.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  void testCreateFolders03() throws Exception {
+    // given
+    final int threads = 4;
+    String siteId = UUID.randomUUID().toString();
+    String path = "a/b/c/d";
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    // when
+    List<Future<List<Map<String, String>>>> futures = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      futures.add(executor.submit(() -> index.createFolders(siteId, path, "joe")));
+    }
+
+    // then
+    List<Map<String, String>> expected = futures.get(0).get();
+    for (Future<List<Map<String, String>>> future : futures) {
+      assertEquals(expected, future.get());
+    }
+
+    executor.shutdown();
+  }
+
   /**
    * Test Create all new directories.
    */
@@ -653,4 +740,45 @@ class FolderIndexProcessorTest implements DbKeys {
       assertEquals("file", map.get("type").s());
     }
   }
+
+  /**
+   * Resolve a number of paths.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  void testResolvePaths01() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      String root = "r" + UUID.randomUUID();
+      index.createFolders(siteId, root + "/a/b", "joe");
+      index.createFolders(siteId, root + "/a/c", "joe");
+
+      String documentId = UUID.randomUUID().toString();
+      DocumentItem item = new DocumentItemDynamoDb(documentId, new Date(), "joe");
+      item.setPath(root + "/a/b/test.pdf");
+      dbService.putItems(index.generateIndex(siteId, item));
+
+      List<String> paths = Arrays.asList(root + "/a/b/", root + "/a/c/", root + "/a/",
+          root + "/a/b/test.pdf", root + "/a/d/", root + "/a/d/e/", "/" + root + "/a/b/");
+
+      // when
+      Map<String, FolderIndexRecord> records = index.resolvePaths(siteId, paths);
+
+      // then
+      final int expected = 5;
+      assertEquals(expected, records.size());
+      assertEquals("b", records.get(root + "/a/b/").path());
+      assertEquals("folder", records.get(root + "/a/b/").type());
+      assertEquals("c", records.get(root + "/a/c/").path());
+      assertEquals(records.get(root + "/a/").documentId(),
+          records.get(root + "/a/b/").parentDocumentId());
+      assertEquals(documentId, records.get(root + "/a/b/test.pdf").documentId());
+      assertEquals("file", records.get(root + "/a/b/test.pdf").type());
+      assertEquals(records.get(root + "/a/b/").documentId(),
+          records.get("/" + root + "/a/b/").documentId());
+      assertNull(records.get(root + "/a/d/"));
+      assertNull(records.get(root + "/a/d/e/"));
+    }
+  }
 }
@@ -0,0 +1,261 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import static com.formkiq.testutils.aws.DynamoDbExtension.DOCUMENTS_TABLE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.formkiq.aws.dynamodb.DbKeys;
+import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
+import com.formkiq.aws.dynamodb.DynamoDbService;
+import com.formkiq.aws.dynamodb.DynamoDbServiceImpl;
+import com.formkiq.aws.dynamodb.QueryConfig;
+import com.formkiq.aws.dynamodb.model.DocumentItem;
+import com.formkiq.testutils.aws.DynamoDbExtension;
+import com.formkiq.testutils.aws.DynamoDbTestServices;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Unit Tests for {@link FolderJobServiceDynamoDb}.
+ */
+@ExtendWith(DynamoDbExtension.class)
+public class FolderJobServiceDynamoDbTest implements DbKeys {
+
+  /** {@link FolderAggregateCounter}. */
+  private FolderAggregateCounter aggregates;
+  /** {@link DynamoDbService}. */
+  private DynamoDbService db;
+  /** {@link FolderIndexProcessor}. */
+  private FolderIndexProcessor index;
+  /** {@link DocumentService}. */
+  private DocumentService service;
+  /** {@link FolderJobService}. */
+  private FolderJobService jobs;
+
+  /**
+   * Before Each Test.
+   * 
+   * @throws Exception Exception
+   */
+  @BeforeEach
+  public void before() throws Exception {
+    DynamoDbConnectionBuilder dynamoDbConnection = DynamoDbTestServices.getDynamoDbConnection();
+    this.service = new DocumentServiceImpl(dynamoDbConnection, DOCUMENTS_TABLE,
+        new DocumentVersionServiceNoVersioning());
+    this.index = new FolderIndexProcessorImpl(dynamoDbConnection, DOCUMENTS_TABLE);
+    this.jobs = new FolderJobServiceDynamoDb(dynamoDbConnection, DOCUMENTS_TABLE, this.service);
+    this.aggregates = new FolderAggregateCounter(dynamoDbConnection.build(), DOCUMENTS_TABLE);
+    this.db = new DynamoDbServiceImpl(dynamoDbConnection, DOCUMENTS_TABLE);
+  }
+
+  private List<String> addDocuments(final String siteId, final String root) {
+
+    List<String> documentIds = new ArrayList<>();
+
+    for (String path : Arrays.asList(root + "/a/x.pdf", root + "/a/b/y.pdf",
+        root + "/a/b/c/z.pdf")) {
+      String documentId = UUID.randomUUID().toString();
+      DocumentItem item = new DocumentItemDynamoDb(documentId, new Date(), "joe");
+      item.setPath(path);
+      this.service.saveDocument(siteId, item, null);
+      documentIds.add(documentId);
+    }
+
+    return documentIds;
+  }
+
+  /**
+   * Recursive delete of a folder.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testDelete01() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      String root = "r" + UUID.randomUUID();
+      final List<String> documentIds = addDocuments(siteId, root);
+      Map<String, String> folder = this.index.getIndex(siteId, root + "/a/");
+      String indexKey = folder.get("parentDocumentId") + "#a";
+
+      // when
+      FolderJob job = this.jobs.startDelete(siteId, indexKey, "joe");
+
+      // then
+      assertNotNull(job);
+      assertEquals(FolderJobStatus.PENDING, job.status());
+      assertThrows(IOException.class, () -> this.index.getIndex(siteId, root + "/a/"));
+      FolderAggregate aggregate =
+          this.aggregates.get(siteId, this.index.getIndex(siteId, root + "/").get("documentId"));
+      assertEquals(0, aggregate.childCount());
+      assertEquals(0, aggregate.documentCount());
+      assertTrue(this.aggregates.get(siteId, folder.get("documentId")).isEmpty());
+
+      // when
+      job = this.jobs.runJob(siteId, job.jobId(), FolderJobService.DEFAULT_PAGES);
+
+      // then
+      final int expected = 3;
+      assertEquals(FolderJobStatus.COMPLETE, job.status());
+      assertEquals(expected, job.documents());
+      assertEquals(2, job.folders());
+      assertNull(job.current());
+      assertEquals(0, job.pendingCount());
+      for (String documentId : documentIds) {
+        assertNull(this.service.findDocument(siteId, documentId));
+      }
+
+      assertNull(this.jobs.startDelete(siteId, indexKey, "joe"));
+    }
+  }
+
+  /**
+   * Get job that does not exist.
+   */
+  @Test
+  public void testGetJob01() {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      assertNull(this.jobs.getJob(siteId, UUID.randomUUID().toString()));
+    }
+  }
+
+  /**
+   * Move folder, updating the path of its documents one page at a time.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testMove01() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      String root = "r" + UUID.randomUUID();
+      final List<String> documentIds = addDocuments(siteId, root);
+      this.index.moveIndex(siteId, root + "/a/", "dest/a/", "joe");
+      String folderId = this.index.getIndex(siteId, "dest/a/").get("documentId");
+
+      // when
+      FolderJob job = this.jobs.startMove(siteId, folderId, "dest/a", "joe");
+
+      // then
+      assertEquals(FolderJobType.MOVE, job.type());
+      assertTrue(this.jobs.findActiveJobs(FolderJobService.DEFAULT_PAGES).stream()
+          .anyMatch(j -> j.jobId().equals(job.jobId())));
+
+      // when
+      FolderJob run = this.jobs.runJob(siteId, job.jobId(), 1);
+
+      // then
+      assertEquals(FolderJobStatus.RUNNING, run.status());
+      assertEquals(1, run.documents());
+      assertEquals("dest/a/x.pdf", this.service.findDocument(siteId, documentIds.get(0)).getPath());
+
+      // when
+      this.jobs.runActiveJobs(FolderJobService.DEFAULT_PAGES);
+
+      // then
+      final int expected = 3;
+      run = this.jobs.getJob(siteId, job.jobId());
+      assertEquals(FolderJobStatus.COMPLETE, run.status());
+      assertEquals(expected, run.documents());
+      assertEquals("dest/a/b/y.pdf",
+          this.service.findDocument(siteId, documentIds.get(1)).getPath());
+      assertEquals("dest/a/b/c/z.pdf",
+          this.service.findDocument(siteId, documentIds.get(2)).getPath());
+      assertTrue(this.jobs.findActiveJobs(FolderJobService.DEFAULT_PAGES).stream()
+          .noneMatch(j -> j.jobId().equals(job.jobId())));
+    }
+  }
+
+  /**
+   * Move folder with sub folders queued as pending records, skipping deleted documents.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testMove02() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      String root = "r" + UUID.randomUUID();
+      List<String> documentIds = new ArrayList<>();
+      for (String path : Arrays.asList(root + "/a/x.pdf", root + "/a/b1/y.pdf",
+          root + "/a/b2/z.pdf")) {
+        DocumentItem item =
+            new DocumentItemDynamoDb(UUID.randomUUID().toString(), new Date(), "joe");
+        item.setPath(path);
+        this.service.saveDocument(siteId, item, null);
+        documentIds.add(item.getDocumentId());
+      }
+
+      Map<String, AttributeValue> keys = keysDocument(siteId, documentIds.get(0));
+      this.db.deleteItem(keys.get(PK), keys.get(SK));
+
+      this.index.moveIndex(siteId, root + "/a/", "dest/a/", "joe");
+      String folderId = this.index.getIndex(siteId, "dest/a/").get("documentId");
+      FolderJob job = this.jobs.startMove(siteId, folderId, "dest/a", "joe");
+      final AttributeValue pk = AttributeValue.fromS(job.pk(siteId));
+
+      // when
+      FolderJob run = this.jobs.runJob(siteId, job.jobId(), 1);
+
+      // then
+      assertEquals(FolderJobStatus.RUNNING, run.status());
+      assertEquals(2, run.folders());
+      assertEquals(1, run.pendingCount());
+      assertTrue(run.current().contains("#dest/a/b"));
+      assertNull(this.service.findDocument(siteId, documentIds.get(0)));
+      assertFalse(this.db.get(pk, AttributeValue.fromS(job.sk())).containsKey("pending"));
+      assertEquals(1,
+          this.db.queryBeginsWith(new QueryConfig(), pk, AttributeValue.fromS(FolderJob.PENDING_SK),
+              null, FolderJobService.DEFAULT_PAGES).count());
+
+      // when
+      run = this.jobs.runJob(siteId, job.jobId(), FolderJobService.DEFAULT_PAGES);
+
+      // then
+      assertEquals(FolderJobStatus.COMPLETE, run.status());
+      assertEquals(0, run.pendingCount());
+      assertEquals(0,
+          this.db.queryBeginsWith(new QueryConfig(), pk, AttributeValue.fromS(FolderJob.PENDING_SK),
+              null, FolderJobService.DEFAULT_PAGES).count());
+      assertEquals("dest/a/b1/y.pdf",
+          this.service.findDocument(siteId, documentIds.get(1)).getPath());
+      assertEquals("dest/a/b2/z.pdf",
+          this.service.findDocument(siteId, documentIds.get(2)).getPath());
+    }
+  }
+}
@@ -0,0 +1,253 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import static com.formkiq.testutils.aws.DynamoDbExtension.DOCUMENTS_TABLE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
+import com.formkiq.aws.dynamodb.model.DocumentItem;
+import com.formkiq.testutils.aws.DynamoDbExtension;
+import com.formkiq.testutils.aws.DynamoDbTestServices;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Unit Tests for {@link FolderPathCache}.
+ */
+@ExtendWith(DynamoDbExtension.class)
+public class FolderPathCacheTest {
+
+  /** Maximum Cache Size. */
+  private static final int MAX_SIZE = 3;
+  /** Cache Time to Live. */
+  private static final Duration TTL = Duration.ofMinutes(1);
+
+  /** {@link FolderPathCache}. */
+  private FolderPathCache cache;
+  /** {@link FolderIndexProcessorImpl}. */
+  private FolderIndexProcessorImpl processor;
+
+  /**
+   * Before Each Test.
+   * 
+   * @throws Exception Exception
+   */
+  @BeforeEach
+  public void before() throws Exception {
+    DynamoDbConnectionBuilder dynamoDbConnection = DynamoDbTestServices.getDynamoDbConnection();
+    this.cache = new FolderPathCache(TTL, MAX_SIZE);
+    this.processor = new FolderIndexProcessorImpl(dynamoDbConnection, DOCUMENTS_TABLE);
+    this.processor.setFolderPathCache(this.cache);
+  }
+
+  private Map<String, AttributeValue> folder(final String documentId) {
+    return Map.of("documentId", AttributeValue.fromS(documentId));
+  }
+
+  /**
+   * Invalid constructor arguments.
+   */
+  @Test
+  public void testConstructor01() {
+    assertThrows(IllegalArgumentException.class, () -> new FolderPathCache(null, 1));
+    assertThrows(IllegalArgumentException.class, () -> new FolderPathCache(Duration.ZERO, 1));
+    assertThrows(IllegalArgumentException.class, () -> new FolderPathCache(TTL, 0));
+  }
+
+  /**
+   * Get / Put / Invalidate.
+   */
+  @Test
+  public void testGet01() {
+    // given
+    long stamp = this.cache.stamp();
+
+    // when
+    this.cache.put("pk1", "ff#a", folder("1"), stamp);
+
+    // then
+    assertEquals("1", this.cache.get("pk1", "ff#a").get("documentId").s());
+    assertNull(this.cache.get("pk1", "ff#b"));
+    assertEquals(1, this.cache.hits());
+    assertEquals(1, this.cache.misses());
+
+    // when
+    this.cache.invalidate("pk1", "ff#a");
+
+    // then
+    assertNull(this.cache.get("pk1", "ff#a"));
+    assertEquals(0, this.cache.size());
+  }
+
+  /**
+   * Put with a stamp taken before an invalidation or missing folders are not cached.
+   */
+  @Test
+  public void testPut01() {
+    // given
+    long stamp = this.cache.stamp();
+    this.cache.invalidate("pk1", "ff#a");
+
+    // when
+    this.cache.put("pk1", "ff#a", folder("1"), stamp);
+    this.cache.put("pk1", "ff#b", Collections.emptyMap(), this.cache.stamp());
+
+    // then
+    assertNull(this.cache.get("pk1", "ff#a"));
+    assertNull(this.cache.get("pk1", "ff#b"));
+    assertEquals(0, this.cache.size());
+  }
+
+  /**
+   * Least recently used folders are evicted.
+   */
+  @Test
+  public void testPut02() {
+    // given
+    List<String> sks = Arrays.asList("ff#a", "ff#b", "ff#c", "ff#d");
+
+    // when
+    for (String sk : sks) {
+      this.cache.put("pk1", sk, folder(sk), this.cache.stamp());
+      this.cache.get("pk1", "ff#a");
+    }
+
+    // then
+    assertEquals(MAX_SIZE, this.cache.size());
+    assertEquals(1, this.cache.evictions());
+    assertEquals("ff#a", this.cache.get("pk1", "ff#a").get("documentId").s());
+    assertNull(this.cache.get("pk1", "ff#b"));
+    assertEquals("ff#d", this.cache.get("pk1", "ff#d").get("documentId").s());
+  }
+
+  /**
+   * Expired folders are not returned.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testPut03() throws Exception {
+    // given
+    final long sleep = 50;
+    FolderPathCache c = new FolderPathCache(Duration.ofMillis(1), MAX_SIZE);
+
+    // when
+    c.put("pk1", "ff#a", folder("1"), c.stamp());
+    Thread.sleep(sleep);
+
+    // then
+    assertNull(c.get("pk1", "ff#a"));
+    assertEquals(0, c.size());
+  }
+
+  /**
+   * {@link FolderIndexProcessorImpl} resolves created folders through the cache and deleting a
+   * folder invalidates it.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testProcessor01() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      String path = "a" + UUID.randomUUID() + "/b";
+      List<Map<String, String>> folders = this.processor.createFolders(siteId, path, "joe");
+      final String indexKey = folders.get(1).get("indexKey");
+      final long hits = this.cache.hits();
+      final long misses = this.cache.misses();
+
+      // when
+      boolean found = this.processor.isFolderIdInPath(siteId, path, UUID.randomUUID().toString());
+
+      // then
+      final int expected = 2;
+      assertFalse(found);
+      assertEquals(hits + expected, this.cache.hits());
+      assertEquals(misses, this.cache.misses());
+
+      // when
+      assertTrue(this.processor.deleteEmptyDirectory(siteId, indexKey));
+
+      // then
+      assertThrows(IOException.class,
+          () -> this.processor.isFolderIdInPath(siteId, path, UUID.randomUUID().toString()));
+    }
+  }
+
+  /**
+   * Folders deleted by another process while cached are created again when a folder or document is
+   * added to them.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testProcessor02() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      FolderIndexProcessorImpl other = new FolderIndexProcessorImpl(
+          DynamoDbTestServices.getDynamoDbConnection(), DOCUMENTS_TABLE);
+      String path = "a" + UUID.randomUUID() + "/b";
+      String indexKey = this.processor.createFolders(siteId, path, "joe").get(1).get("indexKey");
+      assertTrue(other.deleteEmptyDirectory(siteId, indexKey));
+
+      // when
+      List<Map<String, String>> folders = this.processor.createFolders(siteId, path + "/c", "joe");
+
+      // then
+      assertEquals(other.createFolders(siteId, path + "/c", "joe"), folders);
+
+      // given
+      final String documentId = other.getIndex(siteId, path + "/").get("documentId");
+      indexKey = folders.get(1).get("indexKey");
+      other.deleteEmptyDirectory(siteId, folders.get(2).get("indexKey"));
+      assertTrue(other.deleteEmptyDirectory(siteId, indexKey));
+
+      DocumentItem item = new DocumentItemDynamoDb(UUID.randomUUID().toString(), new Date(), "joe");
+      item.setPath(path + "/test.txt");
+
+      // when
+      List<Map<String, AttributeValue>> index = this.processor.generateIndex(siteId, item);
+
+      // then
+      Map<String, AttributeValue> folder =
+          index.stream().filter(a -> "b".equals(a.get("path").s())).findFirst().get();
+      assertNotEquals(documentId, folder.get("documentId").s());
+    }
+  }
+}
@@ -27,8 +27,10 @@ import static com.formkiq.testutils.aws.DynamoDbExtension.DOCUMENTS_TABLE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -151,4 +153,37 @@ public class ReadRequestBuilderTest implements DbKeys {
     // then
     assertEquals(1, items.get(DOCUMENTS_TABLE).size());
   }
+
+  /**
+   * Results are returned in the same order as the keys across multiple partitions.
+   */
+  @Test
+  void testDocuments04() {
+    // given
+    final int count = 250;
+    final long seed = 1L;
+    ReadRequestBuilder builder = new ReadRequestBuilder();
+    List<Map<String, AttributeValue>> keys = new ArrayList<>();
+
+    for (int i = 0; i < count; i++) {
+      Map<String, AttributeValue> key =
+          Map.of(PK, AttributeValue.fromS("order"), SK, AttributeValue.fromS("count_" + i));
+      keys.add(key);
+      service.putItem(key);
+    }
+
+    Collections.shuffle(keys, new Random(seed));
+    builder.append(DOCUMENTS_TABLE, keys);
+    BatchGetConfig config = new BatchGetConfig();
+
+    // when
+    List<Map<String, AttributeValue>> items =
+        builder.batchReadItems(dbClient, config).get(DOCUMENTS_TABLE);
+
+    // then
+    assertEquals(count, items.size());
+    for (int i = 0; i < count; i++) {
+      assertEquals(keys.get(i).get(SK).s(), items.get(i).get(SK).s());
+    }
+  }
 }
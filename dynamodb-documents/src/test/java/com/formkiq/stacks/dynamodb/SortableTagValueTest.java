@@ -0,0 +1,91 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit Tests for {@link SortableTagValue}.
+ *
+ */
+public class SortableTagValueTest {
+
+  /**
+   * Assert encoded values sort in the order of the values.
+   * 
+   * @param values {@link List} {@link String} in ascending order
+   */
+  private void assertSorted(final List<String> values) {
+    for (int i = 1; i < values.size(); i++) {
+      String a = SortableTagValue.lowerBound(values.get(i - 1), true);
+      String b = SortableTagValue.lowerBound(values.get(i), true);
+      assertTrue(a.compareTo(b) < 0, values.get(i - 1) + " < " + values.get(i));
+    }
+  }
+
+  /**
+   * Test number encoding.
+   */
+  @Test
+  public void testEncode01() {
+    assertEquals(SortableTagValue.Type.NUMBER, SortableTagValue.type("-12.50"));
+    assertEquals(SortableTagValue.encode("12.5"), SortableTagValue.encode("12.500"));
+    assertEquals(SortableTagValue.encode("0"), SortableTagValue.encode("-0.00"));
+
+    assertSorted(Arrays.asList("-1000", "-120", "-12.5", "-12", "-1", "-0.5", "-0.05", "0", "0.05",
+        "0.5", "1", "9", "10", "12", "12.5", "100", "120", "1000", "99999999999"));
+  }
+
+  /**
+   * Test date encoding.
+   */
+  @Test
+  public void testEncode02() {
+    assertEquals(SortableTagValue.Type.DATE, SortableTagValue.type("2024-01-02"));
+    assertEquals(SortableTagValue.Type.DATE, SortableTagValue.type("2024-01-02T10:15:30Z"));
+    assertEquals("2024-01-02T05:00:00.000", SortableTagValue.encode("2024-01-02T00:00:00-05:00"));
+    assertEquals("2024-01-02T00:00:00.000", SortableTagValue.encode("2024-01-02"));
+
+    assertSorted(Arrays.asList("1999-12-31", "2024-01-01T23:59:59", "2024-01-02",
+        "2024-01-02T00:00:01+00:00", "2024-01-02T10:15:30Z", "2024-02-01"));
+  }
+
+  /**
+   * Test values that are not numbers or dates.
+   */
+  @Test
+  public void testEncode03() {
+    final int digits = 5000;
+    for (String value : Arrays.asList(null, "", "abc", "1e5", "12.", ".5", "2024-13-45",
+        "2024-01-02Tnoon", "1" + "0".repeat(digits))) {
+      assertNull(SortableTagValue.type(value));
+      assertNull(SortableTagValue.encode(value));
+    }
+  }
+}
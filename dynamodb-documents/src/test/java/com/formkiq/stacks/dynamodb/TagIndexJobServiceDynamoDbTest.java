@@ -0,0 +1,139 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.dynamodb;
+
+import static com.formkiq.testutils.aws.DynamoDbExtension.DOCUMENTS_TABLE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.formkiq.aws.dynamodb.DbKeys;
+import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
+import com.formkiq.aws.dynamodb.model.DocumentItem;
+import com.formkiq.aws.dynamodb.model.DocumentTag;
+import com.formkiq.aws.dynamodb.model.DynamicDocumentItem;
+import com.formkiq.aws.dynamodb.model.SearchQuery;
+import com.formkiq.aws.dynamodb.model.SearchTagCriteria;
+import com.formkiq.testutils.aws.DynamoDbExtension;
+import com.formkiq.testutils.aws.DynamoDbTestServices;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+/**
+ * Unit Tests for {@link TagIndexJobServiceDynamoDb}.
+ */
+@ExtendWith(DynamoDbExtension.class)
+public class TagIndexJobServiceDynamoDbTest implements DbKeys {
+
+  /** {@link DynamoDbConnectionBuilder}. */
+  private DynamoDbConnectionBuilder connection;
+  /** {@link TagIndexJobService}. */
+  private TagIndexJobService jobs;
+  /** {@link DocumentService}. */
+  private DocumentService service;
+
+  /**
+   * Before Each Test.
+   * 
+   * @throws Exception Exception
+   */
+  @BeforeEach
+  public void before() throws Exception {
+    this.connection = DynamoDbTestServices.getDynamoDbConnection();
+    this.service = new DocumentServiceImpl(this.connection, DOCUMENTS_TABLE,
+        new DocumentVersionServiceNoVersioning());
+    this.jobs = new TagIndexJobServiceDynamoDb(this.connection, DOCUMENTS_TABLE);
+  }
+
+  /**
+   * Rebuild the tag indices of tags written without GSI3 keys.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testRunJob01() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      DocumentSearchService search =
+          new DocumentSearchServiceImpl(this.connection, this.service, DOCUMENTS_TABLE, null);
+
+      String documentId = UUID.randomUUID().toString();
+      DocumentItem item = new DocumentItemDynamoDb(documentId, new Date(), "joe");
+      this.service.saveDocument(siteId, item,
+          Arrays.asList(new DocumentTag(documentId, "amount", "12", new Date(), "joe"),
+              new DocumentTag(documentId, "category", "person", new Date(), "joe")));
+
+      Map<String, AttributeValue> keys = keysDocumentTag(siteId, documentId, "amount");
+      this.connection.build().updateItem(UpdateItemRequest.builder().tableName(DOCUMENTS_TABLE)
+          .key(keys).updateExpression("REMOVE " + GSI3_PK + ", " + GSI3_SK).build());
+
+      SearchQuery query = new SearchQuery().tag(new SearchTagCriteria("amount").gt("10"));
+      final int max = 10;
+      assertTrue(search.search(siteId, query, null, max).getResults().isEmpty());
+
+      // when
+      String jobId = this.jobs.start(siteId, "joe").jobId();
+      TagIndexJob job = this.jobs.runJob(siteId, jobId, TagIndexJobService.DEFAULT_PAGES);
+
+      // then
+      assertEquals(FolderJobStatus.COMPLETE, job.status());
+      assertEquals(2, job.tags());
+      assertNull(job.tagKey());
+      assertEquals(FolderJobStatus.COMPLETE, this.jobs.getJob(siteId, jobId).status());
+      assertTrue(this.jobs.findActiveJobs(max).stream().noneMatch(j -> j.jobId().equals(jobId)));
+
+      List<DynamicDocumentItem> results = search.search(siteId, query, null, max).getResults();
+      assertEquals(1, results.size());
+      assertEquals(documentId, results.get(0).getDocumentId());
+    }
+  }
+
+  /**
+   * Start job for a site without tags.
+   * 
+   * @throws Exception Exception
+   */
+  @Test
+  public void testStart01() throws Exception {
+    // given
+    String siteId = UUID.randomUUID().toString();
+
+    // when
+    TagIndexJob job = this.jobs.start(siteId, "joe");
+
+    // then
+    assertEquals(FolderJobStatus.COMPLETE, job.status());
+    assertEquals(0, job.tags());
+    assertEquals("joe", this.jobs.getJob(siteId, job.jobId()).userId());
+    assertNull(new FolderJobServiceDynamoDb(this.connection, DOCUMENTS_TABLE, this.service)
+        .getJob(siteId, job.jobId()));
+  }
+}
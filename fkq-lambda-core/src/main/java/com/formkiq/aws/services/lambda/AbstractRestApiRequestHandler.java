@@ -313,6 +313,16 @@ public abstract class AbstractRestApiRequestHandler implements RequestStreamHand
     return body;
   }
 
+  /**
+   * Get {@link RouteMatcher} of the URL Map, compiled from {@link #getUrlMap()} on every call.
+   * Implementations should return a {@link RouteMatcher} compiled once.
+   * 
+   * @return {@link RouteMatcher}
+   */
+  public RouteMatcher<ApiGatewayRequestHandler> getRouteMatcher() {
+    return new RouteMatcher<ApiGatewayRequestHandler>().addAll(getUrlMap());
+  }
+
   /**
    * Get URL Map.
    * 
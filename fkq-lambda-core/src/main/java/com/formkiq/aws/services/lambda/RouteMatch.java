@@ -0,0 +1,83 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.services.lambda;
+
+import java.util.Map;
+
+/**
+ * 
+ * {@link RouteMatcher} result.
+ *
+ * @param <T> Type of value of resources
+ */
+public class RouteMatch<T> {
+
+  /** Path Parameters. */
+  private final Map<String, String> pathParameters;
+  /** Matched resource. */
+  private final String resource;
+  /** Value of the matched resource. */
+  private final T value;
+
+  /**
+   * constructor.
+   * 
+   * @param matchedResource {@link String}
+   * @param resourceValue T
+   * @param parameters {@link Map}
+   */
+  public RouteMatch(final String matchedResource, final T resourceValue,
+      final Map<String, String> parameters) {
+    this.resource = matchedResource;
+    this.value = resourceValue;
+    this.pathParameters = parameters;
+  }
+
+  /**
+   * Get Path Parameters extracted from the request path.
+   * 
+   * @return {@link Map}
+   */
+  public Map<String, String> pathParameters() {
+    return this.pathParameters;
+  }
+
+  /**
+   * Get the matched resource, ie: "/documents/{documentId}".
+   * 
+   * @return {@link String}
+   */
+  public String resource() {
+    return this.resource;
+  }
+
+  /**
+   * Get the value of the matched resource.
+   * 
+   * @return T
+   */
+  public T value() {
+    return this.value;
+  }
+}
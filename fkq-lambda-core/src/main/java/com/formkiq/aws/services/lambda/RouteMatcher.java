@@ -0,0 +1,199 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.services.lambda;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 
+ * Matches request paths to URL resources, ie: "/documents/{documentId}/tags".
+ * 
+ * Resources are compiled into a trie of path segments, so a match costs one lookup per path segment
+ * no matter how many resources are added. Literal segments take precedence over path parameters,
+ * when a literal segment leads to no resource the path parameter branch is tried instead.
+ *
+ * @param <T> Type of value of resources
+ */
+public class RouteMatcher<T> {
+
+  /**
+   * Trie Node of a path segment.
+   *
+   * @param <T> Type of value of resources
+   */
+  private static final class Node<T> {
+    /** Literal segment children. */
+    private final Map<String, Node<T>> literals = new HashMap<>();
+    /** Path parameter segment child. */
+    private Node<T> parameter;
+    /** Path parameter names of the resource ending at this node, null for literal segments. */
+    private String[] parameterNames;
+    /** Resource ending at this node. */
+    private String resource;
+    /** Value of the resource ending at this node. */
+    private T value;
+  }
+
+  /**
+   * Is Path Parameter segment.
+   * 
+   * @param segment {@link String}
+   * @return boolean
+   */
+  private static boolean isParameter(final String segment) {
+    return segment.startsWith("{") && segment.endsWith("}");
+  }
+
+  /**
+   * Split path into segments.
+   * 
+   * @param path {@link String}
+   * @return {@link String}
+   */
+  private static String[] split(final String path) {
+    return path.split("/");
+  }
+
+  /** Root {@link Node}. */
+  private final Node<T> root = new Node<>();
+
+  /**
+   * constructor.
+   */
+  public RouteMatcher() {}
+
+  /**
+   * Add resource, replacing the value of an already added resource.
+   * 
+   * @param resource {@link String}
+   * @param value T
+   * @return {@link RouteMatcher}
+   */
+  public RouteMatcher<T> add(final String resource, final T value) {
+
+    String[] segments = split(resource);
+    String[] names = new String[segments.length];
+    Node<T> node = this.root;
+
+    for (int i = 0; i < segments.length; i++) {
+
+      String segment = segments[i];
+
+      if (isParameter(segment)) {
+
+        names[i] = segment.substring(1, segment.length() - 1);
+        if (node.parameter == null) {
+          node.parameter = new Node<>();
+        }
+        node = node.parameter;
+
+      } else {
+        node = node.literals.computeIfAbsent(segment, s -> new Node<>());
+      }
+    }
+
+    node.resource = resource;
+    node.value = value;
+    node.parameterNames = names;
+    return this;
+  }
+
+  /**
+   * Add resources.
+   * 
+   * @param resources {@link Map} of resource to value
+   * @return {@link RouteMatcher}
+   */
+  public RouteMatcher<T> addAll(final Map<String, T> resources) {
+    resources.forEach((resource, value) -> {
+      if (resource != null) {
+        add(resource, value);
+      }
+    });
+    return this;
+  }
+
+  /**
+   * Find the {@link Node} of the resource matching the segments.
+   * 
+   * @param node {@link Node}
+   * @param segments {@link String}
+   * @param i int
+   * @return {@link Node}
+   */
+  private Node<T> find(final Node<T> node, final String[] segments, final int i) {
+
+    Node<T> found = null;
+
+    if (i == segments.length) {
+
+      found = node.resource != null ? node : null;
+
+    } else {
+
+      Node<T> literal = node.literals.get(segments[i]);
+      if (literal != null) {
+        found = find(literal, segments, i + 1);
+      }
+
+      if (found == null && node.parameter != null) {
+        found = find(node.parameter, segments, i + 1);
+      }
+    }
+
+    return found;
+  }
+
+  /**
+   * Match a request path.
+   * 
+   * @param path {@link String}
+   * @return {@link RouteMatch}, null if no resource matches
+   */
+  public RouteMatch<T> match(final String path) {
+
+    RouteMatch<T> match = null;
+
+    if (path != null) {
+
+      String[] segments = split(path);
+      Node<T> node = find(this.root, segments, 0);
+
+      if (node != null) {
+
+        Map<String, String> parameters = new HashMap<>();
+        for (int i = 0; i < segments.length; i++) {
+          if (node.parameterNames[i] != null) {
+            parameters.put(node.parameterNames[i], segments[i]);
+          }
+        }
+
+        match = new RouteMatch<>(node.resource, node.value, parameters);
+      }
+    }
+
+    return match;
+  }
+}
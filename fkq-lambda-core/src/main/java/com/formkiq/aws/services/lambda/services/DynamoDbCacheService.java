@@ -23,13 +23,12 @@
  */
 package com.formkiq.aws.services.lambda.services;
 
-import java.text.SimpleDateFormat;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.TimeZone;
 import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
@@ -53,13 +52,12 @@ public class DynamoDbCacheService implements CacheService {
   /** Sort Key of Table. */
   private static final String SK = "SK";
 
-  /** {@link SimpleDateFormat} format. */
-  private SimpleDateFormat df;
+  /** {@link DateTimeFormatter}, immutable so it can be shared between threads. */
+  private static final DateTimeFormatter FORMATTER =
+      DateTimeFormatter.ofPattern(DATE_FORMAT).withZone(ZoneOffset.UTC);
 
   /** Cache Table Name. */
   private String cacheTableName;
-  /** UTC {@link TimeZone}. */
-  private TimeZone tz = TimeZone.getTimeZone("UTC");
   /** {@link DynamoDbClient}. */
   private DynamoDbClient dbClient;
 
@@ -77,9 +75,6 @@ public class DynamoDbCacheService implements CacheService {
 
     this.dbClient = connection.build();
     this.cacheTableName = table;
-
-    this.df = new SimpleDateFormat(DATE_FORMAT);
-    this.df.setTimeZone(this.tz);
   }
 
   @Override
@@ -137,7 +132,7 @@ public class DynamoDbCacheService implements CacheService {
     Date now = new Date();
     long timeout = getExpiryTime(cacheInDays).getTime() / MILLISECONDS;
 
-    String fulldate = this.df.format(now);
+    String fulldate = FORMATTER.format(now.toInstant());
 
     Map<String, AttributeValue> pkvalues = new HashMap<String, AttributeValue>();
     pkvalues.put(PK, AttributeValue.builder().s(key).build());
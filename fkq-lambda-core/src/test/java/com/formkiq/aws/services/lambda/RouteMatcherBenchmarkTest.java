@@ -0,0 +1,116 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.services.lambda;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 
+ * Microbenchmark of {@link RouteMatcher}, timing based so it is tagged "benchmark" and excluded
+ * from the default test run.
+ *
+ */
+@Tag("benchmark")
+class RouteMatcherBenchmarkTest {
+
+  /** Number of lookups per benchmark run. */
+  private static final int LOOKUPS = 200000;
+  /** Number of benchmark runs, the fastest run is used. */
+  private static final int RUNS = 5;
+  /** Number of distinct request paths per benchmark run. */
+  private static final int PATHS = 60;
+
+  /**
+   * Create {@link RouteMatcher} of the number of resources.
+   * 
+   * @param count int
+   * @return {@link RouteMatcher}
+   */
+  private RouteMatcher<Integer> createRoutes(final int count) {
+    RouteMatcher<Integer> matcher = new RouteMatcher<>();
+    for (int i = 0; i < count; i++) {
+      matcher.add("/r" + i, Integer.valueOf(i));
+      matcher.add("/r" + i + "/{documentId}", Integer.valueOf(i));
+      matcher.add("/r" + i + "/{documentId}/tags/{tagKey}", Integer.valueOf(i));
+    }
+    return matcher;
+  }
+
+  /**
+   * Fastest time of matching request paths over a number of resources.
+   * 
+   * @param count int
+   * @return long nanoseconds
+   */
+  private long benchmark(final int count) {
+
+    RouteMatcher<Integer> matcher = createRoutes(count);
+    List<String> paths = new ArrayList<>();
+    for (int i = 0; i < PATHS; i++) {
+      paths.add("/r" + (i * count / PATHS) + "/" + i + "/tags/category");
+    }
+
+    long fastest = Long.MAX_VALUE;
+
+    for (int run = 0; run < RUNS; run++) {
+
+      long start = System.nanoTime();
+      for (int i = 0; i < LOOKUPS; i++) {
+        assertEquals("category",
+            matcher.match(paths.get(i % PATHS)).pathParameters().get("tagKey"));
+      }
+
+      fastest = Math.min(fastest, System.nanoTime() - start);
+    }
+
+    return fastest;
+  }
+
+  /**
+   * Microbenchmark, the cost of matching a request path is flat in the number of resources.
+   */
+  @Test
+  void testMatchBenchmark01() {
+    // given
+    final int small = 20;
+    final int large = 2000;
+    final long maxFactor = 5;
+
+    // warm up
+    benchmark(large);
+
+    // when
+    long smallTime = benchmark(small);
+    long largeTime = benchmark(large);
+
+    // then
+    assertTrue(largeTime < smallTime * maxFactor,
+        large + " routes took " + largeTime + "ns, " + small + " routes took " + smallTime + "ns");
+  }
+}
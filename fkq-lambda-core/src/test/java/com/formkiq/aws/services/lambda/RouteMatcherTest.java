@@ -0,0 +1,165 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.aws.services.lambda;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 
+ * Unit Test for {@link RouteMatcher}.
+ *
+ */
+class RouteMatcherTest {
+
+  /**
+   * Create {@link RouteMatcher} of the number of resources.
+   * 
+   * @param count int
+   * @return {@link RouteMatcher}
+   */
+  private RouteMatcher<Integer> createRoutes(final int count) {
+    RouteMatcher<Integer> matcher = new RouteMatcher<>();
+    for (int i = 0; i < count; i++) {
+      matcher.add("/r" + i, Integer.valueOf(i));
+      matcher.add("/r" + i + "/{documentId}", Integer.valueOf(i));
+      matcher.add("/r" + i + "/{documentId}/tags/{tagKey}", Integer.valueOf(i));
+    }
+    return matcher;
+  }
+
+  /**
+   * Literal segments take precedence over path parameters.
+   */
+  @Test
+  void testMatch01() {
+    // given
+    RouteMatcher<String> matcher = new RouteMatcher<String>()
+        .addAll(Map.of("/documents", "a", "/documents/{documentId}", "b", "/documents/upload", "c",
+            "/documents/{documentId}/content", "d", "/documents/{documentId}/upload", "e"));
+
+    // when
+    final RouteMatch<String> m0 = matcher.match("/documents");
+    final RouteMatch<String> m1 = matcher.match("/documents/123");
+    final RouteMatch<String> m2 = matcher.match("/documents/upload");
+    final RouteMatch<String> m3 = matcher.match("/documents/123/content");
+    final RouteMatch<String> m4 = matcher.match("/documents/123/upload");
+
+    // then
+    assertEquals("/documents", m0.resource());
+    assertEquals("a", m0.value());
+    assertTrue(m0.pathParameters().isEmpty());
+    assertEquals("/documents/{documentId}", m1.resource());
+    assertEquals("b", m1.value());
+    assertEquals(Map.of("documentId", "123"), m1.pathParameters());
+    assertEquals("/documents/upload", m2.resource());
+    assertEquals("c", m2.value());
+    assertTrue(m2.pathParameters().isEmpty());
+    assertEquals("/documents/{documentId}/content", m3.resource());
+    assertEquals(Map.of("documentId", "123"), m3.pathParameters());
+    assertEquals("/documents/{documentId}/upload", m4.resource());
+    assertEquals("e", m4.value());
+  }
+
+  /**
+   * Literal segment with no matching resource falls back to the path parameter.
+   */
+  @Test
+  void testMatch02() {
+    // given
+    RouteMatcher<String> matcher = new RouteMatcher<String>().add("/documents/upload", "a")
+        .add("/documents/{documentId}/content", "b").add("/indices/{indexType}/move", "c")
+        .add("/indices/{indexType}/{indexKey}", "d");
+
+    // when
+    final RouteMatch<String> m0 = matcher.match("/documents/upload/content");
+    final RouteMatch<String> m1 = matcher.match("/indices/folder/move");
+    final RouteMatch<String> m2 = matcher.match("/indices/folder/abc");
+
+    // then
+    assertEquals("/documents/{documentId}/content", m0.resource());
+    assertEquals(Map.of("documentId", "upload"), m0.pathParameters());
+    assertEquals("/indices/{indexType}/move", m1.resource());
+    assertEquals(Map.of("indexType", "folder"), m1.pathParameters());
+    assertEquals("/indices/{indexType}/{indexKey}", m2.resource());
+    assertEquals(Map.of("indexType", "folder", "indexKey", "abc"), m2.pathParameters());
+  }
+
+  /**
+   * No matching resource.
+   */
+  @Test
+  void testMatch03() {
+    // given
+    RouteMatcher<String> matcher =
+        new RouteMatcher<String>().add("/documents/{documentId}", "a").add("/sites", "b");
+
+    // when
+    // then
+    assertNull(matcher.match(null));
+    assertNull(matcher.match("/documents"));
+    assertNull(matcher.match("/documents/123/content"));
+    assertNull(matcher.match("/sites/123"));
+    assertNull(matcher.match("/unknown"));
+  }
+
+  /**
+   * Adding a resource again replaces its value.
+   */
+  @Test
+  void testMatch04() {
+    // given
+    RouteMatcher<String> matcher = new RouteMatcher<String>().add("/sites", "a");
+
+    // when
+    matcher.add("/sites", "b");
+
+    // then
+    assertEquals("b", matcher.match("/sites").value());
+    assertEquals("/sites", matcher.match("/sites/").resource());
+  }
+
+  /**
+   * Every request path matches its own resource among a large number of resources.
+   */
+  @Test
+  void testMatch05() {
+    // given
+    final int count = 2000;
+    RouteMatcher<Integer> matcher = createRoutes(count);
+
+    for (int i = 0; i < count; i++) {
+      // when
+      RouteMatch<Integer> match = matcher.match("/r" + i + "/" + i + "/tags/category");
+
+      // then
+      assertEquals("/r" + i + "/{documentId}/tags/{tagKey}", match.resource());
+      assertEquals(Integer.valueOf(i), match.value());
+      assertEquals(Map.of("documentId", "" + i, "tagKey", "category"), match.pathParameters());
+    }
+  }
+}
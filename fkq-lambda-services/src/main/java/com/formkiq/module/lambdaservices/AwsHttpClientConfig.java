@@ -0,0 +1,408 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.module.lambdaservices;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Consumer;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+
+/**
+ * 
+ * Shared HTTP transport configuration for AWS SDK clients.
+ * 
+ * The Apache, Netty and CRT HTTP clients are optional dependencies, each one is only loaded when it
+ * is selected so Lambda functions only need the url-connection-client on the classpath.
+ *
+ */
+public class AwsHttpClientConfig {
+
+  /** Api Call Attempt Timeout in milliseconds. */
+  public static final String API_CALL_ATTEMPT_TIMEOUT = "AWS_API_CALL_ATTEMPT_TIMEOUT";
+  /** Api Call Timeout in milliseconds. */
+  public static final String API_CALL_TIMEOUT = "AWS_API_CALL_TIMEOUT";
+  /** Async HTTP Client, "netty" or "crt". */
+  public static final String HTTP_ASYNC_CLIENT = "AWS_HTTP_ASYNC_CLIENT";
+  /** Sync HTTP Client, "urlconnection" or "apache". */
+  public static final String HTTP_CLIENT = "AWS_HTTP_CLIENT";
+  /** Connection Timeout in milliseconds. */
+  public static final String HTTP_CONNECTION_TIMEOUT = "AWS_HTTP_CONNECTION_TIMEOUT";
+  /** Connection Time To Live in milliseconds. */
+  public static final String HTTP_CONNECTION_TTL = "AWS_HTTP_CONNECTION_TTL";
+  /** Max Connections. */
+  public static final String HTTP_MAX_CONNECTIONS = "AWS_HTTP_MAX_CONNECTIONS";
+  /** Socket Timeout in milliseconds. */
+  public static final String HTTP_SOCKET_TIMEOUT = "AWS_HTTP_SOCKET_TIMEOUT";
+  /** Enable TCP Keep Alive. */
+  public static final String HTTP_TCP_KEEPALIVE = "AWS_HTTP_TCP_KEEPALIVE";
+  /** All Environment Keys. */
+  public static final String[] KEYS = {API_CALL_ATTEMPT_TIMEOUT, API_CALL_TIMEOUT,
+      HTTP_ASYNC_CLIENT, HTTP_CLIENT, HTTP_CONNECTION_TIMEOUT, HTTP_CONNECTION_TTL,
+      HTTP_MAX_CONNECTIONS, HTTP_SOCKET_TIMEOUT, HTTP_TCP_KEEPALIVE};
+
+  /**
+   * Apply value to setter, if the value is set.
+   * 
+   * @param <T> Type of value
+   * @param value T
+   * @param setter {@link Consumer}
+   */
+  private static <T> void set(final T value, final Consumer<T> setter) {
+    if (value != null) {
+      setter.accept(value);
+    }
+  }
+
+  private static Duration toDuration(final String millis) {
+    return millis != null && !millis.isBlank() ? Duration.ofMillis(Long.parseLong(millis)) : null;
+  }
+
+  private static Integer toInteger(final String value) {
+    return value != null && !value.isBlank() ? Integer.valueOf(value) : null;
+  }
+
+  /** Api Call Attempt Timeout. */
+  private Duration apiCallAttemptTimeout;
+  /** Api Call Timeout. */
+  private Duration apiCallTimeout;
+  /** Async HTTP Client. */
+  private String asyncHttpClient;
+  /** Connection Timeout. */
+  private Duration connectionTimeout;
+  /** Connection Time To Live. */
+  private Duration connectionTtl;
+  /** Sync HTTP Client. */
+  private String httpClient;
+  /** Max Connections. */
+  private Integer maxConnections;
+  /** Socket Timeout. */
+  private Duration socketTimeout;
+  /** TCP Keep Alive. */
+  private Boolean tcpKeepAlive;
+
+  /**
+   * constructor.
+   */
+  public AwsHttpClientConfig() {}
+
+  /**
+   * constructor.
+   * 
+   * @param env {@link Map}
+   */
+  public AwsHttpClientConfig(final Map<String, String> env) {
+    this.apiCallAttemptTimeout = toDuration(env.get(API_CALL_ATTEMPT_TIMEOUT));
+    this.apiCallTimeout = toDuration(env.get(API_CALL_TIMEOUT));
+    this.asyncHttpClient = env.get(HTTP_ASYNC_CLIENT);
+    this.connectionTimeout = toDuration(env.get(HTTP_CONNECTION_TIMEOUT));
+    this.connectionTtl = toDuration(env.get(HTTP_CONNECTION_TTL));
+    this.httpClient = env.get(HTTP_CLIENT);
+    this.maxConnections = toInteger(env.get(HTTP_MAX_CONNECTIONS));
+    this.socketTimeout = toDuration(env.get(HTTP_SOCKET_TIMEOUT));
+    this.tcpKeepAlive =
+        env.containsKey(HTTP_TCP_KEEPALIVE) ? Boolean.valueOf(env.get(HTTP_TCP_KEEPALIVE)) : null;
+  }
+
+  /**
+   * Get Api Call Attempt Timeout.
+   * 
+   * @return {@link Duration}
+   */
+  public Duration apiCallAttemptTimeout() {
+    return this.apiCallAttemptTimeout;
+  }
+
+  /**
+   * Set Api Call Attempt Timeout.
+   * 
+   * @param timeout {@link Duration}
+   * @return {@link AwsHttpClientConfig}
+   */
+  public AwsHttpClientConfig apiCallAttemptTimeout(final Duration timeout) {
+    this.apiCallAttemptTimeout = timeout;
+    return this;
+  }
+
+  /**
+   * Get Api Call Timeout.
+   * 
+   * @return {@link Duration}
+   */
+  public Duration apiCallTimeout() {
+    return this.apiCallTimeout;
+  }
+
+  /**
+   * Set Api Call Timeout.
+   * 
+   * @param timeout {@link Duration}
+   * @return {@link AwsHttpClientConfig}
+   */
+  public AwsHttpClientConfig apiCallTimeout(final Duration timeout) {
+    this.apiCallTimeout = timeout;
+    return this;
+  }
+
+  /**
+   * Get Async HTTP Client.
+   * 
+   * @return {@link String}
+   */
+  public String asyncHttpClient() {
+    return this.asyncHttpClient;
+  }
+
+  /**
+   * Set Async HTTP Client, "netty" or "crt".
+   * 
+   * @param client {@link String}
+   * @return {@link AwsHttpClientConfig}
+   */
+  public AwsHttpClientConfig asyncHttpClient(final String client) {
+    this.asyncHttpClient = client;
+    return this;
+  }
+
+  /**
+   * Create {@link SdkAsyncHttpClient.Builder}.
+   * 
+   * @return {@link SdkAsyncHttpClient.Builder}, null if no async HTTP client is configured
+   */
+  public SdkAsyncHttpClient.Builder<?> asyncHttpClientBuilder() {
+
+    SdkAsyncHttpClient.Builder<?> builder = null;
+
+    if ("crt".equalsIgnoreCase(this.asyncHttpClient)) {
+      builder = CrtClient.builder(this);
+    } else if ("netty".equalsIgnoreCase(this.asyncHttpClient)) {
+      builder = NettyClient.builder(this);
+    }
+
+    return builder;
+  }
+
+  /**
+   * Get Connection Timeout.
+   * 
+   * @return {@link Duration}
+   */
+  public Duration connectionTimeout() {
+    return this.connectionTimeout;
+  }
+
+  /**
+   * Set Connection Timeout.
+   * 
+   * @param timeout {@link Duration}
+   * @return {@link AwsHttpClientConfig}
+   */
+  public AwsHttpClientConfig connectionTimeout(final Duration timeout) {
+    this.connectionTimeout = timeout;
+    return this;
+  }
+
+  /**
+   * Get Connection Time To Live.
+   * 
+   * @return {@link Duration}
+   */
+  public Duration connectionTtl() {
+    return this.connectionTtl;
+  }
+
+  /**
+   * Set Connection Time To Live.
+   * 
+   * @param ttl {@link Duration}
+   * @return {@link AwsHttpClientConfig}
+   */
+  public AwsHttpClientConfig connectionTtl(final Duration ttl) {
+    this.connectionTtl = ttl;
+    return this;
+  }
+
+  /**
+   * Get Sync HTTP Client.
+   * 
+   * @return {@link String}
+   */
+  public String httpClient() {
+    return this.httpClient;
+  }
+
+  /**
+   * Set Sync HTTP Client, "urlconnection" or "apache".
+   * 
+   * @param client {@link String}
+   * @return {@link AwsHttpClientConfig}
+   */
+  public AwsHttpClientConfig httpClient(final String client) {
+    this.httpClient = client;
+    return this;
+  }
+
+  /**
+   * Create {@link SdkHttpClient.Builder}.
+   * 
+   * @return {@link SdkHttpClient.Builder}
+   */
+  public SdkHttpClient.Builder<?> httpClientBuilder() {
+
+    SdkHttpClient.Builder<?> builder = null;
+
+    if ("apache".equalsIgnoreCase(this.httpClient)) {
+      builder = ApacheClient.builder(this);
+    } else {
+      UrlConnectionHttpClient.Builder urlBuilder = UrlConnectionHttpClient.builder();
+      set(this.connectionTimeout, urlBuilder::connectionTimeout);
+      set(this.socketTimeout, urlBuilder::socketTimeout);
+      builder = urlBuilder;
+    }
+
+    return builder;
+  }
+
+  /**
+   * Get Max Connections.
+   * 
+   * @return {@link Integer}
+   */
+  public Integer maxConnections() {
+    return this.maxConnections;
+  }
+
+  /**
+   * Set Max Connections.
+   * 
+   * @param max {@link Integer}
+   * @return {@link AwsHttpClientConfig}
+   */
+  public AwsHttpClientConfig maxConnections(final Integer max) {
+    this.maxConnections = max;
+    return this;
+  }
+
+  /**
+   * Create {@link ClientOverrideConfiguration.Builder} with the api call timeouts.
+   * 
+   * @return {@link ClientOverrideConfiguration.Builder}
+   */
+  public ClientOverrideConfiguration.Builder overrideConfiguration() {
+    return ClientOverrideConfiguration.builder().apiCallAttemptTimeout(this.apiCallAttemptTimeout)
+        .apiCallTimeout(this.apiCallTimeout);
+  }
+
+  /**
+   * Get Socket Timeout.
+   * 
+   * @return {@link Duration}
+   */
+  public Duration socketTimeout() {
+    return this.socketTimeout;
+  }
+
+  /**
+   * Set Socket Timeout.
+   * 
+   * @param timeout {@link Duration}
+   * @return {@link AwsHttpClientConfig}
+   */
+  public AwsHttpClientConfig socketTimeout(final Duration timeout) {
+    this.socketTimeout = timeout;
+    return this;
+  }
+
+  /**
+   * Get TCP Keep Alive.
+   * 
+   * @return {@link Boolean}
+   */
+  public Boolean tcpKeepAlive() {
+    return this.tcpKeepAlive;
+  }
+
+  /**
+   * Set TCP Keep Alive.
+   * 
+   * @param keepAlive {@link Boolean}
+   * @return {@link AwsHttpClientConfig}
+   */
+  public AwsHttpClientConfig tcpKeepAlive(final Boolean keepAlive) {
+    this.tcpKeepAlive = keepAlive;
+    return this;
+  }
+
+  /**
+   * Apache HTTP Client, separate class so it is only loaded when used.
+   */
+  private static final class ApacheClient {
+
+    static SdkHttpClient.Builder<?> builder(final AwsHttpClientConfig config) {
+      ApacheHttpClient.Builder builder = ApacheHttpClient.builder();
+      set(config.maxConnections(), builder::maxConnections);
+      set(config.connectionTtl(), builder::connectionTimeToLive);
+      set(config.tcpKeepAlive(), builder::tcpKeepAlive);
+      set(config.connectionTimeout(), builder::connectionTimeout);
+      set(config.socketTimeout(), builder::socketTimeout);
+      return builder;
+    }
+  }
+
+  /**
+   * CRT Async HTTP Client, separate class so it is only loaded when used.
+   */
+  private static final class CrtClient {
+
+    static SdkAsyncHttpClient.Builder<?> builder(final AwsHttpClientConfig config) {
+      AwsCrtAsyncHttpClient.Builder builder = AwsCrtAsyncHttpClient.builder();
+      set(config.maxConnections(), builder::maxConcurrency);
+      set(config.connectionTtl(), builder::connectionMaxIdleTime);
+      set(config.connectionTimeout(), builder::connectionTimeout);
+      return builder;
+    }
+  }
+
+  /**
+   * Netty Async HTTP Client, separate class so it is only loaded when used.
+   */
+  private static final class NettyClient {
+
+    static SdkAsyncHttpClient.Builder<?> builder(final AwsHttpClientConfig config) {
+      NettyNioAsyncHttpClient.Builder builder = NettyNioAsyncHttpClient.builder();
+      set(config.maxConnections(), builder::maxConcurrency);
+      set(config.connectionTtl(), builder::connectionTimeToLive);
+      set(config.tcpKeepAlive(), builder::tcpKeepAlive);
+      set(config.connectionTimeout(), builder::connectionTimeout);
+      set(config.socketTimeout(), builder::readTimeout);
+      set(config.socketTimeout(), builder::writeTimeout);
+      return builder;
+    }
+  }
+}
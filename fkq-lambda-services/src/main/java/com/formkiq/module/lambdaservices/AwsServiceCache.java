@@ -43,6 +43,8 @@ public class AwsServiceCache {
   private final Map<Class<?>, AwsServiceExtension<?>> extensions = new HashMap<>();
   /** FormKiQ Type. */
   private String formKiQType;
+  /** {@link AwsHttpClientConfig}. */
+  private AwsHttpClientConfig httpClientConfig = new AwsHttpClientConfig();
   /** {@link Region}. */
   private Region region;
 
@@ -130,6 +132,7 @@ public class AwsServiceCache {
   public AwsServiceCache environment(final Map<String, String> map) {
     this.environment = new HashMap<>(map);
     this.formKiQType = map.containsKey("FormKiQType") ? map.get("FormKiQType") : "core";
+    this.httpClientConfig = new AwsHttpClientConfig(map);
     return this;
   }
 
@@ -187,6 +190,15 @@ public class AwsServiceCache {
     return result;
   }
 
+  /**
+   * Get {@link AwsHttpClientConfig}.
+   * 
+   * @return {@link AwsHttpClientConfig}
+   */
+  public AwsHttpClientConfig httpClientConfig() {
+    return this.httpClientConfig;
+  }
+
   /**
    * Has Module.
    * 
@@ -29,6 +29,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import org.testcontainers.containers.GenericContainer;
 import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
+import com.formkiq.aws.dynamodb.memory.InMemoryDynamoDbClient;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
@@ -65,6 +66,10 @@ public final class DynamoDbTestServices {
 
       dbConnection = new DynamoDbConnectionBuilder(false).setRegion(AWS_REGION).setCredentials(cred)
           .setEndpointOverride(getEndpoint());
+
+      if (isInMemory()) {
+        dbConnection.setDynamoDbClient(new InMemoryDynamoDbClient());
+      }
     }
 
     return dbConnection;
@@ -94,7 +99,7 @@ public final class DynamoDbTestServices {
    */
   @SuppressWarnings("resource")
   public static GenericContainer<?> getDynamoDbLocal() {
-    if (dynamoDbLocal == null && isPortAvailable()) {
+    if (dynamoDbLocal == null && !isInMemory() && isPortAvailable()) {
       final Integer exposedPort = Integer.valueOf(DEFAULT_PORT);
       dynamoDbLocal = new GenericContainer<>("amazon/dynamodb-local:1.24.0")
           .withExposedPorts(exposedPort).withCommand("-jar DynamoDBLocal.jar -sharedDb");
@@ -120,6 +125,16 @@ public final class DynamoDbTestServices {
     }
   }
 
+  /**
+   * Whether tests run against an {@link InMemoryDynamoDbClient} instead of DynamoDB Local, set by
+   * the "testdynamodbinmemory" system property.
+   * 
+   * @return boolean
+   */
+  public static boolean isInMemory() {
+    return "true".equals(System.getProperty("testdynamodbinmemory"));
+  }
+
   /**
    * Checks Whether LocalStack is currently running on the default port.
    * 
@@ -36,7 +36,9 @@ import com.formkiq.aws.s3.S3Service;
 import com.formkiq.aws.s3.S3ServiceExtension;
 import com.formkiq.aws.services.lambda.AbstractRestApiRequestHandler;
 import com.formkiq.aws.services.lambda.ApiGatewayRequestHandler;
+import com.formkiq.aws.services.lambda.GsonUtil;
 import com.formkiq.aws.services.lambda.LambdaInputRecord;
+import com.formkiq.aws.services.lambda.RouteMatcher;
 import com.formkiq.aws.services.lambda.exceptions.NotFoundException;
 import com.formkiq.aws.services.lambda.services.CacheService;
 import com.formkiq.aws.services.lambda.services.DynamoDbCacheServiceExtension;
@@ -74,6 +76,7 @@ import com.formkiq.stacks.api.handler.DocumentVersionsKeyRequestHandler;
 import com.formkiq.stacks.api.handler.DocumentVersionsRequestHandler;
 import com.formkiq.stacks.api.handler.DocumentsActionsRequestHandler;
 import com.formkiq.stacks.api.handler.DocumentsActionsRetryRequestHandler;
+import com.formkiq.stacks.api.handler.DocumentsBulkRequestHandler;
 import com.formkiq.stacks.api.handler.DocumentsCompressRequestHandler;
 import com.formkiq.stacks.api.handler.DocumentsFulltextRequestHandler;
 import com.formkiq.stacks.api.handler.DocumentsFulltextRequestTagsKeyHandler;
@@ -85,11 +88,15 @@ import com.formkiq.stacks.api.handler.DocumentsSyncsRequestHandler;
 import com.formkiq.stacks.api.handler.DocumentsUploadRequestHandler;
 import com.formkiq.stacks.api.handler.EsignatureDocusignConfigRequestHandler;
 import com.formkiq.stacks.api.handler.EsignatureDocusignDocumentIdRequestHandler;
+import com.formkiq.stacks.api.handler.FolderJobDispatcher;
 import com.formkiq.stacks.api.handler.FoldersIndexKeyRequestHandler;
+import com.formkiq.stacks.api.handler.FoldersJobsIdRequestHandler;
 import com.formkiq.stacks.api.handler.FoldersRequestHandler;
 import com.formkiq.stacks.api.handler.GroupsRequestHandler;
 import com.formkiq.stacks.api.handler.GroupsUsersRequestHandler;
 import com.formkiq.stacks.api.handler.IndicesFolderMoveRequestHandler;
+import com.formkiq.stacks.api.handler.IndicesRebuildJobRequestHandler;
+import com.formkiq.stacks.api.handler.IndicesRebuildRequestHandler;
 import com.formkiq.stacks.api.handler.IndicesRequestHandler;
 import com.formkiq.stacks.api.handler.IndicesSearchRequestHandler;
 import com.formkiq.stacks.api.handler.OnlyOfficeEditRequestHandler;
@@ -103,7 +110,9 @@ import com.formkiq.stacks.api.handler.QueueIdRequestHandler;
 import com.formkiq.stacks.api.handler.QueuesRequestHandler;
 import com.formkiq.stacks.api.handler.SearchFulltextRequestHandler;
 import com.formkiq.stacks.api.handler.SearchRequestHandler;
+import com.formkiq.stacks.api.handler.SearchTagValuesRequestHandler;
 import com.formkiq.stacks.api.handler.SitesRequestHandler;
+import com.formkiq.stacks.api.handler.TagIndexJobDispatcher;
 import com.formkiq.stacks.api.handler.TagSchemasIdRequestHandler;
 import com.formkiq.stacks.api.handler.TagSchemasRequestHandler;
 import com.formkiq.stacks.api.handler.UpdateDocumentMatchingRequestHandler;
@@ -132,6 +141,10 @@ import com.formkiq.stacks.dynamodb.DocumentVersionService;
 import com.formkiq.stacks.dynamodb.DocumentVersionServiceExtension;
 import com.formkiq.stacks.dynamodb.FolderIndexProcessor;
 import com.formkiq.stacks.dynamodb.FolderIndexProcessorExtension;
+import com.formkiq.stacks.dynamodb.FolderJobService;
+import com.formkiq.stacks.dynamodb.FolderJobServiceExtension;
+import com.formkiq.stacks.dynamodb.TagIndexJobService;
+import com.formkiq.stacks.dynamodb.TagIndexJobServiceExtension;
 import com.formkiq.stacks.dynamodb.WebhooksService;
 import com.formkiq.stacks.dynamodb.WebhooksServiceExtension;
 
@@ -146,12 +159,22 @@ public abstract class AbstractCoreRequestHandler extends AbstractRestApiRequestH
   private static boolean isEnablePublicUrls;
   /** Url Class Map. */
   private static final Map<String, ApiGatewayRequestHandler> URL_MAP = new HashMap<>();
+  /** {@link RouteMatcher} of the Url Class Map. */
+  private static final RouteMatcher<ApiGatewayRequestHandler> URL_ROUTES = new RouteMatcher<>();
 
   private static void addGroupUsersEndpoints() {
     addRequestHandler(new GroupsRequestHandler());
     addRequestHandler(new GroupsUsersRequestHandler());
   }
 
+  private static void addIndicesEndpoints() {
+    addRequestHandler(new IndicesFolderMoveRequestHandler());
+    addRequestHandler(new IndicesRebuildJobRequestHandler());
+    addRequestHandler(new IndicesRebuildRequestHandler());
+    addRequestHandler(new IndicesRequestHandler());
+    addRequestHandler(new IndicesSearchRequestHandler());
+  }
+
   private static void addOnlyOfficeEndpoints() {
     addRequestHandler(new OnlyOfficeNewRequestHandler());
     addRequestHandler(new OnlyOfficeSaveRequestHandler());
@@ -165,6 +188,13 @@ public abstract class AbstractCoreRequestHandler extends AbstractRestApiRequestH
    */
   public static void addRequestHandler(final ApiGatewayRequestHandler handler) {
     URL_MAP.put(handler.getRequestUrl(), handler);
+    URL_ROUTES.add(handler.getRequestUrl(), handler);
+  }
+
+  private static void addSearchEndpoints() {
+    addRequestHandler(new SearchRequestHandler());
+    addRequestHandler(new SearchFulltextRequestHandler());
+    addRequestHandler(new SearchTagValuesRequestHandler());
   }
 
   private static void addUserActivitiesEndpoints() {
@@ -200,12 +230,12 @@ public abstract class AbstractCoreRequestHandler extends AbstractRestApiRequestH
     addRequestHandler(new DocumentsActionsRetryRequestHandler());
     addRequestHandler(new FoldersRequestHandler());
     addRequestHandler(new FoldersIndexKeyRequestHandler());
+    addRequestHandler(new FoldersJobsIdRequestHandler());
     addRequestHandler(new DocumentTagValueRequestHandler());
     addRequestHandler(new DocumentTagRequestHandler());
     addRequestHandler(new DocumentIdUrlRequestHandler());
     addRequestHandler(new DocumentIdContentRequestHandler());
-    addRequestHandler(new SearchRequestHandler());
-    addRequestHandler(new SearchFulltextRequestHandler());
+    addSearchEndpoints();
     addRequestHandler(new DocumentsFulltextRequestTagsKeyHandler());
     addRequestHandler(new DocumentsFulltextRequestTagsKeyValueHandler());
     addRequestHandler(new DocumentsUploadRequestHandler());
@@ -222,9 +252,8 @@ public abstract class AbstractCoreRequestHandler extends AbstractRestApiRequestH
     addRequestHandler(new DocumentIdRequestHandler());
     addRequestHandler(new DocumentIdRestoreRequestHandler());
     addRequestHandler(new DocumentsCompressRequestHandler());
-    addRequestHandler(new IndicesFolderMoveRequestHandler());
-    addRequestHandler(new IndicesRequestHandler());
-    addRequestHandler(new IndicesSearchRequestHandler());
+    addRequestHandler(new DocumentsBulkRequestHandler());
+    addIndicesEndpoints();
     addRequestHandler(new EsignatureDocusignDocumentIdRequestHandler());
     addRequestHandler(new EsignatureDocusignConfigRequestHandler());
     addRequestHandler(new UpdateDocumentMatchingRequestHandler());
@@ -291,6 +320,8 @@ public abstract class AbstractCoreRequestHandler extends AbstractRestApiRequestH
     serviceCache.register(DocumentSearchService.class, new DocumentSearchServiceExtension());
     serviceCache.register(DocumentCountService.class, new DocumentCountServiceExtension());
     serviceCache.register(FolderIndexProcessor.class, new FolderIndexProcessorExtension());
+    serviceCache.register(FolderJobService.class, new FolderJobServiceExtension());
+    serviceCache.register(TagIndexJobService.class, new TagIndexJobServiceExtension());
     serviceCache.register(ConfigService.class, new ConfigServiceExtension());
     serviceCache.register(ApiKeysService.class, new ApiKeysServiceExtension());
     serviceCache.register(DocumentSyncService.class, new DocumentSyncServiceExtension());
@@ -330,14 +361,27 @@ public abstract class AbstractCoreRequestHandler extends AbstractRestApiRequestH
     throw new NotFoundException(resource + " not found");
   }
 
+  @Override
+  public RouteMatcher<ApiGatewayRequestHandler> getRouteMatcher() {
+    return URL_ROUTES;
+  }
+
   @Override
   public Map<String, ApiGatewayRequestHandler> getUrlMap() {
     return URL_MAP;
   }
 
   @Override
+  @SuppressWarnings("unchecked")
   public void handleSqsRequest(final LambdaLogger logger, final AwsServiceCache services,
       final LambdaInputRecord record) {
-    // empty
+
+    Map<String, String> msg = GsonUtil.getInstance().fromJson(record.getBody(), Map.class);
+
+    if (msg != null && FolderJobDispatcher.MESSAGE_TYPE.equals(msg.get("type"))) {
+      FolderJobDispatcher.process(services, msg);
+    } else if (msg != null && TagIndexJobDispatcher.MESSAGE_TYPE.equals(msg.get("type"))) {
+      TagIndexJobDispatcher.process(services, msg);
+    }
   }
 }
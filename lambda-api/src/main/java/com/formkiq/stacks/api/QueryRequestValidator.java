@@ -25,9 +25,14 @@ package com.formkiq.stacks.api;
 
 import static software.amazon.awssdk.utils.StringUtils.isEmpty;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 import com.formkiq.aws.dynamodb.model.SearchTagCriteria;
+import com.formkiq.aws.dynamodb.model.SearchTagCriteriaRange;
 import com.formkiq.aws.dynamodb.objects.Objects;
+import com.formkiq.stacks.dynamodb.SortableTagValue;
 import com.formkiq.validation.ValidationError;
 import com.formkiq.validation.ValidationErrorImpl;
 import software.amazon.awssdk.utils.StringUtils;
@@ -72,13 +77,62 @@ public class QueryRequestValidator {
 
     } else {
 
+      if (q.query().tag() != null) {
+        validateRange(q.query().tag(), errors);
+      }
+
       for (SearchTagCriteria tag : Objects.notNull(q.query().tags())) {
         if (StringUtils.isEmpty(tag.key())) {
           errors.add(new ValidationErrorImpl().key("tag/key").error("attribute is required"));
         }
+        validateRange(tag, errors);
       }
     }
 
     return errors;
   }
+
+  /**
+   * Validate 'range', 'gt' and 'lt' of a {@link SearchTagCriteria} are numbers or dates of the same
+   * type.
+   * 
+   * @param tag {@link SearchTagCriteria}
+   * @param errors {@link Collection} {@link ValidationError}
+   */
+  private void validateRange(final SearchTagCriteria tag,
+      final Collection<ValidationError> errors) {
+
+    SearchTagCriteriaRange range = tag.range();
+    String start = range != null ? range.start() : null;
+    String end = range != null ? range.end() : null;
+
+    if (range != null && start == null && end == null) {
+      errors.add(new ValidationErrorImpl().key("tag/range").error("'start' or 'end' is required"));
+    } else if (start != null && tag.gt() != null || end != null && tag.lt() != null) {
+      errors.add(new ValidationErrorImpl().key("tag/range")
+          .error("'range' cannot be combined with 'gt' / 'lt'"));
+    } else {
+      validateRangeValues(Arrays.asList(start, end, tag.gt(), tag.lt()), errors);
+    }
+  }
+
+  /**
+   * Validate range values are numbers or dates of the same type.
+   * 
+   * @param rangeValues {@link List} {@link String}
+   * @param errors {@link Collection} {@link ValidationError}
+   */
+  private void validateRangeValues(final List<String> rangeValues,
+      final Collection<ValidationError> errors) {
+
+    List<String> values = rangeValues.stream().filter(v -> v != null).collect(Collectors.toList());
+
+    if (values.stream().anyMatch(v -> SortableTagValue.type(v) == null)) {
+      errors.add(new ValidationErrorImpl().key("tag/range")
+          .error("range values must be numbers or dates"));
+    } else if (values.stream().map(SortableTagValue::type).distinct().count() > 1) {
+      errors.add(new ValidationErrorImpl().key("tag/range")
+          .error("range values must all be numbers or dates"));
+    }
+  }
 }
@@ -0,0 +1,277 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.api.handler;
+
+import static com.formkiq.aws.dynamodb.objects.Objects.notNull;
+import static com.formkiq.aws.services.lambda.ApiResponseStatus.SC_CREATED;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.formkiq.aws.dynamodb.DynamicObject;
+import com.formkiq.aws.dynamodb.model.DocumentItem;
+import com.formkiq.aws.dynamodb.model.DocumentTag;
+import com.formkiq.aws.dynamodb.model.DocumentTagType;
+import com.formkiq.aws.services.lambda.ApiAuthorization;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestEvent;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestEventUtil;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestHandler;
+import com.formkiq.aws.services.lambda.ApiMapResponse;
+import com.formkiq.aws.services.lambda.ApiPermission;
+import com.formkiq.aws.services.lambda.ApiRequestHandlerResponse;
+import com.formkiq.aws.services.lambda.exceptions.BadException;
+import com.formkiq.module.lambdaservices.AwsServiceCache;
+import com.formkiq.plugins.tagschema.DocumentTagSchemaPlugin;
+import com.formkiq.stacks.dynamodb.DocumentCountService;
+import com.formkiq.stacks.dynamodb.DocumentItemDynamoDb;
+import com.formkiq.stacks.dynamodb.DocumentService;
+import com.formkiq.stacks.dynamodb.DocumentTagValidator;
+import com.formkiq.stacks.dynamodb.DocumentTagValidatorImpl;
+import com.formkiq.stacks.dynamodb.DynamicObjectToDocumentTag;
+import com.formkiq.validation.ValidationError;
+import com.formkiq.validation.ValidationErrorImpl;
+import com.formkiq.validation.ValidationException;
+
+/** {@link ApiGatewayRequestHandler} for "/documents/bulk". */
+public class DocumentsBulkRequestHandler
+    implements ApiGatewayRequestHandler, ApiGatewayRequestEventUtil {
+
+  /** Maximum number of documents per request. */
+  private static final int MAX_DOCUMENTS = 1000;
+
+  /** {@link DocumentsRestrictionsMaxDocuments}. */
+  private DocumentsRestrictionsMaxDocuments restrictionMaxDocuments =
+      new DocumentsRestrictionsMaxDocuments();
+  /** {@link DocumentTagValidator}. */
+  private DocumentTagValidator tagValidator = new DocumentTagValidatorImpl();
+
+  /**
+   * Count the documents that do not exist yet.
+   * 
+   * @param documentService {@link DocumentService}
+   * @param siteId {@link String}
+   * @param documents {@link List} {@link DocumentItem}
+   * @param requestedIds {@link Set} documentIds set in the request
+   * @return long
+   */
+  private long countNewDocuments(final DocumentService documentService, final String siteId,
+      final List<DocumentItem> documents, final Set<String> requestedIds) {
+
+    long existing = 0;
+
+    if (!requestedIds.isEmpty()) {
+      existing =
+          notNull(documentService.findDocuments(siteId, new ArrayList<>(requestedIds))).size();
+    }
+
+    return documents.size() - existing;
+  }
+
+  @Override
+  public String getRequestUrl() {
+    return "/documents/bulk";
+  }
+
+  @Override
+  public Optional<Boolean> isAuthorized(final AwsServiceCache awsservice, final String method,
+      final ApiGatewayRequestEvent event, final ApiAuthorization authorization) {
+    boolean access = authorization.permissions().contains(ApiPermission.WRITE);
+    return Optional.of(Boolean.valueOf(access));
+  }
+
+  @Override
+  public ApiRequestHandlerResponse post(final LambdaLogger logger,
+      final ApiGatewayRequestEvent event, final ApiAuthorization authorization,
+      final AwsServiceCache awsServices) throws Exception {
+
+    String siteId = authorization.siteId();
+    String userId = authorization.username();
+    DynamicObject body = fromBodyToDynamicObject(event);
+
+    List<DynamicObject> objs = validateRequestBody(body);
+
+    Date now = new Date();
+    List<DocumentItem> documents = new ArrayList<>(objs.size());
+    Map<String, Collection<DocumentTag>> tags = new HashMap<>();
+    Set<String> requestedIds = new HashSet<>();
+
+    for (DynamicObject o : objs) {
+
+      String documentId =
+          o.hasString("documentId") ? o.getString("documentId") : UUID.randomUUID().toString();
+
+      if (o.hasString("documentId")) {
+        requestedIds.add(documentId);
+      }
+
+      DocumentItem item = new DocumentItemDynamoDb(documentId, now, userId);
+      item.setPath(o.getString("path"));
+      item.setContentType(o.getString("contentType"));
+      documents.add(item);
+
+      tags.put(documentId, toDocumentTags(o, documentId, now, userId));
+    }
+
+    validateTagSchema(awsServices, siteId, userId, documents, tags);
+
+    DocumentService documentService = awsServices.getExtension(DocumentService.class);
+
+    String maxDocumentCount = this.restrictionMaxDocuments.getValue(awsServices, siteId);
+    long newDocuments = maxDocumentCount != null
+        ? countNewDocuments(documentService, siteId, documents, requestedIds)
+        : 0;
+
+    if (maxDocumentCount != null && this.restrictionMaxDocuments.enforced(awsServices, siteId,
+        maxDocumentCount, Long.valueOf(newDocuments))) {
+      throw new BadException("Max Number of Documents reached");
+    }
+
+    documentService.saveDocuments(siteId, documents, tags);
+
+    if (newDocuments > 0) {
+      DocumentCountService countService = awsServices.getExtension(DocumentCountService.class);
+      countService.incrementDocumentCount(siteId, newDocuments);
+    }
+
+    List<String> documentIds =
+        documents.stream().map(DocumentItem::getDocumentId).collect(Collectors.toList());
+    ApiMapResponse response = new ApiMapResponse(Map.of("documentIds", documentIds));
+    return new ApiRequestHandlerResponse(SC_CREATED, response);
+  }
+
+  /**
+   * Convert request "tags" to {@link DocumentTag}, "values" are multi-value tags.
+   * 
+   * @param o {@link DynamicObject}
+   * @param documentId {@link String}
+   * @param now {@link Date}
+   * @param userId {@link String}
+   * @return {@link List} {@link DocumentTag}
+   */
+  private List<DocumentTag> toDocumentTags(final DynamicObject o, final String documentId,
+      final Date now, final String userId) {
+
+    DynamicObjectToDocumentTag transform = new DynamicObjectToDocumentTag(null);
+
+    return o.getList("tags").stream().map(t -> {
+      DocumentTag tag = transform.apply(t);
+      tag.setDocumentId(documentId);
+      tag.setInsertedDate(now);
+      tag.setUserId(userId);
+      tag.setType(DocumentTagType.USERDEFINED);
+      return tag;
+    }).collect(Collectors.toList());
+  }
+
+  /**
+   * Validate Request body.
+   * 
+   * @param body {@link DynamicObject}
+   * @return {@link List} {@link DynamicObject}
+   * @throws ValidationException ValidationException
+   */
+  private List<DynamicObject> validateRequestBody(final DynamicObject body)
+      throws ValidationException {
+
+    Collection<ValidationError> errors = new ArrayList<>();
+    List<DynamicObject> documents = body.getList("documents");
+
+    if (documents.isEmpty()) {
+      errors.add(new ValidationErrorImpl().key("documents").error("is required"));
+    } else if (documents.size() > MAX_DOCUMENTS) {
+      errors.add(new ValidationErrorImpl().key("documents")
+          .error("maximum number of documents is " + MAX_DOCUMENTS));
+    } else {
+
+      Set<String> documentIds = new HashSet<>();
+
+      for (DynamicObject o : documents) {
+
+        String documentId = o.getString("documentId");
+        if (o.hasString("documentId") && !documentIds.add(documentId)) {
+          errors.add(new ValidationErrorImpl().key("documentId")
+              .error("duplicate documentId '" + documentId + "'"));
+          break;
+        }
+
+        List<DynamicObject> tags = o.getList("tags");
+        if (tags.stream().anyMatch(t -> !t.hasString("key"))) {
+          errors.add(new ValidationErrorImpl().key("tags.key").error("is required"));
+          break;
+        }
+
+        errors.addAll(this.tagValidator
+            .validateKeys(tags.stream().map(t -> t.getString("key")).collect(Collectors.toList())));
+        if (!errors.isEmpty()) {
+          break;
+        }
+      }
+    }
+
+    if (!errors.isEmpty()) {
+      throw new ValidationException(errors);
+    }
+
+    return documents;
+  }
+
+  /**
+   * Validate each document against the TagSchema and add its composite key tags.
+   * 
+   * @param awsservice {@link AwsServiceCache}
+   * @param siteId {@link String}
+   * @param userId {@link String}
+   * @param documents {@link List} {@link DocumentItem}
+   * @param tags {@link Map} of documentId to {@link DocumentTag}
+   * @throws ValidationException ValidationException
+   */
+  private void validateTagSchema(final AwsServiceCache awsservice, final String siteId,
+      final String userId, final List<DocumentItem> documents,
+      final Map<String, Collection<DocumentTag>> tags) throws ValidationException {
+
+    DocumentTagSchemaPlugin plugin = awsservice.getExtension(DocumentTagSchemaPlugin.class);
+    Collection<ValidationError> errors = new ArrayList<>();
+
+    for (DocumentItem item : documents) {
+
+      Collection<DocumentTag> doctags = tags.get(item.getDocumentId());
+      Collection<DocumentTag> compositeTags =
+          plugin.addCompositeKeys(siteId, item, doctags, userId, true, errors);
+
+      if (!errors.isEmpty()) {
+        throw new ValidationException(errors);
+      }
+
+      doctags.addAll(compositeTags);
+    }
+  }
+}
@@ -28,7 +28,8 @@ import com.formkiq.stacks.dynamodb.ConfigService;
 import com.formkiq.stacks.dynamodb.DocumentCountService;
 
 /**
- * {@link DocumentsRestrictions} for Max Number of Documents.
+ * {@link DocumentsRestrictions} for Max Number of Documents. An optional first {@link Number}
+ * argument is the number of documents being added, defaults to 1.
  *
  */
 public class DocumentsRestrictionsMaxDocuments implements DocumentsRestrictions {
@@ -50,7 +51,9 @@ public class DocumentsRestrictionsMaxDocuments implements DocumentsRestrictions
         long max = Long.parseLong(value);
         DocumentCountService countService = awsservice.getExtension(DocumentCountService.class);
         long doccount = countService.getDocumentCount(siteId);
-        enforced = (doccount + 1) > max;
+        long added =
+            objs.length > 0 && objs[0] instanceof Number ? ((Number) objs[0]).longValue() : 1;
+        enforced = (doccount + added) > max;
       } catch (NumberFormatException e) {
         enforced = false;
       }
@@ -0,0 +1,102 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.api.handler;
+
+import java.util.Map;
+import com.formkiq.aws.services.lambda.GsonUtil;
+import com.formkiq.aws.sqs.SqsService;
+import com.formkiq.module.lambdaservices.AwsServiceCache;
+import com.formkiq.stacks.dynamodb.FolderJob;
+import com.formkiq.stacks.dynamodb.FolderJobService;
+import com.formkiq.stacks.dynamodb.FolderJobStatus;
+
+/**
+ * Dispatches {@link FolderJob} to where they are run.
+ * 
+ * <p>
+ * When "FOLDER_JOBS_SQS_URL" is set, jobs are sent to SQS and run a number of pages at a time by
+ * the SQS handler, which is how the CloudFormation template deploys it. When
+ * "FOLDER_JOBS_BACKGROUND" is "true", jobs are left for a background scheduler to pick up.
+ * Otherwise jobs run to completion in the request, which is only meant for local development and
+ * tests as a large folder tree can outlast the request.
+ * </p>
+ */
+public final class FolderJobDispatcher {
+
+  /** SQS Message Type. */
+  public static final String MESSAGE_TYPE = "folderJob";
+
+  /**
+   * Dispatch {@link FolderJob}.
+   * 
+   * @param awsservice {@link AwsServiceCache}
+   * @param job {@link FolderJob}
+   * @return {@link FolderJob}
+   */
+  public static FolderJob dispatch(final AwsServiceCache awsservice, final FolderJob job) {
+
+    FolderJob result = job;
+    String queueUrl = awsservice.environment("FOLDER_JOBS_SQS_URL");
+
+    if (queueUrl != null && !queueUrl.isEmpty()) {
+
+      SqsService sqs = awsservice.getExtension(SqsService.class);
+      Map<String, String> msg = Map.of("type", MESSAGE_TYPE, "siteId",
+          job.siteId() != null ? job.siteId() : "", "jobId", job.jobId());
+      sqs.sendMessage(queueUrl, GsonUtil.getInstance().toJson(msg));
+
+    } else if (!"true".equals(awsservice.environment("FOLDER_JOBS_BACKGROUND"))) {
+
+      FolderJobService service = awsservice.getExtension(FolderJobService.class);
+      result = service.runJob(job.siteId(), job.jobId(), Integer.MAX_VALUE);
+    }
+
+    return result;
+  }
+
+  /**
+   * Run a {@link FolderJob} SQS message, re-queuing the job if it has not completed.
+   * 
+   * @param awsservice {@link AwsServiceCache}
+   * @param msg {@link Map}
+   */
+  public static void process(final AwsServiceCache awsservice, final Map<String, String> msg) {
+
+    String siteId = msg.get("siteId");
+    siteId = siteId != null && !siteId.isEmpty() ? siteId : null;
+
+    String pages = awsservice.environment("FOLDER_JOBS_PAGES");
+    int maxPages = pages != null && !pages.isEmpty() ? Integer.parseInt(pages)
+        : FolderJobService.DEFAULT_PAGES;
+
+    FolderJobService service = awsservice.getExtension(FolderJobService.class);
+    FolderJob job = service.runJob(siteId, msg.get("jobId"), maxPages);
+
+    if (job != null && !FolderJobStatus.COMPLETE.equals(job.status())) {
+      dispatch(awsservice, job);
+    }
+  }
+
+  private FolderJobDispatcher() {}
+}
@@ -23,6 +23,7 @@
  */
 package com.formkiq.stacks.api.handler;
 
+import static com.formkiq.aws.services.lambda.ApiResponseStatus.SC_ACCEPTED;
 import static com.formkiq.aws.services.lambda.ApiResponseStatus.SC_OK;
 import java.io.IOException;
 import java.util.Map;
@@ -37,6 +38,8 @@ import com.formkiq.aws.services.lambda.exceptions.BadException;
 import com.formkiq.aws.services.lambda.exceptions.NotFoundException;
 import com.formkiq.module.lambdaservices.AwsServiceCache;
 import com.formkiq.stacks.dynamodb.FolderIndexProcessor;
+import com.formkiq.stacks.dynamodb.FolderJob;
+import com.formkiq.stacks.dynamodb.FolderJobService;
 
 /** {@link ApiGatewayRequestHandler} for "/folders/{indexKey}". */
 public class FoldersIndexKeyRequestHandler
@@ -58,6 +61,10 @@ public class FoldersIndexKeyRequestHandler
 
     String indexKey = event.getPathParameters().get("indexKey");
 
+    if ("true".equals(getParameter(event, "recursive"))) {
+      return deleteRecursive(siteId, indexKey, authorization.username(), awsservice);
+    }
+
     try {
       boolean deleted = indexProcessor.deleteEmptyDirectory(siteId, indexKey);
 
@@ -73,6 +80,33 @@ public class FoldersIndexKeyRequestHandler
     }
   }
 
+  /**
+   * Start a {@link FolderJob} that deletes the folder and everything under it.
+   * 
+   * @param siteId {@link String}
+   * @param indexKey {@link String}
+   * @param userId {@link String}
+   * @param awsservice {@link AwsServiceCache}
+   * @return {@link ApiRequestHandlerResponse}
+   * @throws NotFoundException NotFoundException
+   */
+  private ApiRequestHandlerResponse deleteRecursive(final String siteId, final String indexKey,
+      final String userId, final AwsServiceCache awsservice) throws NotFoundException {
+
+    FolderJobService jobService = awsservice.getExtension(FolderJobService.class);
+    FolderJob job = jobService.startDelete(siteId, indexKey, userId);
+
+    if (job == null) {
+      throw new NotFoundException("directory not found");
+    }
+
+    job = FolderJobDispatcher.dispatch(awsservice, job);
+
+    ApiMapResponse resp = new ApiMapResponse(
+        Map.of("message", "deleting folder", "jobId", job.jobId(), "status", job.status().name()));
+    return new ApiRequestHandlerResponse(SC_ACCEPTED, resp);
+  }
+
   @Override
   public String getRequestUrl() {
     return "/folders/{indexKey}";
@@ -0,0 +1,96 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.api.handler;
+
+import static com.formkiq.aws.services.lambda.ApiResponseStatus.SC_OK;
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.Map;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.formkiq.aws.dynamodb.objects.DateUtil;
+import com.formkiq.aws.services.lambda.ApiAuthorization;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestEvent;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestEventUtil;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestHandler;
+import com.formkiq.aws.services.lambda.ApiMapResponse;
+import com.formkiq.aws.services.lambda.ApiRequestHandlerResponse;
+import com.formkiq.aws.services.lambda.exceptions.NotFoundException;
+import com.formkiq.module.lambdaservices.AwsServiceCache;
+import com.formkiq.stacks.dynamodb.FolderJob;
+import com.formkiq.stacks.dynamodb.FolderJobService;
+
+/** {@link ApiGatewayRequestHandler} for "/folders/jobs/{jobId}". */
+public class FoldersJobsIdRequestHandler
+    implements ApiGatewayRequestHandler, ApiGatewayRequestEventUtil {
+
+  /** {@link FoldersJobsIdRequestHandler} URL. */
+  public static final String URL = "/folders/jobs/{jobId}";
+
+  /**
+   * constructor.
+   *
+   */
+  public FoldersJobsIdRequestHandler() {}
+
+  @Override
+  public ApiRequestHandlerResponse get(final LambdaLogger logger,
+      final ApiGatewayRequestEvent event, final ApiAuthorization authorization,
+      final AwsServiceCache awsservice) throws Exception {
+
+    String siteId = authorization.siteId();
+    String jobId = event.getPathParameters().get("jobId");
+
+    FolderJobService service = awsservice.getExtension(FolderJobService.class);
+    FolderJob job = service.getJob(siteId, jobId);
+
+    if (job == null) {
+      throw new NotFoundException("job '" + jobId + "' not found");
+    }
+
+    SimpleDateFormat df = DateUtil.getIsoDateFormatter();
+
+    Map<String, Object> map = new HashMap<>();
+    map.put("jobId", job.jobId());
+    map.put("type", job.type().name());
+    map.put("status", job.status().name());
+    map.put("path", job.path());
+    map.put("documents", Long.valueOf(job.documents()));
+    map.put("folders", Long.valueOf(job.folders()));
+    map.put("pendingFolders", Long.valueOf(job.pendingCount() + (job.current() != null ? 1 : 0)));
+    map.put("userId", job.userId());
+    map.put("insertedDate", df.format(job.insertedDate()));
+    map.put("lastModifiedDate", df.format(job.lastModifiedDate()));
+
+    if (job.message() != null) {
+      map.put("message", job.message());
+    }
+
+    return new ApiRequestHandlerResponse(SC_OK, new ApiMapResponse(map));
+  }
+
+  @Override
+  public String getRequestUrl() {
+    return URL;
+  }
+}
@@ -39,6 +39,8 @@ import com.formkiq.aws.services.lambda.ApiRequestHandlerResponse;
 import com.formkiq.aws.services.lambda.exceptions.BadException;
 import com.formkiq.module.lambdaservices.AwsServiceCache;
 import com.formkiq.stacks.dynamodb.FolderIndexProcessor;
+import com.formkiq.stacks.dynamodb.FolderJob;
+import com.formkiq.stacks.dynamodb.FolderJobService;
 import com.formkiq.validation.ValidationError;
 import com.formkiq.validation.ValidationErrorImpl;
 import com.formkiq.validation.ValidationException;
@@ -87,16 +89,35 @@ public class IndicesFolderMoveRequestHandler
     }
 
     FolderIndexProcessor indexProcessor = awsServices.getExtension(FolderIndexProcessor.class);
+    String source = body.get("source").toString();
+    String target = body.get("target").toString();
+    String folderId = null;
 
     try {
-      indexProcessor.moveIndex(siteId, body.get("source").toString(), body.get("target").toString(),
-          userId);
+
+      indexProcessor.moveIndex(siteId, source, target, userId);
+
+      if (source.endsWith("/") && !trimSlashes(target).isEmpty()) {
+        folderId = indexProcessor.getIndex(siteId, target).get("documentId");
+      }
+
     } catch (IOException e) {
       throw new BadException(e.getMessage());
     }
 
     ApiMapResponse resp = new ApiMapResponse();
-    resp.setMap(Map.of("message", "Folder moved"));
+
+    if (folderId != null) {
+      // documents under the moved folder still have the old path
+      FolderJobService jobService = awsServices.getExtension(FolderJobService.class);
+      FolderJob job = jobService.startMove(siteId, folderId, trimSlashes(target), userId);
+      job = FolderJobDispatcher.dispatch(awsServices, job);
+      resp.setMap(
+          Map.of("message", "Folder moved", "jobId", job.jobId(), "status", job.status().name()));
+    } else {
+      resp.setMap(Map.of("message", "Folder moved"));
+    }
+
     return new ApiRequestHandlerResponse(SC_OK, resp);
   }
 
@@ -116,6 +137,23 @@ public class IndicesFolderMoveRequestHandler
     throw new BadException("invalid 'indexType' parameter");
   }
 
+  /**
+   * Remove leading and trailing slashes.
+   * 
+   * @param path {@link String}
+   * @return {@link String}
+   */
+  private String trimSlashes(final String path) {
+    String s = path;
+    while (s.startsWith("/")) {
+      s = s.substring(1);
+    }
+    while (s.endsWith("/")) {
+      s = s.substring(0, s.length() - 1);
+    }
+    return s;
+  }
+
   /**
    * Validate {@link Map}.
    * 
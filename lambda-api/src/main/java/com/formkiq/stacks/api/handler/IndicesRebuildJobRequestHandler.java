@@ -0,0 +1,108 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.api.handler;
+
+import static com.formkiq.aws.services.lambda.ApiResponseStatus.SC_OK;
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.Map;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.formkiq.aws.dynamodb.objects.DateUtil;
+import com.formkiq.aws.services.lambda.ApiAuthorization;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestEvent;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestEventUtil;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestHandler;
+import com.formkiq.aws.services.lambda.ApiMapResponse;
+import com.formkiq.aws.services.lambda.ApiPermission;
+import com.formkiq.aws.services.lambda.ApiRequestHandlerResponse;
+import com.formkiq.aws.services.lambda.exceptions.BadException;
+import com.formkiq.aws.services.lambda.exceptions.NotFoundException;
+import com.formkiq.aws.services.lambda.exceptions.UnauthorizedException;
+import com.formkiq.module.lambdaservices.AwsServiceCache;
+import com.formkiq.stacks.dynamodb.TagIndexJob;
+import com.formkiq.stacks.dynamodb.TagIndexJobService;
+
+/** {@link ApiGatewayRequestHandler} for "/indices/{indexType}/rebuild/{jobId}". */
+public class IndicesRebuildJobRequestHandler
+    implements ApiGatewayRequestHandler, ApiGatewayRequestEventUtil {
+
+  /** {@link IndicesRebuildJobRequestHandler} URL. */
+  public static final String URL = "/indices/{indexType}/rebuild/{jobId}";
+
+  /**
+   * constructor.
+   *
+   */
+  public IndicesRebuildJobRequestHandler() {}
+
+  @Override
+  public void beforeGet(final LambdaLogger logger, final ApiGatewayRequestEvent event,
+      final ApiAuthorization authorization, final AwsServiceCache awsServices) throws Exception {
+    if (!authorization.permissions().contains(ApiPermission.ADMIN)) {
+      throw new UnauthorizedException("user is unauthorized");
+    }
+  }
+
+  @Override
+  public ApiRequestHandlerResponse get(final LambdaLogger logger,
+      final ApiGatewayRequestEvent event, final ApiAuthorization authorization,
+      final AwsServiceCache awsservice) throws Exception {
+
+    String siteId = authorization.siteId();
+    String type = event.getPathParameters().get("indexType");
+    String jobId = event.getPathParameters().get("jobId");
+
+    if (!"tags".equals(type)) {
+      throw new BadException("invalid 'indexType' parameter");
+    }
+
+    TagIndexJobService service = awsservice.getExtension(TagIndexJobService.class);
+    TagIndexJob job = service.getJob(siteId, jobId);
+
+    if (job == null) {
+      throw new NotFoundException("job '" + jobId + "' not found");
+    }
+
+    SimpleDateFormat df = DateUtil.getIsoDateFormatter();
+
+    Map<String, Object> map = new HashMap<>();
+    map.put("jobId", job.jobId());
+    map.put("status", job.status().name());
+    map.put("tags", Long.valueOf(job.tags()));
+    map.put("userId", job.userId());
+    map.put("insertedDate", df.format(job.insertedDate()));
+    map.put("lastModifiedDate", df.format(job.lastModifiedDate()));
+
+    if (job.message() != null) {
+      map.put("message", job.message());
+    }
+
+    return new ApiRequestHandlerResponse(SC_OK, new ApiMapResponse(map));
+  }
+
+  @Override
+  public String getRequestUrl() {
+    return URL;
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.api.handler;
+
+import static com.formkiq.aws.services.lambda.ApiResponseStatus.SC_OK;
+import java.util.Map;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.formkiq.aws.services.lambda.ApiAuthorization;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestEvent;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestEventUtil;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestHandler;
+import com.formkiq.aws.services.lambda.ApiMapResponse;
+import com.formkiq.aws.services.lambda.ApiPermission;
+import com.formkiq.aws.services.lambda.ApiRequestHandlerResponse;
+import com.formkiq.aws.services.lambda.exceptions.BadException;
+import com.formkiq.aws.services.lambda.exceptions.UnauthorizedException;
+import com.formkiq.module.lambdaservices.AwsServiceCache;
+import com.formkiq.stacks.dynamodb.TagIndexJob;
+import com.formkiq.stacks.dynamodb.TagIndexJobService;
+
+/** {@link ApiGatewayRequestHandler} for "/indices/{indexType}/rebuild". */
+public class IndicesRebuildRequestHandler
+    implements ApiGatewayRequestHandler, ApiGatewayRequestEventUtil {
+
+  /** {@link IndicesRebuildRequestHandler} URL. */
+  public static final String URL = "/indices/{indexType}/rebuild";
+
+  /**
+   * constructor.
+   *
+   */
+  public IndicesRebuildRequestHandler() {}
+
+  @Override
+  public void beforePost(final LambdaLogger logger, final ApiGatewayRequestEvent event,
+      final ApiAuthorization authorization, final AwsServiceCache awsServices) throws Exception {
+    if (!authorization.permissions().contains(ApiPermission.ADMIN)) {
+      throw new UnauthorizedException("user is unauthorized");
+    }
+  }
+
+  @Override
+  public String getRequestUrl() {
+    return URL;
+  }
+
+  @Override
+  public ApiRequestHandlerResponse post(final LambdaLogger logger,
+      final ApiGatewayRequestEvent event, final ApiAuthorization authorization,
+      final AwsServiceCache awsServices) throws Exception {
+
+    String siteId = authorization.siteId();
+    String type = event.getPathParameters().get("indexType");
+
+    if (!"tags".equals(type)) {
+      throw new BadException("invalid 'indexType' parameter");
+    }
+
+    TagIndexJobService jobService = awsServices.getExtension(TagIndexJobService.class);
+    TagIndexJob job = jobService.start(siteId, authorization.username());
+    job = TagIndexJobDispatcher.dispatch(awsServices, job);
+
+    ApiMapResponse resp = new ApiMapResponse(Map.of("message", "Index rebuild started", "jobId",
+        job.jobId(), "status", job.status().name()));
+    return new ApiRequestHandlerResponse(SC_OK, resp);
+  }
+}
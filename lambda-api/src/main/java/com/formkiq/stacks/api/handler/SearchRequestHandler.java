@@ -23,6 +23,7 @@
  */
 package com.formkiq.stacks.api.handler;
 
+import static com.formkiq.aws.dynamodb.SiteIdKeyGenerator.DEFAULT_SITE_ID;
 import static com.formkiq.aws.services.lambda.ApiResponseStatus.SC_OK;
 import static com.formkiq.aws.services.lambda.ApiResponseStatus.SC_PAYMENT;
 import static software.amazon.awssdk.utils.StringUtils.isEmpty;
@@ -36,8 +37,11 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
 import com.formkiq.aws.dynamodb.PaginationMapToken;
 import com.formkiq.aws.dynamodb.PaginationResults;
+import com.formkiq.aws.dynamodb.metrics.DynamoDbOperation;
+import com.formkiq.aws.dynamodb.metrics.DynamoDbOperationStats;
 import com.formkiq.aws.dynamodb.model.DocumentItem;
 import com.formkiq.aws.dynamodb.model.DocumentTag;
 import com.formkiq.aws.dynamodb.model.DynamicDocumentItem;
@@ -51,6 +55,7 @@ import com.formkiq.aws.services.lambda.ApiMapResponse;
 import com.formkiq.aws.services.lambda.ApiPagination;
 import com.formkiq.aws.services.lambda.ApiPermission;
 import com.formkiq.aws.services.lambda.ApiRequestHandlerResponse;
+import com.formkiq.aws.services.lambda.GsonUtil;
 import com.formkiq.aws.services.lambda.exceptions.BadException;
 import com.formkiq.aws.services.lambda.services.CacheService;
 import com.formkiq.module.lambdaservices.AwsServiceCache;
@@ -70,8 +75,23 @@ import software.amazon.awssdk.regions.Region;
 /** {@link ApiGatewayRequestHandler} for "/search". */
 public class SearchRequestHandler implements ApiGatewayRequestHandler, ApiGatewayRequestEventUtil {
 
+  /** Search Access Path by {@link DynamoDbOperation} name. */
+  private static final Map<String, String> ACCESS_PATHS =
+      Map.of("search.byTagValue", "GSI1 tag value lookup", "search.byTagEqOr",
+          "GSI1 tag value lookups merged by sort key", "search.byTagRange", "GSI3 tag value range",
+          "search.byTagBeginsWith", "GSI2 tag key scan with beginsWith filter", "search.byTag",
+          "GSI2 tag key scan", "search.byTags", "tag posting list intersection", "search.byMeta",
+          "folder meta data query", "search.byPath", "folder path lookup", "search.byDocumentIds",
+          "documentIds batch get", "search.typesense", "Typesense fulltext");
   /** Maximum number of Document Ids that can be sent. */
   private static final int MAX_DOCUMENT_IDS = 100;
+  /** Slow search threshold not read yet. */
+  private static final long THRESHOLD_UNSET = -2;
+  /** Total search time stage. */
+  private static final String TOTAL = "total";
+
+  /** Slow search threshold in milliseconds, -1 when slow searches are not logged. */
+  private volatile long slowSearchThreshold = THRESHOLD_UNSET;
 
   /**
    * constructor.
@@ -119,7 +139,9 @@ public class SearchRequestHandler implements ApiGatewayRequestHandler, ApiGatewa
 
   private boolean isEnterpriseFeature(final AwsServiceCache serviceCache, final QueryRequest q) {
 
-    return q.query().tag() == null && q.query().meta() == null && isEmpty(q.query().text())
+    boolean noCriteria = q.query().tag() == null && Objects.notNull(q.query().tags()).isEmpty()
+        && q.query().meta() == null;
+    return noCriteria && isEmpty(q.query().text())
         && !serviceCache.getExtension(DocumentTagSchemaPlugin.class).isActive();
   }
 
@@ -164,8 +186,6 @@ public class SearchRequestHandler implements ApiGatewayRequestHandler, ApiGatewa
 
     validatePost(q);
 
-    DocumentService documentService = awsservice.getExtension(DocumentService.class);
-
     if (isEnterpriseFeature(awsservice, q)) {
 
       ApiMapResponse resp = new ApiMapResponse();
@@ -173,49 +193,169 @@ public class SearchRequestHandler implements ApiGatewayRequestHandler, ApiGatewa
       response = new ApiRequestHandlerResponse(SC_PAYMENT, resp);
 
     } else {
+      response = search(logger, event, authorization, awsservice, q);
+    }
 
-      CacheService cacheService = awsservice.getExtension(CacheService.class);
-      ApiPagination pagination = getPagination(cacheService, event);
-      int limit = pagination != null ? pagination.getLimit() : getLimit(logger, event);
-      PaginationMapToken ptoken = pagination != null ? pagination.getStartkey() : null;
+    return response;
+  }
 
-      Collection<String> documentIds = q.query().documentIds();
-      if (documentIds != null) {
-        if (documentIds.size() > MAX_DOCUMENT_IDS) {
-          throw new BadException("Maximum number of DocumentIds is " + MAX_DOCUMENT_IDS);
-        }
+  /**
+   * Perform search.
+   * 
+   * @param logger {@link LambdaLogger}
+   * @param event {@link ApiGatewayRequestEvent}
+   * @param authorization {@link ApiAuthorization}
+   * @param awsservice {@link AwsServiceCache}
+   * @param q {@link QueryRequest}
+   * @return {@link ApiRequestHandlerResponse}
+   * @throws Exception Exception
+   */
+  private ApiRequestHandlerResponse search(final LambdaLogger logger,
+      final ApiGatewayRequestEvent event, final ApiAuthorization authorization,
+      final AwsServiceCache awsservice, final QueryRequest q) throws Exception {
 
-        if (!getQueryParameterMap(event).containsKey("limit")) {
-          limit = documentIds.size();
-        }
+    CacheService cacheService = awsservice.getExtension(CacheService.class);
+    ApiPagination pagination = getPagination(cacheService, event);
+    int limit = pagination != null ? pagination.getLimit() : getLimit(logger, event);
+    PaginationMapToken ptoken = pagination != null ? pagination.getStartkey() : null;
+
+    Collection<String> documentIds = q.query().documentIds();
+    if (documentIds != null) {
+      if (documentIds.size() > MAX_DOCUMENT_IDS) {
+        throw new BadException("Maximum number of DocumentIds is " + MAX_DOCUMENT_IDS);
+      }
+
+      if (!getQueryParameterMap(event).containsKey("limit")) {
+        limit = documentIds.size();
       }
+    }
+
+    String siteId = authorization.siteId();
+    DocumentSearchService documentSearchService =
+        awsservice.getExtension(DocumentSearchService.class);
 
-      String siteId = authorization.siteId();
-      DocumentSearchService documentSearchService =
-          awsservice.getExtension(DocumentSearchService.class);
+    final long start = System.nanoTime();
+    PaginationResults<DynamicDocumentItem> results = null;
+    DynamoDbOperationStats stats = null;
 
-      PaginationResults<DynamicDocumentItem> results =
-          query(awsservice, documentSearchService, siteId, q, ptoken, limit);
+    try (DynamoDbOperation op = DynamoDbOperation.start("api.search")) {
+      results = query(awsservice, documentSearchService, siteId, q, ptoken, limit);
+      stats = op.stats();
+    }
 
-      ApiPagination current =
-          createPagination(cacheService, event, pagination, results.getToken(), limit);
+    final ApiPagination current =
+        createPagination(cacheService, event, pagination, results.getToken(), limit);
 
-      List<DynamicDocumentItem> documents = subList(results.getResults(), limit);
+    List<DynamicDocumentItem> documents = subList(results.getResults(), limit);
 
+    if (!isEmpty(q.query().text())) {
+      DocumentService documentService = awsservice.getExtension(DocumentService.class);
       Map<String, Collection<DocumentTag>> responseTags =
           getResponseTags(documentService, siteId, q.responseFields(), documents);
       mergeResponseTags(documents, responseTags);
+    }
+
+    stats.addTime(TOTAL, System.nanoTime() - start);
+    Map<String, Object> explain = toExplain(awsservice, stats, documents.size());
+    logSlowSearch(logger, awsservice, siteId, q, explain, stats);
 
-      Map<String, Object> map = new HashMap<>();
-      map.put("documents", documents);
-      map.put("previous", current.getPrevious());
-      map.put("next", current.hasNext() ? current.getNext() : null);
+    Map<String, Object> map = new HashMap<>();
+    map.put("documents", documents);
+    map.put("previous", current.getPrevious());
+    map.put("next", current.hasNext() ? current.getNext() : null);
 
-      ApiMapResponse resp = new ApiMapResponse(map);
-      response = new ApiRequestHandlerResponse(SC_OK, resp);
+    if ("true".equals(event.getQueryStringParameter("explain"))) {
+      map.put("explain", explain);
     }
 
-    return response;
+    ApiMapResponse resp = new ApiMapResponse(map);
+    return new ApiRequestHandlerResponse(SC_OK, resp);
+  }
+
+  /**
+   * Get the "SLOW_SEARCH_THRESHOLD_MS" environment variable, parsed on the first search. A missing,
+   * invalid or negative threshold disables slow search logging.
+   * 
+   * @param awsservice {@link AwsServiceCache}
+   * @return long threshold in milliseconds, -1 when disabled
+   */
+  private long getSlowSearchThreshold(final AwsServiceCache awsservice) {
+
+    if (this.slowSearchThreshold == THRESHOLD_UNSET) {
+
+      String threshold = awsservice.environment("SLOW_SEARCH_THRESHOLD_MS");
+      long value = -1;
+
+      if (!isEmpty(threshold)) {
+        try {
+          value = Math.max(-1, Long.parseLong(threshold.trim()));
+        } catch (NumberFormatException e) {
+          value = -1;
+        }
+      }
+
+      this.slowSearchThreshold = value;
+    }
+
+    return this.slowSearchThreshold;
+  }
+
+  /**
+   * Log the search statistics when the search took longer than the "SLOW_SEARCH_THRESHOLD_MS"
+   * environment variable.
+   * 
+   * @param logger {@link LambdaLogger}
+   * @param awsservice {@link AwsServiceCache}
+   * @param siteId {@link String}
+   * @param q {@link QueryRequest}
+   * @param explain {@link Map}
+   * @param stats {@link DynamoDbOperationStats}
+   */
+  private void logSlowSearch(final LambdaLogger logger, final AwsServiceCache awsservice,
+      final String siteId, final QueryRequest q, final Map<String, Object> explain,
+      final DynamoDbOperationStats stats) {
+
+    long threshold = getSlowSearchThreshold(awsservice);
+
+    if (threshold >= 0) {
+
+      long total = stats.timings().getOrDefault(TOTAL, Long.valueOf(0)).longValue();
+
+      if (total >= threshold) {
+        Map<String, Object> log = new HashMap<>(explain);
+        log.put("type", "slowSearch");
+        log.put("siteId", siteId != null ? siteId : DEFAULT_SITE_ID);
+        log.put("query", q.query());
+        logger.log(GsonUtil.getInstance().toJson(log));
+      }
+    }
+  }
+
+  /**
+   * Convert {@link DynamoDbOperationStats} to the search explain {@link Map}. The DynamoDb calls,
+   * items read and consumed capacity are only measured when "DYNAMODB_METRICS" is set, which
+   * "dynamodbStats" reports.
+   * 
+   * @param awsservice {@link AwsServiceCache}
+   * @param stats {@link DynamoDbOperationStats}
+   * @param itemsReturned int
+   * @return {@link Map}
+   */
+  private Map<String, Object> toExplain(final AwsServiceCache awsservice,
+      final DynamoDbOperationStats stats, final int itemsReturned) {
+
+    DynamoDbConnectionBuilder db = awsservice.getExtension(DynamoDbConnectionBuilder.class);
+
+    Map<String, Object> map = stats.toMap();
+    map.put("dynamodbStats", Boolean.valueOf(db.isMetricsEnabled()));
+
+    String accessPath = stats.operations().stream().filter(ACCESS_PATHS::containsKey)
+        .map(ACCESS_PATHS::get).findFirst().orElse(null);
+    map.put("accessPath", accessPath);
+    map.put("itemsReturned", Integer.valueOf(itemsReturned));
+    map.put("hydrationBatches", stats.counters().getOrDefault("hydrate.batches", Long.valueOf(0)));
+
+    return map;
   }
 
   /**
@@ -252,9 +392,15 @@ public class SearchRequestHandler implements ApiGatewayRequestHandler, ApiGatewa
       TypeSenseService ts = new TypeSenseServiceImpl(awsservice.environment("TYPESENSE_HOST"),
           awsservice.environment("TYPESENSE_API_KEY"), region, awsCredentials);
 
-      List<String> documentIds = ts.searchFulltext(siteId, text, limit);
+      List<DocumentItem> list = null;
 
-      List<DocumentItem> list = docService.findDocuments(siteId, documentIds);
+      DynamoDbOperation op = DynamoDbOperation.start("search.typesense");
+      try {
+        List<String> documentIds = ts.searchFulltext(siteId, text, limit);
+        list = docService.findDocuments(siteId, documentIds);
+      } finally {
+        op.close();
+      }
 
       List<DynamicDocumentItem> docs =
           list != null ? list.stream().map(l -> new DocumentItemToDynamicDocumentItem().apply(l))
@@ -264,7 +410,7 @@ public class SearchRequestHandler implements ApiGatewayRequestHandler, ApiGatewa
 
     } else {
 
-      results = documentSearchService.search(siteId, q.query(), ptoken, limit);
+      results = documentSearchService.search(siteId, q.query(), q.responseFields(), ptoken, limit);
     }
 
     return results;
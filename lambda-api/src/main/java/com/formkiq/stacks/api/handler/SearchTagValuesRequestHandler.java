@@ -0,0 +1,108 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.api.handler;
+
+import static com.formkiq.aws.services.lambda.ApiResponseStatus.SC_OK;
+import java.util.List;
+import java.util.Map;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.formkiq.aws.dynamodb.DynamicObject;
+import com.formkiq.aws.dynamodb.model.SearchMetaCriteria;
+import com.formkiq.aws.dynamodb.model.SearchQuery;
+import com.formkiq.aws.dynamodb.model.SearchTagCriteria;
+import com.formkiq.aws.services.lambda.ApiAuthorization;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestEvent;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestEventUtil;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestHandler;
+import com.formkiq.aws.services.lambda.ApiMapResponse;
+import com.formkiq.aws.services.lambda.ApiRequestHandlerResponse;
+import com.formkiq.aws.services.lambda.exceptions.BadException;
+import com.formkiq.module.lambdaservices.AwsServiceCache;
+import com.formkiq.stacks.dynamodb.DocumentSearchService;
+
+/** {@link ApiGatewayRequestHandler} for "/search/tags/{tagKey}/values". */
+public class SearchTagValuesRequestHandler
+    implements ApiGatewayRequestHandler, ApiGatewayRequestEventUtil {
+
+  /**
+   * constructor.
+   *
+   */
+  public SearchTagValuesRequestHandler() {}
+
+  /**
+   * Create the {@link SearchQuery} the counts are scoped to.
+   *
+   * @param event {@link ApiGatewayRequestEvent}
+   * @return {@link SearchQuery}
+   */
+  private SearchQuery createScope(final ApiGatewayRequestEvent event) {
+
+    String folder = event.getQueryStringParameter("folder");
+    String tag = event.getQueryStringParameter("tag");
+    String value = event.getQueryStringParameter("value");
+
+    SearchQuery scope = null;
+
+    if (tag != null) {
+      SearchTagCriteria criteria = new SearchTagCriteria(tag);
+      if (value != null) {
+        criteria.eq(value);
+      }
+      scope = new SearchQuery().tag(criteria);
+    } else if (folder != null) {
+      scope = new SearchQuery().meta(new SearchMetaCriteria().folder(folder));
+    }
+
+    return scope;
+  }
+
+  @Override
+  public ApiRequestHandlerResponse get(final LambdaLogger logger,
+      final ApiGatewayRequestEvent event, final ApiAuthorization authorization,
+      final AwsServiceCache awsservice) throws Exception {
+
+    String siteId = authorization.siteId();
+    String tagKey = event.getPathParameters().get("tagKey");
+    int limit = getLimit(logger, event);
+
+    DocumentSearchService service = awsservice.getExtension(DocumentSearchService.class);
+
+    List<DynamicObject> values = null;
+
+    try {
+      values = service.findTagValueCounts(siteId, tagKey, createScope(event), limit);
+    } catch (IllegalArgumentException e) {
+      throw new BadException(e.getMessage());
+    }
+
+    ApiMapResponse resp = new ApiMapResponse(Map.of("values", values));
+    return new ApiRequestHandlerResponse(SC_OK, resp);
+  }
+
+  @Override
+  public String getRequestUrl() {
+    return "/search/tags/{tagKey}/values";
+  }
+}
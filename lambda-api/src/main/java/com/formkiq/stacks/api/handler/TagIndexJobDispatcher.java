@@ -0,0 +1,100 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.api.handler;
+
+import java.util.Map;
+import com.formkiq.aws.services.lambda.GsonUtil;
+import com.formkiq.aws.sqs.SqsService;
+import com.formkiq.module.lambdaservices.AwsServiceCache;
+import com.formkiq.stacks.dynamodb.FolderJobStatus;
+import com.formkiq.stacks.dynamodb.TagIndexJob;
+import com.formkiq.stacks.dynamodb.TagIndexJobService;
+
+/**
+ * Dispatches {@link TagIndexJob} to where they are run.
+ * 
+ * <p>
+ * Tag index jobs share the queue and settings of the {@link FolderJobDispatcher},
+ * "FOLDER_JOBS_SQS_URL", "FOLDER_JOBS_BACKGROUND" and "FOLDER_JOBS_PAGES", and are told apart by
+ * their SQS message type.
+ * </p>
+ */
+public final class TagIndexJobDispatcher {
+
+  /** SQS Message Type. */
+  public static final String MESSAGE_TYPE = "tagIndexJob";
+
+  /**
+   * Dispatch {@link TagIndexJob}.
+   * 
+   * @param awsservice {@link AwsServiceCache}
+   * @param job {@link TagIndexJob}
+   * @return {@link TagIndexJob}
+   */
+  public static TagIndexJob dispatch(final AwsServiceCache awsservice, final TagIndexJob job) {
+
+    TagIndexJob result = job;
+    String queueUrl = awsservice.environment("FOLDER_JOBS_SQS_URL");
+
+    if (queueUrl != null && !queueUrl.isEmpty()) {
+
+      SqsService sqs = awsservice.getExtension(SqsService.class);
+      Map<String, String> msg = Map.of("type", MESSAGE_TYPE, "siteId",
+          job.siteId() != null ? job.siteId() : "", "jobId", job.jobId());
+      sqs.sendMessage(queueUrl, GsonUtil.getInstance().toJson(msg));
+
+    } else if (!"true".equals(awsservice.environment("FOLDER_JOBS_BACKGROUND"))) {
+
+      TagIndexJobService service = awsservice.getExtension(TagIndexJobService.class);
+      result = service.runJob(job.siteId(), job.jobId(), Integer.MAX_VALUE);
+    }
+
+    return result;
+  }
+
+  /**
+   * Run a {@link TagIndexJob} SQS message, re-queuing the job if it has not completed.
+   * 
+   * @param awsservice {@link AwsServiceCache}
+   * @param msg {@link Map}
+   */
+  public static void process(final AwsServiceCache awsservice, final Map<String, String> msg) {
+
+    String siteId = msg.get("siteId");
+    siteId = siteId != null && !siteId.isEmpty() ? siteId : null;
+
+    String pages = awsservice.environment("FOLDER_JOBS_PAGES");
+    int maxPages = pages != null && !pages.isEmpty() ? Integer.parseInt(pages)
+        : TagIndexJobService.DEFAULT_PAGES;
+
+    TagIndexJobService service = awsservice.getExtension(TagIndexJobService.class);
+    TagIndexJob job = service.runJob(siteId, msg.get("jobId"), maxPages);
+
+    if (job != null && !FolderJobStatus.COMPLETE.equals(job.status())) {
+      dispatch(awsservice, job);
+    }
+  }
+
+  private TagIndexJobDispatcher() {}
+}
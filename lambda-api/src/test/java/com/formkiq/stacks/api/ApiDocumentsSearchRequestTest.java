@@ -492,11 +492,25 @@ public class ApiDocumentsSearchRequestTest extends AbstractRequestHandler {
   public void testHandleSearchRequest10() throws Exception {
     for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
       // given
+      final Date now = new Date();
+      final String username = "jsmith";
+      String tagKey = UUID.randomUUID().toString();
+      String documentId0 = UUID.randomUUID().toString();
+      String documentId1 = UUID.randomUUID().toString();
+
+      getDocumentService().saveDocument(siteId,
+          new DocumentItemDynamoDb(documentId0, now, username),
+          Arrays.asList(new DocumentTag(documentId0, tagKey, "person", now, username),
+              new DocumentTag(documentId0, "test", "", now, username)));
+      getDocumentService().saveDocument(siteId,
+          new DocumentItemDynamoDb(documentId1, now, username),
+          Arrays.asList(new DocumentTag(documentId1, tagKey, "person", now, username)));
+
       ApiGatewayRequestEvent event = toRequestEvent("/request-post-search01.json");
       addParameter(event, "siteId", siteId);
       event.setIsBase64Encoded(Boolean.FALSE);
-      QueryRequest q = new QueryRequest()
-          .query(new SearchQuery().tags(Arrays.asList(new SearchTagCriteria().key("test"))));
+      QueryRequest q = new QueryRequest().query(new SearchQuery().tags(Arrays.asList(
+          new SearchTagCriteria().key(tagKey).eq("person"), new SearchTagCriteria().key("test"))));
       event.setIsBase64Encoded(Boolean.FALSE);
       event.setBody(GsonUtil.getInstance().toJson(q));
 
@@ -504,10 +518,13 @@ public class ApiDocumentsSearchRequestTest extends AbstractRequestHandler {
       String response = handleRequest(event);
 
       // then
-      String expected = "{" + getHeaders() + ",\"body\":"
-          + "\"{\\\"message\\\":\\\"Feature only available in FormKiQ Enterprise\\\"}\","
-          + "\"statusCode\":402}";
-      assertEquals(expected, response);
+      Map<String, String> m = fromJson(response, Map.class);
+      assertEquals("200.0", String.valueOf(m.get("statusCode")));
+
+      DynamicObject resp = new DynamicObject(fromJson(m.get("body"), Map.class));
+      List<DynamicObject> documents = resp.getList("documents");
+      assertEquals(1, documents.size());
+      assertEquals(documentId0, documents.get(0).get("documentId"));
     }
   }
 
@@ -839,4 +856,87 @@ public class ApiDocumentsSearchRequestTest extends AbstractRequestHandler {
       assertEquals(documentId, documents.get(0).get("documentId"));
     }
   }
+
+  /**
+   * Invalid Tag range.
+   *
+   * @throws Exception an error has occurred
+   */
+  @Test
+  public void testHandleSearchRequest18() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      ApiGatewayRequestEvent event = toRequestEvent("/request-post-search01.json");
+      addParameter(event, "siteId", siteId);
+      event.setIsBase64Encoded(Boolean.FALSE);
+      QueryRequest q = new QueryRequest()
+          .query(new SearchQuery().tag(new SearchTagCriteria("amount").gt("1").lt("2024-01-01")));
+      event.setBody(GsonUtil.getInstance().toJson(q));
+
+      // when
+      String response = handleRequest(event);
+
+      // then
+      String expected =
+          "{" + getHeaders() + ",\"body\":" + "\"{\\\"errors\\\":[{\\\"key\\\":\\\"tag/range\\\","
+              + "\\\"error\\\":\\\"range values must all be numbers or dates\\\"}]}\","
+              + "\"statusCode\":400}";
+      assertEquals(expected, response);
+    }
+  }
+
+  /**
+   * POST search with explain.
+   *
+   * @throws Exception an error has occurred
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testHandleSearchRequest19() throws Exception {
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      String documentId = UUID.randomUUID().toString();
+      String tagKey = UUID.randomUUID().toString();
+      Date now = new Date();
+
+      getDocumentService().saveDocument(siteId, new DocumentItemDynamoDb(documentId, now, "joe"),
+          Arrays.asList(new DocumentTag(documentId, tagKey, "person", now, "joe")));
+
+      ApiGatewayRequestEvent event = toRequestEvent("/request-post-search01.json");
+      addParameter(event, "siteId", siteId);
+      addParameter(event, "explain", "true");
+      event.setIsBase64Encoded(Boolean.FALSE);
+      QueryRequest q = new QueryRequest()
+          .query(new SearchQuery().tag(new SearchTagCriteria(tagKey).eq("person")));
+      event.setBody(GsonUtil.getInstance().toJson(q));
+
+      // when
+      String response = handleRequest(event);
+
+      // then
+      Map<String, String> m = fromJson(response, Map.class);
+      assertEquals("200.0", String.valueOf(m.get("statusCode")));
+      DynamicObject resp = new DynamicObject(fromJson(m.get("body"), Map.class));
+      assertEquals(1, resp.getList("documents").size());
+
+      Map<String, Object> explain = (Map<String, Object>) resp.get("explain");
+      assertEquals("GSI1 tag value lookup", explain.get("accessPath"));
+      assertEquals("[search.byTagValue]", explain.get("operations").toString());
+      assertEquals("1.0", String.valueOf(explain.get("itemsReturned")));
+      assertEquals("1.0", String.valueOf(explain.get("hydrationBatches")));
+      assertEquals(Boolean.FALSE, explain.get("dynamodbStats"));
+      assertTrue(((Map<String, Object>) explain.get("timings")).containsKey("total"));
+
+      // given
+      addParameter(event, "explain", "false");
+
+      // when
+      response = handleRequest(event);
+
+      // then
+      m = fromJson(response, Map.class);
+      resp = new DynamicObject(fromJson(m.get("body"), Map.class));
+      assertNull(resp.get("explain"));
+    }
+  }
 }
@@ -0,0 +1,169 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.api;
+
+import static com.formkiq.aws.dynamodb.SiteIdKeyGenerator.DEFAULT_SITE_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.formkiq.aws.dynamodb.model.DocumentItem;
+import com.formkiq.aws.dynamodb.model.DocumentTag;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestEvent;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestEventBuilder;
+import com.formkiq.lambda.apigateway.util.GsonUtil;
+import com.formkiq.module.http.JsonServiceGson;
+import com.formkiq.stacks.dynamodb.DocumentItemDynamoDb;
+import com.formkiq.stacks.dynamodb.DocumentService;
+import com.formkiq.testutils.aws.DynamoDbExtension;
+import com.formkiq.testutils.aws.LocalStackExtension;
+
+/** Unit Tests for request /search/tags/{tagKey}/values. */
+@ExtendWith(LocalStackExtension.class)
+@ExtendWith(DynamoDbExtension.class)
+public class ApiSearchTagValuesRequestTest extends AbstractRequestHandler {
+
+  /** {@link JsonServiceGson}. */
+  private JsonServiceGson gson = new JsonServiceGson();
+
+  private void addDocument(final String siteId, final String tagKey, final String tagValue) {
+    String userId = "joe";
+    String documentId = UUID.randomUUID().toString();
+    DocumentItem item = new DocumentItemDynamoDb(documentId, new Date(), userId);
+    DocumentTag tag = new DocumentTag(documentId, tagKey, tagValue, new Date(), userId);
+    getAwsServices().getExtension(DocumentService.class).saveDocument(siteId, item,
+        Arrays.asList(tag));
+  }
+
+  /**
+   * Get /search/tags/{tagKey}/values request.
+   * 
+   * @param siteId {@link String}
+   * @param tagKey {@link String}
+   * @param query {@link Map}
+   * @return {@link ApiGatewayRequestEvent}
+   */
+  private ApiGatewayRequestEvent getRequest(final String siteId, final String tagKey,
+      final Map<String, String> query) {
+    Map<String, String> params = new HashMap<>(query);
+    if (siteId != null) {
+      params.put("siteId", siteId);
+    }
+
+    ApiGatewayRequestEvent event = new ApiGatewayRequestEventBuilder().method("get")
+        .resource("/search/tags/{tagKey}/values").path("/search/tags/" + tagKey + "/values")
+        .group(siteId != null ? siteId : DEFAULT_SITE_ID).user("joesmith")
+        .pathParameters(Map.of("tagKey", tagKey)).queryParameters(params).build();
+    return event;
+  }
+
+  /**
+   * Get /search/tags/{tagKey}/values request.
+   *
+   * @throws Exception an error has occurred
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testHandleGetTagValues01() throws Exception {
+
+    // given
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+
+      String tagKey = UUID.randomUUID().toString();
+      addDocument(siteId, tagKey, "a");
+      addDocument(siteId, tagKey, "a");
+      addDocument(siteId, tagKey, "b");
+
+      ApiGatewayRequestEvent event = getRequest(siteId, tagKey, Map.of());
+
+      // when
+      String response = handleRequest(event);
+
+      // then
+      Map<String, String> m = GsonUtil.getInstance().fromJson(response, Map.class);
+      final int mapsize = 3;
+      assertEquals(mapsize, m.size());
+      assertEquals("200.0", String.valueOf(m.get("statusCode")));
+
+      Map<String, Object> body = this.gson.fromJsonToMap(m.get("body"));
+      List<Map<String, Object>> list = (List<Map<String, Object>>) body.get("values");
+      assertEquals(2, list.size());
+      assertEquals("a", list.get(0).get("value"));
+      assertEquals("2.0", String.valueOf(list.get(0).get("count")));
+      assertEquals("b", list.get(1).get("value"));
+      assertEquals("1.0", String.valueOf(list.get(1).get("count")));
+
+      // given
+      event = getRequest(siteId, tagKey, Map.of("limit", "1"));
+
+      // when
+      response = handleRequest(event);
+
+      // then
+      m = GsonUtil.getInstance().fromJson(response, Map.class);
+      body = this.gson.fromJsonToMap(m.get("body"));
+      list = (List<Map<String, Object>>) body.get("values");
+      assertEquals(1, list.size());
+      assertEquals("a", list.get(0).get("value"));
+    }
+  }
+
+  /**
+   * Get /search/tags/{tagKey}/values request scoped by tag.
+   *
+   * @throws Exception an error has occurred
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testHandleGetTagValues02() throws Exception {
+
+    // given
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+
+      String tagKey = UUID.randomUUID().toString();
+      addDocument(siteId, tagKey, "a");
+      addDocument(siteId, tagKey, "b");
+
+      ApiGatewayRequestEvent event =
+          getRequest(siteId, tagKey, Map.of("tag", tagKey, "value", "b"));
+
+      // when
+      String response = handleRequest(event);
+
+      // then
+      Map<String, String> m = GsonUtil.getInstance().fromJson(response, Map.class);
+      assertEquals("200.0", String.valueOf(m.get("statusCode")));
+
+      Map<String, Object> body = this.gson.fromJsonToMap(m.get("body"));
+      List<Map<String, Object>> list = (List<Map<String, Object>>) body.get("values");
+      assertEquals(1, list.size());
+      assertEquals("b", list.get(0).get("value"));
+    }
+  }
+}
@@ -0,0 +1,189 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.formkiq.aws.dynamodb.model.DocumentItem;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestEvent;
+import com.formkiq.lambda.apigateway.util.GsonUtil;
+import com.formkiq.testutils.aws.DynamoDbExtension;
+import com.formkiq.testutils.aws.LocalStackExtension;
+
+/** Unit Tests for request /documents/bulk. */
+@ExtendWith(LocalStackExtension.class)
+@ExtendWith(DynamoDbExtension.class)
+public class DocumentsBulkRequestTest extends AbstractRequestHandler {
+
+  /**
+   * POST /documents/bulk request.
+   *
+   * @throws Exception an error has occurred
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testHandlePost01() throws Exception {
+
+    final int count = 30;
+
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      List<Map<String, Object>> documents = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        documents.add(Map.of("path", "bulk/doc" + i + ".txt", "contentType", "text/plain", "tags",
+            List.of(Map.of("key", "category", "value", "bulk"))));
+      }
+
+      ApiGatewayRequestEvent event = toRequestEvent("/request-post-documents-bulk.json");
+      addParameter(event, "siteId", siteId);
+      event.setBody(GsonUtil.getInstance().toJson(Map.of("documents", documents)));
+
+      // when
+      String response = handleRequest(event);
+
+      // then
+      Map<String, String> m = GsonUtil.getInstance().fromJson(response, Map.class);
+
+      final int mapsize = 3;
+      assertEquals(mapsize, m.size());
+      assertEquals("201.0", String.valueOf(m.get("statusCode")));
+      assertEquals(getHeaders(), "\"headers\":" + GsonUtil.getInstance().toJson(m.get("headers")));
+
+      Map<String, Object> body = GsonUtil.getInstance().fromJson(m.get("body"), Map.class);
+      List<String> documentIds = (List<String>) body.get("documentIds");
+      assertEquals(count, documentIds.size());
+
+      for (int i = 0; i < count; i++) {
+        DocumentItem item = getDocumentService().findDocument(siteId, documentIds.get(i));
+        assertNotNull(item);
+        assertEquals("bulk/doc" + i + ".txt", item.getPath());
+        assertEquals("text/plain", item.getContentType());
+        assertEquals("bulk", getDocumentService()
+            .findDocumentTag(siteId, documentIds.get(i), "category").getValue());
+      }
+    }
+  }
+
+  /**
+   * POST /documents/bulk missing 'documents'.
+   *
+   * @throws Exception an error has occurred
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testHandlePost02() throws Exception {
+
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      ApiGatewayRequestEvent event = toRequestEvent("/request-post-documents-bulk.json");
+      addParameter(event, "siteId", siteId);
+      event.setBody("{}");
+
+      // when
+      String response = handleRequest(event);
+
+      // then
+      Map<String, String> m = GsonUtil.getInstance().fromJson(response, Map.class);
+
+      final int mapsize = 3;
+      assertEquals(mapsize, m.size());
+      assertEquals("400.0", String.valueOf(m.get("statusCode")));
+      assertEquals("{\"errors\":[{\"key\":\"documents\",\"error\":\"is required\"}]}",
+          m.get("body"));
+    }
+  }
+
+  /**
+   * POST /documents/bulk too many documents.
+   *
+   * @throws Exception an error has occurred
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testHandlePost03() throws Exception {
+
+    final int count = 1001;
+
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      List<Map<String, Object>> documents = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        documents.add(Map.of("path", "doc" + i + ".txt"));
+      }
+
+      ApiGatewayRequestEvent event = toRequestEvent("/request-post-documents-bulk.json");
+      addParameter(event, "siteId", siteId);
+      event.setBody(GsonUtil.getInstance().toJson(Map.of("documents", documents)));
+
+      // when
+      String response = handleRequest(event);
+
+      // then
+      Map<String, String> m = GsonUtil.getInstance().fromJson(response, Map.class);
+      assertEquals("400.0", String.valueOf(m.get("statusCode")));
+      assertEquals("{\"errors\":[{\"key\":\"documents\","
+          + "\"error\":\"maximum number of documents is 1000\"}]}", m.get("body"));
+    }
+  }
+
+  /**
+   * POST /documents/bulk duplicate 'documentId'.
+   *
+   * @throws Exception an error has occurred
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testHandlePost04() throws Exception {
+
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      String documentId = UUID.randomUUID().toString();
+      List<Map<String, Object>> documents =
+          List.of(Map.of("documentId", documentId, "path", "doc1.txt"), Map.of("path", "doc2.txt"),
+              Map.of("documentId", documentId, "path", "doc3.txt"));
+
+      ApiGatewayRequestEvent event = toRequestEvent("/request-post-documents-bulk.json");
+      addParameter(event, "siteId", siteId);
+      event.setBody(GsonUtil.getInstance().toJson(Map.of("documents", documents)));
+
+      // when
+      String response = handleRequest(event);
+
+      // then
+      Map<String, String> m = GsonUtil.getInstance().fromJson(response, Map.class);
+      assertEquals("400.0", String.valueOf(m.get("statusCode")));
+      assertEquals("{\"errors\":[{\"key\":\"documentId\"," + "\"error\":\"duplicate documentId '"
+          + documentId + "'\"}]}", m.get("body"));
+      assertNull(getDocumentService().findDocument(siteId, documentId));
+    }
+  }
+}
@@ -24,8 +24,11 @@
 package com.formkiq.stacks.api;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
@@ -216,4 +219,49 @@ public class IndicesFolderMoveRequestTest extends AbstractRequestHandler {
       }
     }
   }
+
+  /**
+   * POST /indices/folder/move folder, updating the path of its documents.
+   *
+   * @throws Exception an error has occurred
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testHandlePost06() throws Exception {
+
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      List<String> documentIds = new ArrayList<>();
+      for (String path : Arrays.asList("x/z/test.pdf", "x/z/y/test2.pdf")) {
+        String documentId = UUID.randomUUID().toString();
+        DocumentItem item = new DocumentItemDynamoDb(documentId, new Date(), "joe");
+        item.setPath(path);
+        getDocumentService().saveDocument(siteId, item, null);
+        documentIds.add(documentId);
+      }
+
+      ApiGatewayRequestEvent event = toRequestEvent("/request-post-indices-move.json");
+      event.setPathParameters(Map.of("indexType", "folder"));
+      addParameter(event, "siteId", siteId);
+      Map<String, String> body = Map.of("source", "x/z/", "target", "a/b/");
+      event.setBody(GsonUtil.getInstance().toJson(body));
+
+      // when
+      String response = handleRequest(event);
+
+      // then
+      Map<String, String> m = GsonUtil.getInstance().fromJson(response, Map.class);
+      assertEquals("200.0", String.valueOf(m.get("statusCode")));
+
+      Map<String, String> resp = GsonUtil.getInstance().fromJson(m.get("body"), Map.class);
+      assertEquals("Folder moved", resp.get("message"));
+      assertNotNull(resp.get("jobId"));
+      assertEquals("COMPLETE", resp.get("status"));
+
+      assertEquals("a/b/test.pdf",
+          getDocumentService().findDocument(siteId, documentIds.get(0)).getPath());
+      assertEquals("a/b/y/test2.pdf",
+          getDocumentService().findDocument(siteId, documentIds.get(1)).getPath());
+    }
+  }
 }
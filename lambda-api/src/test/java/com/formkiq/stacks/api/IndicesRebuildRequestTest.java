@@ -0,0 +1,199 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2018 - 2020 FormKiQ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.formkiq.stacks.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.formkiq.aws.services.lambda.ApiGatewayRequestEvent;
+import com.formkiq.lambda.apigateway.util.GsonUtil;
+import com.formkiq.testutils.aws.DynamoDbExtension;
+import com.formkiq.testutils.aws.LocalStackExtension;
+
+/** Unit Tests for request /indices/{indexType}/rebuild, /indices/{indexType}/rebuild/{jobId}. */
+@ExtendWith(LocalStackExtension.class)
+@ExtendWith(DynamoDbExtension.class)
+public class IndicesRebuildRequestTest extends AbstractRequestHandler {
+
+  /**
+   * GET /indices/tags/rebuild/{jobId} request.
+   *
+   * @throws Exception an error has occurred
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testHandleGet01() throws Exception {
+
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      ApiGatewayRequestEvent event = toRequestEvent("/request-post-indices-rebuild.json");
+      event.setPathParameters(Map.of("indexType", "tags"));
+      addParameter(event, "siteId", siteId);
+      setCognitoGroup(event, "Admins");
+
+      Map<String, String> m = GsonUtil.getInstance().fromJson(handleRequest(event), Map.class);
+      Map<String, String> resp = GsonUtil.getInstance().fromJson(m.get("body"), Map.class);
+      String jobId = resp.get("jobId");
+
+      event = toRequestEvent("/request-get-indices-rebuild-job.json");
+      event.setPathParameters(Map.of("indexType", "tags", "jobId", jobId));
+      addParameter(event, "siteId", siteId);
+      setCognitoGroup(event, "Admins");
+
+      // when
+      String response = handleRequest(event);
+
+      // then
+      m = GsonUtil.getInstance().fromJson(response, Map.class);
+      assertEquals("200.0", String.valueOf(m.get("statusCode")));
+
+      resp = GsonUtil.getInstance().fromJson(m.get("body"), Map.class);
+      assertEquals(jobId, resp.get("jobId"));
+      assertEquals("COMPLETE", resp.get("status"));
+      assertNotNull(resp.get("insertedDate"));
+
+      // tag index jobs are not folder jobs
+      event = toRequestEvent("/request-get-indices-rebuild-job.json");
+      event.setResource("/folders/jobs/{jobId}");
+      event.setPath("/folders/jobs/" + jobId);
+      event.setPathParameters(Map.of("jobId", jobId));
+      addParameter(event, "siteId", siteId);
+      setCognitoGroup(event, "Admins");
+
+      m = GsonUtil.getInstance().fromJson(handleRequest(event), Map.class);
+      assertEquals("404.0", String.valueOf(m.get("statusCode")));
+    }
+  }
+
+  /**
+   * GET /indices/tags/rebuild/{jobId} job not found.
+   *
+   * @throws Exception an error has occurred
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testHandleGet02() throws Exception {
+
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      String jobId = UUID.randomUUID().toString();
+      ApiGatewayRequestEvent event = toRequestEvent("/request-get-indices-rebuild-job.json");
+      event.setPathParameters(Map.of("indexType", "tags", "jobId", jobId));
+      addParameter(event, "siteId", siteId);
+      setCognitoGroup(event, "Admins");
+
+      // when
+      String response = handleRequest(event);
+
+      // then
+      Map<String, String> m = GsonUtil.getInstance().fromJson(response, Map.class);
+      assertEquals("404.0", String.valueOf(m.get("statusCode")));
+      assertEquals("{\"message\":\"job '" + jobId + "' not found\"}", m.get("body"));
+    }
+  }
+
+  /**
+   * POST /indices/tags/rebuild request.
+   *
+   * @throws Exception an error has occurred
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testHandlePost01() throws Exception {
+
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      ApiGatewayRequestEvent event = toRequestEvent("/request-post-indices-rebuild.json");
+      event.setPathParameters(Map.of("indexType", "tags"));
+      addParameter(event, "siteId", siteId);
+      setCognitoGroup(event, "Admins");
+
+      // when
+      String response = handleRequest(event);
+
+      // then
+      Map<String, String> m = GsonUtil.getInstance().fromJson(response, Map.class);
+      assertEquals("200.0", String.valueOf(m.get("statusCode")));
+
+      Map<String, String> resp = GsonUtil.getInstance().fromJson(m.get("body"), Map.class);
+      assertEquals("Index rebuild started", resp.get("message"));
+      assertNotNull(resp.get("jobId"));
+      assertEquals("COMPLETE", resp.get("status"));
+    }
+  }
+
+  /**
+   * POST /indices/{indexType}/rebuild invalid index type.
+   *
+   * @throws Exception an error has occurred
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testHandlePost02() throws Exception {
+
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      ApiGatewayRequestEvent event = toRequestEvent("/request-post-indices-rebuild.json");
+      event.setPathParameters(Map.of("indexType", "folder"));
+      addParameter(event, "siteId", siteId);
+      setCognitoGroup(event, "Admins");
+
+      // when
+      String response = handleRequest(event);
+
+      // then
+      Map<String, String> m = GsonUtil.getInstance().fromJson(response, Map.class);
+      assertEquals("400.0", String.valueOf(m.get("statusCode")));
+      assertEquals("{\"message\":\"invalid 'indexType' parameter\"}", m.get("body"));
+    }
+  }
+
+  /**
+   * POST /indices/tags/rebuild without admin permission.
+   *
+   * @throws Exception an error has occurred
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testHandlePost03() throws Exception {
+
+    for (String siteId : Arrays.asList(null, UUID.randomUUID().toString())) {
+      // given
+      ApiGatewayRequestEvent event = toRequestEvent("/request-post-indices-rebuild.json");
+      event.setPathParameters(Map.of("indexType", "tags"));
+      addParameter(event, "siteId", siteId);
+
+      // when
+      String response = handleRequest(event);
+
+      // then
+      Map<String, String> m = GsonUtil.getInstance().fromJson(response, Map.class);
+      assertEquals("403.0", String.valueOf(m.get("statusCode")));
+    }
+  }
+}
@@ -36,6 +36,7 @@ import java.util.concurrent.ExecutionException;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.formkiq.lambda.runtime.graalvm.LambdaContext;
 import com.formkiq.module.lambda.typesense.TypesenseProcessor;
+import com.formkiq.stacks.dynamodb.DocumentCache;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
@@ -55,6 +56,8 @@ import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsAsyncClie
  */
 public class DynamoDbStreamToTypesense implements Closeable {
 
+  /** {@link DocumentCache}, null if documents are not cached. */
+  private DocumentCache documentCache;
   /** {@link Gson}. */
   private Gson gson = new GsonBuilder().create();
   /** {@link Map}. */
@@ -74,13 +77,16 @@ public class DynamoDbStreamToTypesense implements Closeable {
    * @param dynamoDbStreamArn {@link String}
    * @param dynamodbUri {@link String}
    * @param typesenseProcessor {@link String}
+   * @param cache {@link DocumentCache} to invalidate on changes, can be null
    */
   public DynamoDbStreamToTypesense(final Region awsRegion,
       final AwsCredentialsProvider awsCredentialsProvider, final String dynamoDbStreamArn,
-      final URI dynamodbUri, final TypesenseProcessor typesenseProcessor) {
+      final URI dynamodbUri, final TypesenseProcessor typesenseProcessor,
+      final DocumentCache cache) {
 
     this.streamArn = dynamoDbStreamArn;
     this.processor = typesenseProcessor;
+    this.documentCache = cache;
 
     this.streamsClient = DynamoDbStreamsAsyncClient.builder().endpointOverride(dynamodbUri)
         .region(awsRegion).credentialsProvider(awsCredentialsProvider).build();
@@ -119,6 +125,21 @@ public class DynamoDbStreamToTypesense implements Closeable {
     return shards;
   }
 
+  /**
+   * Remove the changed document from the {@link DocumentCache}, changes made by other processes (S3
+   * events, other nodes) would otherwise be served stale until the entry expires.
+   * 
+   * @param record {@link software.amazon.awssdk.services.dynamodb.model.Record}
+   */
+  private void invalidate(final software.amazon.awssdk.services.dynamodb.model.Record record) {
+
+    AttributeValue pk = record.dynamodb().keys().get("PK");
+
+    if (this.documentCache != null && pk != null) {
+      this.documentCache.invalidate(pk.s());
+    }
+  }
+
   /**
    * Run Stream Poller.
    */
@@ -151,6 +172,8 @@ public class DynamoDbStreamToTypesense implements Closeable {
 
         for (software.amazon.awssdk.services.dynamodb.model.Record record : records) {
 
+          invalidate(record);
+
           Map<String, Object> map = transform(record);
 
           Context context = new LambdaContext(UUID.randomUUID().toString());
@@ -50,6 +50,32 @@ public class HttpServer {
   /** {@link Logger}. */
   private static Logger logger = Logger.getLogger(HttpServer.class.getName());
 
+  /**
+   * Add AWS SDK HTTP Client Options.
+   * 
+   * @param options {@link Options}
+   */
+  private static void addAwsHttpClientOptions(final Options options) {
+    options.addOption(new Option(null, "aws-http-client", true,
+        "AWS SDK http client, 'apache' (default) or 'urlconnection'"));
+    options.addOption(new Option(null, "aws-http-async-client", true,
+        "AWS SDK async http client, 'netty' (default) or 'crt'"));
+    options.addOption(
+        new Option(null, "aws-http-max-connections", true, "AWS SDK http max connections"));
+    options.addOption(new Option(null, "aws-http-connection-ttl", true,
+        "AWS SDK http connection time to live (ms)"));
+    options
+        .addOption(new Option(null, "aws-http-tcp-keepalive", true, "AWS SDK http tcp keep alive"));
+    options.addOption(new Option(null, "aws-http-connection-timeout", true,
+        "AWS SDK http connection timeout (ms)"));
+    options.addOption(
+        new Option(null, "aws-http-socket-timeout", true, "AWS SDK http socket timeout (ms)"));
+    options.addOption(new Option(null, "aws-api-call-attempt-timeout", true,
+        "AWS SDK api call attempt timeout (ms)"));
+    options
+        .addOption(new Option(null, "aws-api-call-timeout", true, "AWS SDK api call timeout (ms)"));
+  }
+
   /**
    * Create Options.
    * 
@@ -61,10 +87,15 @@ public class HttpServer {
     Option port = new Option(null, "port", true, "http server port");
     options.addOption(port);
 
-    Option dynamodb = new Option(null, "dynamodb-url", true, "dynamodb url");
+    Option dynamodb = new Option(null, "dynamodb-url", true,
+        "dynamodb url, or \"memory\" for an in memory DynamoDb");
     dynamodb.setRequired(true);
     options.addOption(dynamodb);
 
+    Option dynamodbMetrics = new Option(null, "dynamodb-metrics", true,
+        "dynamodb metrics, 'emf', 'memory' or 'stats', disabled by default");
+    options.addOption(dynamodbMetrics);
+
     Option s3 = new Option(null, "s3-url", true, "s3 url");
     s3.setRequired(true);
     options.addOption(s3);
@@ -98,6 +129,8 @@ public class HttpServer {
     typesenseApiKey.setRequired(true);
     options.addOption(typesenseApiKey);
 
+    addAwsHttpClientOptions(options);
+
     return options;
   }
 
@@ -25,7 +25,6 @@ package com.formkiq.server;
 
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import com.formkiq.module.lambdaservices.AwsServiceCache;
@@ -60,11 +59,9 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<FullHttpReque
     String adminUser = awsServices.environment("ADMIN_USERNAME");
     String adminPassword = awsServices.environment("ADMIN_PASSWORD");
 
-    Collection<String> urls = requestHandler.getUrlMap().keySet();
-
     this.handlers = Arrays.asList(new OptionsHttpRequestHandler(),
         new MinioS3HttpRequestHandler(stagingS3Create, documentS3Update),
-        new ApiGatewayHttpRequestHandler(requestHandler, apiKey, urls),
+        new ApiGatewayHttpRequestHandler(requestHandler, apiKey, requestHandler.getRouteMatcher()),
         new AuthenticationLoginHttpRequestHandler(adminUser, adminPassword, apiKey));
   }
 
@@ -35,6 +35,8 @@ import java.util.UUID;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import org.apache.commons.cli.CommandLine;
 import com.formkiq.aws.dynamodb.DynamoDbAwsServiceRegistry;
 import com.formkiq.aws.dynamodb.DynamoDbConnectionBuilder;
@@ -49,9 +51,15 @@ import com.formkiq.aws.ssm.SmsAwsServiceRegistry;
 import com.formkiq.aws.ssm.SsmService;
 import com.formkiq.aws.ssm.SsmServiceNoOpExtension;
 import com.formkiq.module.lambda.typesense.TypesenseProcessor;
+import com.formkiq.module.lambdaservices.AwsHttpClientConfig;
 import com.formkiq.module.lambdaservices.AwsServiceCache;
 import com.formkiq.module.lambdaservices.AwsServiceCacheBuilder;
+import com.formkiq.stacks.dynamodb.DocumentCache;
+import com.formkiq.stacks.dynamodb.DocumentCacheExtension;
+import com.formkiq.stacks.dynamodb.DocumentCountService;
 import com.formkiq.stacks.dynamodb.DocumentVersionServiceNoVersioning;
+import com.formkiq.stacks.dynamodb.FolderJobService;
+import com.formkiq.stacks.dynamodb.TagIndexJobService;
 import com.formkiq.stacks.lambda.s3.DocumentsS3Update;
 import com.formkiq.stacks.lambda.s3.StagingS3Create;
 import io.minio.BucketExistsArgs;
@@ -100,8 +108,12 @@ public class HttpServerInitializer extends ChannelInitializer<SocketChannel> {
   private static final String DOCUMENTS_BUCKET = "documents";
   /** Documents Table. */
   private static final String DOCUMENTS_TABLE = "Documents";
+  /** Document Count Compaction Time Delay. */
+  private static final int COMPACTION_TIME_DELAY_IN_SECONDS = 60;
   /** Initial Time Delay. */
   private static final int INITIAL_TIME_DELAY_IN_SECONDS = 0;
+  /** {@link Logger}. */
+  private static final Logger LOGGER = Logger.getLogger(HttpServerInitializer.class.getName());
   /** Max Content Length. */
   private static final int MAX_CONTENT_LENGTH = 5242880;
   /** Scheduled Time Delay. */
@@ -136,7 +148,52 @@ public class HttpServerInitializer extends ChannelInitializer<SocketChannel> {
 
     setupHandler(commandLine, credentialsProvider, awsServiceEndpoints);
     setupS3Lambda(commandLine, credentialsProvider);
-    setupStreamToHttpEndpoint(credentialsProvider, awsServiceEndpoints);
+    setupDocumentCountCompaction();
+    setupFolderJobs();
+
+    if (!isDynamoDbInMemory(commandLine)) {
+      setupStreamToHttpEndpoint(credentialsProvider, awsServiceEndpoints);
+    }
+  }
+
+  private void setupDocumentCountCompaction() {
+
+    DocumentCountService countService =
+        this.handler.getAwsServices().getExtension(DocumentCountService.class);
+
+    // Schedule folding the sharded document counters back together
+    this.executorService.scheduleWithFixedDelay(() -> {
+      try {
+        countService.compactDocumentCounts();
+      } catch (RuntimeException e) {
+        // an exception would cancel the schedule, the next run compacts the remaining shards
+        LOGGER.log(Level.WARNING, "document count compaction failed", e);
+      }
+    }, COMPACTION_TIME_DELAY_IN_SECONDS, COMPACTION_TIME_DELAY_IN_SECONDS, TimeUnit.SECONDS);
+  }
+
+  private void setupFolderJobs() {
+
+    FolderJobService jobService =
+        this.handler.getAwsServices().getExtension(FolderJobService.class);
+    TagIndexJobService tagIndexService =
+        this.handler.getAwsServices().getExtension(TagIndexJobService.class);
+
+    // Schedule running recursive folder move / delete and tag index jobs in the background
+    this.executorService.scheduleWithFixedDelay(() -> {
+      try {
+        jobService.runActiveJobs(FolderJobService.DEFAULT_PAGES);
+      } catch (RuntimeException e) {
+        // the failure is saved on the job, keep the schedule running
+        LOGGER.log(Level.WARNING, "folder jobs failed", e);
+      }
+
+      try {
+        tagIndexService.runActiveJobs(TagIndexJobService.DEFAULT_PAGES);
+      } catch (RuntimeException e) {
+        LOGGER.log(Level.WARNING, "tag index jobs failed", e);
+      }
+    }, SCHEDULED_TIME_DELAY_IN_SECONDS, SCHEDULED_TIME_DELAY_IN_SECONDS, TimeUnit.SECONDS);
   }
 
   private void setupStreamToHttpEndpoint(final AwsCredentialsProvider credentialsProvider,
@@ -145,19 +202,42 @@ public class HttpServerInitializer extends ChannelInitializer<SocketChannel> {
     AwsServiceCache aws = this.handler.getAwsServices();
     DynamoDbConnectionBuilder db = aws.getExtension(DynamoDbConnectionBuilder.class);
 
-    try (DynamoDbClient dbClient = db.build()) {
-      DescribeTableResponse response =
-          dbClient.describeTable(DescribeTableRequest.builder().tableName(DOCUMENTS_TABLE).build());
-      String streamArn = response.table().latestStreamArn();
+    // shared client, closing it would shut down the connection pool of every other caller
+    DynamoDbClient dbClient = db.build();
+    DescribeTableResponse response =
+        dbClient.describeTable(DescribeTableRequest.builder().tableName(DOCUMENTS_TABLE).build());
+    String streamArn = response.table().latestStreamArn();
+
+    TypesenseProcessor processor = new TypesenseProcessor(this.handler.getAwsServices());
 
-      TypesenseProcessor processor = new TypesenseProcessor(this.handler.getAwsServices());
+    if (!aws.containsExtension(DocumentCache.class)) {
+      aws.register(DocumentCache.class, new DocumentCacheExtension());
+    }
 
-      this.streams = new DynamoDbStreamToTypesense(AWS_REGION, credentialsProvider, streamArn,
-          awsServiceEndpoints.get("dynamodb"), processor);
+    this.streams = new DynamoDbStreamToTypesense(AWS_REGION, credentialsProvider, streamArn,
+        awsServiceEndpoints.get("dynamodb"), processor,
+        aws.getExtensionOrNull(DocumentCache.class));
+
+    // Schedule a task to read the stream every 5 seconds
+    this.executorService.scheduleWithFixedDelay(() -> this.streams.run(),
+        INITIAL_TIME_DELAY_IN_SECONDS, SCHEDULED_TIME_DELAY_IN_SECONDS, TimeUnit.SECONDS);
+  }
 
-      // Schedule a task to read the stream every 5 seconds
-      this.executorService.scheduleWithFixedDelay(() -> this.streams.run(),
-          INITIAL_TIME_DELAY_IN_SECONDS, SCHEDULED_TIME_DELAY_IN_SECONDS, TimeUnit.SECONDS);
+  /**
+   * Add the document and folder cache environment variables.
+   * 
+   * @param env {@link Map}
+   * @param commandLine {@link CommandLine}
+   */
+  private void addCacheEnvironment(final Map<String, String> env, final CommandLine commandLine) {
+
+    // single process, every folder change goes through and invalidates the folder cache
+    env.put("FOLDER_CACHE_TTL", "300");
+
+    // document cache is only invalidated by the DynamoDb stream poller
+    if (!isDynamoDbInMemory(commandLine)) {
+      env.put("DOCUMENT_CACHE_TTL", "60");
+      env.put("DOCUMENT_CACHE_SIZE", "1000");
     }
   }
 
@@ -263,6 +343,9 @@ public class HttpServerInitializer extends ChannelInitializer<SocketChannel> {
     env.put("DEBUG", "false");
     env.put("DOCUMENTS_IAM_URL", "http://localhost:8080");
     env.put("PATH_STYLE_ACCESS_ENABLED", "true");
+    env.put("DYNAMODB_IN_MEMORY", String.valueOf(isDynamoDbInMemory(commandLine)));
+    env.put("FOLDER_JOBS_BACKGROUND", "true");
+    addCacheEnvironment(env, commandLine);
 
     env.put("MODULE_typesense", "true");
     env.put("TYPESENSE_HOST", commandLine.getOptionValue("typesense-host"));
@@ -286,9 +369,34 @@ public class HttpServerInitializer extends ChannelInitializer<SocketChannel> {
       env.put("ADMIN_PASSWORD", adminPassword);
     }
 
+    String dynamodbMetrics = commandLine.getOptionValue("dynamodb-metrics");
+    if (!Strings.isEmpty(dynamodbMetrics)) {
+      env.put("DYNAMODB_METRICS", dynamodbMetrics);
+    }
+
+    env.put(AwsHttpClientConfig.HTTP_CLIENT, "apache");
+    env.put(AwsHttpClientConfig.HTTP_ASYNC_CLIENT, "netty");
+
+    for (String key : AwsHttpClientConfig.KEYS) {
+      String value = commandLine.getOptionValue(key.toLowerCase().replaceAll("_", "-"));
+      if (!Strings.isEmpty(value)) {
+        env.put(key, value);
+      }
+    }
+
     return env;
   }
 
+  /**
+   * Whether DynamoDb runs in memory ("--dynamodb-url memory"), no DynamoDb Streams are available.
+   * 
+   * @param commandLine {@link CommandLine}
+   * @return boolean
+   */
+  private boolean isDynamoDbInMemory(final CommandLine commandLine) {
+    return "memory".equals(commandLine.getOptionValue("dynamodb-url"));
+  }
+
   @Override
   public void initChannel(final SocketChannel ch) {
     ch.pipeline().addLast(new HttpServerCodec());
@@ -334,13 +442,10 @@ public class HttpServerInitializer extends ChannelInitializer<SocketChannel> {
 
       DynamoDbConnectionBuilder db = aws.getExtension(DynamoDbConnectionBuilder.class);
 
-      try (DynamoDbClient dbClient = db.build()) {
-
-        DocumentSchema schema = new DocumentSchema(dbClient);
-        schema.createDocumentsTable(DOCUMENTS_TABLE);
-        schema.createCacheTable(CACHE_TABLE);
-        schema.createDocumentSyncsTable(DOCUMENT_SYNCS_TABLE);
-      }
+      DocumentSchema schema = new DocumentSchema(db.build());
+      schema.createDocumentsTable(DOCUMENTS_TABLE);
+      schema.createCacheTable(CACHE_TABLE);
+      schema.createDocumentSyncsTable(DOCUMENT_SYNCS_TABLE);
 
       String minioAccessKey = commandLine.getOptionValue("minio-access-key");
       String minioSecretKey = commandLine.getOptionValue("minio-secret-key");